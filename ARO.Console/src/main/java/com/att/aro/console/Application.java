@@ -20,17 +20,17 @@ import static com.att.aro.core.settings.SettingsUtil.getSelectedBPsList;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeListener;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.regex.Pattern;
 
@@ -41,14 +41,18 @@ import org.apache.log4j.Logger;
 import org.springframework.context.ApplicationContext;
 
 import com.android.ddmlib.IDevice;
+import com.att.aro.console.batch.BatchAnalyzer;
+import com.att.aro.console.batch.BatchResult;
 import com.att.aro.console.printstreamutils.ImHereThread;
 import com.att.aro.console.printstreamutils.NullOut;
 import com.att.aro.console.printstreamutils.OutSave;
 import com.att.aro.console.util.MacHotspotUtil;
 import com.att.aro.console.util.ThrottleUtil;
+import com.att.aro.console.util.TraceFolderUtil;
 import com.att.aro.console.util.UtilOut;
 import com.att.aro.core.IAROService;
 import com.att.aro.core.SpringContextUtil;
+import com.att.aro.core.bestpractice.pojo.BestPracticeType;
 import com.att.aro.core.configuration.pojo.Profile;
 import com.att.aro.core.datacollector.DataCollectorType;
 import com.att.aro.core.datacollector.IDataCollector;
@@ -67,9 +71,10 @@ import com.att.aro.core.packetanalysis.pojo.TraceDataConst;
 import com.att.aro.core.peripheral.pojo.AttenuatorModel;
 import com.att.aro.core.pojo.AROTraceData;
 import com.att.aro.core.pojo.ErrorCode;
+import com.att.aro.core.report.pojo.ReportOptions;
+import com.att.aro.core.report.pojo.ReportSection;
 import com.att.aro.core.tracemetadata.pojo.MetaDataModel;
 import com.att.aro.core.util.NetworkUtil;
-import com.att.aro.core.util.StringParse;
 import com.att.aro.core.util.Util;
 import com.att.aro.core.util.VideoUtils;
 import com.att.aro.core.video.pojo.Orientation;
@@ -125,7 +130,7 @@ public final class Application implements IAROView {
         }
         // command sanity check, if fails then reverts to help
         if (cmds.isHelp() || !((cmds.isListcollector() || cmds.isListDevices())
-                || !(cmds.getAnalyze() == null && cmds.getStartcollector() == null && cmds.getAsk() == null))) {
+                || !(cmds.getAnalyze() == null && cmds.getBatch() == null && cmds.getStartcollector() == null && cmds.getAsk() == null))) {
             usageHelp();
             System.exit(1);
         }
@@ -161,6 +166,8 @@ public final class Application implements IAROView {
         // start the collector
         if (cmds.getStartcollector() != null) {
             runDataCollector(context, cmds);
+        } else if (cmds.getBatch() != null) {
+            runBatch(cmds);
         } else if (cmds.getAnalyze() != null) {
             runAnalyzer(context, cmds);
         }
@@ -441,23 +448,7 @@ public final class Application implements IAROView {
 				outln("\n\nInvalid trace folder: There are " + trafficFile.length + " traffic files in the folder.");
 				exitCLI(outSave, imHereThread);
 			}
-			IFileManager fileManager = context.getBean(IFileManager.class);
-			if (!fileManager.fileExist(trace, "time")) {
-				String[] commands = Util.getParentAndCommand(Util.getCapinfos());
-				String cmd = String.format("%s \"%s\"", commands[1], new File(trace, trafficFile[0]).toString());
-				String capinfosData = Util.getExternalProcessRunner().executeCmd((commands[0] != null) ? new File(commands[0]) : null, cmd, true, true);
-				
-				double start = Util.parseForUTC(StringParse.findLabeledDataFromString("First packet time:", Util.LINE_SEPARATOR, capinfosData) + "Z") / 1000;
-				double end = Util.parseForUTC(StringParse.findLabeledDataFromString("Last packet time:", Util.LINE_SEPARATOR, capinfosData)) / 1000;
-				String timeText = String.format("Synchronized timestamps\n%.3f\n%.0f\n%.3f", start, 0.0, end);
-				InputStream stream = new ByteArrayInputStream(timeText.getBytes());
-				try {
-					fileManager.saveFile(stream, trace + "/time");
-					fileManager.createEmptyFile(new File(trace), ".readme");
-				} catch (IOException e1) {
-					LOGGER.error("failed to save 'time' file", e1);
-				}
-			}
+			TraceFolderUtil.createTimeFile(context.getBean(IFileManager.class), trace, trafficFile[0]);
 		}
         
         try {
@@ -479,14 +470,15 @@ public final class Application implements IAROView {
 
             if (results != null && results.isSuccess()) {
                 outSave = prepareSystemOut();
+                ReportOptions reportOptions = getReportOptions(cmds);
                 if (cmds.getFormat().equals("json")) {
-                    if (serv.getJSonReport(cmds.getOutput(), results)) {
+                    if (serv.getJSonReport(cmds.getOutput(), results, reportOptions)) {
                         outln("Successfully produced JSON report: " + cmds.getOutput());
                     } else {
                         errln("Failed to produce JSON report.");
                     }
                 } else {
-                    if (serv.getHtmlReport(cmds.getOutput(), results)) {
+                    if (serv.getHtmlReport(cmds.getOutput(), results, reportOptions)) {
                         println("Successfully produced HTML report: " + cmds.getOutput());
                     } else {
                         errln("Failed to produce HTML report.");
@@ -505,6 +497,65 @@ public final class Application implements IAROView {
         System.exit(0);
     }
 
+	/**
+	 * Report sections from --sections, all by default, and packet arrays from
+	 * --packetarrays
+	 */
+	private ReportOptions getReportOptions(Commands cmds) {
+		ReportOptions options = new ReportOptions();
+		if (cmds.getSections() != null) {
+			Set<ReportSection> sections = EnumSet.noneOf(ReportSection.class);
+			for (String section : cmds.getSections().split(",")) {
+				sections.add(ReportSection.fromName(section));
+			}
+			options.setSections(sections);
+		}
+		options.setPacketArrays(!"no".equals(cmds.getPacketarrays()));
+		return options;
+	}
+
+    /**
+     * Analyze the traces of a batch in this JVM and write a summary of the best
+     * practice results and timings of each trace<br>
+     * 
+     * <pre>
+     * Batch arguments:
+     *   --batch directory of trace folders or manifest listing the traces
+     *   --output summary file, error if missing
+     *   --format csv or json, if missing defaults to json
+     *   --threads traces analyzed at the same time, defaults to the number of processors
+     *   --tracememory memory budget of a trace in MB, no budget if missing
+     *   --tracetimeout timeout of a trace in seconds, no timeout if missing
+     * </pre>
+     * 
+     * @param cmds
+     *            - user commands
+     */
+    void runBatch(Commands cmds) {
+        OutSave outSave = prepareSystemOut();
+        try {
+            List<String> traces = BatchAnalyzer.findTraces(new File(cmds.getBatch()));
+            println("Analyzing " + traces.size() + " traces on " + cmds.getThreads() + " threads");
+            BatchAnalyzer analyzer = new BatchAnalyzer(cmds.getThreads(), cmds.getTracememory(), cmds.getTracetimeout(), utilOut);
+            List<BestPracticeType> bestPractices = getSelectedBPsList();
+            List<BatchResult> results = analyzer.analyze(traces, bestPractices);
+            File output = new File(cmds.getOutput());
+            if (cmds.getFormat().equals("csv")) {
+                BatchAnalyzer.writeCsv(results, bestPractices, output);
+            } else {
+                BatchAnalyzer.writeJson(results, output);
+            }
+            println("Successfully produced batch summary: " + cmds.getOutput());
+        } catch (IOException e) {
+            errln("Error occured in batch analysis, detail: " + e.getMessage());
+            restoreSystemOut(outSave);
+            System.exit(1);
+        } finally {
+            restoreSystemOut(outSave);
+        }
+        System.exit(0);
+    }
+
 	private void exitCLI(OutSave outSave, ImHereThread imHereThread) {
 		imHereThread.endIndicator();
 		while (imHereThread.isRunning()) {
@@ -828,7 +879,13 @@ public final class Application implements IAROView {
                 .append("\n  --overwrite [yes/no] : overwrite a trace folder - optional - will default to no if not specified")
                 .append("\n  --deviceid [device id]: device id of Android(optional) and  udid/Device identifier for IOS(required).")
                 .append("\n    If not declared first device found is used.")
-                .append("\n  --format [json|html]: optional type of report to generate. Default: json.")
+                .append("\n  --batch [directory or manifest]: analyze every trace folder under a directory or listed in a manifest, one per line.")
+                .append("\n  --format [json|html]: optional type of report to generate. Default: json. In batch mode [json|csv] for the summary.")
+                .append("\n  --threads [number]: optional number of traces analyzed at the same time in batch mode. Default: number of processors.")
+                .append("\n  --tracememory [MB]: optional memory budget of a trace in batch mode, larger traces are skipped.")
+                .append("\n  --tracetimeout [seconds]: optional timeout of a trace in batch mode.")
+                .append("\n  --sections [trace,statistics,best_practices,metadata]: optional report sections to write. Default: all.")
+                .append("\n  --packetarrays [yes|no]: optional, no leaves the lists of the results out of the json report. Default: yes.")
                 .append((!Util.isMacOS()) ? "\n  --video [hd|sd|slow|no]: optional command to record video when running collector. Default: no."
                         : "\n  --video [yes|no]: optional command to record video when running collector. Default: no.")
                 .append("\n  --videoOrientation [portrait|landscape]: optional command to set the video orientation for non-rooted (vpn_android) collector. Default: portrait.")
@@ -875,7 +932,10 @@ public final class Application implements IAROView {
                 .append("\n  --analyze /User/documents/test --output /User/documents/report.html --format html")
 
                 .append("\nAnalyze trace and produce JSON report:")
-                .append("\n  --analyze /User/documents/test/traffic.cap --output /User/documents/report.json");
+                .append("\n  --analyze /User/documents/test/traffic.cap --output /User/documents/report.json")
+
+                .append("\nAnalyze every trace folder under a directory, 4 at a time, and produce a CSV summary:")
+                .append("\n  --batch /User/documents/traces --output /User/documents/summary.csv --format csv --threads 4 --tracetimeout 600");
         println(sbuilder.toString());
     }
 
@@ -32,6 +32,18 @@ public class Commands {
     @Parameter(names = "--analyze", description = "analyze trace file or folder")
     private String analyze = null;
 
+    @Parameter(names = "--batch", description = "analyze the trace folders under a directory or listed in a manifest file")
+    private String batch = null;
+
+    @Parameter(names = "--threads", description = "number of traces analyzed at the same time in batch mode")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(names = "--tracememory", description = "memory budget of a trace in batch mode, in MB")
+    private long tracememory = 0;
+
+    @Parameter(names = "--tracetimeout", description = "timeout of a trace in batch mode, in seconds")
+    private long tracetimeout = 0;
+
     @Parameter(names = "--output", description = "provide output location of report")
     private String output = null;
 
@@ -41,6 +53,12 @@ public class Commands {
     @Parameter(names = "--format", description = "format of report: json or html")
     private String format = "json";
 
+    @Parameter(names = "--sections", description = "comma separated report sections: trace, statistics, best_practices, metadata")
+    private String sections = null;
+
+    @Parameter(names = "--packetarrays", description = "yes or no - write the lists of the results in the json report")
+    private String packetarrays = "yes";
+
     @Parameter(names = "--deviceid", description = "device id or serial number for device to run collector on")
     private String deviceid = null;
 
@@ -119,6 +137,38 @@ public class Commands {
         this.analyze = analyze;
     }
 
+    public String getBatch() {
+        return batch;
+    }
+
+    public void setBatch(String batch) {
+        this.batch = batch;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public long getTracememory() {
+        return tracememory;
+    }
+
+    public void setTracememory(long tracememory) {
+        this.tracememory = tracememory;
+    }
+
+    public long getTracetimeout() {
+        return tracetimeout;
+    }
+
+    public void setTracetimeout(long tracetimeout) {
+        this.tracetimeout = tracetimeout;
+    }
+
     public String getOverwrite() {
         return this.overwrite;
     }
@@ -143,6 +193,22 @@ public class Commands {
         this.format = format;
     }
 
+    public String getSections() {
+        return sections;
+    }
+
+    public void setSections(String sections) {
+        this.sections = sections;
+    }
+
+    public String getPacketarrays() {
+        return packetarrays;
+    }
+
+    public void setPacketarrays(String packetarrays) {
+        this.packetarrays = packetarrays;
+    }
+
     public String getDeviceid() {
         return deviceid;
     }
@@ -206,12 +272,24 @@ public class Commands {
         if (analyze != null) {
             sb.append(", analyze:" + getAnalyze());
         }
+        if (batch != null) {
+            sb.append(", batch:" + getBatch());
+            sb.append(", threads:" + getThreads());
+            sb.append(", tracememory:" + getTracememory());
+            sb.append(", tracetimeout:" + getTracetimeout());
+        }
         if (deviceid != null) {
             sb.append(", deviceid:" + getDeviceid());
         }
         if (format != null) {
             sb.append(", format:" + getFormat());
         }
+        if (sections != null) {
+            sb.append(", sections:" + getSections());
+        }
+        if (packetarrays != null) {
+            sb.append(", packetarrays:" + getPacketarrays());
+        }
         if (overwrite != null) {
             sb.append(", overwrite:" + getOverwrite());
         }
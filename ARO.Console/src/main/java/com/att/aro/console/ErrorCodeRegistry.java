@@ -129,6 +129,24 @@ public final class ErrorCodeRegistry {
 		return err;
 	}
 	
+	public static ErrorCode getUnsupportedReportSection() {
+		ErrorCode err = new ErrorCode();
+		err.setCode(315);
+		err.setName("Unsupported report section");
+		err.setDescription("Valid report sections are trace, statistics, best_practices and metadata. Invalid value was entered.");
+		sendGAErrorCode(err);
+		return err;
+	}
+
+	public static ErrorCode getBatchNotFound() {
+		ErrorCode err = new ErrorCode();
+		err.setCode(316);
+		err.setName("Batch not found");
+		err.setDescription("The batch directory or manifest file does not exist.");
+		sendGAErrorCode(err);
+		return err;
+	}
+
 	private static void sendGAErrorCode(ErrorCode err){
 		GoogleAnalyticsUtil.getGoogleAnalyticsInstance().sendErrorEvents(err.getName(),err.getDescription(), false);
 	}
@@ -15,11 +15,14 @@
 */
 package com.att.aro.console;
 
+import java.io.File;
+
 import org.springframework.context.ApplicationContext;
 
 import com.att.aro.console.util.ThrottleUtil;
 import com.att.aro.core.fileio.IFileManager;
 import com.att.aro.core.pojo.ErrorCode;
+import com.att.aro.core.report.pojo.ReportSection;
 
 /**
  * validate commands against arguments
@@ -27,11 +30,37 @@ import com.att.aro.core.pojo.ErrorCode;
  */
 public class Validator {
 	public ErrorCode validate(Commands cmd, ApplicationContext context) {
-		if (cmd.getAnalyze() != null) {
+		if (cmd.getBatch() != null) {
+			if (!"json".equals(cmd.getFormat()) && !"csv".equals(cmd.getFormat())) {
+				return ErrorCodeRegistry.getUnsupportedFormat();
+			}
+			if (!new File(cmd.getBatch()).exists()) {
+				return ErrorCodeRegistry.getBatchNotFound();
+			}
+			if (cmd.getOutput() == null) {
+				return ErrorCodeRegistry.getOutputRequired();
+			}
+			IFileManager filemg = context.getBean(IFileManager.class);
+			if (filemg.fileExist(cmd.getOutput())) {
+				if ("yes".equals(cmd.getOverwrite())) {
+					filemg.deleteFile(cmd.getOutput());
+				} else {
+					return ErrorCodeRegistry.getFileExist();
+				}
+			}
+		} else if (cmd.getAnalyze() != null) {
 			if (cmd.getFormat().equals("json") && cmd.getFormat().equals("html")) {
 				return ErrorCodeRegistry.getUnsupportedFormat();
 			}
 
+			if (cmd.getSections() != null) {
+				for (String section : cmd.getSections().split(",")) {
+					if (ReportSection.fromName(section) == null) {
+						return ErrorCodeRegistry.getUnsupportedReportSection();
+					}
+				}
+			}
+
 			if (cmd.getOutput() == null) {
 				return ErrorCodeRegistry.getOutputRequired();
 			}
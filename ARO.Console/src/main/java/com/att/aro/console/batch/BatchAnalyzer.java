@@ -0,0 +1,484 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.console.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.att.aro.console.util.TraceFolderUtil;
+import com.att.aro.console.util.UtilOut;
+import com.att.aro.core.AROConfig;
+import com.att.aro.core.IAROService;
+import com.att.aro.core.bestpractice.pojo.AbstractBestPracticeResult;
+import com.att.aro.core.bestpractice.pojo.BPResultType;
+import com.att.aro.core.bestpractice.pojo.BestPracticeTiming;
+import com.att.aro.core.bestpractice.pojo.BestPracticeType;
+import com.att.aro.core.exception.ARORuntimeException;
+import com.att.aro.core.fileio.IFileManager;
+import com.att.aro.core.pojo.AROTraceData;
+import com.att.aro.core.util.ParallelTasks;
+import com.att.aro.core.util.VideoUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Analyzes many traces in one JVM.
+ * <p>
+ * Traces are analyzed concurrently by a pool of workers. Each worker has its
+ * own Spring context, so the stateful beans of an analysis, such as the trace
+ * reader and the packet analyzer, are never shared by two traces at the same
+ * time. The analysis keeps no per-trace state in static fields or in the
+ * application wide context of SpringContextUtil, which only provides
+ * stateless helpers. A trace that times out or runs out of memory leaves its
+ * context behind and the worker continues with a new one; the context is
+ * closed once the analysis thread exits.
+ * </p>
+ * <p>
+ * The memory of a trace is estimated from the size of its traffic files. A
+ * trace over the trace memory budget is not analyzed, and traces start only
+ * while their estimates fit in the heap together. The estimate of an abandoned
+ * analysis stays reserved until its thread exits, as its memory is still in
+ * use until then.
+ * </p>
+ */
+public class BatchAnalyzer {
+
+	private static final Logger LOGGER = Logger.getLogger(BatchAnalyzer.class);
+
+	private static final long MB = 1024 * 1024;
+
+	/**
+	 * heap used by the analysis per byte of traffic file. HTTP traces of 10 to
+	 * 40 MB needed 2.3 to 2.6 bytes of heap per traffic byte over an empty trace
+	 * (see BatchAnalyzerMemoryBenchmark). About three times that leaves room for
+	 * decoded video and images and for the collector to run at a usable speed.
+	 */
+	static final int MEMORY_PER_TRAFFIC_BYTE = 8;
+
+	private final int threads;
+	private final long traceMemory;
+	private final long traceTimeout;
+	private final UtilOut utilOut;
+
+	private final MemoryBudget memoryBudget;
+	private final Supplier<ConfigurableApplicationContext> contexts;
+	private final TraceAnalysis traceAnalysis;
+
+	/**
+	 * Analysis of one trace with the beans of a worker context
+	 */
+	interface TraceAnalysis {
+		AROTraceData analyze(ApplicationContext context, String trace, List<BestPracticeType> bestPractices) throws IOException;
+	}
+
+	/**
+	 * Analysis of one trace on its own thread. The memory reservation and, once
+	 * abandoned, the context are let go by the analysis thread when it exits,
+	 * or by the worker if the analysis never started or has already ended.
+	 */
+	private static final class Analysis implements Callable<AROTraceData> {
+		private static final int NEW = 0;
+		private static final int RUNNING = 1;
+		private static final int ENDED = 2;
+		private static final int ABANDONED = 3;
+
+		private final AtomicInteger state = new AtomicInteger(NEW);
+		private final TraceAnalysis traceAnalysis;
+		private final ConfigurableApplicationContext context;
+		private final String trace;
+		private final List<BestPracticeType> bestPractices;
+		private final MemoryBudget.Reservation reservation;
+
+		private Analysis(TraceAnalysis traceAnalysis, ConfigurableApplicationContext context, String trace,
+				List<BestPracticeType> bestPractices, MemoryBudget.Reservation reservation) {
+			this.traceAnalysis = traceAnalysis;
+			this.context = context;
+			this.trace = trace;
+			this.bestPractices = bestPractices;
+			this.reservation = reservation;
+		}
+
+		@Override
+		public AROTraceData call() throws IOException {
+			if (!state.compareAndSet(NEW, RUNNING)) {
+				return null;
+			}
+			try {
+				return traceAnalysis.analyze(context, trace, bestPractices);
+			} finally {
+				if (!state.compareAndSet(RUNNING, ENDED)) {
+					closeContext();
+				}
+				reservation.release();
+			}
+		}
+
+		/**
+		 * Gives up the analysis and its context, the worker no longer uses them
+		 *
+		 * @return false if the analysis never started
+		 */
+		private boolean abandon(Future<AROTraceData> future) {
+			future.cancel(true);
+			int previous = state.getAndSet(ABANDONED);
+			if (previous == NEW) {
+				closeContext();
+				reservation.release();
+			} else if (previous == ENDED) {
+				closeContext();
+			}
+			return previous != NEW;
+		}
+
+		private void closeContext() {
+			try {
+				context.close();
+			} catch (RuntimeException e) {
+				LOGGER.error("Failed to close the context of " + trace, e);
+			}
+		}
+	}
+
+	/**
+	 * Spring context of a worker, replaced when an analysis is abandoned
+	 */
+	private static final class Worker {
+		private final Supplier<ConfigurableApplicationContext> contexts;
+		private ConfigurableApplicationContext context;
+
+		private Worker(Supplier<ConfigurableApplicationContext> contexts) {
+			this.contexts = contexts;
+		}
+
+		private ConfigurableApplicationContext getContext() {
+			if (context == null) {
+				context = contexts.get();
+			}
+			return context;
+		}
+
+		/**
+		 * Leaves the context to the abandoned analysis, which closes it
+		 */
+		private void abandonContext() {
+			context = null;
+		}
+
+		private void close() {
+			if (context != null) {
+				context.close();
+				context = null;
+			}
+		}
+	}
+
+	/**
+	 * @param threads
+	 *            number of traces analyzed at the same time
+	 * @param traceMemory
+	 *            memory budget of a trace in MB, 0 for none
+	 * @param traceTimeout
+	 *            timeout of a trace in seconds, 0 for none
+	 * @param utilOut
+	 *            progress output
+	 */
+	public BatchAnalyzer(int threads, long traceMemory, long traceTimeout, UtilOut utilOut) {
+		this(threads, traceMemory, traceTimeout, utilOut, Runtime.getRuntime().maxMemory() / MB * 3 / 4,
+				() -> new AnnotationConfigApplicationContext(AROConfig.class), BatchAnalyzer::analyzeTrace);
+	}
+
+	/**
+	 * @param heapMemory
+	 *            memory shared by the traces analyzed at the same time, in MB
+	 * @param contexts
+	 *            creates the Spring context of a worker
+	 * @param traceAnalysis
+	 *            analyzes a trace
+	 */
+	BatchAnalyzer(int threads, long traceMemory, long traceTimeout, UtilOut utilOut, long heapMemory,
+			Supplier<ConfigurableApplicationContext> contexts, TraceAnalysis traceAnalysis) {
+		this.threads = Math.max(1, threads);
+		this.traceMemory = traceMemory;
+		this.traceTimeout = traceTimeout;
+		this.utilOut = utilOut;
+		this.memoryBudget = new MemoryBudget(heapMemory);
+		this.contexts = contexts;
+		this.traceAnalysis = traceAnalysis;
+	}
+
+	/**
+	 * Finds the traces of a batch. A directory is searched for trace folders,
+	 * any folder holding a traffic file. Any other file is a manifest listing a
+	 * trace folder or traffic file per line, relative to the manifest, with
+	 * blank lines and lines starting with # ignored.
+	 *
+	 * @param batch
+	 *            directory tree or manifest
+	 * @return paths of the traces
+	 * @throws IOException
+	 */
+	public static List<String> findTraces(File batch) throws IOException {
+		if (batch.isDirectory()) {
+			try (Stream<Path> paths = Files.walk(batch.toPath())) {
+				return paths.filter(path -> Files.isDirectory(path) && VideoUtils.validateFolder(path.toFile()).containsKey(VideoUtils.TRAFFIC))
+						.map(Path::toString).sorted().collect(Collectors.toList());
+			}
+		}
+		List<String> traces = new ArrayList<>();
+		File base = batch.getAbsoluteFile().getParentFile();
+		for (String line : Files.readAllLines(batch.toPath(), StandardCharsets.UTF_8)) {
+			line = line.trim();
+			if (!line.isEmpty() && !line.startsWith("#")) {
+				File trace = new File(line);
+				traces.add((trace.isAbsolute() ? trace : new File(base, line)).getPath());
+			}
+		}
+		return traces;
+	}
+
+	/**
+	 * Analyzes the traces on the worker pool
+	 *
+	 * @param traces
+	 *            trace folders or traffic files
+	 * @param bestPractices
+	 *            best practices to run on each trace
+	 * @return the summary of each trace, in the order of the traces
+	 */
+	public List<BatchResult> analyze(List<String> traces, List<BestPracticeType> bestPractices) {
+		BatchResult[] results = new BatchResult[traces.size()];
+		int workerCount = Math.min(threads, traces.size());
+		if (workerCount == 0) {
+			return Collections.emptyList();
+		}
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger done = new AtomicInteger();
+		ExecutorService workers = ParallelTasks.newPool(workerCount, "BatchWorker");
+		// the analyses run on their own threads so a worker can abandon one that times out,
+		// a thread per worker is left for abandoned analyses that do not end on the interrupt
+		ExecutorService analyses = ParallelTasks.newPool(workerCount * 2, "BatchAnalysis");
+		try {
+			List<Future<?>> futures = new ArrayList<>(workerCount);
+			for (int index = 0; index < workerCount; index++) {
+				futures.add(workers.submit(() -> {
+					Worker worker = new Worker(contexts);
+					try {
+						for (int trace = next.getAndIncrement(); trace < traces.size(); trace = next.getAndIncrement()) {
+							results[trace] = analyze(worker, analyses, traces.get(trace), bestPractices);
+							utilOut.outMessageln(String.format("[%d/%d] %s %s (%.1f s)", done.incrementAndGet(), traces.size(),
+									results[trace].getStatus(), traces.get(trace), results[trace].getAnalysisTime() / 1000.0));
+						}
+					} finally {
+						worker.close();
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ARORuntimeException("Interrupted while analyzing traces", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new ARORuntimeException("Failed to analyze traces", e.getCause());
+		} finally {
+			workers.shutdownNow();
+			analyses.shutdownNow();
+		}
+		return Arrays.asList(results);
+	}
+
+	private BatchResult analyze(Worker worker, ExecutorService analyses, String trace, List<BestPracticeType> bestPractices)
+			throws InterruptedException {
+		BatchResult result = new BatchResult();
+		result.setTrace(trace);
+		long memory = estimateMemory(new File(trace));
+		result.setEstimatedMemory(memory);
+		if (traceMemory > 0 && memory > traceMemory) {
+			result.setStatus(BatchResult.Status.OVER_MEMORY_BUDGET);
+			result.setError("Estimated memory " + memory + " MB is over the budget of " + traceMemory + " MB");
+			return result;
+		}
+
+		MemoryBudget.Reservation reservation = memoryBudget.acquire(memory);
+		long start = System.currentTimeMillis();
+		Analysis analysis;
+		Future<AROTraceData> future;
+		try {
+			analysis = new Analysis(traceAnalysis, worker.getContext(), trace, bestPractices, reservation);
+			future = analyses.submit(analysis);
+		} catch (RuntimeException e) {
+			reservation.release();
+			throw e;
+		}
+		try {
+			AROTraceData data = traceTimeout > 0 ? future.get(traceTimeout, TimeUnit.SECONDS) : future.get();
+			summarize(data, result);
+		} catch (TimeoutException e) {
+			// the memory stays reserved until the analysis thread exits
+			worker.abandonContext();
+			result.setStatus(BatchResult.Status.TIMEOUT);
+			result.setError(analysis.abandon(future) ? "Analysis did not end within " + traceTimeout + " s"
+					: "Analysis did not start within " + traceTimeout + " s, the threads are held by abandoned analyses");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof OutOfMemoryError) {
+				worker.abandonContext();
+				analysis.abandon(future);
+				result.setStatus(BatchResult.Status.OUT_OF_MEMORY);
+			} else {
+				result.setStatus(BatchResult.Status.FAILED);
+			}
+			result.setError(String.valueOf(cause.getMessage()));
+			LOGGER.error("Failed to analyze " + trace, cause);
+		} catch (InterruptedException e) {
+			worker.abandonContext();
+			analysis.abandon(future);
+			throw e;
+		}
+		result.setAnalysisTime(System.currentTimeMillis() - start);
+		return result;
+	}
+
+	private static AROTraceData analyzeTrace(ApplicationContext context, String trace, List<BestPracticeType> bestPractices)
+			throws IOException {
+		IAROService serv = context.getBean(IAROService.class);
+		File traceFile = new File(trace);
+		if (!traceFile.isDirectory()) {
+			return serv.analyzeFile(bestPractices, trace);
+		}
+		Map<String, String[]> traceFileMap = VideoUtils.validateFolder(traceFile);
+		String[] trafficFile = traceFileMap.get(VideoUtils.TRAFFIC);
+		if (trafficFile == null || trafficFile.length != 1) {
+			throw new IOException("Invalid trace folder: There are " + (trafficFile == null ? 0 : trafficFile.length)
+					+ " traffic files in the folder");
+		}
+		String[] videoFile = traceFileMap.get(VideoUtils.VIDEO);
+		TraceFolderUtil.createTimeFile(context.getBean(IFileManager.class), trace, trafficFile[0]);
+		return serv.analyzeDirectory(bestPractices, trace, new TraceView(trafficFile[0], videoFile != null ? videoFile[0] : null));
+	}
+
+	/**
+	 * Estimated memory of the analysis of a trace, in MB
+	 */
+	private static long estimateMemory(File trace) {
+		long trafficSize = 0;
+		if (trace.isDirectory()) {
+			String[] trafficFile = VideoUtils.validateFolder(trace).get(VideoUtils.TRAFFIC);
+			if (trafficFile != null) {
+				for (String name : trafficFile) {
+					trafficSize += new File(trace, name).length();
+				}
+			}
+		} else {
+			trafficSize = trace.length();
+		}
+		return Math.max(1, trafficSize * MEMORY_PER_TRAFFIC_BYTE / MB);
+	}
+
+	private static void summarize(AROTraceData data, BatchResult result) {
+		if (!data.isSuccess()) {
+			result.setStatus(BatchResult.Status.FAILED);
+			result.setError(data.getError() != null ? data.getError().getDescription() : "Trace was not analyzed");
+			return;
+		}
+		result.setStatus(BatchResult.Status.SUCCESS);
+		for (AbstractBestPracticeResult bestPractice : data.getBestPracticeResults()) {
+			if (bestPractice.getResultType() != BPResultType.NONE) {
+				result.getBestPracticeResults().put(bestPractice.getBestPracticeType(), bestPractice.getResultType());
+			}
+		}
+		List<BestPracticeTiming> timings = data.getAnalyzerResult().getBestPracticeTimings();
+		if (timings != null) {
+			for (BestPracticeTiming timing : timings) {
+				result.getBestPracticeTimes().put(timing.getBestPracticeType(), timing.getDuration());
+			}
+		}
+	}
+
+	/**
+	 * Writes the summary as a JSON array of the trace results
+	 */
+	public static void writeJson(List<BatchResult> results, File output) throws IOException {
+		new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output, results);
+	}
+
+	/**
+	 * Writes the summary as CSV, a row per trace with the result and time of
+	 * each best practice
+	 */
+	public static void writeCsv(List<BatchResult> results, List<BestPracticeType> bestPractices, File output) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+			StringBuilder line = new StringBuilder("trace,status,error,estimatedMemoryMB,analysisMs");
+			for (BestPracticeType bestPractice : bestPractices) {
+				line.append(',').append(bestPractice.name()).append(',').append(bestPractice.name()).append("_ms");
+			}
+			writer.write(line.append(System.lineSeparator()).toString());
+			for (BatchResult result : results) {
+				line.setLength(0);
+				line.append(csvField(result.getTrace())).append(',').append(result.getStatus()).append(',')
+						.append(csvField(result.getError())).append(',').append(result.getEstimatedMemory()).append(',')
+						.append(result.getAnalysisTime());
+				for (BestPracticeType bestPractice : bestPractices) {
+					BPResultType resultType = result.getBestPracticeResults().get(bestPractice);
+					Long time = result.getBestPracticeTimes().get(bestPractice);
+					line.append(',').append(resultType != null ? resultType.name() : "")
+						.append(',').append(time != null ? time.toString() : "");
+				}
+				writer.write(line.append(System.lineSeparator()).toString());
+			}
+		}
+	}
+
+	private static String csvField(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		return value;
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.console.batch;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.att.aro.core.bestpractice.pojo.BPResultType;
+import com.att.aro.core.bestpractice.pojo.BestPracticeType;
+
+import lombok.Data;
+
+/**
+ * Summary of the analysis of one trace of a batch
+ */
+@Data
+public class BatchResult {
+
+	public enum Status {
+		SUCCESS,
+		/**
+		 * the analysis ended with an error
+		 */
+		FAILED,
+		/**
+		 * the analysis did not end within the trace timeout
+		 */
+		TIMEOUT,
+		/**
+		 * the estimated memory of the trace is over the trace memory budget, it
+		 * was not analyzed
+		 */
+		OVER_MEMORY_BUDGET,
+		/**
+		 * the heap ran out while the trace was analyzed
+		 */
+		OUT_OF_MEMORY
+	}
+
+	private String trace;
+	private Status status;
+	private String error;
+	/**
+	 * estimated memory of the analysis, in MB
+	 */
+	private long estimatedMemory;
+	/**
+	 * time from the start of the analysis to its result, in milliseconds
+	 */
+	private long analysisTime;
+	private Map<BestPracticeType, BPResultType> bestPracticeResults = new EnumMap<>(BestPracticeType.class);
+	/**
+	 * time spent in each best practice, in milliseconds
+	 */
+	private Map<BestPracticeType, Long> bestPracticeTimes = new EnumMap<>(BestPracticeType.class);
+}
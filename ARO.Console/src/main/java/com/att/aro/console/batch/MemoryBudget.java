@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.console.batch;
+
+/**
+ * Heap shared by the traces analyzed at the same time. A trace starts when its
+ * estimated memory fits in what the running traces leave, or when no other
+ * trace is running.
+ * <p>
+ * A reservation is returned to the budget once its analysis has ended. An
+ * analysis abandoned after its timeout keeps the reservation until its thread
+ * exits, as the memory it holds is not free before then.
+ * </p>
+ */
+final class MemoryBudget {
+
+	/**
+	 * Memory taken from the budget for one trace
+	 */
+	final class Reservation {
+		private final long memory;
+		private boolean released;
+
+		private Reservation(long memory) {
+			this.memory = memory;
+		}
+
+		/**
+		 * Returns the memory to the budget, later calls do nothing
+		 */
+		void release() {
+			synchronized (MemoryBudget.this) {
+				if (!released) {
+					released = true;
+					used -= memory;
+					MemoryBudget.this.notifyAll();
+				}
+			}
+		}
+	}
+
+	private final long total;
+	private long used;
+
+	/**
+	 * @param total
+	 *            memory of the budget, in MB
+	 */
+	MemoryBudget(long total) {
+		this.total = total;
+	}
+
+	/**
+	 * Waits until the memory fits in the budget
+	 * 
+	 * @param memory
+	 *            in MB
+	 */
+	synchronized Reservation acquire(long memory) throws InterruptedException {
+		while (used > 0 && used + memory > total) {
+			wait();
+		}
+		used += memory;
+		return new Reservation(memory);
+	}
+
+	/**
+	 * @return memory of the reservations not released, in MB
+	 */
+	synchronized long getUsed() {
+		return used;
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.console.batch;
+
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.util.Hashtable;
+import java.util.List;
+
+import com.android.ddmlib.IDevice;
+import com.att.aro.core.configuration.pojo.Profile;
+import com.att.aro.core.datacollector.IDataCollector;
+import com.att.aro.core.datacollector.pojo.CollectorStatus;
+import com.att.aro.core.datacollector.pojo.StatusResult;
+import com.att.aro.core.mobiledevice.pojo.IAroDevice;
+import com.att.aro.core.mobiledevice.pojo.IAroDevices;
+import com.att.aro.core.packetanalysis.pojo.AnalysisFilter;
+import com.att.aro.core.packetanalysis.pojo.TimeRange;
+import com.att.aro.core.tracemetadata.pojo.MetaDataModel;
+import com.att.aro.core.video.pojo.VideoOption;
+import com.att.aro.mvc.AROController;
+import com.att.aro.mvc.IAROView;
+
+/**
+ * View of a single trace folder analyzed in a batch. It only holds the
+ * traffic and video files of the folder, so every trace gets its own and no
+ * trace sees the files of another.
+ */
+class TraceView implements IAROView {
+
+	private String trafficFile;
+	private String videoFile;
+	private List<String[]> voIpAddressList;
+
+	TraceView(String trafficFile, String videoFile) {
+		this.trafficFile = trafficFile;
+		this.videoFile = videoFile;
+	}
+
+	@Override
+	public void updateTracePath(File path, TimeRange... timeRange) {
+	}
+
+	@Override
+	public void updateProfile(Profile profile) {
+	}
+
+	@Override
+	public void updateReportPath(File path) {
+	}
+
+	@Override
+	public void clearPreviousTraceData() {
+	}
+
+	@Override
+	public void setTrafficFile(String trafficFile) {
+		this.trafficFile = trafficFile;
+	}
+
+	@Override
+	public String getTrafficFile() {
+		return trafficFile;
+	}
+
+	@Override
+	public void setVideoFile(String videoFile) {
+		this.videoFile = videoFile;
+	}
+
+	@Override
+	public String getVideoFile() {
+		return videoFile;
+	}
+
+	@Override
+	public void updateFilter(AnalysisFilter filter) {
+	}
+
+	@Override
+	public String getTracePath() {
+		return null;
+	}
+
+	@Override
+	public String getReportPath() {
+		return null;
+	}
+
+	@Override
+	public void addAROPropertyChangeListener(PropertyChangeListener listener) {
+	}
+
+	@Override
+	public void addAROActionListener(ActionListener listener) {
+	}
+
+	@Override
+	public void refresh() {
+	}
+
+	@Override
+	public void startCollector(IAroDevice device, String tracePath, Hashtable<String, Object> extraParams, MetaDataModel metaDataModel) {
+	}
+
+	@Override
+	public void startCollectorIos(IDataCollector iOsCollector, String udid, String tracePath, VideoOption videoOption) {
+	}
+
+	@Override
+	public void stopCollector() {
+	}
+
+	@Override
+	public void cancelCollector() {
+	}
+
+	@Override
+	public void haltCollector() {
+	}
+
+	@Override
+	public void setVoIpAddressList(List<String[]> list) {
+		voIpAddressList = list;
+	}
+
+	@Override
+	public List<String[]> getVoIpAddressList() {
+		return voIpAddressList;
+	}
+
+	@Override
+	public MetaDataModel getMetaDataModel() {
+		return null;
+	}
+
+	@Override
+	public IDevice[] getConnectedDevices() {
+		return null;
+	}
+
+	@Override
+	public IAroDevices getAroDevices() {
+		return null;
+	}
+
+	@Override
+	public List<IDataCollector> getAvailableCollectors() {
+		return null;
+	}
+
+	@Override
+	public void updateCollectorStatus(CollectorStatus status, StatusResult result) {
+	}
+
+	@Override
+	public CollectorStatus getCollectorStatus() {
+		return null;
+	}
+
+	@Override
+	public void liveVideoDisplay(IDataCollector collector) {
+	}
+
+	@Override
+	public void hideChartItems(String... chartPlotOptionEnumNames) {
+	}
+
+	@Override
+	public void showChartItems(String... chartPlotOptionEnumNames) {
+	}
+
+	@Override
+	public void setDeviceDataPulled(boolean status) {
+	}
+
+	@Override
+	public void refreshBestPracticesTab() {
+	}
+
+	/**
+	 * No controller, a batch trace is always read from its folder
+	 */
+	@Override
+	public AROController getController() {
+		return null;
+	}
+}
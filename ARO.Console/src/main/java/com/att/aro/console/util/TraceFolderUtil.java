@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.console.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.log4j.Logger;
+
+import com.att.aro.core.fileio.IFileManager;
+import com.att.aro.core.util.StringParse;
+import com.att.aro.core.util.Util;
+
+/**
+ * Prepares a trace folder for analysis
+ */
+public final class TraceFolderUtil {
+
+	private static final Logger LOGGER = Logger.getLogger(TraceFolderUtil.class);
+
+	private TraceFolderUtil() {
+	}
+
+	/**
+	 * Writes the time file of a trace folder that has none, from the first and
+	 * last packet times capinfos reads in the traffic file
+	 *
+	 * @param fileManager
+	 * @param trace
+	 *            trace folder
+	 * @param trafficFile
+	 *            name of the traffic file in the folder
+	 */
+	public static void createTimeFile(IFileManager fileManager, String trace, String trafficFile) {
+		if (!fileManager.fileExist(trace, "time")) {
+			String[] commands = Util.getParentAndCommand(Util.getCapinfos());
+			String cmd = String.format("%s \"%s\"", commands[1], new File(trace, trafficFile).toString());
+			String capinfosData = Util.getExternalProcessRunner().executeCmd((commands[0] != null) ? new File(commands[0]) : null, cmd, true, true);
+			
+			double start = Util.parseForUTC(StringParse.findLabeledDataFromString("First packet time:", Util.LINE_SEPARATOR, capinfosData) + "Z") / 1000;
+			double end = Util.parseForUTC(StringParse.findLabeledDataFromString("Last packet time:", Util.LINE_SEPARATOR, capinfosData)) / 1000;
+			String timeText = String.format("Synchronized timestamps\n%.3f\n%.0f\n%.3f", start, 0.0, end);
+			InputStream stream = new ByteArrayInputStream(timeText.getBytes());
+			try {
+				fileManager.saveFile(stream, trace + "/time");
+				fileManager.createEmptyFile(new File(trace), ".readme");
+			} catch (IOException e1) {
+				LOGGER.error("failed to save 'time' file", e1);
+			}
+		}
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.console.batch;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.att.aro.core.AROConfig;
+import com.att.aro.core.IAROService;
+import com.att.aro.core.bestpractice.pojo.BestPracticeType;
+
+/**
+ * Heap needed to analyze HTTP traces of growing size, the measure behind
+ * BatchAnalyzer.MEMORY_PER_TRAFFIC_BYTE. Each trace is analyzed in a child JVM
+ * with all the best practices, searching the smallest -Xmx it succeeds with.
+ * Not part of the default test run; run with
+ * -Dtest=BatchAnalyzerMemoryBenchmark.
+ */
+public class BatchAnalyzerMemoryBenchmark {
+
+	private static final Logger LOGGER = Logger.getLogger(BatchAnalyzerMemoryBenchmark.class);
+
+	private static final int HEAP_STEP_MB = 8;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Analyzes a trace, exits with 0 when the analysis succeeded
+	 */
+	public static void main(String[] args) throws IOException {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(AROConfig.class);
+		boolean success = context.getBean(IAROService.class)
+				.analyzeFile(Arrays.asList(BestPracticeType.values()), args[0]).isSuccess();
+		System.exit(success ? 0 : 1);
+	}
+
+	@Test
+	public void heapPerTrafficByte() throws Exception {
+		long baseHeap = minimumHeap(writeTrace("base.cap", 2, 1000), 16, 1024);
+		for (int sessions : new int[] { 150, 300, 600 }) {
+			File trace = writeTrace("traffic" + sessions + ".cap", sessions, 64 * 1024);
+			long heap = minimumHeap(trace, baseHeap, 4096);
+			double perByte = (heap - baseHeap) * 1024.0 * 1024.0 / trace.length();
+			LOGGER.info(String.format("%d MB of traffic: %d MB of heap, %d MB without the trace, %.1f bytes per traffic byte"
+					+ " (estimated %d)", trace.length() >> 20, heap, baseHeap, perByte, BatchAnalyzer.MEMORY_PER_TRAFFIC_BYTE));
+			assertTrue(perByte < BatchAnalyzer.MEMORY_PER_TRAFFIC_BYTE);
+		}
+	}
+
+	/**
+	 * Smallest heap in MB, to HEAP_STEP_MB, the trace is analyzed with
+	 */
+	private static long minimumHeap(File trace, long low, long high) throws IOException, InterruptedException {
+		while (high - low > HEAP_STEP_MB) {
+			long middle = (low + high) / 2;
+			if (analyze(trace, middle)) {
+				high = middle;
+			} else {
+				low = middle;
+			}
+		}
+		return high;
+	}
+
+	private static boolean analyze(File trace, long heap) throws IOException, InterruptedException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		Process process = new ProcessBuilder(java, "-Xmx" + heap + "m", "-Duser.home=" + System.getProperty("user.home"), "-cp", System.getProperty("java.class.path"),
+				BatchAnalyzerMemoryBenchmark.class.getName(), trace.getAbsolutePath()).redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.to(new File(trace.getPath() + ".log"))).start();
+		if (!process.waitFor(10, TimeUnit.MINUTES)) {
+			process.destroyForcibly();
+			return false;
+		}
+		return process.exitValue() == 0;
+	}
+
+	/**
+	 * Writes a raw IPv4 pcap of HTTP downloads, one TCP connection per session
+	 */
+	private File writeTrace(String name, int sessions, int bodySize) throws IOException {
+		File file = new File(folder.getRoot(), name);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			ByteBuffer header = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(0xa1b2c3d4).putShort((short) 2).putShort((short) 4).putInt(0).putInt(0).putInt(65535).putInt(101);
+			out.write(header.array());
+			TraceWriter writer = new TraceWriter(out);
+			int client = 0x0a000002;
+			for (int session = 0; session < sessions; session++) {
+				int server = 0x5db8d800 + session % 50;
+				int port = 40000 + session;
+				long clientSeq = 1000;
+				long serverSeq = 5000;
+				writer.tcp(client, server, port, 80, clientSeq++, 0, 0x02, new byte[0]);
+				writer.tcp(server, client, 80, port, serverSeq++, clientSeq, 0x12, new byte[0]);
+				writer.tcp(client, server, port, 80, clientSeq, serverSeq, 0x10, new byte[0]);
+				byte[] request = ("GET /file" + session + ".bin HTTP/1.1\r\nHost: example" + session % 50
+						+ ".com\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+				writer.tcp(client, server, port, 80, clientSeq, serverSeq, 0x18, request);
+				clientSeq += request.length;
+				byte[] head = ("HTTP/1.1 200 OK\r\nContent-Type: application/octet-stream\r\nContent-Length: " + bodySize
+						+ "\r\nCache-Control: max-age=60\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+				byte[] response = Arrays.copyOf(head, head.length + bodySize);
+				byte[] body = new byte[bodySize];
+				new Random(session).nextBytes(body);
+				System.arraycopy(body, 0, response, head.length, bodySize);
+				for (int offset = 0; offset < response.length; offset += 1400) {
+					byte[] segment = Arrays.copyOfRange(response, offset, Math.min(response.length, offset + 1400));
+					writer.tcp(server, client, 80, port, serverSeq, clientSeq, 0x18, segment);
+					serverSeq += segment.length;
+					if (offset / 1400 % 2 == 1) {
+						writer.tcp(client, server, port, 80, clientSeq, serverSeq, 0x10, new byte[0]);
+					}
+				}
+				writer.tcp(client, server, port, 80, clientSeq++, serverSeq, 0x11, new byte[0]);
+				writer.tcp(server, client, 80, port, serverSeq++, clientSeq, 0x11, new byte[0]);
+				writer.tcp(client, server, port, 80, clientSeq, serverSeq, 0x10, new byte[0]);
+			}
+		}
+		return file;
+	}
+
+	private static final class TraceWriter {
+		private final DataOutputStream out;
+		private double time = 1600000000.0;
+
+		private TraceWriter(DataOutputStream out) {
+			this.out = out;
+		}
+
+		private void tcp(int source, int destination, int sourcePort, int destinationPort, long seq, long ack, int flags,
+				byte[] payload) throws IOException {
+			ByteBuffer packet = ByteBuffer.allocate(40 + payload.length);
+			packet.put((byte) 0x45).put((byte) 0).putShort((short) (40 + payload.length)).putShort((short) 0)
+					.putShort((short) 0x4000).put((byte) 64).put((byte) 6).putShort((short) 0).putInt(source).putInt(destination);
+			packet.putShort((short) sourcePort).putShort((short) destinationPort).putInt((int) seq).putInt((int) ack)
+					.put((byte) 0x50).put((byte) flags).putShort((short) 65535).putInt(0).put(payload);
+			time += 0.002;
+			long seconds = (long) time;
+			ByteBuffer record = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+			record.putInt((int) seconds).putInt((int) ((time - seconds) * 1e6)).putInt(packet.capacity()).putInt(packet.capacity());
+			out.write(record.array());
+			out.write(packet.array());
+		}
+	}
+}
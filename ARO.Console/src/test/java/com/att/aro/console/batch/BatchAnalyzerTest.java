@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.console.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import com.att.aro.console.util.UtilOut;
+import com.att.aro.core.bestpractice.pojo.BestPracticeType;
+import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
+import com.att.aro.core.pojo.AROTraceData;
+
+public class BatchAnalyzerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String trace(String name, int size) throws IOException {
+		File file = folder.newFile(name);
+		Files.write(file.toPath(), new byte[size]);
+		return file.getPath();
+	}
+
+	private static AROTraceData success() {
+		AROTraceData data = new AROTraceData();
+		data.setSuccess(true);
+		data.setBestPracticeResults(new ArrayList<>());
+		data.setAnalyzerResult(new PacketAnalyzerResult());
+		return data;
+	}
+
+	private static ConfigurableApplicationContext context() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.refresh();
+		return context;
+	}
+
+	/**
+	 * Waits for the end latch, ignoring the interrupt of the timeout as an
+	 * analysis stuck in a loop would
+	 */
+	private static void hang(CountDownLatch interrupted, CountDownLatch end) {
+		while (true) {
+			try {
+				end.await();
+				return;
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+		}
+	}
+
+	@Test(timeout = 30000)
+	public void analyze_timeoutKeepsMemoryUntilTheThreadExits() throws IOException {
+		String hanging = trace("hanging.pcap", 10);
+		String next = trace("next.pcap", 10);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		CountDownLatch end = new CountDownLatch(1);
+		AtomicBoolean ended = new AtomicBoolean();
+		AtomicBoolean nextStartedAfterEnd = new AtomicBoolean();
+		List<ConfigurableApplicationContext> contexts = Collections.synchronizedList(new ArrayList<>());
+		// ends the abandoned analysis a while after its interrupt
+		Thread ender = new Thread(() -> {
+			try {
+				interrupted.await();
+				Thread.sleep(500);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			ended.set(true);
+			end.countDown();
+		});
+		ender.start();
+		// both traces take the whole budget, the second starts only once the first has ended
+		BatchAnalyzer analyzer = new BatchAnalyzer(1, 0, 1, new UtilOut(), 1, BatchAnalyzerTest::context,
+				(context, trace, bestPractices) -> {
+					contexts.add((ConfigurableApplicationContext) context);
+					if (trace.equals(hanging)) {
+						hang(interrupted, end);
+					} else {
+						nextStartedAfterEnd.set(ended.get());
+					}
+					return success();
+				});
+		try {
+			List<BatchResult> results = analyzer.analyze(Arrays.asList(hanging, next), Collections.<BestPracticeType> emptyList());
+			assertEquals(BatchResult.Status.TIMEOUT, results.get(0).getStatus());
+			assertEquals(BatchResult.Status.SUCCESS, results.get(1).getStatus());
+			assertTrue(nextStartedAfterEnd.get());
+			assertEquals(2, contexts.size());
+			assertNotSame(contexts.get(0), contexts.get(1));
+			// closed by the analysis thread before it released the memory
+			assertFalse(contexts.get(0).isActive());
+			assertFalse(contexts.get(1).isActive());
+		} finally {
+			end.countDown();
+		}
+	}
+
+	@Test(timeout = 30000)
+	public void analyze_abandonedAnalysesHoldTheThreads() throws IOException {
+		List<String> traces = Arrays.asList(trace("first.pcap", 10), trace("second.pcap", 10), trace("third.pcap", 10));
+		CountDownLatch interrupted = new CountDownLatch(2);
+		CountDownLatch end = new CountDownLatch(1);
+		AtomicInteger analyzed = new AtomicInteger();
+		// one worker has two analysis threads, both are held by hanging analyses
+		BatchAnalyzer analyzer = new BatchAnalyzer(1, 0, 1, new UtilOut(), 100, BatchAnalyzerTest::context,
+				(context, trace, bestPractices) -> {
+					analyzed.incrementAndGet();
+					hang(interrupted, end);
+					return success();
+				});
+		try {
+			List<BatchResult> results = analyzer.analyze(traces, Collections.<BestPracticeType> emptyList());
+			assertEquals(BatchResult.Status.TIMEOUT, results.get(0).getStatus());
+			assertEquals(BatchResult.Status.TIMEOUT, results.get(1).getStatus());
+			assertEquals(BatchResult.Status.TIMEOUT, results.get(2).getStatus());
+			assertTrue(results.get(2).getError(), results.get(2).getError().startsWith("Analysis did not start"));
+			assertEquals(2, analyzed.get());
+		} finally {
+			end.countDown();
+		}
+	}
+
+	@Test
+	public void analyze_overTraceMemory() throws IOException {
+		AtomicInteger analyzed = new AtomicInteger();
+		BatchAnalyzer analyzer = new BatchAnalyzer(1, 1, 0, new UtilOut(), 100, GenericApplicationContext::new,
+				(context, trace, bestPractices) -> {
+					analyzed.incrementAndGet();
+					return success();
+				});
+		List<BatchResult> results = analyzer.analyze(Arrays.asList(trace("large.pcap", 512 * 1024), trace("small.pcap", 10)),
+				Collections.<BestPracticeType> emptyList());
+		assertEquals(BatchResult.Status.OVER_MEMORY_BUDGET, results.get(0).getStatus());
+		assertEquals(4, results.get(0).getEstimatedMemory());
+		assertEquals(BatchResult.Status.SUCCESS, results.get(1).getStatus());
+		assertEquals(1, analyzed.get());
+	}
+
+	@Test
+	public void analyze_failure() throws IOException {
+		BatchAnalyzer analyzer = new BatchAnalyzer(1, 0, 0, new UtilOut(), 100, GenericApplicationContext::new,
+				(context, trace, bestPractices) -> {
+					throw new IOException("unreadable");
+				});
+		BatchResult result = analyzer.analyze(Arrays.asList(trace("bad.pcap", 10)), Collections.<BestPracticeType> emptyList()).get(0);
+		assertEquals(BatchResult.Status.FAILED, result.getStatus());
+		assertEquals("unreadable", result.getError());
+	}
+
+	@Test
+	public void findTraces_manifest() throws IOException {
+		File manifest = folder.newFile("traces.txt");
+		String absolute = new File(folder.getRoot(), "absolute").getAbsolutePath();
+		Files.write(manifest.toPath(), Arrays.asList("# traces", "", "  relative  ", absolute), StandardCharsets.UTF_8);
+		List<String> traces = BatchAnalyzer.findTraces(manifest);
+		assertEquals(Arrays.asList(new File(folder.getRoot(), "relative").getPath(), absolute), traces);
+	}
+
+	@Test
+	public void writeCsv_quotesFields() throws IOException {
+		BatchResult result = new BatchResult();
+		result.setTrace("a,b");
+		result.setStatus(BatchResult.Status.FAILED);
+		result.setError("say \"no\"");
+		File csv = folder.newFile("summary.csv");
+		BatchAnalyzer.writeCsv(Collections.singletonList(result), Collections.<BestPracticeType> emptyList(), csv);
+		List<String> lines = Files.readAllLines(csv.toPath(), StandardCharsets.UTF_8);
+		assertEquals("trace,status,error,estimatedMemoryMB,analysisMs", lines.get(0));
+		assertTrue(lines.get(1), lines.get(1).startsWith("\"a,b\",FAILED,\"say \"\"no\"\"\","));
+	}
+}
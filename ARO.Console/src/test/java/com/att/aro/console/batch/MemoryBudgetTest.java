@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.console.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class MemoryBudgetTest {
+
+	@Test
+	public void acquire_fitsWithoutWaiting() throws InterruptedException {
+		MemoryBudget budget = new MemoryBudget(100);
+		MemoryBudget.Reservation first = budget.acquire(40);
+		MemoryBudget.Reservation second = budget.acquire(60);
+		assertEquals(100, budget.getUsed());
+		first.release();
+		second.release();
+		assertEquals(0, budget.getUsed());
+	}
+
+	@Test
+	public void acquire_overBudgetRunsAlone() throws InterruptedException {
+		MemoryBudget budget = new MemoryBudget(100);
+		budget.acquire(300).release();
+		assertEquals(0, budget.getUsed());
+	}
+
+	@Test
+	public void acquire_waitsForRelease() throws InterruptedException {
+		MemoryBudget budget = new MemoryBudget(100);
+		MemoryBudget.Reservation first = budget.acquire(80);
+		CountDownLatch acquired = new CountDownLatch(1);
+		Thread waiter = new Thread(() -> {
+			try {
+				budget.acquire(40);
+				acquired.countDown();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		waiter.setDaemon(true);
+		waiter.start();
+		assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+
+		first.release();
+		assertTrue(acquired.await(5, TimeUnit.SECONDS));
+		assertEquals(40, budget.getUsed());
+	}
+
+	@Test
+	public void release_onlyOnce() throws InterruptedException {
+		MemoryBudget budget = new MemoryBudget(100);
+		MemoryBudget.Reservation first = budget.acquire(30);
+		budget.acquire(20);
+		first.release();
+		first.release();
+		assertEquals(20, budget.getUsed());
+	}
+}
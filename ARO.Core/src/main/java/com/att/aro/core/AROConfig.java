@@ -51,6 +51,7 @@ import com.att.aro.core.mobiledevice.IAndroidDevice;
 import com.att.aro.core.mobiledevice.impl.AndroidDeviceImpl;
 import com.att.aro.core.mobiledevice.pojo.AroDevices;
 import com.att.aro.core.mobiledevice.pojo.IAroDevices;
+import com.att.aro.core.packetanalysis.IAnalysisSnapshotStore;
 import com.att.aro.core.packetanalysis.IBurstCollectionAnalysis;
 import com.att.aro.core.packetanalysis.IByteArrayLineReader;
 import com.att.aro.core.packetanalysis.ICacheAnalysis;
@@ -65,6 +66,7 @@ import com.att.aro.core.packetanalysis.ISessionManager;
 import com.att.aro.core.packetanalysis.IThroughputCalculator;
 import com.att.aro.core.packetanalysis.ITraceDataReader;
 import com.att.aro.core.packetanalysis.IVideoTrafficCollector;
+import com.att.aro.core.packetanalysis.impl.AnalysisSnapshotStoreImpl;
 import com.att.aro.core.packetanalysis.impl.BurstCollectionAnalysisImpl;
 import com.att.aro.core.packetanalysis.impl.ByteArrayLineReaderImpl;
 import com.att.aro.core.packetanalysis.impl.CacheAnalysisImpl;
@@ -72,11 +74,13 @@ import com.att.aro.core.packetanalysis.impl.EnergyModelFactoryImpl;
 import com.att.aro.core.packetanalysis.impl.HtmlExtractor;
 import com.att.aro.core.packetanalysis.impl.HttpRequestResponseHelperImpl;
 import com.att.aro.core.packetanalysis.impl.ImageExtractor;
+import com.att.aro.core.packetanalysis.impl.ImagePipeline;
 import com.att.aro.core.packetanalysis.impl.PacketAnalyzerImpl;
 import com.att.aro.core.packetanalysis.impl.ParseHeaderLineImpl;
 import com.att.aro.core.packetanalysis.impl.PktAnazlyzerTimeRangeImpl;
 import com.att.aro.core.packetanalysis.impl.RrcStateMachineFactoryImpl;
 import com.att.aro.core.packetanalysis.impl.RrcStateRangeFactoryImpl;
+import com.att.aro.core.packetanalysis.impl.SessionConcurrency;
 import com.att.aro.core.packetanalysis.impl.SessionManagerImpl;
 import com.att.aro.core.packetanalysis.impl.ThroughputCalculatorImpl;
 import com.att.aro.core.packetanalysis.impl.TraceDataReaderImpl;
@@ -87,6 +91,7 @@ import com.att.aro.core.packetreader.IPacketReader;
 import com.att.aro.core.packetreader.IPacketService;
 import com.att.aro.core.packetreader.IPcapngHelper;
 import com.att.aro.core.packetreader.impl.DomainNameParserImpl;
+import com.att.aro.core.packetreader.impl.MappedPcapReaderImpl;
 import com.att.aro.core.packetreader.impl.NetmonPacketReaderImpl;
 import com.att.aro.core.packetreader.impl.PacketReaderLibraryImpl;
 import com.att.aro.core.packetreader.impl.PacketServiceImpl;
@@ -261,6 +266,11 @@ public class AROConfig {
 		return new PacketReaderLibraryImpl();
 	}
 
+	@Bean(name = "mappedPacketReader")
+	public IPacketReader getMappedPacketReader() {
+		return new MappedPcapReaderImpl();
+	}
+
 	@Bean(name = "netmonPacketReader")
 	public IPacketReader getNetmonPacketReader() {
 		return new NetmonPacketReaderImpl();
@@ -482,6 +492,11 @@ public class AROConfig {
 		return new BurstCollectionAnalysisImpl();
 	}
 
+	@Bean
+	public IAnalysisSnapshotStore getAnalysisSnapshotStore() {
+		return new AnalysisSnapshotStoreImpl();
+	}
+
 	@Bean
 	public IPacketAnalyzer getPacketAnalyzer() {
 		return new PacketAnalyzerImpl();
@@ -610,6 +625,16 @@ public class AROConfig {
 	public ImageExtractor getImageExtractor() {
 		return new ImageExtractor();
 	}
+
+	@Bean(name = "imagePipeline")
+	public ImagePipeline getImagePipeline() {
+		return new ImagePipeline();
+	}
+
+	@Bean(name = "sessionConcurrency")
+	public SessionConcurrency getSessionConcurrency() {
+		return new SessionConcurrency();
+	}
 	
 	@Bean(name = "htmlExtractor")
 	public HtmlExtractor getHtmlExtractor() {
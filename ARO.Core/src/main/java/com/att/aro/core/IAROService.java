@@ -25,6 +25,7 @@ import com.att.aro.core.packetanalysis.IPacketAnalyzer;
 import com.att.aro.core.packetanalysis.pojo.AnalysisFilter;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
 import com.att.aro.core.pojo.AROTraceData;
+import com.att.aro.core.report.pojo.ReportOptions;
 import com.att.aro.mvc.IAROView;
 
 /**
@@ -147,6 +148,36 @@ public interface IAROService {
 	 */
 	boolean getJSonReport(String resultFilePath, AROTraceData results);
 
+	/**
+	 * Generate Packet Analysis Report in HTML format, writing the sections of
+	 * the options
+	 * 
+	 * @param resultFilePath
+	 *            the path for the output report
+	 * @param results
+	 *            the AROTraceData path
+	 * @param options
+	 *            sections of the report
+	 * @return true if report generated, false if AROTraceData is null or failed
+	 *         to create/write output file
+	 */
+	boolean getHtmlReport(String resultFilePath, AROTraceData results, ReportOptions options);
+
+	/**
+	 * Generate Packet Analysis Report in JSON format, writing the sections of
+	 * the options
+	 * 
+	 * @param resultFilePath
+	 *            the path for the output report
+	 * @param results
+	 *            the AROTraceData path
+	 * @param options
+	 *            sections of the report and whether to write the packet arrays
+	 * @return true if report generated, false if AROTraceData is null or failed
+	 *         to create/write output file
+	 */
+	boolean getJSonReport(String resultFilePath, AROTraceData results, ReportOptions options);
+
 	/**
 	 * Launches an analysis of a traceFile with the results populating an
 	 * AROTraceData object
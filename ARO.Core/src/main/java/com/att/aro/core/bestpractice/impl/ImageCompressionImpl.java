@@ -17,18 +17,13 @@ package com.att.aro.core.bestpractice.impl;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
@@ -47,11 +42,9 @@ import com.att.aro.core.bestpractice.pojo.BPResultType;
 import com.att.aro.core.bestpractice.pojo.ImageCompressionEntry;
 import com.att.aro.core.bestpractice.pojo.ImageCompressionResult;
 import com.att.aro.core.fileio.IFileManager;
-import com.att.aro.core.packetanalysis.pojo.HttpDirection;
-import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
+import com.att.aro.core.packetanalysis.impl.ImagePipeline;
+import com.att.aro.core.packetanalysis.impl.ImagePipeline.JpegImage;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
-import com.att.aro.core.packetanalysis.pojo.Session;
-import com.att.aro.core.util.ImageHelper;
 import com.att.aro.core.util.Util;
 
 //FIXME ADD UNIT TESTS
@@ -108,6 +101,9 @@ public class ImageCompressionImpl implements IBestPractice {
 	@Autowired
 	private IFileManager filemanager;
 
+	@Autowired
+	private ImagePipeline imagePipeline;
+
 	long orginalImagesSize = 0L;
 	long midQualImgsSize = 0L;
 	String imageFolderPath = "";
@@ -125,12 +121,9 @@ public class ImageCompressionImpl implements IBestPractice {
 		midQualImgsSize = 0L;
 
 		if (Util.isFilesforAnalysisAvailable(new File(imageFolderPath))) {
-			boolean isImagesCompressed = isImagesCompressed();
-
-			if (!isImagesCompressed) {
-				compressImages();
-			}
-			List<ImageCompressionEntry> entrylist = getEntryList();
+			List<JpegImage> images = imagePipeline.getJpegImages(packetResult);
+			compressImages(images);
+			List<ImageCompressionEntry> entrylist = getEntryList(images);
 
 			result.setResults(entrylist);
 			String text = "";
@@ -167,153 +160,74 @@ public class ImageCompressionImpl implements IBestPractice {
 		return result;
 	}
 
-	private boolean isImagesCompressed() {
-		if (filemanager.directoryExist(imageCompressionFolderPath)) {
-			File folder = new File(imageFolderPath);
-			File[] listOfFiles = folder.listFiles();
-			if (listOfFiles != null && listOfFiles.length != 0) {
-				for (int i = 0; i < listOfFiles.length; i++) {
-					if (listOfFiles[i].isFile() && listOfFiles[i].getName().contains(FILE_DESC)) {
-						return true;
-					}
-				}
-			}
-		} else {
-			filemanager.mkDir(imageCompressionFolderPath);
-		}
-		return false;
-	}
-
-	private List<ImageCompressionEntry> getEntryList() {
-		String originalImage = "";
-		String midCompressedImagePath = "";
-		String logCompressedImagepath = "";
-
+	private List<ImageCompressionEntry> getEntryList(List<JpegImage> images) {
 		long lowQualityImgSize = 0L;
 		long midQualityImgSize = 0L;
 		long orgImageSize = 0L;
-		String imgExtn = "";
-		
+
 		List<ImageCompressionEntry> entryList = new ArrayList<ImageCompressionEntry>();
-		for (Session session : packetResult.getSessionlist()) {
-			for (HttpRequestResponseInfo reqResp : session.getRequestResponseInfo()) {
-
-				if (reqResp.getDirection() == HttpDirection.RESPONSE && reqResp.getContentType() != null
-						&& reqResp.getContentType().contains("image/")) {
-
-					originalImage = ImageHelper.extractFullNameFromRRInfo(reqResp);
-					if ((!originalImage.isEmpty()
-							&& !(originalImage.contains(".jpeg") || originalImage.contains(".jpg")))
-							&& reqResp.getContentType().contains("jpeg")) {
-						originalImage = Util.parseImageName(originalImage, reqResp);
-					}
-					int pos = originalImage.lastIndexOf(".");
-					if (pos != -1) {
-						imgExtn = originalImage.substring(pos + 1, originalImage.length());
-						if (Util.isJPG(new File(imageFolderPath + originalImage), imgExtn)) {
-
-							midCompressedImagePath = imageCompressionFolderPath
-									+ originalImage.substring(0, originalImage.lastIndexOf("."))
-									+ Quality.MID.getFileDesc()
-									+ originalImage.substring(originalImage.lastIndexOf("."), originalImage.length());
-
-							logCompressedImagepath = imageCompressionFolderPath
-									+ originalImage.substring(0, originalImage.lastIndexOf("."))
-									+ Quality.LOW.getFileDesc()
-									+ originalImage.substring(originalImage.lastIndexOf("."), originalImage.length());
-							orgImageSize = new File(imageFolderPath + originalImage).length();
-							midQualityImgSize = new File(midCompressedImagePath).length();
-							lowQualityImgSize = new File(logCompressedImagepath).length();
-							if (midQualityImgSize > 0 && ((orgImageSize - midQualityImgSize) * 100 / orgImageSize >= 15)
-									&& lowQualityImgSize < orgImageSize) {
-
-								orginalImagesSize = orginalImagesSize + orgImageSize;
-								midQualImgsSize = midQualImgsSize + midQualityImgSize;
-
-								
-								
-								entryList.add(new ImageCompressionEntry(reqResp, session.getDomainName(),
-										imageFolderPath + originalImage, Util.doubleFileSize(orgImageSize), Util.doubleFileSize(midQualityImgSize),
-										Util.doubleFileSize(lowQualityImgSize)));
-							}
-
-						}
-					}
-				}
+		for (JpegImage image : images) {
+			List<File> compressedFiles = getCompressedFiles(image);
+			orgImageSize = image.getFile().length();
+			midQualityImgSize = compressedFiles.get(Quality.MID.ordinal()).length();
+			lowQualityImgSize = compressedFiles.get(Quality.LOW.ordinal()).length();
+			if (midQualityImgSize > 0 && ((orgImageSize - midQualityImgSize) * 100 / orgImageSize >= 15)
+					&& lowQualityImgSize < orgImageSize) {
+
+				orginalImagesSize = orginalImagesSize + orgImageSize;
+				midQualImgsSize = midQualImgsSize + midQualityImgSize;
+
+				entryList.add(new ImageCompressionEntry(image.getResponse(), image.getSession().getDomainName(),
+						imageFolderPath + image.getName(), Util.doubleFileSize(orgImageSize), Util.doubleFileSize(midQualityImgSize),
+						Util.doubleFileSize(lowQualityImgSize)));
 			}
 		}
 		return entryList;
 	}
 
-	private void compressImages() {
-		ExecutorService exec = Executors.newFixedThreadPool(5);
-		for (final Session session : packetResult.getSessionlist()) {
-			for (final HttpRequestResponseInfo req : session.getRequestResponseInfo()) {
-				if (req.getDirection() == HttpDirection.RESPONSE && req.getContentType() != null
-						&& req.getContentType().contains("image/")) {
-					String extractedImage = ImageHelper.extractFullNameFromRRInfo(req);
-					if ((!extractedImage.isEmpty()
-							&& !(extractedImage.contains(".jpeg") || extractedImage.contains(".jpg")))
-							&& req.getContentType().contains("jpeg")) {
-						extractedImage = Util.parseImageName(extractedImage, req);
-					}
-
-					File imgFile = new File(imageFolderPath + extractedImage);
-					if (imgFile.exists() && !imgFile.isDirectory()) {
-						int posExtn = extractedImage.lastIndexOf(".");
-						String imgExtn = extractedImage.substring(posExtn + 1, extractedImage.length());
-						if (Util.isJPG(imgFile, imgExtn)) {
-							final String imageFile = extractedImage;
-							exec.submit(new Runnable() {
-								@Override
-								public void run() {
-									compressImage(imageFolderPath, imageFile);
-								}
-							});
-						}
-					}
-				}
-			}
+	private void compressImages(List<JpegImage> images) {
+		if (!filemanager.directoryExist(imageCompressionFolderPath)) {
+			filemanager.mkDir(imageCompressionFolderPath);
 		}
-		try {// Time out after 10 minutes
-			exec.shutdown();
-			exec.awaitTermination(10, TimeUnit.MINUTES);
-		} catch (InterruptedException e) {
-			LOGGER.error(e.getMessage(), e);
+		imagePipeline.process(images, this::getCompressedFiles, this::compressImage);
+	}
+
+	/**
+	 * @return compressed files of the image, by Quality ordinal
+	 */
+	private List<File> getCompressedFiles(JpegImage image) {
+		String imgfile = image.getName();
+		List<File> compressedFiles = new ArrayList<>(Quality.values().length);
+		for (Quality qual : Quality.values()) {
+			compressedFiles.add(new File(imageCompressionFolderPath
+					+ imgfile.substring(0, imgfile.lastIndexOf(".")) + qual.getFileDesc() + "."
+					+ imgfile.substring(imgfile.lastIndexOf(".") + 1, imgfile.length())));
 		}
+		return compressedFiles;
 	}
 
-	private void compressImage(String imgPath, String imgfile) {
-		String compressedImageName = "";
-		String orgImagePath = imgPath + imgfile;
-		File orgImgFile = new File(orgImagePath);
-		try (InputStream inputStrm = new FileInputStream(orgImgFile)) {
-			BufferedImage buffImage = ImageIO.read(inputStrm);
-			for (Quality qual : Quality.values()) {
-				compressedImageName = imageCompressionFolderPath
-						+ imgfile.substring(0, imgfile.lastIndexOf(".")) + qual.getFileDesc() + "."
-						+ imgfile.substring(imgfile.lastIndexOf(".") + 1, imgfile.length());
-				File compressedFile = new File(compressedImageName);
-				ImageWriter writer = null;
-				try (OutputStream outputStr = new FileOutputStream(compressedFile);
-						ImageOutputStream imgOutputStrm = ImageIO.createImageOutputStream(outputStr)) {
-
-					Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(
-							imgfile.substring(imgfile.lastIndexOf(".") + 1, imgfile.length()));
-					writer = writers.next();
-					writer.setOutput(imgOutputStrm);
-					ImageWriteParam param = writer.getDefaultWriteParam();
-					param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-					param.setCompressionQuality(qual.getFraction());
-					writer.write(null, new IIOImage(buffImage, null, null), param);
-				} finally {
-					if (writer != null) {
-						writer.dispose();
-					}
+	private void compressImage(JpegImage image, List<File> compressedFiles) throws IOException {
+		String imgfile = image.getName();
+		BufferedImage buffImage = image.getImage();
+		for (Quality qual : Quality.values()) {
+			File compressedFile = compressedFiles.get(qual.ordinal());
+			ImageWriter writer = null;
+			try (OutputStream outputStr = new FileOutputStream(compressedFile);
+					ImageOutputStream imgOutputStrm = ImageIO.createImageOutputStream(outputStr)) {
+
+				Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(
+						imgfile.substring(imgfile.lastIndexOf(".") + 1, imgfile.length()));
+				writer = writers.next();
+				writer.setOutput(imgOutputStrm);
+				ImageWriteParam param = writer.getDefaultWriteParam();
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				param.setCompressionQuality(qual.getFraction());
+				writer.write(null, new IIOImage(buffImage, null, null), param);
+			} finally {
+				if (writer != null) {
+					writer.dispose();
 				}
 			}
-		} catch (IOException fileException) {
-			LOGGER.error(fileException.toString(), fileException);
 		}
 	}
 
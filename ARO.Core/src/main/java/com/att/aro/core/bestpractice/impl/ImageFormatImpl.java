@@ -20,10 +20,8 @@ import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
@@ -41,12 +39,10 @@ import com.att.aro.core.bestpractice.pojo.BPResultType;
 import com.att.aro.core.bestpractice.pojo.ImageFormatResult;
 import com.att.aro.core.bestpractice.pojo.ImageMdataEntry;
 import com.att.aro.core.fileio.IFileManager;
-import com.att.aro.core.packetanalysis.pojo.HttpDirection;
-import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
+import com.att.aro.core.packetanalysis.impl.ImagePipeline;
+import com.att.aro.core.packetanalysis.impl.ImagePipeline.JpegImage;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
-import com.att.aro.core.packetanalysis.pojo.Session;
 import com.att.aro.core.packetanalysis.pojo.TraceDirectoryResult;
-import com.att.aro.core.util.ImageHelper;
 import com.att.aro.core.util.Util;
 import com.github.jaiimageio.jpeg2000.J2KImageWriteParam;
 import com.luciad.imageio.webp.WebPWriteParam;
@@ -84,6 +80,9 @@ public class ImageFormatImpl implements IBestPractice {
 	@Autowired
 	private IFileManager filemanager;
 
+	@Autowired
+	private ImagePipeline imagePipeline;
+
 	long orginalImagesSize = 0L;
 	long convImgsSize = 0L;
 	PacketAnalyzerResult tracedataResult = null;
@@ -108,15 +107,14 @@ public class ImageFormatImpl implements IBestPractice {
 				convExtn = "jp2";
 			}
 
-			if (!isImagesConverted()) {
-				try {
-					formatImages();
-				} catch (Exception imgException) {
-					LOGGER.error("Image Format  exception : ", imgException);
-				}
+			List<JpegImage> images = imagePipeline.getJpegImages(tracedata);
+			try {
+				formatImages(images);
+			} catch (Exception imgException) {
+				LOGGER.error("Image Format  exception : ", imgException);
 			}
 
-			List<ImageMdataEntry> entrylist = getEntryList();
+			List<ImageMdataEntry> entrylist = getEntryList(images);
 
 			result.setResults(entrylist);
 			String text = "";
@@ -170,124 +168,55 @@ public class ImageFormatImpl implements IBestPractice {
 		return isAndroid;
 	}
 
-	private boolean isImagesConverted() {
-		String imageFormatFolderPath = imageFolderPath + "Format";
-		if (filemanager.directoryExist(imageFormatFolderPath)) {
-			File folder = new File(imageFormatFolderPath);
-			File[] listOfFiles = folder.listFiles();
-			if (listOfFiles != null && listOfFiles.length != 0) {
-				for (int i = 0; i < listOfFiles.length; i++) {
-					if (listOfFiles[i].isFile()) {
-						return true;
-					}
-				}
-			}
-		} else {
-			filemanager.mkDir(imageFormatFolderPath);
-		}
-		return false;
-	}
-
-	private List<ImageMdataEntry> getEntryList() {
-		String originalImage = "";
-
+	private List<ImageMdataEntry> getEntryList(List<JpegImage> images) {
 		long convertedImgSize = 0L;
 		long orgImageSize = 0L;
-		String imgExtn = "";
 		long orgImgSize;
 		long convImageSize;
-		String convImage = "";
-		String convertedImagesFolderPath = "";
 
 		List<ImageMdataEntry> imgEntryList = new ArrayList<ImageMdataEntry>();
-		for (Session session : tracedataResult.getSessionlist()) {
-			for (HttpRequestResponseInfo reqResp : session.getRequestResponseInfo()) {
-
-				if (reqResp.getDirection() == HttpDirection.RESPONSE && reqResp.getContentType() != null
-						&& reqResp.getContentType().contains("image/")) {
-
-					originalImage = ImageHelper.extractFullNameFromRRInfo(reqResp);
-					if ((!originalImage.isEmpty()
-							&& !(originalImage.contains(".jpeg") || originalImage.contains(".jpg")))
-							&& reqResp.getContentType().contains("jpeg")) {
-						originalImage = Util.parseImageName(originalImage, reqResp);
-					}
-					File orgImage = new File(imageFolderPath + originalImage);
-					orgImageSize = orgImage.length();
-					int pos = originalImage.lastIndexOf(".");
-					imgExtn = originalImage.substring(pos + 1, originalImage.length());
-
-					if (orgImageSize > 0 && Util.isJPG(orgImage, imgExtn)) {
-
-						convertedImagesFolderPath = imageFolderPath + "Format" + System.getProperty("file.separator");
-						convImage = convertedImagesFolderPath
-								+ originalImage.substring(0, originalImage.lastIndexOf(".") + 1) + convExtn;
-
-						convertedImgSize = new File(convImage).length();
-						long indSavings = (orgImageSize - convertedImgSize) * 100 / orgImageSize;
-						if (convertedImgSize > 0 && (indSavings >= 15)) {
-
-							orginalImagesSize = orginalImagesSize + orgImageSize;
-							convImgsSize = convImgsSize + convertedImgSize;
-
-							orgImgSize = orgImageSize / 1024;
-							convImageSize = convertedImgSize / 1024;
-
-							imgEntryList.add(new ImageMdataEntry(reqResp, session.getDomainName(),
-									imageFolderPath + originalImage, orgImgSize, convImageSize,
-									Long.toString(indSavings)));
-						}
-					}
+		for (JpegImage image : images) {
+			orgImageSize = image.getFile().length();
+			if (orgImageSize > 0) {
+				convertedImgSize = getFormattedFile(image).length();
+				long indSavings = (orgImageSize - convertedImgSize) * 100 / orgImageSize;
+				if (convertedImgSize > 0 && (indSavings >= 15)) {
+
+					orginalImagesSize = orginalImagesSize + orgImageSize;
+					convImgsSize = convImgsSize + convertedImgSize;
+
+					orgImgSize = orgImageSize / 1024;
+					convImageSize = convertedImgSize / 1024;
+
+					imgEntryList.add(new ImageMdataEntry(image.getResponse(), image.getSession().getDomainName(),
+							imageFolderPath + image.getName(), orgImgSize, convImageSize,
+							Long.toString(indSavings)));
 				}
 			}
 		}
 		return imgEntryList;
 	}
 
-	private void formatImages() {
-		ExecutorService exec = Executors.newFixedThreadPool(5);
-		for (final Session session : tracedataResult.getSessionlist()) {
-			for (final HttpRequestResponseInfo req : session.getRequestResponseInfo()) {
-				if (req.getDirection() == HttpDirection.RESPONSE && req.getContentType() != null
-						&& req.getContentType().contains("image/")) {
-					String extractedImage = ImageHelper.extractFullNameFromRRInfo(req);
-					if ((!extractedImage.isEmpty()
-							&& !(extractedImage.contains(".jpeg") || extractedImage.contains(".jpg")))
-							&& req.getContentType().contains("jpeg")) {
-						extractedImage = Util.parseImageName(extractedImage, req);
-					}
-
-					File imgFile = new File(imageFolderPath + extractedImage);
-					if (imgFile.exists() && !imgFile.isDirectory()) {
-						int posExtn = extractedImage.lastIndexOf(".");
-						String imgExtn = extractedImage.substring(posExtn + 1, extractedImage.length());
-						if (Util.isJPG(imgFile, imgExtn)) {
-							formatImage(extractedImage);
-						}
-					}
-				}
-			}
+	private void formatImages(List<JpegImage> images) {
+		String imageFormatFolderPath = imageFolderPath + "Format";
+		if (!filemanager.directoryExist(imageFormatFolderPath)) {
+			filemanager.mkDir(imageFormatFolderPath);
 		}
+		imagePipeline.process(images, image -> Collections.singletonList(getFormattedFile(image)), this::formatImage);
+	}
 
-		try {// Time out after 10 minutes
-			exec.shutdown();
-			exec.awaitTermination(10, TimeUnit.MINUTES);
-		} catch (InterruptedException e) {
-			LOGGER.error("Image Format execution exception : ", e);
-		}
+	private File getFormattedFile(JpegImage image) {
+		String imgfile = image.getName();
+		return new File(imageFolderPath + "Format" + System.getProperty("file.separator")
+				+ imgfile.substring(0, imgfile.lastIndexOf(".") + 1) + convExtn);
 	}
 
-	private void formatImage(String imgfile) {
-		String orgImagePath = imageFolderPath + imgfile;
-		String formattedImagePath = "";
+	private void formatImage(JpegImage image, List<File> formattedFiles) {
 		ImageOutputStream imageOutputStream = null;
 		try {
 
-			RenderedImage renderedImage = ImageIO.read(new File(orgImagePath));
-			formattedImagePath = imageFolderPath + "Format" + System.getProperty("file.separator")
-					+ imgfile.substring(0, imgfile.lastIndexOf(".") + 1) + convExtn;
-			imageOutputStream = ImageIO.createImageOutputStream(new File(formattedImagePath));
-
+			RenderedImage renderedImage = image.getImage();
+			imageOutputStream = ImageIO.createImageOutputStream(formattedFiles.get(0));
 			if (renderedImage != null) {
 				if (convExtn.equalsIgnoreCase("webp")) {
 					ImageWriter writer = ImageIO.getImageWritersByMIMEType("image/webp").next();
@@ -20,7 +20,10 @@ import java.io.IOException;
 import java.text.DecimalFormat;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import org.apache.commons.imaging.ImageReadException;
 import org.apache.commons.imaging.Imaging;
@@ -89,6 +92,16 @@ public class ImageMetaDataImpl implements IBestPractice {
 				+ System.getProperty("file.separator") + "Image" + System.getProperty("file.separator");
 		
 		if (Util.isFilesforAnalysisAvailable(new File(imagePath))) {
+			// image files by lower case name, the folder is listed once for all responses
+			Map<String, List<File>> imageFiles = new HashMap<>();
+			File[] listOfFiles = new File(imagePath).listFiles();
+			if (listOfFiles != null) {
+				for (File file : listOfFiles) {
+					if (file.isFile()) {
+						imageFiles.computeIfAbsent(file.getName().toLowerCase(Locale.ROOT), name -> new ArrayList<>()).add(file);
+					}
+				}
+			}
 			for (Session session : tracedata.getSessionlist()) {
 
 				for (HttpRequestResponseInfo req : session.getRequestResponseInfo()) {
@@ -99,12 +112,10 @@ public class ImageMetaDataImpl implements IBestPractice {
 						String extractedImageName = ImageHelper.extractFullNameFromRRInfo(req);
 						int pos = extractedImageName.lastIndexOf('.') + 1;
 
-						// List<String> imageList = new ArrayList<String>();
-						File folder = new File(imagePath);
-						File[] listOfFiles = folder.listFiles();
-						if (listOfFiles != null) {
+						List<File> matchingFiles = imageFiles.get(extractedImageName.toLowerCase(Locale.ROOT));
+						if (matchingFiles != null) {
 							runTestForFiles(imageList, entrylist, session, req, imagePath, extractedImageName,
-									pos, listOfFiles);
+									pos, matchingFiles);
 						}
 					}
 				}
@@ -142,15 +153,15 @@ public class ImageMetaDataImpl implements IBestPractice {
 
 	private void runTestForFiles(List<String> imageList, List<ImageMdataEntry> entrylist, Session session,
 			HttpRequestResponseInfo req, String imagePath,  String extractedImageName, int pos,
-			File[] listOfFiles) {
+			List<File> listOfFiles) {
 		String imgFullName = "";
 		String imgExtn = "";
 		String imgFile = "";
 
 		// check folder exists
-		for (int i = 0; i < listOfFiles.length; i++) {
-			if (listOfFiles[i].isFile()) {
-				imgFullName = listOfFiles[i].getName();
+		for (File file : listOfFiles) {
+			if (file.isFile()) {
+				imgFullName = file.getName();
 				if (extractedImageName.equalsIgnoreCase(imgFullName)) {
 					imgExtn = imgFullName.substring(pos, imgFullName.length());
 					imgFile = imagePath + imgFullName;
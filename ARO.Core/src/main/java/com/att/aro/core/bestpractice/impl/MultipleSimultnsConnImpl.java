@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 import com.att.aro.core.bestpractice.IBestPractice;
@@ -31,9 +32,9 @@ import com.att.aro.core.bestpractice.pojo.BPResultType;
 import com.att.aro.core.bestpractice.pojo.MultiSimultnsConnectionResult;
 import com.att.aro.core.bestpractice.pojo.MultipleConnectionsEntry;
 import com.att.aro.core.bestpractice.pojo.SimultnsUtil;
+import com.att.aro.core.packetanalysis.impl.SessionConcurrency;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
 import com.att.aro.core.packetanalysis.pojo.Session;
-import com.att.aro.core.packetanalysis.pojo.SessionValues;
 
 public class MultipleSimultnsConnImpl implements IBestPractice {
 	@Value("${connections.multiSimultaneous.title}")
@@ -63,6 +64,9 @@ public class MultipleSimultnsConnImpl implements IBestPractice {
 	private SortedMap<Double, MultipleConnectionsEntry> simultnsConnectionAllServersEntryMap;
 	SimultnsUtil simultnsUtil = new SimultnsUtil();
 
+	@Autowired
+	private SessionConcurrency sessionConcurrency;
+
 	@Override
 	public AbstractBestPracticeResult runTest(PacketAnalyzerResult traceData) {
 		traceDataResult = traceData;
@@ -102,18 +106,10 @@ public class MultipleSimultnsConnImpl implements IBestPractice {
 			simultnsConnectionAllServersEntryList = Collections.emptyList();
 			return;
 		}
-		List<Session> tempSessionList = new ArrayList<Session>();
-		Map<String, ArrayList<Session>> distinctMap = simultnsUtil.getDistinctMap(sessions);
-		for (Map.Entry<String, ArrayList<Session>> entry : distinctMap.entrySet()) {
-			ArrayList<Session> tempList = entry.getValue();
-			for (int iterator = 0; iterator < tempList.size(); iterator++) {
-				tempSessionList.add(tempList.get(iterator));
-			}
-		}
-		List<SessionValues> sessionValuesList = simultnsUtil.createDomainsTCPSessions(tempSessionList);
-		MultipleConnectionsEntry simultnsConnEntry = simultnsUtil.getTimeMap(sessionValuesList, maxConnections, true);
+		MultipleConnectionsEntry simultnsConnEntry = simultnsUtil.getPeakEntry(sessionConcurrency.getByRemoteIp(traceDataResult).getAll(),
+				maxConnections, true);
 		if (simultnsConnEntry != null) {
 			simultnsConnectionAllServersEntryMap.put(simultnsConnEntry.getStartTimeStamp(), simultnsConnEntry);
 		}
 	}
-}
\ No newline at end of file
+}
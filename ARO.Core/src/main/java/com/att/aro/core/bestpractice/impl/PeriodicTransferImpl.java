@@ -18,8 +18,6 @@ package com.att.aro.core.bestpractice.impl;
 import java.net.InetAddress;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -31,7 +29,6 @@ import org.springframework.beans.factory.annotation.Value;
 import com.att.aro.core.bestpractice.IBestPractice;
 import com.att.aro.core.bestpractice.pojo.AbstractBestPracticeResult;
 import com.att.aro.core.bestpractice.pojo.BPResultType;
-import com.att.aro.core.bestpractice.pojo.IatInfo;
 import com.att.aro.core.bestpractice.pojo.PeriodicTransferResult;
 import com.att.aro.core.configuration.pojo.Profile;
 import com.att.aro.core.packetanalysis.pojo.Burst;
@@ -52,8 +49,8 @@ import com.att.aro.core.packetreader.pojo.PacketDirection;
  */
 public class PeriodicTransferImpl implements IBestPractice {
 	/*
-	 *  Maximum number of requests the algorithm can process in reasonable time.
-	 *  Testings have shown that the number should be smaller than 400 or even smaller for large traces.
+	 *  Requests are tested for periodicity in chunks of this many requests, which the results depend on.
+	 *  It used to bound the time of the pairwise algorithm, PeriodicityDetector keeps it to give the same results.
 	 */
 	private static final int MAX_NUM_OF_REQUESTS = 200;
 	private static final int SMALL_PERIODICITY = 3;
@@ -320,27 +317,6 @@ public class PeriodicTransferImpl implements IBestPractice {
 	 * @return true if periodic, false if not
 	 */
 	private boolean isPeriodicalTraffic(List<Double> timeList, Profile profile) {
-		
-		int numberOfRequests = timeList.size();
-		// Collection for storing Inter-Arrival Times
-		List<IatInfo> iatInfoList = new ArrayList<IatInfo>(numberOfRequests * (numberOfRequests - 1) / 2);
-		//logger.info("isPeriodicTraffic.calculateInterArrrivalTime");
-		calculateInterArrivalTime(timeList, numberOfRequests, iatInfoList);
-		//logger.info("isPeriodicTraffic.sortInterArritvalTime");
-		sortInterArrivalTime(iatInfoList);
-		//logger.info("isPeriodicTraffic.calculateClusterParameters");
-		return calculateClusterParameters(iatInfoList, profile);
-	}
-	/**
-	 * Creates clusters from the list of Inter-Arrival Time list and calculates
-	 * cluster related parameters. Compare these parameters with the profile thresholds and
-	 * returns boolean as a result of the comparison.
-	 * 
-	 * @param iatInfoList List of IAT objects
-	 * @return true if periodic, false if not
-	 */
-	private boolean calculateClusterParameters(List<IatInfo> iatInfoList, Profile profile) {
-		//logger.info("calculateClusterParameters -> profile.getPeriodMinCycle");
 		/*
 		 * This parameter is used to find clusters of PTs (periodic transfers). 
 		 * This parameter/criterion is applied onto all identified clusters of PTs. 
@@ -357,7 +333,6 @@ public class PeriodicTransferImpl implements IBestPractice {
 		 * Only resulting clusters are considered to be further analyzed for periodicity. 
 		 * The default value of the parameter is 1 second.
 		 */
-		//logger.info("calculateClusterParameters -> profile.getPeriodCycleTol");
 		double maxVariation = profile.getPeriodCycleTol();
 		/*
 		 * This parameter is used to find clusters of PTs.
@@ -365,157 +340,13 @@ public class PeriodicTransferImpl implements IBestPractice {
 		 * The number of linked PTs must be greater than this parameter. 
 		 * The default value is 3.
 		 */
-		//logger.info("calculateClusterParameters -> profile.getPeriodMinSamples");
 		int minSamples = profile.getPeriodMinSamples();
-		
-		int iatInfoSize = iatInfoList.size();
-		int bestNonOverlapSize = 0;
-		double cycle = 0;
-		List<IatInfo> iAtCluster;
-		double sumOfClusterIATs;
-		int nonOverlapSize;
-		double avgIatInCluster;
-		//logger.info("calculateClusterParameters -> for loop, size: "+iatInfoSize);
-		for (int idx = 0; idx < iatInfoSize; idx++) {
-
-			iAtCluster = new ArrayList<IatInfo>();
-			sumOfClusterIATs = 0;
-			//logger.info("calculateClusterParameters.createIatCluster, ids: "+idx+" of size: "+iatInfoSize);
-			sumOfClusterIATs += createIatCluster(iatInfoList, iAtCluster, idx, maxVariation);
-			
-			avgIatInCluster = sumOfClusterIATs / iAtCluster.size();
-			if (avgIatInCluster > minVariation) {
-				//logger.info("calculateClusterParameters.gerNonOverlapSize");
-				nonOverlapSize = getNonOverlapSize(iAtCluster);
-				if (nonOverlapSize > bestNonOverlapSize) {
-					bestNonOverlapSize = nonOverlapSize;
-					cycle = avgIatInCluster;
-				}
-			}
-		}
-
-		if (bestNonOverlapSize < minSamples) {
-			return false;
-		} else {
-			return cycle > 0;
-		} 
-	}
-	/**
-	 * Method to calculate the over lap events in burst.
-	 * 
-	 * It finds the longest series of subsequent events linked together by event end ID and event begin ID.
-	 * 
-	 */
-	int getNonOverlapSize(List<IatInfo> iAtCluster) {
-
-		sortIatClusterByBeginTime(iAtCluster);
-
-		// find the longest path
-		int clusterSize = iAtCluster.size();
-		int[] opt = new int[clusterSize];
-		int best = -1;
-		int tmpBest;
-		IatInfo iatInfo;
-
-		for (int i = 0; i < clusterSize; i++) {
-			iatInfo = iAtCluster.get(i);
-			tmpBest = 1;
-
-			for (int j = 0; j <= i - 1; j++) {
-				if (opt[j] >= tmpBest && iAtCluster.get(j).getEndEvent() == iatInfo.getBeginEvent()) {
-					tmpBest = opt[j] + 1;
-				}
-			}
-
-			if (tmpBest > best) {
-				best = tmpBest;
-			}
-
-			opt[i] = tmpBest;
-		}
-
-		return best;
-	}
-	/**
-	 * @param iAtCluster
-	 */
-	private void sortIatClusterByBeginTime(List<IatInfo> iAtCluster) {
-		Collections.sort(iAtCluster, new SortByBeginTime());
-	}
-	
-	/* 
-	 * Finds all IAT objects with IAT.time close to IAT.time of a IAT object identified by index idx. 
-	 * If IAT.time difference between the objects is less than the threshold (maxVariation), 
-	 * the IAT object is added to IAT Cluster.Sum of all IAT.time in the cluster is returned. 
-	 */
-	
-	/**
-	 * @param iatInfoList List of IAT objects
-	 * @param iat IAT object
-	 * @param iAtCluster Cluster of IAT objects 
-	 * @param idx Starting index
-	 * @param maxVariation max. variation
-	 * @return Sum of all IAT.time in the cluster is returned.
-	 **/
-	double createIatCluster(List<IatInfo> iatInfoList, List<IatInfo> iAtCluster, int idx, double maxVariation) {
 
-		int index = idx;
-		IatInfo iat = iatInfoList.get(index);
-		IatInfo iatInfo;
-		int iatInfoSize = iatInfoList.size();
-		double sumOfIatInCluster = 0;
-		while ((index < iatInfoSize) && (iatInfoList.get(index).getIat() - iat.getIat() < maxVariation)) {
-			iatInfo = iatInfoList.get(index);
-			iAtCluster.add(iatInfo);
-			sumOfIatInCluster += iatInfo.getIat();
-			++index;
-		}
-		return sumOfIatInCluster;
-	}
-	/**
-	 * Sorts Inter-Arrival Time collection.
-	 * 
-	 * @param iatInfoList Collection to be sorted.
-	 */
-	private void sortInterArrivalTime(List<IatInfo> iatInfoList) {
-		Collections.sort(iatInfoList, new SortByIAT());
-	}
-	/**
-	 * Calculates Inter-Arrival Time between all events in the collection, time between each events.
-	 * 
-	 * @param timeList Contains a collection of events represented by the event's occurrence timestamp.
-	 * @param numberOfRequests The total number of events.
-	 * @param iatInfoList Stores the results; the calculated IAT, begin time, and other information.
-	 */
-	private void calculateInterArrivalTime(List<Double> timeList, int numberOfRequests, List<IatInfo> iatInfoList) {
-		
-		double time1;
-		double time2;
-		IatInfo iInfo;
-		
-		for (int i = 0; i < numberOfRequests - 1; i++) {
-			for (int j = i + 1; j < numberOfRequests; j++) {
-				time1 = timeList.get(i).doubleValue();
-				time2 = timeList.get(j).doubleValue();
-
-				iInfo = new IatInfo();
-				if (time1 <= time2) {
-					iInfo.setBeginTime(time1);
-					iInfo.setIat(time2 - time1);
-					iInfo.setBeginEvent(i);
-					iInfo.setEndEvent(j);
-				} else {
-
-					iInfo.setBeginTime(time2);
-					iInfo.setIat(time1 - time2);
-					iInfo.setBeginEvent(j);
-					iInfo.setEndEvent(i);
-
-				}
-
-				iatInfoList.add(iInfo);
-			}
+		double[] times = new double[timeList.size()];
+		for (int index = 0; index < times.length; index++) {
+			times[index] = timeList.get(index).doubleValue();
 		}
+		return new PeriodicityDetector(minVariation, maxVariation, minSamples).isPeriodic(times);
 	}
 	/**
 	 * Determine periodicity 
@@ -651,41 +482,5 @@ public class PeriodicTransferImpl implements IBestPractice {
 			return false;
 		}
 	}
-	
-	//Helper inner classes, remove to pojo
-	/**
-	 * Bean class to contain the information of Request Event's Inter Arrival
-	 * Time.
-	 */
-//	class IatInfo {
-//		private double iat;
-//		private double beginTime;
-//		private int beginEvent;
-//		private int endEvent;	
-//		IatInfo(double iat, double beginTime, int beginEvent, int endEvent) {
-//			super();
-//			this.iat = iat;
-//			this.beginTime = beginTime;
-//			this.beginEvent = beginEvent;
-//			this.endEvent = endEvent;
-//		}
-//		public IatInfo() {
-//		}
-//	}
-
-	private class SortByBeginTime implements Comparator<IatInfo> {
-		@Override
-		public int compare(IatInfo info1, IatInfo info2) {
-			return Double.valueOf(info1.getBeginTime()).compareTo(info2.getBeginTime());
-		}
-	}
-
-	private class SortByIAT implements Comparator<IatInfo> {
-
-		@Override
-		public int compare(IatInfo info1, IatInfo info2) {
-			return Double.valueOf(info1.getIat()).compareTo(info2.getIat());
-		}
-	}
 
 }//end class
@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.bestpractice.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Periodicity test of the timestamps of requests, on primitive arrays.
+ * <p>
+ * The Inter-Arrival Times (IATs) of all pairs of events are sorted. Each IAT
+ * starts a cluster of the IATs within the cycle tolerance of it. A cluster is
+ * periodic when its average IAT is above the minimum cycle and its pairs link
+ * at least the minimum samples of events into a chain, each pair ending where
+ * the next one begins.
+ * </p>
+ * The clusters are windows of the sorted IATs, their averages come from prefix
+ * sums, and the longest chain of a window is found in one pass over the
+ * sorted events with a sliding maximum, the pairs of a window ending at an
+ * event being a range of the events before it. A window is only chained when
+ * it has pairs the last chained window did not have, and the test stops at the
+ * first periodic window.
+ */
+final class PeriodicityDetector {
+
+	private final double minCycle;
+	private final double cycleTolerance;
+	private final int minSamples;
+
+	/**
+	 * @param minCycle
+	 *            average IAT of a periodic cluster must be greater
+	 * @param cycleTolerance
+	 *            IATs of a cluster are within it from the first
+	 * @param minSamples
+	 *            longest chain of a periodic cluster must have at least this
+	 *            many IATs
+	 */
+	PeriodicityDetector(double minCycle, double cycleTolerance, int minSamples) {
+		this.minCycle = minCycle;
+		this.cycleTolerance = cycleTolerance;
+		this.minSamples = minSamples;
+	}
+
+	/**
+	 * @param timeList
+	 *            timestamps of the events, in the order they were collected
+	 * @return true if periodic, false if not
+	 */
+	boolean isPeriodic(double[] timeList) {
+		int count = timeList.length;
+		double[] times = timeList.clone();
+		Arrays.sort(times);
+		double[] iats = new double[count * (count - 1) / 2];
+		int pair = 0;
+		for (int begin = 0; begin < count - 1; begin++) {
+			for (int end = begin + 1; end < count; end++) {
+				iats[pair++] = times[end] - times[begin];
+			}
+		}
+		Arrays.sort(iats);
+		double[] sums = new double[iats.length + 1];
+		for (int index = 0; index < iats.length; index++) {
+			sums[index + 1] = sums[index] + iats[index];
+		}
+
+		int[] chains = new int[count];
+		int[] window = new int[count];
+		int chainedEnd = 0;
+		int firstTie = 0;
+		for (int start = 0, end = 0; start < iats.length; start++) {
+			double iat = iats[start];
+			if (start == 0 || iats[start - 1] != iat) {
+				firstTie = start;
+			}
+			end = Math.max(end, start);
+			while (end < iats.length && iats[end] - iat < cycleTolerance) {
+				end++;
+			}
+			if (end == start || end <= chainedEnd) {
+				// no pair, or no pair the last chained window did not have
+				continue;
+			}
+			double average = average(iats, sums, start, end);
+			if (!(average > minCycle)) {
+				continue;
+			}
+			chainedEnd = end;
+			int longest = start == firstTie ? longestChain(times, iat, chains, window)
+					: longestChain(timeList, iat, start - firstTie);
+			if (longest >= minSamples && average > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Average of the IATs of a window, summed in order when the prefix sums
+	 * leave it too close to the minimum cycle to compare
+	 */
+	private double average(double[] iats, double[] sums, int start, int end) {
+		double average = (sums[end] - sums[start]) / (end - start);
+		if (Math.abs(average - minCycle) <= 1e-9 * Math.max(1, Math.abs(minCycle))) {
+			double sum = 0;
+			for (int index = start; index < end; index++) {
+				sum += iats[index];
+			}
+			average = sum / (end - start);
+		}
+		return average;
+	}
+
+	/**
+	 * Longest chain of the pairs with an IAT from iat to iat + cycleTolerance
+	 * 
+	 * @param times
+	 *            sorted timestamps
+	 * @return number of IATs in the chain
+	 */
+	private int longestChain(double[] times, double iat, int[] chains, int[] window) {
+		int longest = 0;
+		int head = 0;
+		int tail = 0;
+		// pairs ending at an event begin at the events from first to next - 1
+		int first = 0;
+		int next = 0;
+		for (int event = 0; event < times.length; event++) {
+			while (next < event && times[event] - times[next] >= iat) {
+				while (tail > head && chains[window[tail - 1]] <= chains[next]) {
+					tail--;
+				}
+				window[tail++] = next++;
+			}
+			while (first < next && !(times[event] - times[first] - iat < cycleTolerance)) {
+				first++;
+			}
+			while (head < tail && window[head] < first) {
+				head++;
+			}
+			chains[event] = head < tail ? chains[window[head]] + 1 : 0;
+			longest = Math.max(longest, chains[event]);
+		}
+		return longest;
+	}
+
+	/**
+	 * Longest chain of a window starting inside IATs of equal value, without
+	 * the pairs of that value before the start. Pairs of equal IAT are ordered
+	 * by their events in the collected order.
+	 * 
+	 * @param timeList
+	 *            timestamps in the collected order
+	 * @param excluded
+	 *            number of pairs with this IAT left out
+	 */
+	private int longestChain(double[] timeList, double iat, int excluded) {
+		int count = timeList.length;
+		boolean[][] linked = new boolean[count][count];
+		for (int first = 0; first < count - 1; first++) {
+			for (int second = first + 1; second < count; second++) {
+				int begin = timeList[first] <= timeList[second] ? first : second;
+				int end = begin == first ? second : first;
+				double pairIat = timeList[end] - timeList[begin];
+				if (pairIat == iat && excluded > 0) {
+					excluded--;
+				} else if (pairIat >= iat && pairIat - iat < cycleTolerance) {
+					linked[begin][end] = true;
+				}
+			}
+		}
+		List<Integer> order = new ArrayList<>(count);
+		for (int event = 0; event < count; event++) {
+			order.add(event);
+		}
+		order.sort(Comparator.comparingDouble(event -> timeList[event]));
+		int[] chains = new int[count];
+		int longest = 0;
+		for (int index = 0; index < count; index++) {
+			int event = order.get(index);
+			for (int before = 0; before < index; before++) {
+				int begin = order.get(before);
+				if (linked[begin][event]) {
+					chains[event] = Math.max(chains[event], chains[begin] + 1);
+				}
+			}
+			longest = Math.max(longest, chains[event]);
+		}
+		return longest;
+	}
+}
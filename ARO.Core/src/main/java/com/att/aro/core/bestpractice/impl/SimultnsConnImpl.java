@@ -18,12 +18,12 @@ package com.att.aro.core.bestpractice.impl;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 import com.att.aro.core.bestpractice.IBestPractice;
@@ -32,9 +32,9 @@ import com.att.aro.core.bestpractice.pojo.BPResultType;
 import com.att.aro.core.bestpractice.pojo.MultipleConnectionsEntry;
 import com.att.aro.core.bestpractice.pojo.SimultnsConnectionResult;
 import com.att.aro.core.bestpractice.pojo.SimultnsUtil;
+import com.att.aro.core.packetanalysis.impl.SessionConcurrency;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
 import com.att.aro.core.packetanalysis.pojo.Session;
-import com.att.aro.core.packetanalysis.pojo.SessionValues;
 
 public class SimultnsConnImpl implements IBestPractice {
 	@Value("${connections.simultaneous.title}")
@@ -64,6 +64,9 @@ public class SimultnsConnImpl implements IBestPractice {
 	private SortedMap<Double, MultipleConnectionsEntry> simultnsConnectionEntryMap;
 	SimultnsUtil simultnsUtil = new SimultnsUtil();
 
+	@Autowired
+	private SessionConcurrency sessionConcurrency;
+
 	@Override
 	public AbstractBestPracticeResult runTest(PacketAnalyzerResult traceData) {
 		traceDataResult = traceData;
@@ -102,17 +105,8 @@ public class SimultnsConnImpl implements IBestPractice {
 			simultnsConnectionEntryList = Collections.emptyList();
 			return;
 		}
-		Map<String, ArrayList<Session>> distinctMap = simultnsUtil.getDistinctMap(sessions);
-		HashMap<String, List<SessionValues>> ipMap = new HashMap<String, List<SessionValues>>();
-		for (Map.Entry<String, ArrayList<Session>> entry : distinctMap.entrySet()) {
-			ArrayList<Session> tempList = entry.getValue();
-			tempList.trimToSize();
-			List<SessionValues> timeMap = simultnsUtil.createDomainsTCPSessions(tempList);
-			ipMap.put(entry.getKey(), timeMap);
-		}
-		for (HashMap.Entry<String, List<SessionValues>> ipEntry : ipMap.entrySet()) {
-			MultipleConnectionsEntry simultnsConnEntry = simultnsUtil.getTimeMap(ipEntry.getValue(), maxConnections,
-					false);
+		for (SessionConcurrency.Group group : sessionConcurrency.getByRemoteIp(traceDataResult).getGroups().values()) {
+			MultipleConnectionsEntry simultnsConnEntry = simultnsUtil.getPeakEntry(group, maxConnections, false);
 			if (simultnsConnEntry != null) {
 				simultnsConnectionEntryMap.put(simultnsConnEntry.getStartTimeStamp(), simultnsConnEntry);
 			}
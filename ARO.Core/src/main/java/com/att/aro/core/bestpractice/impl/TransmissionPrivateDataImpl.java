@@ -15,11 +15,11 @@
 */
 package com.att.aro.core.bestpractice.impl;
 
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -102,19 +102,21 @@ public class TransmissionPrivateDataImpl implements IBestPractice {
 	@Override
 	public AbstractBestPracticeResult runTest(PacketAnalyzerResult tracedata) {
 		Set<TransmissionPrivateDataEntry> entries = new HashSet<TransmissionPrivateDataEntry>();
-		entries.addAll(search(tracedata.getSessionlist(), keywordHandler, tracedata.getDeviceKeywords()));
-		entries.addAll(search(tracedata.getSessionlist(), regexHandler, null));
+		Map<Session, SearchingContent> contents = new IdentityHashMap<>();
+		entries.addAll(search(tracedata.getSessionlist(), contents, keywordHandler, tracedata.getDeviceKeywords()));
+		entries.addAll(search(tracedata.getSessionlist(), contents, regexHandler, null));
 		return getTestResult(entries);
 	}
 	
 	/**
 	 * searching method depends on the type of searching handler (exact keyword searching or pattern searching)
 	 * @param sessions
+	 * @param contents content of the sessions already searched, shared by the handlers
 	 * @param handler
 	 * @param privateDataSet
 	 * @return
 	 */
-	private List<TransmissionPrivateDataEntry> search(List<Session> sessions, 
+	private List<TransmissionPrivateDataEntry> search(List<Session> sessions, Map<Session, SearchingContent> contents,
 								ISearchingHandler handler, Map<String, String> privateDataSet) {
 		
 		List<TransmissionPrivateDataEntry> entries = new LinkedList<>();
@@ -124,7 +126,11 @@ public class TransmissionPrivateDataImpl implements IBestPractice {
 		}
 
 		for (Session session : sessions) {
-			SearchingContent content = getContent(session);
+			SearchingContent content = contents.get(session);
+			if (content == null) {
+				content = getContent(session);
+				contents.put(session, content);
+			}
 			SearchingResult result = handler.search(pattern, content);
 			
 			List<String> wordsFound = result.getWords();
@@ -185,26 +191,22 @@ public class TransmissionPrivateDataImpl implements IBestPractice {
 	}
 	
 	/**
-	 * get content string from given session
+	 * get content from given session, the request payloads are searched as bytes
 	 * @param session
 	 * @return
 	 */
 	private SearchingContent getContent(Session session) {
-		String str = "";
 		ByteArrayOutputStream data = new ByteArrayOutputStream();
-		BufferedOutputStream dataWrapper = new BufferedOutputStream(data);
 		try {
 			for (HttpRequestResponseInfo rrInfo : session.getRequestResponseInfo()) {
 				if (rrInfo.getDirection() == HttpDirection.REQUEST) {
-					dataWrapper.write(rrInfo.getPayloadData().toByteArray());
+					rrInfo.getPayloadData().writeTo(data);
 				}
 			}
-			dataWrapper.flush();
 		} catch (IOException e) {
 			LOGGER.error("Error extracting content from Session: " + session.getSessionKey());
 		}
-		str = Util.byteArrayToString(data.toByteArray());
-		return new SearchingContent(str);
+		return SearchingContent.fromPayload(data.toByteArray());
 	}
 	
 	/**
@@ -17,8 +17,9 @@ package com.att.aro.core.bestpractice.impl;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -31,6 +32,7 @@ import com.att.aro.core.bestpractice.pojo.AbstractBestPracticeResult;
 import com.att.aro.core.bestpractice.pojo.BPResultType;
 import com.att.aro.core.bestpractice.pojo.VideoConcurrentSession;
 import com.att.aro.core.bestpractice.pojo.VideoConcurrentSessionResult;
+import com.att.aro.core.packetanalysis.impl.SessionConcurrency;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
 import com.att.aro.core.packetanalysis.pojo.Session;
 import com.att.aro.core.videoanalysis.pojo.StreamingVideoData;
@@ -166,19 +168,12 @@ public class VideoConcurrentSessionImpl implements IBestPractice {
 		if (MapUtils.isNotEmpty(videoStreamCollection)) {
 			for (VideoStream videoStream : videoStreamMap.values()) {
 				if (videoStream.isSelected()) {
-					ArrayList<Double> sessionStartTimes = new ArrayList<>();
-					ArrayList<Double> sessionEndTimes = new ArrayList<>();
-					ArrayList<Session> sessionList = new ArrayList<>();
+					Set<Session> sessions = new LinkedHashSet<>();
 					SortedMap<String, VideoEvent> videoEventList = videoStream.getVideoEventMap();
 					for (VideoEvent veEntry : videoEventList.values()) {
-						Session session = veEntry.getSession();
-						if (!sessionList.contains(session)) {
-							sessionList.add(session);
-							sessionStartTimes.add(session.getSessionStartTime());
-							sessionEndTimes.add(session.getSessionEndTime());
-						}
+						sessions.add(veEntry.getSession());
 					}
-					VideoConcurrentSession videoConcurrentSession = findConcurrency(sessionStartTimes, sessionEndTimes);
+					VideoConcurrentSession videoConcurrentSession = findConcurrency(SessionConcurrency.group(new ArrayList<>(sessions)));
 					if (videoConcurrentSession != null && videoConcurrentSession.getConcurrentSessionCount() > 0) {
 						videoConcurrentSession.setVideoName(videoStream.getManifest().getVideoName());
 						concurrentSessionList.add(videoConcurrentSession);
@@ -189,21 +184,21 @@ public class VideoConcurrentSessionImpl implements IBestPractice {
 		return concurrentSessionList;
 	}
 
-	private VideoConcurrentSession findConcurrency(ArrayList<Double> sessionStartTimes, ArrayList<Double> sessionEndTimes) {
+	private VideoConcurrentSession findConcurrency(SessionConcurrency.Group sessions) {
 		int maxConcurrentSessions = 0;
 		VideoConcurrentSession concurrentSession = null;
-		if (sessionStartTimes.size() > 0) {
+		double[] sessionStartTimes = sessions.getStarts();
+		double[] sessionEndTimes = sessions.getEnds();
+		if (sessionStartTimes.length > 0) {
 			int startTimeCounter = 0;
 			int endTimeCounter = 0;
 			int currentOverlap = 0;
-			Collections.sort(sessionStartTimes);
-			Collections.sort(sessionEndTimes);
-			int startTimePointer = sessionStartTimes.size();
-			int endTimePointer = sessionEndTimes.size();
+			int startTimePointer = sessionStartTimes.length;
+			int endTimePointer = sessionEndTimes.length;
 			
 			while (startTimeCounter < startTimePointer && endTimeCounter < endTimePointer) {
-				if (sessionStartTimes.get(startTimeCounter) < sessionEndTimes.get(endTimeCounter)) {
-					Double duration = sessionEndTimes.get(endTimeCounter) - sessionStartTimes.get(startTimeCounter);
+				if (sessionStartTimes[startTimeCounter] < sessionEndTimes[endTimeCounter]) {
+					double duration = sessionEndTimes[endTimeCounter] - sessionStartTimes[startTimeCounter];
 					currentOverlap++;
 					startTimeCounter++;
 					if (maxConcurrentSessions <= currentOverlap && currentOverlap > 1) {
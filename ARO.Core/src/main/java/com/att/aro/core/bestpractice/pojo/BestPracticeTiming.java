@@ -5,7 +5,7 @@
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
  *
- *      http://www.apache.org/licenses/LICENSE-2.0 
+ *      http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -13,15 +13,28 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
 */
-package com.att.aro.core.packetreader.model.pcapng;
+package com.att.aro.core.bestpractice.pojo;
 
-
-import com.google.gson.annotations.SerializedName;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
-
+/**
+ * Execution metrics of a single best practice run
+ */
 @Data
-public class RawPacketData {
-	@SerializedName("_source")
-	private Source source;
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestPracticeTiming {
+	private BestPracticeType bestPracticeType;
+	/**
+	 * Epoch time in milliseconds when the best practice started
+	 */
+	private long startTime;
+	/**
+	 * Time spent in runTest, in milliseconds
+	 */
+	private long duration;
+	private String threadName;
+	private boolean success;
 }
@@ -16,28 +16,19 @@
 package com.att.aro.core.bestpractice.pojo;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-
-import org.apache.log4j.Logger;
-import org.apache.log4j.LogManager;
 
+import com.att.aro.core.packetanalysis.impl.SessionConcurrency;
+import com.att.aro.core.packetanalysis.impl.SessionConcurrency.Peak;
 import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
 import com.att.aro.core.packetanalysis.pojo.Session;
 import com.att.aro.core.packetanalysis.pojo.SessionValues;
-import com.att.aro.core.util.Util;
 
 public final class SimultnsUtil {
 	
-	private static final Logger LOGGER = LogManager.getLogger(SimultnsUtil.class.getName());
-	private static final int MAX_CONNECTION_THRESHOLD = 7;
-	
-	TreeMap<Double, String> ipMap = new TreeMap<Double, String>();
-
 	public Map<String, ArrayList<Session>> getDistinctMap(List<Session> sessions) {
 		Map<String, ArrayList<Session>> distinctMap = new HashMap<String, ArrayList<Session>>();
 		for (Session session : sessions) {
@@ -54,109 +45,59 @@ public final class SimultnsUtil {
 		return distinctMap;
 	}
 
-	public MultipleConnectionsEntry getTimeMap(List<SessionValues> tMap, int maxCount, boolean isManyServer) {
-		String ipInside = "";
-		String domainVal = "";
-		TreeMap<Double, Double> timeMap = new TreeMap<Double, Double>();
-		TreeMap<Double, HttpRequestResponseInfo> reqRespTimeMap = new TreeMap<Double, HttpRequestResponseInfo>();
-		int iterator = 0;
-		double sessionStartTime = 0.0;
-		double sessionEndTime = 0.0;
-		double[] start = new double[tMap.size()];
-		double[] end = new double[tMap.size()];
-		for (SessionValues indSessionVal : tMap) {
-			sessionStartTime = indSessionVal.getStartTime();
-			sessionEndTime = indSessionVal.getEndTime();
-			timeMap.put(sessionStartTime, sessionEndTime);
-			start[iterator] = sessionStartTime;
-			end[iterator] = sessionEndTime;
-			ipInside = indSessionVal.getIp().substring(indSessionVal.getIp().lastIndexOf('/') + 1,
-					indSessionVal.getIp().length());
-			ipMap.put(sessionStartTime, ipInside);
-			if (indSessionVal.getReqRespInfo() != null) {
-				HttpRequestResponseInfo reqResponseSessionData = indSessionVal.getReqRespInfo();
-				if (reqResponseSessionData.getHostName() != null) {
-					domainVal = reqResponseSessionData.getHostName();
-				} else {
-					domainVal = ipInside;
-				}
-				reqRespTimeMap.put(sessionStartTime, reqResponseSessionData);
-			} else {
-				reqRespTimeMap.put(sessionStartTime, new HttpRequestResponseInfo());
-			}
-			iterator++;
+	/**
+	 * Entry of the peak of concurrent sessions of a group
+	 * 
+	 * @param group
+	 *            sessions of a remote IP, or of all remote IPs for isManyServer
+	 * @param maxCount
+	 *            number of concurrent sessions reported from
+	 * @param isManyServer
+	 *            true for all remote IPs, the entry is named after the session
+	 *            starting at the peak instead of the last session
+	 * @return the entry, null when the peak is under maxCount
+	 */
+	public MultipleConnectionsEntry getPeakEntry(SessionConcurrency.Group group, int maxCount, boolean isManyServer) {
+		Peak peak = group.getPeak();
+		if (peak.getCount() == 0 || peak.getCount() < maxCount) {
+			return null;
+		}
+		Session session = peak.getSession();
+		HttpRequestResponseInfo reqResp = getRequest(session);
+		String domain;
+		String ipInside;
+		if (isManyServer) {
+			ipInside = getIp(session);
+			domain = reqResp.getHostName() != null ? reqResp.getHostName() : ipInside;
+		} else {
+			Session lastSession = group.getSessions().get(group.getSessions().size() - 1);
+			ipInside = getIp(lastSession);
+			String hostName = getRequest(lastSession).getHostName();
+			domain = hostName != null ? hostName : ipInside;
 		}
-		return maxOverlapIntervalCount(domainVal, start, end, maxCount, timeMap, isManyServer, reqRespTimeMap,
-				ipInside);
+		return new MultipleConnectionsEntry(reqResp, domain.substring(domain.lastIndexOf('/') + 1, domain.length()), peak.getCount(),
+				peak.getTime(), session.getSessionEndTime(), ipInside, isManyServer);
 	}
 
-	private MultipleConnectionsEntry maxOverlapIntervalCount(String domainVal, double[] start, double[] end,
-			int maxCount,
-			TreeMap<Double, Double> timeMap, boolean isManyEndpoints,
-			TreeMap<Double, HttpRequestResponseInfo> reqRespTimeMap, String ipInside) {
-		if (isManyEndpoints && Util.isTestMode()) {
-			LOGGER.debug("Start : ");
-			for (int startCounter = 0; startCounter < start.length; startCounter++) {
-				LOGGER.debug(String.valueOf(start[startCounter]));
-			}
-			LOGGER.debug("End : ");
-			for (int endCounter = 0; endCounter < start.length; endCounter++) {
-				LOGGER.debug(String.valueOf(end[endCounter]));
-			}
-		}
-		Arrays.sort(start);
-		Arrays.sort(end);
-		MultipleConnectionsEntry simultnsConnEntry = null;
-		TreeMap<String, MultipleConnectionsEntry> simultnsConnectionEntryMap = new TreeMap<String, MultipleConnectionsEntry>();
-		double startTime = 0.0;
-		int currentOverlap = 0;
-		int maxOverlap = 0;
-		int startTimeCounter = 0;
-		int endTimeCounter = 0;
-		while (startTimeCounter < start.length && endTimeCounter < end.length) {
-			startTime = start[startTimeCounter];
-			if (startTime < end[endTimeCounter]) {
-				currentOverlap++;
-				if (currentOverlap >= maxCount && maxOverlap < currentOverlap) {
-					if (!isManyEndpoints) {
-						if (simultnsConnectionEntryMap.containsKey(domainVal) && maxCount == MAX_CONNECTION_THRESHOLD) {
-							simultnsConnectionEntryMap.replace(domainVal,
-									new MultipleConnectionsEntry(reqRespTimeMap.get(startTime),
-											domainVal.substring(domainVal.lastIndexOf('/') + 1, domainVal.length()),
-											currentOverlap, startTime, timeMap.get(startTime), ipInside, isManyEndpoints));
-						} else {
-							simultnsConnectionEntryMap.put(domainVal,
-									new MultipleConnectionsEntry(reqRespTimeMap.get(startTime),
-											domainVal.substring(domainVal.lastIndexOf('/') + 1, domainVal.length()),
-											currentOverlap, startTime, timeMap.get(startTime), ipInside, isManyEndpoints));
-						}
-					} else {
-						String domain = "";
-						if (reqRespTimeMap.get(startTime) != null
-								&& reqRespTimeMap.get(startTime).getHostName() != null) {
-							domain = reqRespTimeMap.get(startTime).getHostName();
-						} else {
-							domain = ipMap.get(startTime);
-						}
-						simultnsConnectionEntryMap.put(domainVal,
-								new MultipleConnectionsEntry(reqRespTimeMap.get(startTime),
-										domain.substring(domain.lastIndexOf('/') + 1, domain.length()),
-										currentOverlap, startTime, timeMap.get(startTime), ipMap.get(startTime), isManyEndpoints));
-					}
-					if (maxOverlap < currentOverlap) {
-						maxOverlap = currentOverlap;
-					}
-				}
-				startTimeCounter++;
-			} else {
-				currentOverlap--;
-				endTimeCounter++;
-			}
+	private static String getIp(Session session) {
+		String ip = session.getRemoteIP().toString();
+		return ip.substring(ip.lastIndexOf('/') + 1, ip.length());
+	}
+
+	/**
+	 * @return the first request or response of the session, or one with the
+	 *         remote host name for a session without any
+	 */
+	private static HttpRequestResponseInfo getRequest(Session session) {
+		if (!session.getRequestResponseInfo().isEmpty()) {
+			return session.getRequestResponseInfo().get(0);
 		}
-		if (simultnsConnectionEntryMap.containsKey(domainVal)) {
-			simultnsConnEntry = simultnsConnectionEntryMap.get(domainVal);
+		HttpRequestResponseInfo reqResp = new HttpRequestResponseInfo();
+		if (session.getRemoteHostName() != null) {
+			reqResp.setHostName(session.getRemoteHostName());
+			reqResp.setFirstDataPacket(session.getTcpPackets().get(0));
 		}
-		return simultnsConnEntry;
+		return reqResp;
 	}
 
 	public List<SessionValues> createDomainsTCPSessions(Collection<Session> allTCPSessions) {
@@ -170,12 +111,7 @@ public final class SimultnsUtil {
 						lastSession = aSession;
 					}
 				} else {
-					HttpRequestResponseInfo reqResp = new HttpRequestResponseInfo();
-					if (aSession.getRemoteHostName() != null) {
-						reqResp.setHostName(aSession.getRemoteHostName());
-						reqResp.setFirstDataPacket(aSession.getTcpPackets().get(0));
-					}
-					sessionValues = addSessionValues(sessionValues, lastSession, aSession, reqResp);
+					sessionValues = addSessionValues(sessionValues, lastSession, aSession, getRequest(aSession));
 				}
 			}
 		}
@@ -32,6 +32,7 @@ import com.att.aro.core.configuration.pojo.ProfileWiFi;
 import com.att.aro.core.fileio.IFileManager;
 import com.att.aro.core.packetanalysis.IThroughputCalculator;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
 import com.att.aro.core.packetanalysis.pojo.RRCState;
 import com.att.aro.core.packetanalysis.pojo.Throughput;
 
@@ -197,6 +198,12 @@ public class ProfileFactoryImpl implements IProfileFactory {
 	}
 	@Override
 	public double energyLTE(double time1, double time2, RRCState state, ProfileLTE prof, List<PacketInfo> packets) {
+		// the packets are only read for LTE_CONTINUOUS
+		return energyLTE(time1, time2, state, prof, state == RRCState.LTE_CONTINUOUS ? PacketTable.of(packets) : null);
+	}
+
+	@Override
+	public double energyLTE(double time1, double time2, RRCState state, ProfileLTE prof, PacketTable packets) {
 
 		double deltaTime = time2 - time1;
 		double result = 0.0;
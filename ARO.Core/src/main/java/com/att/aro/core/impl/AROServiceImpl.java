@@ -33,6 +33,7 @@ import com.att.aro.core.IAROService;
 import com.att.aro.core.bestpractice.IBestPractice;
 import com.att.aro.core.bestpractice.pojo.AbstractBestPracticeResult;
 import com.att.aro.core.bestpractice.pojo.BPResultType;
+import com.att.aro.core.bestpractice.pojo.BestPracticeTiming;
 import com.att.aro.core.bestpractice.pojo.BestPracticeType;
 import com.att.aro.core.bestpractice.pojo.BestPracticeType.Category;
 import com.att.aro.core.configuration.pojo.Profile;
@@ -46,8 +47,11 @@ import com.att.aro.core.pojo.AROTraceData;
 import com.att.aro.core.pojo.ErrorCodeRegistry;
 import com.att.aro.core.pojo.VersionInfo;
 import com.att.aro.core.report.IReport;
+import com.att.aro.core.report.pojo.ReportOptions;
 import com.att.aro.core.settings.SettingsUtil;
+import com.att.aro.core.tracemetadata.IMetaDataHelper;
 import com.att.aro.core.util.GoogleAnalyticsUtil;
+import com.att.aro.core.util.ParallelTasks;
 import com.att.aro.mvc.IAROView;
 
 /**
@@ -85,6 +89,8 @@ public class AROServiceImpl implements IAROService {
 	private transient VersionInfo info;
 	@Autowired
 	private IFileManager filemanager;
+	@Autowired
+	private IMetaDataHelper metaDataHelper;
 	@Value("${ga.request.timing.bpTimings.title}")
 	private String bpTimingsTitle;
 	private IReport jsonreport;
@@ -502,6 +508,7 @@ public class AROServiceImpl implements IAROService {
 	public AROTraceData analyzeFile(List<BestPracticeType> requests, String traceFile, Profile profile,
 			AnalysisFilter filter) throws IOException {
 		AROTraceData data = new AROTraceData();
+		data.setMetaDataHelper(metaDataHelper);
 
 		try {
 			PacketAnalyzerResult result = packetanalyzer.analyzeTraceFile(traceFile, profile, filter);
@@ -574,6 +581,7 @@ public class AROServiceImpl implements IAROService {
 	@Override
 	public AROTraceData analyzeDirectory(List<BestPracticeType> requests, String traceDirectory, IAROView aroView, Profile profile, AnalysisFilter filter) throws IOException {
 		AROTraceData data = new AROTraceData();
+		data.setMetaDataHelper(metaDataHelper);
 		PacketAnalyzerResult result = null;
 		if (!filemanager.fileExist(traceDirectory, aroView.getTrafficFile())) {
 			data.setError(ErrorCodeRegistry.getTrafficFileNotFound());
@@ -651,24 +659,17 @@ public class AROServiceImpl implements IAROService {
 		if (result == null) {
 			return null;
 		}
-		List<AbstractBestPracticeResult> resultlist = new ArrayList<AbstractBestPracticeResult>();
-		IBestPractice worker = null;
-		if (requests.contains(BestPracticeType.USING_CACHE) || requests.contains(BestPracticeType.CACHE_CONTROL)
-				 || requests.contains(BestPracticeType.DUPLICATE_CONTENT)) {
-					this.createCacheAnalysis(result);
-		}
-		for (BestPracticeType type : requests) {
-			worker = getBPWorker(type);
-			if (worker != null) {
-				try {
-					long bpStartTime = System.currentTimeMillis();
-					resultlist.add(worker.runTest(result));
-					GoogleAnalyticsUtil.getGoogleAnalyticsInstance().sendAnalyticsTimings(type.getDescription(),
-							System.currentTimeMillis() - bpStartTime, bpTimingsTitle);
-				} catch (Exception | Error ex) {
-					LOGGER.error("Error running best practice " + type.getDescription() + " : ", ex);
-					new Thread(() -> sendExceptiontoGA(type)).start();
-				}
+		List<BestPracticeTiming> timings = new ArrayList<>();
+		List<AbstractBestPracticeResult> resultlist = new BestPracticeScheduler(getBestPracticeThreads())
+				.addPrerequisite(() -> createCacheAnalysis(result), BestPracticeType.USING_CACHE,
+						BestPracticeType.CACHE_CONTROL, BestPracticeType.DUPLICATE_CONTENT)
+				.setFailureListener((type, throwable) -> new Thread(() -> sendExceptiontoGA(type)).start())
+				.run(result, requests, this::getBPWorker, timings);
+		result.setBestPracticeTimings(timings);
+		for (BestPracticeTiming timing : timings) {
+			if (timing.isSuccess()) {
+				GoogleAnalyticsUtil.getGoogleAnalyticsInstance().sendAnalyticsTimings(
+						timing.getBestPracticeType().getDescription(), timing.getDuration(), bpTimingsTitle);
 			}
 		}
 		for(AbstractBestPracticeResult testresult : resultlist){
@@ -677,6 +678,14 @@ public class AROServiceImpl implements IAROService {
 		return resultlist;
 	}
 	
+	/**
+	 * Number of threads used to run best practices, setting BP_THREADS, defaults
+	 * to the number of processors. A value of 1 runs them sequentially.
+	 */
+	private int getBestPracticeThreads() {
+		return ParallelTasks.getThreads(ParallelTasks.BP_THREADS);
+	}
+
     private void sendExceptiontoGA(BestPracticeType type){
     	GoogleAnalyticsUtil.getGoogleAnalyticsInstance().sendErrorEvents("Exception", "Error running best practice: "+ type.getDescription(), false);
     }
@@ -874,6 +883,16 @@ public class AROServiceImpl implements IAROService {
 		return jsonreport.reportGenerator(resultFilePath, results);
 	}
 
+	@Override
+	public boolean getHtmlReport(String resultFilePath, AROTraceData results, ReportOptions options) {
+		return htmlreport.reportGenerator(resultFilePath, results, options);
+	}
+
+	@Override
+	public boolean getJSonReport(String resultFilePath, AROTraceData results, ReportOptions options) {
+		return jsonreport.reportGenerator(resultFilePath, results, options);
+	}
+
 	/**
 	 * Determine if path is to a file or directory. Returns the parent directory
 	 * if a file
@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.att.aro.core.bestpractice.IBestPractice;
+import com.att.aro.core.bestpractice.pojo.AbstractBestPracticeResult;
+import com.att.aro.core.bestpractice.pojo.BestPracticeTiming;
+import com.att.aro.core.bestpractice.pojo.BestPracticeType;
+import com.att.aro.core.bestpractice.pojo.BestPracticeType.Category;
+import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
+import com.att.aro.core.util.ParallelTasks;
+
+/**
+ * Runs best practice workers on a bounded thread pool.
+ * <p>
+ * Best practices that share mutable state are placed in the same lane and run
+ * one after another in request order: the video best practices all work on the
+ * StreamingVideoData and the image best practices share the trace Image
+ * folder. Every other best practice only reads the PacketAnalyzerResult and
+ * gets a lane of its own. A prerequisite, such as the cache analysis, is run
+ * once ahead of the lanes that depend on it.
+ * </p>
+ */
+class BestPracticeScheduler {
+	private static final Logger LOGGER = LogManager.getLogger(BestPracticeScheduler.class.getName());
+
+	/**
+	 * Invoked with the type of a best practice that threw while running
+	 */
+	interface FailureListener {
+		void failed(BestPracticeType type, Throwable throwable);
+	}
+
+	private static final Set<BestPracticeType> IMAGE_LANE = EnumSet.of(BestPracticeType.IMAGE_SIZE, BestPracticeType.IMAGE_MDATA,
+			BestPracticeType.IMAGE_CMPRS, BestPracticeType.IMAGE_FORMAT, BestPracticeType.IMAGE_COMPARE,
+			BestPracticeType.SPRITEIMAGE);
+
+	private final int threads;
+	private final Map<Runnable, Set<BestPracticeType>> prerequisites = new LinkedHashMap<>();
+	private FailureListener failureListener = (type, throwable) -> {
+	};
+
+	BestPracticeScheduler(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Registers a task that must complete before any of the dependents run. The
+	 * task is skipped when none of the dependents are requested.
+	 */
+	BestPracticeScheduler addPrerequisite(Runnable task, BestPracticeType... dependents) {
+		Set<BestPracticeType> types = EnumSet.noneOf(BestPracticeType.class);
+		Collections.addAll(types, dependents);
+		prerequisites.put(task, types);
+		return this;
+	}
+
+	BestPracticeScheduler setFailureListener(FailureListener failureListener) {
+		this.failureListener = failureListener;
+		return this;
+	}
+
+	/**
+	 * Runs the requested best practices, results are returned in request order
+	 * and a timing for every best practice run is added to the timings list.
+	 */
+	List<AbstractBestPracticeResult> run(PacketAnalyzerResult result, List<BestPracticeType> requests,
+			Function<BestPracticeType, IBestPractice> workers, List<BestPracticeTiming> timings) {
+		AbstractBestPracticeResult[] results = new AbstractBestPracticeResult[requests.size()];
+		boolean[] completed = new boolean[requests.size()];
+		if (threads == 1) {
+			for (Map.Entry<Runnable, Set<BestPracticeType>> entry : prerequisites.entrySet()) {
+				if (!Collections.disjoint(entry.getValue(), requests)) {
+					entry.getKey().run();
+				}
+			}
+			for (int index = 0; index < requests.size(); index++) {
+				runWorker(result, requests, index, workers, results, completed, timings);
+			}
+			return collect(results, completed);
+		}
+
+		ExecutorService pool = ParallelTasks.newPool(threads, "BestPractice");
+		try {
+			// prerequisites are queued first so a lane never waits on a task that is not yet running
+			Map<BestPracticeType, List<Future<?>>> dependencies = new LinkedHashMap<>();
+			for (Map.Entry<Runnable, Set<BestPracticeType>> entry : prerequisites.entrySet()) {
+				if (!Collections.disjoint(entry.getValue(), requests)) {
+					Future<?> future = pool.submit(entry.getKey());
+					for (BestPracticeType type : entry.getValue()) {
+						dependencies.computeIfAbsent(type, key -> new ArrayList<>()).add(future);
+					}
+				}
+			}
+
+			Map<Object, List<Integer>> lanes = new LinkedHashMap<>();
+			for (int index = 0; index < requests.size(); index++) {
+				lanes.computeIfAbsent(laneOf(requests.get(index)), key -> new ArrayList<>()).add(index);
+			}
+
+			List<Future<?>> running = new ArrayList<>(lanes.size());
+			for (List<Integer> lane : lanes.values()) {
+				running.add(pool.submit(() -> {
+					for (int index : lane) {
+						awaitAll(dependencies.get(requests.get(index)));
+						runWorker(result, requests, index, workers, results, completed, timings);
+					}
+				}));
+			}
+			awaitAll(running);
+		} finally {
+			pool.shutdownNow();
+		}
+		return collect(results, completed);
+	}
+
+	/**
+	 * Each index is written by exactly one lane, waiting on the lane futures publishes the
+	 * arrays to the calling thread.
+	 */
+	private void runWorker(PacketAnalyzerResult result, List<BestPracticeType> requests, int index,
+			Function<BestPracticeType, IBestPractice> workers, AbstractBestPracticeResult[] results, boolean[] completed,
+			List<BestPracticeTiming> timings) {
+		BestPracticeType type = requests.get(index);
+		IBestPractice worker = workers.apply(type);
+		if (worker == null) {
+			return;
+		}
+		long startTime = System.currentTimeMillis();
+		try {
+			results[index] = worker.runTest(result);
+			completed[index] = true;
+		} catch (Exception | Error ex) {
+			LOGGER.error("Error running best practice " + type.getDescription() + " : ", ex);
+			failureListener.failed(type, ex);
+		}
+		BestPracticeTiming timing = new BestPracticeTiming(type, startTime, System.currentTimeMillis() - startTime,
+				Thread.currentThread().getName(), completed[index]);
+		synchronized (timings) {
+			timings.add(timing);
+		}
+	}
+
+	private static Object laneOf(BestPracticeType type) {
+		if (type.getCategory() == Category.VIDEO) {
+			return Category.VIDEO;
+		} else if (IMAGE_LANE.contains(type)) {
+			return IMAGE_LANE;
+		}
+		return type;
+	}
+
+	private static void awaitAll(List<Future<?>> futures) {
+		if (futures == null) {
+			return;
+		}
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				LOGGER.error("Best practice task failed", e.getCause());
+			}
+		}
+	}
+
+	private static List<AbstractBestPracticeResult> collect(AbstractBestPracticeResult[] results, boolean[] completed) {
+		List<AbstractBestPracticeResult> list = new ArrayList<>(results.length);
+		for (int index = 0; index < results.length; index++) {
+			if (completed[index]) {
+				list.add(results[index]);
+			}
+		}
+		return list;
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis;
+
+import java.util.List;
+
+import com.att.aro.core.configuration.pojo.Profile;
+import com.att.aro.core.packetanalysis.pojo.AnalysisFilter;
+import com.att.aro.core.packetanalysis.pojo.AnalysisSnapshot;
+import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+
+/**
+ * Saves the packet analysis of a trace directory in the directory, and loads it
+ * when the same traffic is analyzed again with the same profile and filter.
+ */
+public interface IAnalysisSnapshotStore {
+
+	/**
+	 * Returns the key of an analysis, a hash of the traffic files, the profile
+	 * and the filter
+	 *
+	 * @param trafficFiles
+	 *            paths of the pcap files of the trace
+	 * @param profile
+	 * @param filter
+	 *            null if the packets are not filtered
+	 * @return the key, null if the analysis is not to be saved
+	 */
+	String getKey(List<String> trafficFiles, Profile profile, AnalysisFilter filter);
+
+	/**
+	 * Loads the snapshot of the trace directory saved with the key. The packet
+	 * state kept by the snapshot is set on the packets.
+	 *
+	 * @param packets
+	 *            the analyzed packets, in the order they were saved
+	 * @return the snapshot, null if there is none for the key
+	 */
+	AnalysisSnapshot load(String traceDirectory, String key, List<PacketInfo> packets);
+
+	/**
+	 * Saves the snapshot in the trace directory, replacing a snapshot saved with
+	 * another key
+	 *
+	 * @param packets
+	 *            the analyzed packets
+	 */
+	void save(String traceDirectory, String key, AnalysisSnapshot snapshot, List<PacketInfo> packets);
+}
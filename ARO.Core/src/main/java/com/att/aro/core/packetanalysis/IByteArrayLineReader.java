@@ -22,6 +22,17 @@ public interface IByteArrayLineReader {
 	void skipContent(int skipAmount);
 	void skipForward(int count);
 	String readLine() throws IOException;
+
+	/**
+	 * Moves to the next line without copying it, the line is getLineLength()
+	 * bytes of getData() from getLineOffset(), without its CRLF
+	 * 
+	 * @return false if the end of the data is reached
+	 */
+	boolean nextLine();
+	byte[] getData();
+	int getLineOffset();
+	int getLineLength();
 	int getIndex();
 	void setArrayIndex(int arrayIndex);
 	int getLength();
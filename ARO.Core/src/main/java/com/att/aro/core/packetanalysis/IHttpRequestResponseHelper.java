@@ -15,6 +15,7 @@
 */
 package com.att.aro.core.packetanalysis;
 
+import com.att.aro.core.packetanalysis.pojo.ContentFingerprint;
 import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
 import com.att.aro.core.packetanalysis.pojo.Session;
 
@@ -23,6 +24,12 @@ public interface IHttpRequestResponseHelper {
 	long getActualByteCount(HttpRequestResponseInfo item, Session session);
 	String getContentString(HttpRequestResponseInfo req, Session session) throws Exception;
 	byte[] getContent(HttpRequestResponseInfo req, Session session) throws Exception;
+
+	/**
+	 * Fingerprint of the content getContent returns, computed once per response.
+	 * Content that cannot be read has the fingerprint of no content.
+	 */
+	ContentFingerprint getContentFingerprint(HttpRequestResponseInfo response, Session session);
 	boolean isJavaScript(String contentType);
 	boolean isCss(String contentType);
 	boolean isHtml(String contentType);
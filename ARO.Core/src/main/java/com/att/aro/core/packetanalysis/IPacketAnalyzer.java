@@ -23,6 +23,7 @@ import com.att.aro.core.configuration.pojo.Profile;
 import com.att.aro.core.packetanalysis.pojo.AnalysisFilter;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.ProfileComparisonTable;
 import com.att.aro.core.packetanalysis.pojo.Statistic;
 import com.att.aro.mvc.IAROView;
 
@@ -32,4 +33,18 @@ public interface IPacketAnalyzer {
 	PacketAnalyzerResult analyzeTraceDirectory(String traceDirectory, IAROView aroView, Profile profile, 
 			AnalysisFilter filter) throws FileNotFoundException;
     Statistic getStatistic(List<PacketInfo> packetInfos);
+
+	/**
+	 * Runs the RRC state machine, energy model and burst analysis of an analyzed
+	 * trace again for each profile, in parallel. The packets and sessions of the
+	 * analysis are reused and not changed, the trace is not read again.
+	 *
+	 * @param analysis
+	 *            result of analyzeTraceFile or analyzeTraceDirectory
+	 * @param profiles
+	 *            profiles to compare, like timer what-ifs of the profile of the
+	 *            analysis
+	 * @return a row per profile, in the order of the profiles
+	 */
+	ProfileComparisonTable sweepProfiles(PacketAnalyzerResult analysis, List<Profile> profiles);
 }
@@ -19,4 +19,10 @@ import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
 
 public interface IParseHeaderLine {
 	void parseHeaderLine(String headerLine, HttpRequestResponseInfo rrInfo);
+
+	/**
+	 * Parses the header line of length bytes at offset in data, a string is
+	 * made only for the headers that are read
+	 */
+	void parseHeaderLine(byte[] data, int offset, int length, HttpRequestResponseInfo rrInfo);
 }
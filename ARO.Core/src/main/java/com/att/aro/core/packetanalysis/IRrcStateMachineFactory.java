@@ -20,6 +20,7 @@ import java.util.List;
 import com.att.aro.core.configuration.pojo.Profile;
 import com.att.aro.core.packetanalysis.pojo.AbstractRrcStateMachine;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
 import com.att.aro.core.packetanalysis.pojo.TimeRange;
 
 /**
@@ -29,4 +30,17 @@ import com.att.aro.core.packetanalysis.pojo.TimeRange;
 public interface IRrcStateMachineFactory {
 	AbstractRrcStateMachine create(List<PacketInfo> packetlist, Profile profile, double packetDuration, 
 			double traceDuration,double totalBytes, TimeRange timerange);
+
+	AbstractRrcStateMachine create(PacketTable packets, Profile profile, double packetDuration,
+			double traceDuration, double totalBytes, TimeRange timerange);
+
+	/**
+	 * Evaluates several profiles, LTE, 3G or WiFi timer what-ifs, over the same
+	 * packets in parallel. The packets are not changed, their state stays the
+	 * one of the profile of the analysis.
+	 *
+	 * @return a state machine per profile, in the order of the profiles
+	 */
+	List<AbstractRrcStateMachine> create(PacketTable packets, List<Profile> profiles, double packetDuration,
+			double traceDuration, double totalBytes, TimeRange timerange);
 }
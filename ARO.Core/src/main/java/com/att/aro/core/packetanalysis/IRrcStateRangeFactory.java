@@ -19,7 +19,10 @@ import java.util.List;
 
 import com.att.aro.core.configuration.pojo.Profile;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
+import com.att.aro.core.packetanalysis.pojo.RRCState;
 import com.att.aro.core.packetanalysis.pojo.RrcStateRange;
+import com.att.aro.core.packetanalysis.pojo.RrcStateTable;
 
 /**
  * create RrcStateRange based on profile type
@@ -27,4 +30,21 @@ import com.att.aro.core.packetanalysis.pojo.RrcStateRange;
  */
 public interface IRrcStateRangeFactory {
 	List<RrcStateRange> create(List<PacketInfo> packetlist, Profile profile, double traceDuration);
+
+	/**
+	 * Same as the List variant, LTE and WiFi state ranges are built from the
+	 * timestamp column of the table.
+	 */
+	List<RrcStateRange> create(PacketTable packets, Profile profile, double traceDuration);
+
+	/**
+	 * Runs the state machine of the profile over the columns of the table
+	 * without changing the packets, so several profiles can be run over the
+	 * same table at the same time.
+	 *
+	 * @param packetStates
+	 *            filled with the RRC state of each packet, may be null
+	 * @return the state ranges, without energy
+	 */
+	RrcStateTable createTable(PacketTable packets, Profile profile, double traceDuration, RRCState[] packetStates);
 }
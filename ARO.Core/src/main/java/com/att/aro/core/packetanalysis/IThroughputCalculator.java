@@ -18,7 +18,10 @@ package com.att.aro.core.packetanalysis;
 import java.util.List;
 
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
 import com.att.aro.core.packetanalysis.pojo.Throughput;
+import com.att.aro.core.packetanalysis.pojo.ThroughputIndex;
+import com.att.aro.core.packetreader.pojo.PacketDirection;
 
 /**
  * calculate throughput from a list of packet in a specified time range
@@ -28,4 +31,30 @@ import com.att.aro.core.packetanalysis.pojo.Throughput;
 public interface IThroughputCalculator {
 	List<Throughput> calculateThroughput(double startTime,
 			double maxTS, double thStep, List<PacketInfo> packets);
+
+	/**
+	 * Same as the List variant, reading timestamp, length and direction from the
+	 * columns of the table.
+	 */
+	List<Throughput> calculateThroughput(double startTime, double maxTS, double thStep, PacketTable packets);
+
+	/**
+	 * Same as the List variant for the packets of one direction, as if the
+	 * list held only those packets. BOTH is the whole list.
+	 */
+	List<Throughput> calculateThroughput(double startTime, double maxTS, double thStep, List<PacketInfo> packets,
+			PacketDirection direction);
+
+	/**
+	 * Same as the PacketTable variant for the rows of one direction. The index
+	 * of the direction is kept by the table for the next calls.
+	 */
+	List<Throughput> calculateThroughput(double startTime, double maxTS, double thStep, PacketTable packets,
+			PacketDirection direction);
+
+	/**
+	 * Same as the List variant, reading the bytes of each window from the
+	 * index.
+	 */
+	List<Throughput> calculateThroughput(double startTime, double maxTS, double thStep, ThroughputIndex index);
 }
@@ -0,0 +1,374 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.att.aro.core.configuration.pojo.Profile;
+import com.att.aro.core.packetanalysis.IAnalysisSnapshotStore;
+import com.att.aro.core.packetanalysis.pojo.AnalysisFilter;
+import com.att.aro.core.packetanalysis.pojo.AnalysisSnapshot;
+import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.RRCState;
+import com.att.aro.core.packetanalysis.pojo.TcpInfo;
+import com.att.aro.core.packetanalysis.pojo.TraceDataConst;
+import com.att.aro.core.packetreader.pojo.Packet;
+import com.att.aro.core.packetreader.pojo.TCPPacket;
+import com.att.aro.core.util.Util;
+
+/**
+ * Keeps one snapshot per trace directory, in the analysis_snapshot file.
+ * <p>
+ * The file starts with a magic number, the format version and the key, so a
+ * snapshot of another analysis is rejected without reading the rest. The
+ * snapshot follows as a gzip compressed object stream, with every packet
+ * replaced by its index in the analyzed packets. Request and response
+ * payloads are kept as where they are in the packets, see
+ * HttpRequestResponseInfo. Only the classes of the analysis model are read
+ * back from the stream.
+ * </p>
+ * <p>
+ * The key is a hash of the size, the modification time and the first
+ * {@value #HEADER_SIZE} bytes of each traffic file, so getting it does not read
+ * the traffic.
+ * </p>
+ * Saving snapshots is turned off by setting ANALYSIS_SNAPSHOT to false.
+ */
+public class AnalysisSnapshotStoreImpl implements IAnalysisSnapshotStore {
+	private static final Logger LOGGER = LogManager.getLogger(AnalysisSnapshotStoreImpl.class);
+
+	static final int MAGIC = 0x41524f53;
+
+	/**
+	 * Changed whenever a class saved in the snapshot changes its serialized form
+	 */
+	static final int FORMAT_VERSION = 2;
+
+	private static final String ANALYSIS_SNAPSHOT = "ANALYSIS_SNAPSHOT";
+
+	/**
+	 * Bytes read from the start of each traffic file for the key
+	 */
+	static final int HEADER_SIZE = 64 * 1024;
+
+	/**
+	 * Packages of the classes a snapshot is made of
+	 */
+	private static final String[] MODEL_PACKAGES = { "com.att.aro.core.packetanalysis.pojo.",
+			"com.att.aro.core.packetreader.pojo.", "com.att.aro.core.configuration.pojo." };
+
+	/**
+	 * Other classes a snapshot is made of
+	 */
+	private static final Set<String> MODEL_CLASSES = new HashSet<>(Arrays.asList(PacketRef.class.getName(),
+			"java.lang.Boolean", "java.lang.Byte", "java.lang.Character", "java.lang.Double", "java.lang.Enum",
+			"java.lang.Float", "java.lang.Integer", "java.lang.Long", "java.lang.Number", "java.lang.Short",
+			"java.lang.String", "java.net.Inet4Address", "java.net.Inet6Address", "java.net.Inet6Address$Inet6AddressHolder",
+			"java.net.InetAddress", "java.net.InetAddress$InetAddressHolder", "java.net.URI", "java.util.ArrayList",
+			"java.util.BitSet", "java.util.Date", "java.util.HashMap", "java.util.HashSet", "java.util.LinkedHashMap",
+			"java.util.LinkedHashSet", "java.util.LinkedList", "java.util.TreeMap", "java.util.TreeSet"));
+
+	/**
+	 * Stands for a packet in the snapshot
+	 */
+	private static final class PacketRef implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final int index;
+		/**
+		 * true for the Packet of the PacketInfo at index
+		 */
+		private final boolean packet;
+
+		private PacketRef(int index, boolean packet) {
+			this.index = index;
+			this.packet = packet;
+		}
+	}
+
+	private static final class PacketOutputStream extends ObjectOutputStream {
+		private final Map<Object, Integer> packetIndexes = new IdentityHashMap<>();
+
+		private PacketOutputStream(OutputStream out, List<PacketInfo> packets) throws IOException {
+			super(out);
+			for (int index = 0; index < packets.size(); index++) {
+				packetIndexes.put(packets.get(index), index);
+				packetIndexes.put(packets.get(index).getPacket(), index);
+			}
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			if (obj instanceof PacketInfo || obj instanceof Packet) {
+				Integer index = packetIndexes.get(obj);
+				if (index == null) {
+					throw new NotSerializableException("Packet outside of the analyzed packets");
+				}
+				return new PacketRef(index, !(obj instanceof PacketInfo));
+			}
+			return obj;
+		}
+	}
+
+	private static final class PacketInputStream extends ObjectInputStream {
+		private final List<PacketInfo> packets;
+
+		private PacketInputStream(InputStream in, List<PacketInfo> packets) throws IOException {
+			super(in);
+			this.packets = packets;
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			if (!isModelClass(desc.getName())) {
+				throw new InvalidClassException(desc.getName(), "not a class of the analysis model");
+			}
+			return super.resolveClass(desc);
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+			throw new InvalidClassException("proxy", "not a class of the analysis model");
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException {
+			if (obj instanceof PacketRef) {
+				PacketInfo packetInfo = packets.get(((PacketRef) obj).index);
+				return ((PacketRef) obj).packet ? packetInfo.getPacket() : packetInfo;
+			}
+			return obj;
+		}
+	}
+
+	/**
+	 * true for a class of the analysis model, a primitive type array or an array
+	 * of the model classes
+	 */
+	static boolean isModelClass(String name) {
+		int dimensions = 0;
+		while (name.charAt(dimensions) == '[') {
+			dimensions++;
+		}
+		String component = name.substring(dimensions);
+		if (dimensions > 0) {
+			if (component.length() == 1) {
+				// an array of a primitive type
+				return true;
+			}
+			component = component.substring(1, component.length() - 1);
+		}
+		if (MODEL_CLASSES.contains(component)) {
+			return true;
+		}
+		for (String modelPackage : MODEL_PACKAGES) {
+			if (component.startsWith(modelPackage)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String getKey(List<String> trafficFiles, Profile profile, AnalysisFilter filter) {
+		if ("false".equalsIgnoreCase(Util.getAttribute(ANALYSIS_SNAPSHOT).trim())) {
+			return null;
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update((FORMAT_VERSION + " " + getClass().getPackage().getImplementationVersion()).getBytes(StandardCharsets.UTF_8));
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			for (String trafficFile : trafficFiles) {
+				Path path = Paths.get(trafficFile);
+				try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+					ByteBuffer attributes = ByteBuffer.allocate(2 * Long.BYTES);
+					attributes.putLong(channel.size()).putLong(Files.getLastModifiedTime(path).toMillis()).flip();
+					digest.update(attributes);
+					header.clear();
+					int read;
+					do {
+						read = channel.read(header);
+					} while (read >= 0 && header.hasRemaining());
+					header.flip();
+					digest.update(header);
+				}
+			}
+			digest.update(serialize(profile));
+			if (filter != null) {
+				digest.update(serialize(filter));
+			}
+			return String.format("%064x", new BigInteger(1, digest.digest()));
+		} catch (IOException | NoSuchAlgorithmException e) {
+			LOGGER.warn("Unable to create the analysis snapshot key: " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public AnalysisSnapshot load(String traceDirectory, String key, List<PacketInfo> packets) {
+		if (key == null) {
+			return null;
+		}
+		Path file = Paths.get(traceDirectory, TraceDataConst.FileName.ANALYSIS_SNAPSHOT);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		long start = System.currentTimeMillis();
+		AnalysisSnapshot snapshot;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF())) {
+				LOGGER.debug("Analysis snapshot of " + traceDirectory + " was saved for another analysis");
+				return null;
+			}
+			try (ObjectInputStream objects = new PacketInputStream(new GZIPInputStream(in), packets)) {
+				snapshot = (AnalysisSnapshot) objects.readObject();
+			}
+		} catch (IOException | ClassNotFoundException | RuntimeException e) {
+			LOGGER.warn("Unable to load the analysis snapshot of " + traceDirectory + ": " + e.getMessage());
+			return null;
+		}
+		if (!matches(snapshot, packets)) {
+			LOGGER.warn("Analysis snapshot of " + traceDirectory + " does not match the packets read");
+			return null;
+		}
+		restorePacketState(snapshot, packets);
+		LOGGER.info("Loaded the analysis snapshot of " + traceDirectory + " in ms: " + (System.currentTimeMillis() - start));
+		return snapshot;
+	}
+
+	@Override
+	public void save(String traceDirectory, String key, AnalysisSnapshot snapshot, List<PacketInfo> packets) {
+		if (key == null) {
+			return;
+		}
+		long start = System.currentTimeMillis();
+		savePacketState(snapshot, packets);
+		Path file = Paths.get(traceDirectory, TraceDataConst.FileName.ANALYSIS_SNAPSHOT);
+		Path temp = null;
+		try {
+			temp = Files.createTempFile(file.getParent(), TraceDataConst.FileName.ANALYSIS_SNAPSHOT, ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(key);
+				try (ObjectOutputStream objects = new PacketOutputStream(new GZIPOutputStream(out), packets)) {
+					objects.writeObject(snapshot);
+				}
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			LOGGER.info("Saved the analysis snapshot of " + traceDirectory + " in ms: " + (System.currentTimeMillis() - start));
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Unable to save the analysis snapshot of " + traceDirectory + ": " + e.getMessage());
+			try {
+				if (temp != null) {
+					Files.deleteIfExists(temp);
+				}
+			} catch (IOException ex) {
+				LOGGER.debug("Unable to delete " + temp, ex);
+			}
+		}
+	}
+
+	private static boolean matches(AnalysisSnapshot snapshot, List<PacketInfo> packets) {
+		return snapshot.getPacketCount() == packets.size()
+				&& (packets.isEmpty() || (snapshot.getFirstTimestamp() == packets.get(0).getTimeStamp()
+						&& snapshot.getLastTimestamp() == packets.get(packets.size() - 1).getTimeStamp()));
+	}
+
+	private static void savePacketState(AnalysisSnapshot snapshot, List<PacketInfo> packets) {
+		int packetCount = packets.size();
+		TcpInfo[] tcpInfos = new TcpInfo[packetCount];
+		RRCState[] rrcStates = new RRCState[packetCount];
+		BitSet retransmissions = new BitSet(packetCount);
+		for (int index = 0; index < packetCount; index++) {
+			PacketInfo packetInfo = packets.get(index);
+			tcpInfos[index] = packetInfo.getTcpInfo();
+			rrcStates[index] = packetInfo.getStateMachine();
+			if (packetInfo.getPacket() instanceof TCPPacket && ((TCPPacket) packetInfo.getPacket()).isRetransmission()) {
+				retransmissions.set(index);
+			}
+		}
+		snapshot.setPacketCount(packetCount);
+		if (packetCount > 0) {
+			snapshot.setFirstTimestamp(packets.get(0).getTimeStamp());
+			snapshot.setLastTimestamp(packets.get(packetCount - 1).getTimeStamp());
+		}
+		snapshot.setTcpInfos(tcpInfos);
+		snapshot.setRrcStates(rrcStates);
+		snapshot.setRetransmissions(retransmissions);
+	}
+
+	private static void restorePacketState(AnalysisSnapshot snapshot, List<PacketInfo> packets) {
+		for (int index = 0; index < packets.size(); index++) {
+			PacketInfo packetInfo = packets.get(index);
+			packetInfo.setTcpInfo(snapshot.getTcpInfos()[index]);
+			packetInfo.setStateMachine(snapshot.getRrcStates()[index]);
+			if (packetInfo.getPacket() instanceof TCPPacket) {
+				TCPPacket tcpPacket = (TCPPacket) packetInfo.getPacket();
+				tcpPacket.setRetransmission(snapshot.getRetransmissions().get(index));
+				if (tcpPacket.isDecrypted()) {
+					tcpPacket.setDataOffset(0);
+				}
+			}
+		}
+	}
+}
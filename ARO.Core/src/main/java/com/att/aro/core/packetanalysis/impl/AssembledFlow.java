@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.Session;
+
+import lombok.Data;
+
+/**
+ * Packets of one flow and the sessions assembled from them.
+ * <p>
+ * SessionManagerImpl keeps the flows of the previous analysis, so when a new
+ * time range or application filter leaves the packets of a flow unchanged its
+ * sessions are reused instead of being assembled and analyzed again.
+ * </p>
+ */
+final class AssembledFlow {
+
+	/**
+	 * DNS packets and names associated with a TCP session before its requests
+	 * and responses are analyzed
+	 */
+	@Data
+	static class DnsLookup {
+		private PacketInfo dnsResponsePacket;
+		private String domainName;
+		private PacketInfo dnsRequestPacket;
+		private String remoteHostName;
+
+		void applyTo(Session session) {
+			session.setDnsResponsePacket(dnsResponsePacket);
+			if (dnsResponsePacket != null) {
+				session.setDomainName(domainName);
+			}
+			session.setDnsRequestPacket(dnsRequestPacket);
+			session.setRemoteHostName(remoteHostName);
+		}
+	}
+
+	private final FlowKey key;
+	private final boolean udp;
+
+	/**
+	 * Indexes of the packets of the flow in the packet list being analyzed
+	 */
+	private int[] packetIndexes = new int[4];
+	private int size;
+
+	private PacketInfo[] packets;
+	/**
+	 * Session of each packet of the flow
+	 */
+	private Session[] sessionOf;
+	private List<Session> sessions;
+	private DnsLookup[] lookups;
+	private boolean reused;
+
+	AssembledFlow(FlowKey key, boolean udp) {
+		this.key = key;
+		this.udp = udp;
+	}
+
+	FlowKey getKey() {
+		return key;
+	}
+
+	boolean isUdp() {
+		return udp;
+	}
+
+	void add(int packetIndex) {
+		if (size == packetIndexes.length) {
+			packetIndexes = Arrays.copyOf(packetIndexes, size * 2);
+		}
+		packetIndexes[size++] = packetIndex;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int getPacketIndex(int index) {
+		return packetIndexes[index];
+	}
+
+	/**
+	 * @return true if previous was assembled from the same packet objects, in
+	 *         the same order, as this flow has in packetList
+	 */
+	boolean hasPacketsOf(AssembledFlow previous, List<PacketInfo> packetList) {
+		if (previous == null || previous.packets == null || previous.packets.length != size) {
+			return false;
+		}
+		for (int index = 0; index < size; index++) {
+			if (previous.packets[index] != packetList.get(packetIndexes[index])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	void reuse(AssembledFlow previous) {
+		packets = previous.packets;
+		sessionOf = previous.sessionOf;
+		sessions = previous.sessions;
+		lookups = previous.lookups;
+		reused = true;
+	}
+
+	void assembled(PacketInfo[] packets, Session[] sessionOf, List<Session> sessions) {
+		this.packets = packets;
+		this.sessionOf = sessionOf;
+		this.sessions = sessions;
+		lookups = null;
+		reused = false;
+	}
+
+	/**
+	 * @return true if the sessions were taken from the previous analysis
+	 */
+	boolean isReused() {
+		return reused;
+	}
+
+	Session getSessionOf(int index) {
+		return sessionOf[index];
+	}
+
+	List<Session> getSessions() {
+		return sessions;
+	}
+
+	/**
+	 * @return true if the sessions were reused with the DNS lookups found now
+	 */
+	boolean hasLookups(Map<Session, DnsLookup> found) {
+		if (lookups == null || lookups.length != sessions.size()) {
+			return false;
+		}
+		for (int index = 0; index < lookups.length; index++) {
+			if (!Objects.equals(lookups[index], found.get(sessions.get(index)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	void setLookups(DnsLookup[] lookups) {
+		this.lookups = lookups;
+	}
+}
@@ -20,7 +20,6 @@ import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +36,7 @@ import com.att.aro.core.packetanalysis.pojo.BurstAnalysisInfo;
 import com.att.aro.core.packetanalysis.pojo.BurstCategory;
 import com.att.aro.core.packetanalysis.pojo.BurstCollectionAnalysisData;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
 import com.att.aro.core.packetanalysis.pojo.RRCState;
 import com.att.aro.core.packetanalysis.pojo.RrcStateRange;
 import com.att.aro.core.packetanalysis.pojo.Session;
@@ -63,6 +63,16 @@ public class BurstCollectionAnalysisImpl implements IBurstCollectionAnalysis {
 			List<RrcStateRange> rrcstaterangelist,
 			List<UserEvent> usereventlist, List<CpuActivity> cpuactivitylist,
 			List<Session> sessionlist) {
+		return analyze(PacketTable.of(packets, sessionlist), profile, packetSizeToCountMap, rrcstaterangelist,
+				usereventlist, cpuactivitylist, sessionlist);
+	}
+
+	@Override
+	public BurstCollectionAnalysisData analyze(PacketTable packets,
+			Profile profile, Map<Integer, Integer> packetSizeToCountMap,
+			List<RrcStateRange> rrcstaterangelist,
+			List<UserEvent> usereventlist, List<CpuActivity> cpuactivitylist,
+			List<Session> sessionlist) {
 		BurstCollectionAnalysisData data = new BurstCollectionAnalysisData();
 		
 		Set<Integer> mss = calculateMssLargerPacketSizeSet(packetSizeToCountMap);
@@ -483,47 +493,55 @@ public class BurstCollectionAnalysisImpl implements IBurstCollectionAnalysis {
 	 * Groups packets into Burst Collections
 	 * @return 
 	 */
-	private List<Burst> groupIntoBursts(List<PacketInfo> packets, Profile profile, Set<Integer> mss, 
+	private List<Burst> groupIntoBursts(PacketTable packets, Profile profile, Set<Integer> mss, 
 			List<RrcStateRange> rrcstaterangelist) {
 		List<Burst> burstCollection;
 		// Validate that there are packets
-		if (packets == null || packets.isEmpty()) {
+		if (packets == null || packets.size() == 0) {
 			burstCollection = Collections.emptyList();
 			return burstCollection;
 		}
+		double[] timestamps = packets.getTimestamps();
+		int[] payloadLengths = packets.getPayloadLengths();
+		List<PacketInfo> packetList = packets.getPackets();
 		ArrayList<Burst> result = new ArrayList<Burst>();
+		// rows of the begin and end packet of each burst in result
+		List<int[]> burstRows = new ArrayList<>();
 		double burstThresh = profile.getBurstTh();
 		double longBurstThresh = profile.getLongBurstTh();
-		List<PacketInfo> burstPackets = new ArrayList<PacketInfo>();
 		// Step 1: Build bursts using burst time threshold
-		PacketInfo lastPacket = null;
-		for (PacketInfo packet : packets) {
-			if ((lastPacket == null
-					|| (packet.getTimeStamp() - lastPacket.getTimeStamp() > burstThresh && 
-							!mss.contains(lastPacket.getPayloadLen()))) && (!burstPackets.isEmpty())) {
-
-				result.add(new Burst(burstPackets));
-				burstPackets.clear();
+		int burstStart = 0;
+		for (int row = 1; row < timestamps.length; row++) {
+			if (timestamps[row] - timestamps[row - 1] > burstThresh && !mss.contains(payloadLengths[row - 1])) {
+				result.add(new Burst(packetList.subList(burstStart, row)));
+				burstRows.add(new int[] { burstStart, row - 1 });
+				burstStart = row;
 			}
-			burstPackets.add(packet);
-			lastPacket = packet;
 		}
-		result.add(new Burst(burstPackets));
+		result.add(new Burst(packetList.subList(burstStart, timestamps.length)));
+		burstRows.add(new int[] { burstStart, timestamps.length - 1 });
 
 		// Step 2: Remove promotion delays and merge bursts if possible
-		Map<PacketInfo, Double> timestampList = normalizeCore(packets, rrcstaterangelist);
+		double[] timestampList = normalizeCore(timestamps, rrcstaterangelist);
 		List<Burst> newBurstColl = new ArrayList<Burst>(result.size());
 		int size = result.size();
 		Burst newBurst = result.get(0);
+		int newBurstEnd = burstRows.get(0)[1];
 		for (int i = 0; i < size - 1; i++) {
 			Burst bnext = result.get(i + 1);
-			double time1 = timestampList.get(newBurst.getEndPacket());
-			double time2 = timestampList.get(bnext.getBeginPacket());
+			int[] nextRows = burstRows.get(i + 1);
+			double time1 = timestampList[newBurstEnd];
+			double time2 = timestampList[nextRows[0]];
 			if ((time2 - time1) < burstThresh) {
+				// Burst.merge keeps the later of both end packets
+				if (timestamps[newBurstEnd] < timestamps[nextRows[1]]) {
+					newBurstEnd = nextRows[1];
+				}
 				newBurst.merge(bnext);
 			} else {
 				newBurstColl.add(newBurst);
 				newBurst = bnext;
+				newBurstEnd = nextRows[1];
 			}
 		}
 		newBurstColl.add(newBurst);
@@ -548,10 +566,11 @@ public class BurstCollectionAnalysisImpl implements IBurstCollectionAnalysis {
 	/**
 	 * Method orginally found in whatif.cpp
 	 * 
-	 * @param packets
-	 *            returns timestampList - List of doubles
+	 * @param timestamps
+	 *            packet timestamps in timeline order
+	 * @return timestamps with the promotion delays removed, by row
 	 */
-	private Map<PacketInfo, Double> normalizeCore(List<PacketInfo> packets, List<RrcStateRange> rrcstaterangelist) {
+	private double[] normalizeCore(double[] timestamps, List<RrcStateRange> rrcstaterangelist) {
 
 		// Step 1: Identify Promotions
 		List<RrcStateRange> promoDelays = new ArrayList<RrcStateRange>();
@@ -562,10 +581,7 @@ public class BurstCollectionAnalysisImpl implements IBurstCollectionAnalysis {
 			}
 		}
 		Collections.sort(promoDelays);
-		PacketTimestamp[] timeStampList = new PacketTimestamp[packets.size()];
-		for (int i = 0; i < packets.size(); i++) {
-			timeStampList[i] = new PacketTimestamp(packets.get(i));
-		}
+		double[] timeStampList = new double[timestamps.length];
 
 		// Step 2: Remove all promo delays
 		int pdSize = promoDelays.size();
@@ -574,7 +590,7 @@ public class BurstCollectionAnalysisImpl implements IBurstCollectionAnalysis {
 		int pdMiddlePosKey = -1; // "in-the-middle" position
 		double middlePos = 0; // How to initialize??
 		for (int i = 0; i < timeStampList.length; i++) {
-			double timeStamp = timeStampList[i].timestamp;
+			double timeStamp = timestamps[i];
 			while (pdKey < pdSize && timeStamp >= promoDelays.get(pdKey).getEndTime() - EPS) {
 				if (pdMiddlePosKey != -1) {
 //					assert (pdMiddlePosKey == pdKey && i > 0 && promoDelays.get(pdKey).getEndTime() >= middlePos);
@@ -599,14 +615,10 @@ public class BurstCollectionAnalysisImpl implements IBurstCollectionAnalysis {
 					middlePos = timeStamp;
 				}
 			}
-			timeStampList[i].timestamp = timeStampList[i].timestamp - timeStampShift;
-//			assert (i == 0 || timeStampList[i].timestamp >= timeStampList[i - 1].timestamp);
-		}
-		Map<PacketInfo, Double> result = new LinkedHashMap<PacketInfo, Double>(timeStampList.length);
-		for (int i = 0; i < timeStampList.length; ++i) {
-			result.put(timeStampList[i].packet, timeStampList[i].timestamp);
+			timeStampList[i] = timeStamp - timeStampShift;
+//			assert (i == 0 || timeStampList[i] >= timeStampList[i - 1]);
 		}
-		return result;
+		return timeStampList;
 	}
 
 	/**
@@ -644,19 +656,5 @@ public class BurstCollectionAnalysisImpl implements IBurstCollectionAnalysis {
 		}
 		return mssLargerPacketSizeSet;
 	}
-	//helper classes
-	/**
-	 * Private utility class
-	 */
-	private class PacketTimestamp {
-		private PacketInfo packet;
-		private double timestamp;
-
-		public PacketTimestamp(PacketInfo packet) {
-			this.packet = packet;
-			this.timestamp = packet.getTimeStamp();
-		}
-	}
 
-	
 }
@@ -17,7 +17,6 @@ package com.att.aro.core.packetanalysis.impl;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.io.ByteArrayOutputStream;
 
 import com.att.aro.core.util.Util;
 import com.att.aro.core.packetanalysis.IByteArrayLineReader;
@@ -32,6 +31,8 @@ public class ByteArrayLineReaderImpl implements IByteArrayLineReader {
 	private int length;
 	private byte[] byteArray;
 	private int index;
+	private int lineOffset;
+	private int lineLength;
 	
 	/**
 	 * Instantiate a byte[] for retrieval of strings
@@ -66,56 +67,54 @@ public class ByteArrayLineReaderImpl implements IByteArrayLineReader {
 		}
 	}
 
-	/**
-	 * Reads from input stream keeping counter of how much has been read
-	 * 
-	 * @return
-	 * @throws IOException
-	 */
-	private int readInput() {
-		int result;
-		if (index < length) {
-			result = byteArray[index];
-			++index;
-		} else {
-			result = -1;
-		}
-		return result;
-	}
-
 	/**
 	 * Read a line of text from the HTTP request/response stream. 
 	 * Line terminations recognized by crlf (\r\n)
 	 * 
-	 * @param byteArray
-	 *            the request/response stream
 	 * @return Next line of text in stream or null if end of stream reached
 	 * @throws IOException
 	 */
 	public String readLine() throws IOException {
-		int num;
-		try(ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+		return nextLine() ? new String(byteArray, lineOffset, lineLength, StandardCharsets.UTF_8) : null;
+	}
 
-			// Look for CRLF
-			while ((num = readInput()) != -1) {
-				
-				if (num == '\r') {
-					num = readInput();
-					if (num == '\n') {
-						// Return found line of text
-						return new String(output.toByteArray(), StandardCharsets.UTF_8);
-					} else {
-						output.write('\r');
-						output.write(num);
-					}
-				} else {
-					output.write(num);
-				}
+	/**
+	 * Moves to the next line, ended by crlf (\r\n). A \r is taken with the
+	 * byte after it, so \r\r\n does not end a line. The last line is the
+	 * rest of the data if it is not empty.
+	 * 
+	 * @return false if the end of the data is reached
+	 */
+	public boolean nextLine() {
+		int start = index;
+		int position = index;
+		while (position < length) {
+			if (byteArray[position++] == '\r' && position < length && byteArray[position++] == '\n') {
+				lineOffset = start;
+				lineLength = position - 2 - start;
+				index = position;
+				return true;
 			}
-
-			// End of stream
-			return output.size() > 0 ? new String(output.toByteArray() , StandardCharsets.UTF_8) : null;
 		}
+		index = Math.max(index, length);
+		if (position > start) {
+			lineOffset = start;
+			lineLength = position - start;
+			return true;
+		}
+		return false;
+	}
+
+	public byte[] getData() {
+		return byteArray;
+	}
+
+	public int getLineOffset() {
+		return lineOffset;
+	}
+
+	public int getLineLength() {
+		return lineLength;
 	}
 
 	public int getIndex() {
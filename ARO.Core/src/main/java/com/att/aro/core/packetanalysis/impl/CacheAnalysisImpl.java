@@ -16,7 +16,6 @@
 package com.att.aro.core.packetanalysis.impl;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -25,6 +24,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -165,8 +165,7 @@ public class CacheAnalysisImpl implements ICacheAnalysis {
 				if (cacheDuplicateEntry != null) {
 					diagnosis = Diagnosis.CACHING_DIAG_ETAG_DUPLICATE;
 				}
-				duplicateEntries.add(new DuplicateEntry(request, response, diagnosis, firstPacket, session,
-						getContent(response, session)));
+				duplicateEntries.add(new DuplicateEntry(request, response, diagnosis, firstPacket, session));
 				continue;
 			} else {
 				int oldCount = cacheEntry.getCacheCount();
@@ -189,7 +188,7 @@ public class CacheAnalysisImpl implements ICacheAnalysis {
 					newCacheEntry = new CacheEntry(request, response, Diagnosis.CACHING_DIAG_NOT_EXPIRED_DUP,
 							firstPacket);
 					duplicateEntries.add(new DuplicateEntry(request, response, Diagnosis.CACHING_DIAG_NOT_EXPIRED_DUP,
-							firstPacket, session, getContent(response, session)));
+							firstPacket, session));
 					diagnosisResults.add(newCacheEntry);
 					break;
 				default:
@@ -211,7 +210,7 @@ public class CacheAnalysisImpl implements ICacheAnalysis {
 					newCacheEntry = new CacheEntry(request, response, Diagnosis.CACHING_DIAG_NOT_EXPIRED_DUP_PARTIALHIT,
 							bytesInCache, firstPacket);
 					duplicateEntries.add(new DuplicateEntry(request, response, Diagnosis.CACHING_DIAG_NOT_EXPIRED_DUP,
-							firstPacket, session, getContent(response, session)));
+							firstPacket, session));
 					diagnosisResults.add(newCacheEntry);
 					break;
 				default:
@@ -238,7 +237,9 @@ public class CacheAnalysisImpl implements ICacheAnalysis {
 						dupEntry.setCount(1);
 						duplicateEntriesMap.put(key, dupEntry);
 					} else {
-						if (Arrays.equals(duplicateEntriesMap.get(key).getContent(), dupEntry.getContent())) {
+						DuplicateEntry original = duplicateEntriesMap.get(key);
+						if (Objects.equals(rrhelper.getContentFingerprint(original.getResponse(), original.getSession()),
+								rrhelper.getContentFingerprint(dupEntry.getResponse(), dupEntry.getSession()))) {
 							int count = duplicateEntriesMap.get(key).getCount();
 							if (count == 1) {
 								cache = new CacheEntry(duplicateEntriesMap.get(key).getRequest(),
@@ -252,8 +253,7 @@ public class CacheAnalysisImpl implements ICacheAnalysis {
 									dupEntry.getDiagnosis(), dupEntry.getSessionFirstPacket());
 							dupsWithOrig.add(cache);
 							dupEntry = new DuplicateEntry(dupEntry.getRequest(), dupEntry.getResponse(),
-									dupEntry.getDiagnosis(), dupEntry.getSessionFirstPacket(), dupEntry.getSession(),
-									dupEntry.getContent());
+									dupEntry.getDiagnosis(), dupEntry.getSessionFirstPacket(), dupEntry.getSession());
 							dupEntry.setCount(count + 1);
 							duplicateEntriesMap.replace(key, dupEntry);
 						}
@@ -301,14 +301,12 @@ public class CacheAnalysisImpl implements ICacheAnalysis {
 				newCacheEntry = new CacheEntry(request, response,
 						Diagnosis.CACHING_DIAG_OBJ_NOT_CHANGED_DUP_PARTIALHIT_SERVER, bytesInCache, firstPacket);
 				duplicateEntries.add(new DuplicateEntry(request, response,
-						Diagnosis.CACHING_DIAG_OBJ_NOT_CHANGED_DUP_PARTIALHIT_SERVER, firstPacket, session,
-						getContent(response, session)));
+						Diagnosis.CACHING_DIAG_OBJ_NOT_CHANGED_DUP_PARTIALHIT_SERVER, firstPacket, session));
 			} else {
 				newCacheEntry = new CacheEntry(request, response,
 						Diagnosis.CACHING_DIAG_OBJ_NOT_CHANGED_DUP_PARTIALHIT_CLIENT, bytesInCache, firstPacket);
 				duplicateEntries.add(new DuplicateEntry(request, response,
-						Diagnosis.CACHING_DIAG_OBJ_NOT_CHANGED_DUP_PARTIALHIT_CLIENT, firstPacket, session,
-						getContent(response, session)));
+						Diagnosis.CACHING_DIAG_OBJ_NOT_CHANGED_DUP_PARTIALHIT_CLIENT, firstPacket, session));
 			}
 		}
 		return newCacheEntry;
@@ -323,13 +321,13 @@ public class CacheAnalysisImpl implements ICacheAnalysis {
 						firstPacket);
 				duplicateEntries
 						.add(new DuplicateEntry(request, response, Diagnosis.CACHING_DIAG_OBJ_NOT_CHANGED_DUP_SERVER,
-								firstPacket, session, getContent(response, session)));
+								firstPacket, session));
 			} else {
 				newCacheEntry = new CacheEntry(request, response, Diagnosis.CACHING_DIAG_OBJ_NOT_CHANGED_DUP_CLIENT,
 						firstPacket);
 				duplicateEntries
 						.add(new DuplicateEntry(request, response, Diagnosis.CACHING_DIAG_OBJ_NOT_CHANGED_DUP_CLIENT,
-								firstPacket, session, getContent(response, session)));
+								firstPacket, session));
 			}
 		}
 		return newCacheEntry;
@@ -547,14 +545,4 @@ public class CacheAnalysisImpl implements ICacheAnalysis {
 			return -1;
 		}
 	}
-
-	public byte[] getContent(HttpRequestResponseInfo response, Session session) {
-		byte[] content = new byte[0];
-		try {
-			content = rrhelper.getContent(response, session);
-		} catch (Exception e) {
-			LOG.error("Error in retrieving Content: "+e.getMessage());
-		}
-		return content;
-	}
 }// end class
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
+
+/**
+ * Decoded content of responses, kept within a byte budget and evicted least
+ * recently used first.
+ * <p>
+ * Responses are held weakly and by identity, so the content of a trace that is
+ * not analyzed anymore goes with it. Content is kept with the version of the
+ * payload it was decoded from and is not returned once the payload changed,
+ * see {@link HttpRequestResponseInfo#getPayloadVersion()}.
+ * </p>
+ */
+final class ContentCache {
+
+	private static final class Key extends WeakReference<HttpRequestResponseInfo> {
+		private final int hash;
+
+		private Key(HttpRequestResponseInfo response, ReferenceQueue<HttpRequestResponseInfo> queue) {
+			super(response, queue);
+			hash = System.identityHashCode(response);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (other == this) {
+				return true;
+			}
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			HttpRequestResponseInfo response = get();
+			return response != null && response == ((Key) other).get();
+		}
+	}
+
+	private static final class Entry {
+		private final byte[] content;
+		private final long payloadVersion;
+
+		private Entry(byte[] content, long payloadVersion) {
+			this.content = content;
+			this.payloadVersion = payloadVersion;
+		}
+	}
+
+	private final long budget;
+
+	private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final ReferenceQueue<HttpRequestResponseInfo> collected = new ReferenceQueue<>();
+	private long size;
+
+	/**
+	 * @param budget
+	 *            bytes of content kept at most
+	 */
+	ContentCache(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * @param payloadVersion
+	 *            version of the payload of the response
+	 * @return the content of the response, null if it is not kept or was decoded
+	 *         from another payload
+	 */
+	synchronized byte[] get(HttpRequestResponseInfo response, long payloadVersion) {
+		purge();
+		Entry entry = entries.get(new Key(response, null));
+		return entry != null && entry.payloadVersion == payloadVersion ? entry.content : null;
+	}
+
+	/**
+	 * Keeps the content of a response, evicting the least recently used content
+	 * over the budget. Content larger than the budget, or of a payload without
+	 * a version, is not kept.
+	 */
+	synchronized void put(HttpRequestResponseInfo response, long payloadVersion, byte[] content) {
+		purge();
+		Entry previous = entries.remove(new Key(response, null));
+		if (previous != null) {
+			size -= previous.content.length;
+		}
+		if (payloadVersion == 0 || content.length > budget) {
+			return;
+		}
+		entries.put(new Key(response, collected), new Entry(content, payloadVersion));
+		size += content.length;
+		for (Iterator<Entry> iterator = entries.values().iterator(); size > budget && iterator.hasNext();) {
+			size -= iterator.next().content.length;
+			iterator.remove();
+		}
+	}
+
+	synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Drops the content of the responses that were garbage collected
+	 */
+	private void purge() {
+		for (Reference<? extends HttpRequestResponseInfo> key = collected.poll(); key != null; key = collected.poll()) {
+			Entry entry = entries.remove(key);
+			if (entry != null) {
+				size -= entry.content.length;
+			}
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetreader.pojo.Packet;
+import com.att.aro.core.packetreader.pojo.TCPPacket;
+
+/**
+ * Lookup of captured TCP packets by flow and sequence/ack numbers, used to merge
+ * the payloads of a decrypted pcap into the original capture in a single pass.
+ */
+class DecryptedPacketIndex {
+
+	/**
+	 * Decrypted packets carry this many bytes of link, IP and TCP headers ahead of the payload
+	 */
+	static final int DECRYPTED_HEADER_LENGTH = 66;
+
+	private final Map<Key, List<TCPPacket>> index;
+
+	private static final class Key {
+		private final InetAddress source;
+		private final InetAddress destination;
+		private final int sourcePort;
+		private final int destinationPort;
+		private final long sequenceNumber;
+		private final long ackNumber;
+		private final int hash;
+
+		private Key(TCPPacket packet) {
+			source = packet.getSourceIPAddress();
+			destination = packet.getDestinationIPAddress();
+			sourcePort = packet.getSourcePort();
+			destinationPort = packet.getDestinationPort();
+			sequenceNumber = packet.getSequenceNumber();
+			ackNumber = packet.getAckNumber();
+			hash = Arrays.hashCode(new Object[] { source, destination, sourcePort, destinationPort, sequenceNumber, ackNumber });
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return sequenceNumber == other.sequenceNumber && ackNumber == other.ackNumber && sourcePort == other.sourcePort
+					&& destinationPort == other.destinationPort && source.equals(other.source)
+					&& destination.equals(other.destination);
+		}
+	}
+
+	DecryptedPacketIndex(List<PacketInfo> packets) {
+		index = new HashMap<>(packets.size() * 2);
+		for (PacketInfo info : packets) {
+			Packet packet = info.getPacket();
+			if (packet instanceof TCPPacket && hasAddresses((TCPPacket) packet)) {
+				index.computeIfAbsent(new Key((TCPPacket) packet), key -> new ArrayList<>(1)).add((TCPPacket) packet);
+			}
+		}
+	}
+
+	/**
+	 * Copies the decrypted payload onto every captured packet of the same flow
+	 * with the same sequence and ack numbers.
+	 *
+	 * @param decrypted
+	 *            packet read from the decrypted pcap
+	 * @return number of captured packets updated
+	 */
+	int merge(Packet decrypted) {
+		if (!(decrypted instanceof TCPPacket) || !hasAddresses((TCPPacket) decrypted)) {
+			return 0;
+		}
+		byte[] decryptedData = decrypted.getData();
+		if (decryptedData.length <= DECRYPTED_HEADER_LENGTH) {
+			return 0;
+		}
+		List<TCPPacket> matches = index.get(new Key((TCPPacket) decrypted));
+		if (matches == null) {
+			return 0;
+		}
+		for (TCPPacket tcpPacket : matches) {
+			tcpPacket.setDecrypted(true);
+			tcpPacket.setData(Arrays.copyOfRange(decryptedData, DECRYPTED_HEADER_LENGTH, decryptedData.length));
+		}
+		return matches.size();
+	}
+
+	int size() {
+		return index.size();
+	}
+
+	private static boolean hasAddresses(TCPPacket packet) {
+		return packet.getSourceIPAddress() != null && packet.getDestinationIPAddress() != null;
+	}
+}
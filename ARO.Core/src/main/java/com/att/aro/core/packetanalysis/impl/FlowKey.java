@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import java.net.InetAddress;
+
+/**
+ * Local address and port, remote address and port of a flow, as seen from the
+ * device. The addresses are packed into longs so a key is hashed and compared
+ * without building the session key string for every packet.
+ */
+final class FlowKey {
+
+	private final InetAddress localIP;
+	private final int localPort;
+	private final InetAddress remoteIP;
+	private final int remotePort;
+
+	private final long localHigh;
+	private final long localLow;
+	private final long remoteHigh;
+	private final long remoteLow;
+	/**
+	 * local port, remote port and the address lengths
+	 */
+	private final long ports;
+	private final int hash;
+
+	FlowKey(InetAddress localIP, int localPort, InetAddress remoteIP, int remotePort) {
+		this.localIP = localIP;
+		this.localPort = localPort;
+		this.remoteIP = remoteIP;
+		this.remotePort = remotePort;
+		byte[] local = localIP.getAddress();
+		byte[] remote = remoteIP.getAddress();
+		localHigh = high(local);
+		localLow = low(local);
+		remoteHigh = high(remote);
+		remoteLow = low(remote);
+		ports = ((long) (localPort & 0xFFFF) << 32) | ((long) (remotePort & 0xFFFF) << 16) | (local.length << 8) | remote.length;
+		long mix = localHigh * 31 + localLow;
+		mix = mix * 31 + remoteHigh;
+		mix = mix * 31 + remoteLow;
+		mix = mix * 31 + ports;
+		mix ^= mix >>> 33;
+		mix *= 0xff51afd7ed558ccdL;
+		mix ^= mix >>> 33;
+		hash = (int) mix;
+	}
+
+	private static long high(byte[] address) {
+		return address.length > 8 ? pack(address, 0, address.length - 8) : 0;
+	}
+
+	private static long low(byte[] address) {
+		return address.length > 8 ? pack(address, address.length - 8, 8) : pack(address, 0, address.length);
+	}
+
+	private static long pack(byte[] address, int offset, int length) {
+		long value = 0;
+		for (int index = offset; index < offset + length; index++) {
+			value = (value << 8) | (address[index] & 0xFF);
+		}
+		return value;
+	}
+
+	InetAddress getLocalIP() {
+		return localIP;
+	}
+
+	int getLocalPort() {
+		return localPort;
+	}
+
+	InetAddress getRemoteIP() {
+		return remoteIP;
+	}
+
+	int getRemotePort() {
+		return remotePort;
+	}
+
+	/**
+	 * @return the key of a session of this flow
+	 */
+	String getSessionKey() {
+		return localIP.getHostAddress() + " " + localPort + " " + remotePort + " " + remoteIP.getHostAddress();
+	}
+
+	/**
+	 * @return the shard of the flow, in [0, shards)
+	 */
+	int shard(int shards) {
+		return (hash & Integer.MAX_VALUE) % shards;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof FlowKey)) {
+			return false;
+		}
+		FlowKey other = (FlowKey) obj;
+		return localLow == other.localLow && remoteLow == other.remoteLow && ports == other.ports
+				&& localHigh == other.localHigh && remoteHigh == other.remoteHigh;
+	}
+}
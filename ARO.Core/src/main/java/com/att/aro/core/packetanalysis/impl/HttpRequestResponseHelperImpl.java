@@ -21,20 +21,22 @@ import java.util.Map;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.zip.ZipException;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.log4j.Logger;
 import org.apache.log4j.LogManager;
 import org.springframework.util.StringUtils;
-import org.springframework.beans.factory.annotation.Autowired;
 
 import com.aayushatharva.brotli4j.Brotli4jLoader;
 import com.aayushatharva.brotli4j.decoder.BrotliInputStream;
 import com.att.aro.core.packetanalysis.IByteArrayLineReader;
 import com.att.aro.core.packetanalysis.IHttpRequestResponseHelper;
+import com.att.aro.core.packetanalysis.pojo.ContentFingerprint;
 import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
 import com.att.aro.core.packetanalysis.pojo.Session;
+import com.att.aro.core.util.Util;
 
 /**
  * helper class for dealing HttpRequestResponseInfo object
@@ -43,13 +45,12 @@ import com.att.aro.core.packetanalysis.pojo.Session;
 public class HttpRequestResponseHelperImpl implements IHttpRequestResponseHelper {
 	private static final int TWO_MB = 2 * 1024 * 1024;
 	private static final Logger LOG = LogManager.getLogger(HttpRequestResponseHelperImpl.class.getName());
-	
-	private IByteArrayLineReader storageReader;
-	
-	@Autowired
-	public void setByteArrayLineReader(IByteArrayLineReader reader){
-		this.storageReader = reader;
-	}
+
+	private static final String CONTENT_CACHE_MB = "CONTENT_CACHE_MB";
+	private static final long DEFAULT_CONTENT_CACHE_MB = 64;
+	private static final long MB = 1024 * 1024;
+
+	private ContentCache contentCache;
 
 	/**
 	 * Indicates whether the content type is CSS or not.
@@ -107,7 +108,8 @@ public class HttpRequestResponseHelperImpl implements IHttpRequestResponseHelper
 	 *                              - When part of the content is not available.
 	 */
 	public String getContentString(HttpRequestResponseInfo req, Session session) throws Exception {
-		byte[] content = getContent(req, session);
+		// decoding stops past the size processed
+		byte[] content = getContent(req, TWO_MB + 1, false);
 		if (content == null || content.length == 0) {
 			return "";
 		} else if (content.length > TWO_MB) {
@@ -118,6 +120,23 @@ public class HttpRequestResponseHelperImpl implements IHttpRequestResponseHelper
 		}
 	}
 
+	@Override
+	public ContentFingerprint getContentFingerprint(HttpRequestResponseInfo response, Session session) {
+		ContentFingerprint fingerprint = response.getContentFingerprint();
+		if (fingerprint == null) {
+			byte[] content;
+			try {
+				content = getContent(response, Integer.MAX_VALUE, false);
+			} catch (Exception e) {
+				LOG.error("Error in retrieving Content: " + e.getMessage());
+				content = new byte[0];
+			}
+			fingerprint = ContentFingerprint.of(content);
+			response.setContentFingerprint(fingerprint);
+		}
+		return fingerprint;
+	}
+
 	/**
 	 * get content of the request/response in byte[]
 	 * 
@@ -126,18 +145,59 @@ public class HttpRequestResponseHelperImpl implements IHttpRequestResponseHelper
 	 * @throws Exception
 	 */
 	public byte[] getContent(HttpRequestResponseInfo request, Session session) throws Exception {
+		return getContent(request, Integer.MAX_VALUE, true);
+	}
+
+	/**
+	 * Returns the content, decoded at most once while it is in the content
+	 * cache. A content decoded only up to the limit is not kept.
+	 * 
+	 * @param limit
+	 *            bytes of decoded content needed, decoding stops once they are
+	 *            read
+	 * @param copy
+	 *            false to return the kept content itself, it must not be
+	 *            changed
+	 */
+	private byte[] getContent(HttpRequestResponseInfo request, int limit, boolean copy) throws Exception {
 		if (!request.isExtractable() && StringUtils.hasLength(request.getExceptionMessege())) {
 			// already seen this exception so don't try again
 			throw new Exception("As seen before Exception: " + request.getExceptionMessege());
 		}
+		synchronized (request) {
+			long payloadVersion = request.getPayloadVersion();
+			byte[] content = getContentCache().get(request, payloadVersion);
+			if (content == null) {
+				content = readContent(request);
+				if (!request.isChunked() && !isCompressed(request.getContentEncoding())) {
+					// the payload as it is, a copy already
+					return content;
+				}
+				content = decode(request, content, limit);
+				if (content.length >= limit) {
+					return content;
+				}
+				getContentCache().put(request, payloadVersion, content);
+			}
+			return copy ? content.clone() : content;
+		}
+	}
+
+	/**
+	 * Reassembles the chunks of the payload
+	 * 
+	 * @return the payload to decode
+	 */
+	private byte[] readContent(HttpRequestResponseInfo request) throws Exception {
 		LOG.debug("getContent(Req, Session) :" + request.toString());
-		String contentEncoding = request.getContentEncoding();
 		byte[] payload;
 		ByteArrayOutputStream output = null;
 		String objectName = request.getAssocReqResp() == null ? "N/A" : request.getAssocReqResp().getObjNameWithoutParams();
 		
 		payload = request.getPayloadData().toByteArray();
         if (request.isChunked()) {
+            // a reader per call, best practices may request content concurrently
+            IByteArrayLineReader storageReader = new ByteArrayLineReaderImpl();
             storageReader.init(payload);
             String line;
             output = new ByteArrayOutputStream();
@@ -194,33 +254,45 @@ public class HttpRequestResponseHelperImpl implements IHttpRequestResponseHelper
             throw new Exception(request.getExceptionMessege());
         }
 
-		// Decompress GZIP Content
-        GZIPInputStream gzip = null;
-        BrotliInputStream brotliInputStream = null;
+		return payload;
+	}
+
+	private static boolean isCompressed(String contentEncoding) {
+		return HttpRequestResponseInfo.CONTENT_ENCODING_GZIP.equals(contentEncoding)
+				|| HttpRequestResponseInfo.CONTENT_ENCODING_BROTLI.equals(contentEncoding);
+	}
+
+	/**
+	 * Decompresses GZIP or Brotli content, reading the stream only up to the
+	 * limit
+	 * 
+	 * @return the decoded content, the payload if it is not compressed
+	 */
+	private byte[] decode(HttpRequestResponseInfo request, byte[] payload, int limit) throws IOException {
+		String contentEncoding = request.getContentEncoding();
+		InputStream input = null;
 		try {
-			if (HttpRequestResponseInfo.CONTENT_ENCODING_GZIP.equals(contentEncoding) && payload != null) {
-				output = new ByteArrayOutputStream();
-				gzip = new GZIPInputStream(new ByteArrayInputStream(payload));
-				byte[] buffer = new byte[2048];
-				int len;
-				while ((len = gzip.read(buffer)) >= 0) {
-					output.write(buffer, 0, len);
-				}
-			} else if (HttpRequestResponseInfo.CONTENT_ENCODING_BROTLI.equals(contentEncoding) && payload != null) {
+			if (HttpRequestResponseInfo.CONTENT_ENCODING_GZIP.equals(contentEncoding)) {
+				input = new GZIPInputStream(new ByteArrayInputStream(payload));
+			} else if (HttpRequestResponseInfo.CONTENT_ENCODING_BROTLI.equals(contentEncoding)) {
 				Brotli4jLoader.ensureAvailability();
-				output = new ByteArrayOutputStream();
-				brotliInputStream = new BrotliInputStream(new ByteArrayInputStream(payload));
-				int read = brotliInputStream.read();
-				while (read > -1) { // -1 means EOF
-					output.write(read);
-					read = brotliInputStream.read();
-				}
-
+				input = new BrotliInputStream(new ByteArrayInputStream(payload));
 			} else {
 				return payload;
 			}
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			boolean ended = false;
+			while (!ended && output.size() < limit) {
+				int len = input.read(buffer, 0, Math.min(buffer.length, limit - output.size()));
+				if (len < 0) {
+					ended = true;
+				} else {
+					output.write(buffer, 0, len);
+				}
+			}
 			
-			if (output.size() > 0) {
+			if (output.size() > 0 || !ended) {
 				return output.toByteArray();
 			} else {
 				request.setExtractable(false);
@@ -233,15 +305,36 @@ public class HttpRequestResponseHelperImpl implements IHttpRequestResponseHelper
             throw new ZipException(request.getExceptionMessege());
             
 		} finally {
-			
-			if (brotliInputStream != null) {
-				brotliInputStream.close();
+			if (input != null) {
+				input.close();
 			}
-			
-			if (gzip != null) {
-				gzip.close();
+		}
+	}
+
+	synchronized ContentCache getContentCache() {
+		if (contentCache == null) {
+			contentCache = new ContentCache(getContentCacheSize());
+		}
+		return contentCache;
+	}
+
+	/**
+	 * Bytes of decoded content kept, setting CONTENT_CACHE_MB, defaults to 64 MB
+	 */
+	private long getContentCacheSize() {
+		String size = Util.getAttribute(CONTENT_CACHE_MB);
+		if (!size.isEmpty()) {
+			try {
+				return Math.max(0, Long.parseLong(size.trim())) * MB;
+			} catch (NumberFormatException e) {
+				LOG.warn("Invalid " + CONTENT_CACHE_MB + " setting: " + size);
 			}
 		}
+		return DEFAULT_CONTENT_CACHE_MB * MB;
+	}
+
+	synchronized void setContentCacheSize(long bytes) {
+		contentCache = new ContentCache(bytes);
 	}
 
 	/**
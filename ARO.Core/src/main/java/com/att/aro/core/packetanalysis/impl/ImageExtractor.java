@@ -102,11 +102,11 @@ public class ImageExtractor {
 					break;
 				}
 			}
-
-			scanAndExtractImages(sessionList); 
-			GoogleAnalyticsUtil.getGoogleAnalyticsInstance().sendAnalyticsTimings(imageAnalysisTitle,
-					System.currentTimeMillis() - analysisStartTime, analysisCategory);
 		}
+
+		scanAndExtractImages(sessionList);
+		GoogleAnalyticsUtil.getGoogleAnalyticsInstance().sendAnalyticsTimings(imageAnalysisTitle,
+				System.currentTimeMillis() - analysisStartTime, analysisCategory);
 	}
 
 	public void scanAndExtractImages(List<Session> sessionlist) {
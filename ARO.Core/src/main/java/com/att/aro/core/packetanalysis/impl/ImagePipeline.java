@@ -0,0 +1,316 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.imageio.ImageIO;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.att.aro.core.packetanalysis.pojo.HttpDirection;
+import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
+import com.att.aro.core.packetanalysis.pojo.Session;
+import com.att.aro.core.util.ImageHelper;
+import com.att.aro.core.util.ParallelTasks;
+import com.att.aro.core.util.Util;
+
+/**
+ * Image work shared by the image best practices.
+ * <p>
+ * The JPEG images extracted from the responses of a trace are found in one
+ * pass and kept in the analysis result. An image is decoded at most once
+ * while its decoded form is in memory, so the compression and format best
+ * practices encode it from the same BufferedImage. Outputs already on disk are
+ * not written again, and images with the same content are encoded once, the
+ * others get a copy of the outputs.
+ * </p>
+ * The number of images processed in parallel is set by IMAGE_THREADS, it
+ * defaults to the number of processors.
+ */
+public class ImagePipeline {
+
+	private static final Logger LOGGER = LogManager.getLogger(ImagePipeline.class.getName());
+
+	/**
+	 * An image file, read and decoded once for all the responses it was
+	 * extracted from
+	 */
+	private static final class ImageFile {
+		private final File file;
+		private String contentHash;
+		private SoftReference<BufferedImage> decoded = new SoftReference<>(null);
+
+		private ImageFile(File file) {
+			this.file = file;
+		}
+
+		private synchronized String getContentHash() throws IOException {
+			if (contentHash == null) {
+				MessageDigest digest;
+				try {
+					digest = MessageDigest.getInstance("SHA-256");
+				} catch (NoSuchAlgorithmException e) {
+					throw new IOException(e);
+				}
+				try (InputStream input = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+					byte[] buffer = new byte[64 * 1024];
+					while (input.read(buffer) >= 0) {
+						// digested while read
+					}
+				}
+				contentHash = String.format("%064x", new BigInteger(1, digest.digest()));
+			}
+			return contentHash;
+		}
+
+		private synchronized BufferedImage getImage() throws IOException {
+			BufferedImage image = decoded.get();
+			if (image == null) {
+				image = ImageIO.read(file);
+				decoded = new SoftReference<>(image);
+			}
+			return image;
+		}
+	}
+
+	/**
+	 * A JPEG image extracted from a response, in the Image folder of the trace
+	 */
+	public static final class JpegImage {
+		private final Session session;
+		private final HttpRequestResponseInfo response;
+		private final String name;
+		private final ImageFile imageFile;
+
+		JpegImage(Session session, HttpRequestResponseInfo response, String name, File file) {
+			this(session, response, name, new ImageFile(file));
+		}
+
+		private JpegImage(Session session, HttpRequestResponseInfo response, String name, ImageFile imageFile) {
+			this.session = session;
+			this.response = response;
+			this.name = name;
+			this.imageFile = imageFile;
+		}
+
+		public Session getSession() {
+			return session;
+		}
+
+		public HttpRequestResponseInfo getResponse() {
+			return response;
+		}
+
+		/**
+		 * @return file name of the image in the Image folder
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public File getFile() {
+			return imageFile.file;
+		}
+
+		/**
+		 * @return SHA-256 of the image file
+		 */
+		public String getContentHash() throws IOException {
+			return imageFile.getContentHash();
+		}
+
+		/**
+		 * Returns the decoded image, decoding the file only if it is not in
+		 * memory anymore
+		 *
+		 * @return the decoded image, null if it could not be decoded
+		 */
+		public BufferedImage getImage() throws IOException {
+			return imageFile.getImage();
+		}
+	}
+
+	/**
+	 * Writes the outputs of an image
+	 */
+	public interface ImageTask {
+		void write(JpegImage image, List<File> outputs) throws IOException;
+	}
+
+	private int imageThreads;
+
+	/**
+	 * Returns the JPEG images of the responses of the trace, one per response,
+	 * found in a single pass over the sessions. They are kept with the result,
+	 * so they go with the trace.
+	 *
+	 * @param tracedata
+	 * @return
+	 */
+	public synchronized List<JpegImage> getJpegImages(PacketAnalyzerResult tracedata) {
+		List<JpegImage> images = tracedata.getJpegImages();
+		if (images == null) {
+			images = Collections.unmodifiableList(findJpegImages(tracedata));
+			tracedata.setJpegImages(images);
+		}
+		return images;
+	}
+
+	private List<JpegImage> findJpegImages(PacketAnalyzerResult tracedata) {
+		String imageFolderPath = tracedata.getTraceresult().getTraceDirectory() + Util.FILE_SEPARATOR + "Image" + Util.FILE_SEPARATOR;
+		List<JpegImage> found = new ArrayList<>();
+		// image files by name, null for a file that is not a JPEG image
+		Map<String, ImageFile> imageFiles = new HashMap<>();
+		for (Session session : tracedata.getSessionlist()) {
+			for (HttpRequestResponseInfo reqResp : session.getRequestResponseInfo()) {
+				if (reqResp.getDirection() != HttpDirection.RESPONSE || reqResp.getContentType() == null
+						|| !reqResp.getContentType().contains("image/")) {
+					continue;
+				}
+				String imageName = ImageHelper.extractFullNameFromRRInfo(reqResp);
+				if ((!imageName.isEmpty() && !(imageName.contains(".jpeg") || imageName.contains(".jpg")))
+						&& reqResp.getContentType().contains("jpeg")) {
+					imageName = Util.parseImageName(imageName, reqResp);
+				}
+				int pos = imageName.lastIndexOf(".");
+				if (pos == -1) {
+					continue;
+				}
+				ImageFile imageFile;
+				if (imageFiles.containsKey(imageName)) {
+					imageFile = imageFiles.get(imageName);
+				} else {
+					File file = new File(imageFolderPath + imageName);
+					imageFile = Util.isJPG(file, imageName.substring(pos + 1)) ? new ImageFile(file) : null;
+					imageFiles.put(imageName, imageFile);
+				}
+				if (imageFile != null) {
+					found.add(new JpegImage(session, reqResp, imageName, imageFile));
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Writes the outputs of the images that are not on disk yet. The task runs
+	 * once per image content, images with the same content get a copy of the
+	 * outputs. A failing image is logged and skipped.
+	 *
+	 * @param images
+	 * @param outputs
+	 *            output files of an image
+	 * @param task
+	 */
+	public void process(List<JpegImage> images, Function<JpegImage, List<File>> outputs, ImageTask task) {
+		Map<String, JpegImage> pending = new LinkedHashMap<>();
+		for (JpegImage image : images) {
+			if (!pending.containsKey(image.getName()) && !isDone(outputs.apply(image))) {
+				pending.put(image.getName(), image);
+			}
+		}
+		if (pending.isEmpty()) {
+			return;
+		}
+		List<List<JpegImage>> groups = new ArrayList<>(groupByContent(pending.values()).values());
+
+		ParallelTasks.forEach(groups.size(), getImageThreads(), "ImagePipeline", "processing images",
+				index -> processGroup(groups.get(index), outputs, task));
+	}
+
+	private static boolean isDone(List<File> outputs) {
+		for (File output : outputs) {
+			if (!output.isFile() || output.length() == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Map<String, List<JpegImage>> groupByContent(Iterable<JpegImage> images) {
+		Map<String, List<JpegImage>> groups = new LinkedHashMap<>();
+		for (JpegImage image : images) {
+			String key;
+			try {
+				key = image.getContentHash();
+			} catch (IOException e) {
+				LOGGER.warn("Unable to read " + image.getFile() + ": " + e.getMessage());
+				key = image.getName();
+			}
+			groups.computeIfAbsent(key, hash -> new ArrayList<>()).add(image);
+		}
+		return groups;
+	}
+
+	/**
+	 * Runs the task on the first image of a group of images with the same
+	 * content and copies the outputs to the other images
+	 */
+	private static void processGroup(List<JpegImage> group, Function<JpegImage, List<File>> outputs, ImageTask task) {
+		JpegImage first = group.get(0);
+		List<File> written = outputs.apply(first);
+		try {
+			task.write(first, written);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.error("Unable to process image " + first.getFile() + ": " + e.getMessage(), e);
+			return;
+		}
+		for (JpegImage image : group.subList(1, group.size())) {
+			List<File> copies = outputs.apply(image);
+			for (int index = 0; index < written.size() && index < copies.size(); index++) {
+				if (written.get(index).isFile()) {
+					try {
+						Files.copy(written.get(index).toPath(), copies.get(index).toPath(), StandardCopyOption.REPLACE_EXISTING);
+					} catch (IOException e) {
+						LOGGER.error("Unable to copy " + written.get(index) + ": " + e.getMessage());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Number of images processed in parallel, setting IMAGE_THREADS, defaults to
+	 * the number of processors
+	 */
+	private int getImageThreads() {
+		return imageThreads > 0 ? imageThreads : ParallelTasks.getThreads(ParallelTasks.IMAGE_THREADS);
+	}
+
+	void setImageThreads(int imageThreads) {
+		this.imageThreads = imageThreads;
+	}
+}
@@ -21,7 +21,10 @@ import java.io.IOException;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -39,17 +42,20 @@ import org.springframework.beans.factory.annotation.Value;
 import com.att.aro.core.bestpractice.pojo.BestPracticeType;
 import com.att.aro.core.configuration.IProfileFactory;
 import com.att.aro.core.configuration.pojo.Profile;
+import com.att.aro.core.packetanalysis.IAnalysisSnapshotStore;
 import com.att.aro.core.packetanalysis.IBurstCollectionAnalysis;
 import com.att.aro.core.packetanalysis.IEnergyModelFactory;
 import com.att.aro.core.packetanalysis.IPacketAnalyzer;
 import com.att.aro.core.packetanalysis.IPktAnazlyzerTimeRangeUtil;
 import com.att.aro.core.packetanalysis.IRrcStateMachineFactory;
 import com.att.aro.core.packetanalysis.ISessionManager;
+import com.att.aro.core.packetanalysis.IThroughputCalculator;
 import com.att.aro.core.packetanalysis.ITraceDataReader;
 import com.att.aro.core.packetanalysis.IVideoTrafficCollector;
 import com.att.aro.core.packetanalysis.pojo.AbstractRrcStateMachine;
 import com.att.aro.core.packetanalysis.pojo.AbstractTraceResult;
 import com.att.aro.core.packetanalysis.pojo.AnalysisFilter;
+import com.att.aro.core.packetanalysis.pojo.AnalysisSnapshot;
 import com.att.aro.core.packetanalysis.pojo.ApplicationPacketSummary;
 import com.att.aro.core.packetanalysis.pojo.ApplicationSelection;
 import com.att.aro.core.packetanalysis.pojo.BurstCollectionAnalysisData;
@@ -60,9 +66,13 @@ import com.att.aro.core.packetanalysis.pojo.IPPacketSummary;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
 import com.att.aro.core.packetanalysis.pojo.PacketCounter;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
+import com.att.aro.core.packetanalysis.pojo.ProfileComparisonTable;
+import com.att.aro.core.packetanalysis.pojo.ProfileSweepResult;
 import com.att.aro.core.packetanalysis.pojo.Session;
 import com.att.aro.core.packetanalysis.pojo.Statistic;
 import com.att.aro.core.packetanalysis.pojo.TimeRange;
+import com.att.aro.core.packetanalysis.pojo.TraceDataConst;
 import com.att.aro.core.packetanalysis.pojo.TraceDirectoryResult;
 import com.att.aro.core.packetanalysis.pojo.TraceFileResult;
 import com.att.aro.core.packetreader.pojo.IPPacket;
@@ -71,6 +81,7 @@ import com.att.aro.core.packetreader.pojo.UDPPacket;
 import com.att.aro.core.settings.SettingsUtil;
 import com.att.aro.core.tracemetadata.IMetaDataHelper;
 import com.att.aro.core.util.GoogleAnalyticsUtil;
+import com.att.aro.core.util.ParallelTasks;
 import com.att.aro.core.videoanalysis.csi.ICSIDataHelper;
 import com.att.aro.core.videoanalysis.csi.VideoTrafficInferencer;
 import com.att.aro.mvc.IAROView;
@@ -110,6 +121,9 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 	@Autowired
 	private VideoTrafficInferencer videoTrafficInferencer;
 
+	@Autowired
+	private IThroughputCalculator throughputCalculator;
+
 	@Value("${ga.request.timing.pktAnalysisTimings.title}")
 	private String pktAnalysisTitle;
 	@Value("${ga.request.timing.analysisCategory.title}")
@@ -120,8 +134,19 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 	@Autowired
 	private ICSIDataHelper csiDataHelper;
 
+	@Autowired
+	private IAnalysisSnapshotStore snapshotStore;
+
 	private SortedMap<Double, HttpRequestResponseInfo> requestMap = new TreeMap<>();
 
+	/**
+	 * RRC state machine of the previous analysis and the inputs it was created from
+	 */
+	private AbstractRrcStateMachine previousStatemachine;
+	private List<Object> previousStatemachineInputs;
+
+	private int profileThreads;
+
 	@Autowired
 	public void setTraceReader(ITraceDataReader traceReader) {
 		this.tracereader = traceReader;
@@ -130,6 +155,7 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 	@Autowired
 	public void setRrcStateMachineFactory(IRrcStateMachineFactory rrcStateMachineFactory) {
 		this.statemachinefactory = rrcStateMachineFactory;
+		this.previousStatemachine = null;
 	}
 
 	@Autowired
@@ -160,7 +186,7 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 	@Override
 	public PacketAnalyzerResult analyzeTraceFile(String traceFilePath, Profile profile, AnalysisFilter filter) throws IOException {
 		TraceFileResult result = tracereader.readTraceFile(traceFilePath);
-		return finalResult(result, profile, filter);
+		return finalResult(result, profile, filter, null);
 	}
 
 	@Override
@@ -168,6 +194,7 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 			throws FileNotFoundException {
 		long bpStartTime = System.currentTimeMillis();
 		TraceDirectoryResult result = null;
+		List<String> trafficFiles = null;
 		if (aroView.getController() != null 
 				&& (aroView.getController().getCurrentTraceInitialAnalyzerResult()) != null
 				&& aroView.getController().getCurrentTraceInitialAnalyzerResult().getTraceresult() instanceof TraceDirectoryResult
@@ -178,6 +205,7 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 		if (result == null || result.getTraceDirectory().compareTo(traceDirectory) != 0) {
 			// loading first or different trace
 			result = tracereader.readTraceDirectory(traceDirectory, aroView);
+			trafficFiles = getTrafficFiles(result, aroView);
 
 			if (filter != null) {
 				TimeRange tempTimeRange = filter.getTimeRange();
@@ -201,7 +229,7 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 				}
 			}
 		}
-		PacketAnalyzerResult res = finalResult(result, profile, filter);
+		PacketAnalyzerResult res = finalResult(result, profile, filter, trafficFiles);
 		
 		GoogleAnalyticsUtil.getGoogleAnalyticsInstance().sendAnalyticsTimings(pktAnalysisTitle,
 				System.currentTimeMillis() - bpStartTime, analysisCategory);
@@ -219,7 +247,36 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 		}
 	}
 
-	protected PacketAnalyzerResult finalResult(AbstractTraceResult result, Profile profile, AnalysisFilter filter) {
+	/**
+	 * Returns the pcap files read for a trace directory, null if they are not
+	 * known
+	 */
+	private List<String> getTrafficFiles(TraceDirectoryResult result, IAROView aroView) {
+		List<String> trafficFiles = new ArrayList<>();
+		if (result.getTraceFile() != null && !result.getTraceFile().isEmpty()) {
+			trafficFiles.add(result.getTraceFile());
+		} else if (result.getTraceDirectory() != null && aroView.getTrafficFile() != null) {
+			trafficFiles.add(Paths.get(result.getTraceDirectory(), aroView.getTrafficFile()).toString());
+		} else {
+			return null;
+		}
+		for (int index = 1;; index++) {
+			File file = new File(result.getTraceDirectory(), TraceDataConst.FileName.TRAFFIC + index + TraceDataConst.FileName.CAP_EXT);
+			if (!file.exists()) {
+				break;
+			}
+			trafficFiles.add(file.getPath());
+		}
+		return trafficFiles;
+	}
+
+	/**
+	 * @param trafficFiles
+	 *            pcap files of a trace directory that was read for this analysis,
+	 *            the analysis is then loaded from or saved to the trace directory.
+	 *            null for a trace file or a trace already read.
+	 */
+	protected PacketAnalyzerResult finalResult(AbstractTraceResult result, Profile profile, AnalysisFilter filter, List<String> trafficFiles) {
 		PacketAnalyzerResult data = new PacketAnalyzerResult();
 		if (filter == null) {
 			double endTime = result.getAllpackets().size() > 0
@@ -304,7 +361,11 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 
 		Statistic stat = this.getStatistic(filteredPackets);
 
-		List<Session> sessionList = sessionmanager.processPacketsAndAssembleSessions(filteredPackets);
+		String snapshotKey = trafficFiles != null ? snapshotStore.getKey(trafficFiles, aProfile, filter) : null;
+		AnalysisSnapshot snapshot = snapshotStore.load(result.getTraceDirectory(), snapshotKey, filteredPackets);
+
+		List<Session> sessionList = snapshot != null ? snapshot.getSessions()
+				: sessionmanager.processPacketsAndAssembleSessions(filteredPackets);
 		generateGetRequestMapAndPopulateLatencyStat(sessionList, stat);
 
 		if (stat.getAppName() != null && stat.getAppName().size() == 1
@@ -324,16 +385,26 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 		// stat is used to get some info for RrcStateMachine etc
 
 		LOGGER.debug("Starting pre processing in PAI");
-		AbstractRrcStateMachine statemachine = statemachinefactory.create(filteredPackets, aProfile,
-				stat.getPacketDuration(), result.getTraceDuration(), stat.getTotalByte(), timeRange);
+		PacketTable packetTable = PacketTable.of(filteredPackets, sessionList);
+		AbstractRrcStateMachine statemachine = snapshot != null ? snapshot.getStatemachine()
+				: createStatemachine(packetTable, aProfile, stat, result.getTraceDuration(), timeRange);
 
 		EnergyModel energymodel = energymodelfactory.create(aProfile, statemachine.getTotalRRCEnergy(),
 				result.getGpsInfos(), result.getCameraInfos(), result.getBluetoothInfos(),
 				result.getScreenStateInfos());
 
-		BurstCollectionAnalysisData burstcollectiondata = burstcollectionanalyzer.analyze(filteredPackets, aProfile,
-				stat.getPacketSizeToCountMap(), statemachine.getStaterangelist(), result.getUserEvents(),
-				result.getCpuActivityList().getCpuActivities(), sessionList);
+		BurstCollectionAnalysisData burstcollectiondata = snapshot != null ? snapshot.getBurstCollectionAnalysisData()
+				: burstcollectionanalyzer.analyze(packetTable, aProfile, stat.getPacketSizeToCountMap(),
+						statemachine.getStaterangelist(), result.getUserEvents(),
+						result.getCpuActivityList().getCpuActivities(), sessionList);
+		if (snapshotKey != null && snapshot == null) {
+			// saved before the video analysis and best practices add to the sessions and bursts
+			snapshot = new AnalysisSnapshot();
+			snapshot.setSessions(sessionList);
+			snapshot.setStatemachine(statemachine);
+			snapshot.setBurstCollectionAnalysisData(burstcollectiondata);
+			snapshotStore.save(result.getTraceDirectory(), snapshotKey, snapshot, filteredPackets);
+		}
 		data.clearBPResults();
 		try {
 			List<BestPracticeType> videoBPList = BestPracticeType.getByCategory(BestPracticeType.Category.VIDEO);
@@ -382,19 +453,82 @@ public class PacketAnalyzerImpl implements IPacketAnalyzer {
 		data.setBurstCollectionAnalysisData(burstcollectiondata);
 		data.setEnergyModel(energymodel);
 		data.setSessionlist(sessionList);
+		data.setPacketTable(packetTable);
 		data.setStatemachine(statemachine);
 		data.setStatistic(stat);
 		data.setTraceresult(result);
 		data.setProfile(aProfile);
 		data.setFilter(filter);
 		data.setDeviceKeywords(result.getDeviceKeywordInfos());
-		data.setTimeRangeAnalysis(new TimeRangeAnalysis(beginTime, endTime, data));
+		data.setTimeRangeAnalysis(new TimeRangeAnalysis(beginTime, endTime, data, profilefactory, throughputCalculator));
 
 		loadMetaData(result, data);
 		
 		return data;
 	}
 
+	/**
+	 * Returns the RRC state machine of the previous analysis if it was created
+	 * from the same profile, time range and packets, so a filter change that
+	 * keeps the packets does not run the state machine again. The RRC state of
+	 * the packets is still the one set by the previous analysis.
+	 */
+	private AbstractRrcStateMachine createStatemachine(PacketTable packetTable, Profile profile, Statistic stat, double traceDuration,
+			TimeRange timeRange) {
+		List<Object> inputs = Arrays.asList(profile, stat.getPacketDuration(), traceDuration, stat.getTotalByte(), timeRange,
+				packetTable.getPackets());
+		if (previousStatemachine != null && inputs.equals(previousStatemachineInputs)) {
+			LOGGER.debug("Reusing the RRC state machine of the previous analysis");
+			return previousStatemachine;
+		}
+		previousStatemachine = statemachinefactory.create(packetTable, profile, stat.getPacketDuration(), traceDuration,
+				stat.getTotalByte(), timeRange);
+		inputs.set(inputs.size() - 1, new ArrayList<>(packetTable.getPackets()));
+		previousStatemachineInputs = inputs;
+		return previousStatemachine;
+	}
+
+	@Override
+	public ProfileComparisonTable sweepProfiles(PacketAnalyzerResult analysis, List<Profile> profiles) {
+		PacketTable packetTable = analysis.getPacketTable() != null ? analysis.getPacketTable()
+				: PacketTable.of(analysis.getTraceresult().getAllpackets(), analysis.getSessionlist());
+		ProfileSweepResult[] results = new ProfileSweepResult[profiles.size()];
+		ParallelTasks.forEach(profiles.size(), getProfileThreads(), "ProfileSweep", "sweeping profiles",
+				index -> results[index] = sweepProfile(analysis, packetTable, profiles.get(index)));
+		return new ProfileComparisonTable(Arrays.asList(results));
+	}
+
+	/**
+	 * Runs the analysis steps that depend on the profile, on the packets and
+	 * sessions of the analysis, without changing them
+	 */
+	private ProfileSweepResult sweepProfile(PacketAnalyzerResult analysis, PacketTable packetTable, Profile profile) {
+		AbstractTraceResult result = analysis.getTraceresult();
+		Statistic stat = analysis.getStatistic();
+		TimeRange timeRange = analysis.getFilter() != null ? analysis.getFilter().getTimeRange() : null;
+
+		AbstractRrcStateMachine statemachine = statemachinefactory.create(packetTable, Collections.singletonList(profile),
+				stat.getPacketDuration(), result.getTraceDuration(), stat.getTotalByte(), timeRange).get(0);
+		EnergyModel energymodel = energymodelfactory.create(profile, statemachine.getTotalRRCEnergy(), result.getGpsInfos(),
+				result.getCameraInfos(), result.getBluetoothInfos(), result.getScreenStateInfos());
+		BurstCollectionAnalysisData burstcollectiondata = burstcollectionanalyzer.analyze(packetTable, profile,
+				stat.getPacketSizeToCountMap(), statemachine.getStaterangelist(), result.getUserEvents(),
+				result.getCpuActivityList().getCpuActivities(), analysis.getSessionlist());
+		return new ProfileSweepResult(profile, statemachine, energymodel, burstcollectiondata);
+	}
+
+	/**
+	 * Number of profiles swept in parallel, setting PROFILE_THREADS, defaults to
+	 * the number of processors
+	 */
+	private int getProfileThreads() {
+		return profileThreads > 0 ? profileThreads : ParallelTasks.getThreads(ParallelTasks.PROFILE_THREADS);
+	}
+
+	void setProfileThreads(int profileThreads) {
+		this.profileThreads = profileThreads;
+	}
+
 	/**
 	 * Calculates total Https data not analyzed where responses are determined to be
 	 * Unknown
@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.att.aro.core.packetreader.IPacketListener;
+import com.att.aro.core.packetreader.IPacketReader;
+import com.att.aro.core.packetreader.pojo.Packet;
+
+/**
+ * Two stage packet ingestion. The decode stage runs the packet reader on its own
+ * thread and hands each packet to a bounded queue, the ingest stage drains the
+ * queue on the calling thread into the downstream listener. When the ingest
+ * stage falls behind the queue fills up and the decoder blocks, so no more than
+ * {@code capacity} decoded packets are ever waiting in memory.
+ */
+class PacketIngestionPipeline implements IPacketListener {
+	private static final Logger LOGGER = LogManager.getLogger(PacketIngestionPipeline.class.getName());
+
+	static final int DEFAULT_CAPACITY = 4096;
+
+	private static final QueuedPacket END_OF_STREAM = new QueuedPacket(null, null);
+
+	private final BlockingQueue<QueuedPacket> queue;
+	private final IPacketListener consumer;
+
+	private static final class QueuedPacket {
+		private final String appName;
+		private final Packet packet;
+
+		private QueuedPacket(String appName, Packet packet) {
+			this.appName = appName;
+			this.packet = packet;
+		}
+	}
+
+	PacketIngestionPipeline(IPacketListener consumer, int capacity) {
+		this.consumer = consumer;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+	}
+
+	/**
+	 * Reads every packet in the file, blocking until the last one has been
+	 * delivered to the consumer.
+	 *
+	 * @param reader
+	 *            packet reader used by the decode stage
+	 * @param packetFile
+	 *            full path to the packet file
+	 * @throws IOException
+	 *             if the reader failed
+	 */
+	void ingest(IPacketReader reader, String packetFile) throws IOException {
+		ExecutorService decoder = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "PacketDecoder");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long count = 0;
+		try {
+			Future<?> decoding = decoder.submit(() -> {
+				try {
+					reader.readPacket(packetFile, this);
+				} finally {
+					enqueue(END_OF_STREAM);
+				}
+				return null;
+			});
+
+			while (true) {
+				QueuedPacket queued = queue.poll(1, TimeUnit.SECONDS);
+				if (queued == END_OF_STREAM || (queued == null && decoding.isDone() && queue.isEmpty())) {
+					break;
+				}
+				if (queued != null) {
+					consumer.packetArrived(queued.appName, queued.packet);
+					count++;
+				}
+			}
+			decoding.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading " + packetFile, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Failed to read " + packetFile, e.getCause());
+		} finally {
+			decoder.shutdownNow();
+		}
+		LOGGER.debug("Ingested " + count + " packets from " + packetFile);
+	}
+
+	@Override
+	public void packetArrived(String appName, Packet packet) {
+		enqueue(new QueuedPacket(appName, packet));
+	}
+
+	private void enqueue(QueuedPacket queued) {
+		try {
+			queue.put(queued);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -17,6 +17,7 @@ package com.att.aro.core.packetanalysis.impl;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Matcher;
 
 import org.apache.log4j.Logger;
@@ -44,8 +45,57 @@ public class ParseHeaderLineImpl implements IParseHeaderLine{
 	private static final String ONLYIFCACHED = "only-if-cached";
 
 	private static final Object HEADERS_SEPARATOR = " ";
-	
-	
+
+	/**
+	 * Headers read from the header lines. A folded position of the name also
+	 * matches its other case and '|', as the [H|h] classes of HttpPattern did.
+	 */
+	private enum Header {
+		HOST("Host", false, 0),
+		CONTENT_LENGTH("Content-Length", false, 0, 8),
+		TRANSFER_ENCODING("Transfer-Encoding", false, 0, 9),
+		CONTENT_ENCODING("Content-Encoding", false, 0, 8),
+		CONTENT_TYPE("Content-Type", false, 0, 8),
+		DATE("Date", true),
+		PRAGMA("Pragma", true),
+		CACHE_CONTROL("Cache-Control", true),
+		ETAG("ETag", true, 1),
+		AGE("Age", true),
+		EXPIRES("Expires", true),
+		LAST_MODIFIED("Last-Modified", true),
+		CONTENT_RANGE("Content-Range", true),
+		REFERER("Referer", true),
+		IF_MODIFIED_SINCE("If-Modified-Since", true),
+		IF_NONE_MATCH("If-None-Match", true);
+
+		private final byte[] name;
+		private final boolean[] folded;
+		/**
+		 * whether white space is allowed between the name and the colon
+		 */
+		private final boolean spaced;
+
+		Header(String name, boolean spaced, int... foldedPositions) {
+			this.name = name.getBytes(StandardCharsets.US_ASCII);
+			this.spaced = spaced;
+			folded = new boolean[this.name.length];
+			for (int position : foldedPositions) {
+				folded[position] = true;
+			}
+		}
+
+		private boolean matches(byte[] data, int offset) {
+			for (int position = 0; position < name.length; position++) {
+				byte character = data[offset + position];
+				if (character != name[position]
+						&& !(folded[position] && (character == (name[position] ^ 0x20) || character == '|'))) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	/**
 	 * Parse data from the line of text
 	 * 
@@ -53,16 +103,62 @@ public class ParseHeaderLineImpl implements IParseHeaderLine{
 	 * @param rrInfo
 	 */
 	public void parseHeaderLine(String headerLine, HttpRequestResponseInfo rrInfo) {
-
 		appendHeaderToHttpRequestResponseInfo(headerLine, rrInfo);
+		byte[] data = headerLine.getBytes(StandardCharsets.UTF_8);
+		parseHeader(data, 0, data.length, headerLine, rrInfo);
+	}
+
+	/**
+	 * Parse data from the line of text of length bytes at offset in data. The
+	 * header name is found on the bytes, the line is made a string only for
+	 * the headers that are read.
+	 * 
+	 * @param data
+	 * @param offset
+	 * @param length
+	 * @param rrInfo
+	 */
+	public void parseHeaderLine(byte[] data, int offset, int length, HttpRequestResponseInfo rrInfo) {
+		if (rrInfo != null) {
+			rrInfo.appendHeader(data, offset, length);
+		}
+		parseHeader(data, offset, length, null, rrInfo);
+	}
+
+	/**
+	 * @param line
+	 *            the line as a string, null to make it from the bytes if the
+	 *            header is read
+	 */
+	private void parseHeader(byte[] data, int offset, int length, String line, HttpRequestResponseInfo rrInfo) {
+		int end = offset + length;
+		int colon = offset;
+		while (colon < end && data[colon] != ':') {
+			colon++;
+		}
+		if (colon == end) {
+			return;
+		}
+		int nameEnd = colon;
+		while (nameEnd > offset && isSpace(data[nameEnd - 1])) {
+			nameEnd--;
+		}
+		Header header = findHeader(data, offset, nameEnd - offset);
+		if (header == null || (nameEnd != colon && !header.spaced)) {
+			return;
+		}
+		if (line == null) {
+			line = new String(data, offset, length, StandardCharsets.UTF_8);
+		}
+		// the bytes before the colon are ASCII, so the colon is at the same index in the line
+		String value = line.substring(colon - offset + 1);
 
 		Matcher matcher;
 		String[] str;
 
-		// Get request host "[H|h]ost:"
-		matcher = HttpPattern.strReRequestHost.matcher(headerLine);
-		if (matcher.lookingAt()) {
-			String hostName = headerLine.substring(matcher.end()).trim();
+		switch (header) {
+		case HOST:
+			String hostName = value.trim();
 
 			// Strip port info if included
 			int index = hostName.indexOf(':');
@@ -70,227 +166,303 @@ public class ParseHeaderLineImpl implements IParseHeaderLine{
 				hostName = hostName.substring(0, index);
 			}
 			rrInfo.setHostName(hostName);
-			return;
-		}
+			break;
 
-		// Get request content length "[C|c]ontent-[L|l]ength:"
-		matcher = HttpPattern.strReResponseContentLength.matcher(headerLine);
-		if (matcher.lookingAt() && rrInfo.getContentLength() == 0) {
-			try {
-				rrInfo.setContentLength(Integer.parseInt(headerLine.substring(matcher.end()).trim()));
-			} catch (NumberFormatException e) {
-				/*
-				 * The value exceeds the Interger.MAX_VALUE i.e
-				 * 2^31-1=2147483647
-				 */
-				LOGGER.info("Cannot parse the string to int for contentLength,because" + " The value to parse is :" + (headerLine.substring(matcher.end()).trim())
-						+ " which is greater than the Integer.MAX_VALUE (2^31-1=2147483647).");
+		case CONTENT_LENGTH:
+			if (rrInfo.getContentLength() == 0) {
+				try {
+					rrInfo.setContentLength(Integer.parseInt(value.trim()));
+				} catch (NumberFormatException e) {
+					/*
+					 * The value exceeds the Interger.MAX_VALUE i.e
+					 * 2^31-1=2147483647
+					 */
+					LOGGER.info("Cannot parse the string to int for contentLength,because" + " The value to parse is :" + value.trim()
+							+ " which is greater than the Integer.MAX_VALUE (2^31-1=2147483647).");
+				}
 			}
+			break;
 
-			return;
-		}
-
-		// Get request transfer encoding "[T|t]ransfer-[E|e]ncoding:"
-		matcher = HttpPattern.strReTransferEncoding.matcher(headerLine);
-		if (matcher.lookingAt()) {
-			rrInfo.setChunked(CHUNKED.equals(headerLine.substring(matcher.end()).trim()));
-			return;
-		}
+		case TRANSFER_ENCODING:
+			rrInfo.setChunked(CHUNKED.equals(value.trim()));
+			break;
 
-		// Get request transfer encoding
-		matcher = HttpPattern.strReResponseContentEncoding.matcher(headerLine);
-		if (matcher.lookingAt()) {
-			rrInfo.setContentEncoding(headerLine.substring(matcher.end()).trim().toLowerCase());
-			return;
-		}
+		case CONTENT_ENCODING:
+			rrInfo.setContentEncoding(value.trim().toLowerCase());
+			break;
 
-		// Get content type
-		matcher = HttpPattern.strReResponseContentType.matcher(headerLine);
-		if (matcher.lookingAt()) {
-			str = headerLine.substring(matcher.end()).trim().split(";");
+		case CONTENT_TYPE:
+			str = value.trim().split(";");
 			rrInfo.setContentType(str[0].trim().toLowerCase());
 			for (int i = 1; i < str.length; ++i) {
-				int index = str[i].indexOf('=');
-				if (index >= 0) {
-					String attr = str[i].substring(0, index).trim();
+				int separator = str[i].indexOf('=');
+				if (separator >= 0) {
+					String attr = str[i].substring(0, separator).trim();
 					if (CHARSET.equals(attr)) {
-						rrInfo.setCharset(str[i].substring(index+1).trim());
+						rrInfo.setCharset(str[i].substring(separator + 1).trim());
 					}
 				}
 			}
-			return;
-		}
+			break;
 
-		// Date
-		matcher = HttpPattern.strReResponseDate.matcher(headerLine);
-		if (matcher.lookingAt()) {
-			rrInfo.setDate(Util.readHttpDate(matcher.group(1), false));
-			return;
-		}
-
-		// Pragma: no-cache
-		matcher = HttpPattern.strReResponsePragmaNoCache.matcher(headerLine);
-		if (matcher.lookingAt()) {
-			rrInfo.setHasCacheHeaders(true);
-			rrInfo.setPragmaNoCache(true);
-			return;
-		}
+		case DATE:
+			matcher = HttpPattern.strReResponseDate.matcher(line);
+			if (matcher.lookingAt()) {
+				rrInfo.setDate(Util.readHttpDate(matcher.group(1), false));
+			}
+			break;
 
-		// Cache-Control
-		matcher = HttpPattern.strReResponseCacheControl.matcher(headerLine);
-		if (matcher.lookingAt()) {
-			str = matcher.group(1).split(",");
-			if (str.length > 0) {
+		case PRAGMA:
+			// Pragma: no-cache
+			matcher = HttpPattern.strReResponsePragmaNoCache.matcher(line);
+			if (matcher.lookingAt()) {
 				rrInfo.setHasCacheHeaders(true);
+				rrInfo.setPragmaNoCache(true);
 			}
-			for (int i = 0; i < str.length; ++i) {
-				String directive = str[i].trim();
-				if (NOCACHE.equals(directive)) {
-					rrInfo.setNoCache(true);
-					continue;
-				} else if (NOSTORE.equals(directive)) {
-					rrInfo.setNoStore(true);
-					continue;
-				}
+			break;
 
-				// max-age
-				matcher = HttpPattern.strReCacheMaxAge.matcher(directive);
+		case CACHE_CONTROL:
+			matcher = HttpPattern.strReResponseCacheControl.matcher(line);
+			if (matcher.lookingAt()) {
+				parseCacheControl(matcher.group(1).split(","), rrInfo);
+			}
+			break;
+
+		case ETAG:
+			if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
+				matcher = HttpPattern.strReResponseEtag.matcher(line);
 				if (matcher.lookingAt()) {
-					rrInfo.setMaxAge(Long.valueOf(matcher.group(1)));
-					continue;
+					rrInfo.setEtag(matcher.group(2));
 				}
+			}
+			break;
 
-				if (rrInfo.getDirection() == HttpDirection.REQUEST) {
-					if (ONLYIFCACHED.equals(directive)) { // only-if-cached
-						rrInfo.setOnlyIfCached(true);
-						continue;
+		case AGE:
+			if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
+				matcher = HttpPattern.strReResponseAge.matcher(line);
+				if (matcher.lookingAt()) {
+					String age = matcher.group(1);
+					if (StringUtils.isNotBlank(age) && StringUtils.isNumeric(age)) {
+						rrInfo.setAge(Long.valueOf(matcher.group(1)));
 					}
+				}
+			}
+			break;
 
-					// min-fresh
-					matcher = HttpPattern.strReCacheMinFresh.matcher(directive);
-					if (matcher.lookingAt()) {
-						rrInfo.setMinFresh(Long.valueOf(matcher.group(1)));
-						continue;
-					}
+		case EXPIRES:
+			if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
+				matcher = HttpPattern.strReResponseExpires.matcher(line);
+				if (matcher.lookingAt()) {
+					rrInfo.setExpires(Util.readHttpDate(matcher.group(1), true));
+				}
+			}
+			break;
 
-					// max-stale
-					matcher = HttpPattern.strReCacheMaxStale.matcher(directive);
-					if (matcher.lookingAt()) {
-						rrInfo.setMaxStale(matcher.group(1) != null ? Long.valueOf(matcher.group(1)) : Long.MAX_VALUE);
-						continue;
-					}
+		case LAST_MODIFIED:
+			if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
+				matcher = HttpPattern.strReResponseLastMod.matcher(line);
+				if (matcher.lookingAt()) {
+					rrInfo.setLastModified(Util.readHttpDate(matcher.group(1), false));
+				}
+			}
+			break;
 
-				} else if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
-					if (PUBLIC.equals(directive)) {
-						rrInfo.setPublicCache(true);
-						continue;
-					} else if (PRIVATE.equals(directive)) {
-						rrInfo.setPrivateCache(true);
-						continue;
-					} else if (MUSTREVALIDATE.equals(directive)) {
-						rrInfo.setMustRevalidate(true);
-						continue;
-					} else if (PROXYREVALIDATE.equals(directive)) {
-						rrInfo.setProxyRevalidate(true);
-						continue;
-					}
+		case CONTENT_RANGE:
+			if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
+				matcher = HttpPattern.strReContentRange.matcher(line);
+				if (matcher.lookingAt()) {
+					parseContentRange(matcher, rrInfo);
+				}
+			}
+			break;
 
-					// s-maxage
-					matcher = HttpPattern.strReCacheSMaxAge.matcher(directive);
-					if (matcher.lookingAt()) {
-						rrInfo.setsMaxAge(Long.valueOf(matcher.group(1)));
-						continue;
+		case REFERER:
+			if (rrInfo.getDirection() == HttpDirection.REQUEST) {
+				matcher = HttpPattern.strReResponseReferer.matcher(line);
+				if (matcher.lookingAt()) {
+					try {
+						rrInfo.setReferrer(new URI(matcher.group(1).trim()));
+					} catch (URISyntaxException e) {
+						LOGGER.warn("Invalid referrer URI: " + matcher.group(1));
 					}
-
 				}
 			}
-			return;
-		}
+			break;
 
-		if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
+		case IF_MODIFIED_SINCE:
+			if (rrInfo.getDirection() == HttpDirection.REQUEST) {
+				rrInfo.setIfModifiedSince(true);
+			}
+			break;
 
-			// ETag
-			matcher = HttpPattern.strReResponseEtag.matcher(headerLine);
-			if (matcher.lookingAt()) {
-				rrInfo.setEtag(matcher.group(2));
-				return;
+		case IF_NONE_MATCH:
+			if (rrInfo.getDirection() == HttpDirection.REQUEST) {
+				rrInfo.setIfNoneMatch(true);
 			}
+			break;
 
-			// Age
-			matcher = HttpPattern.strReResponseAge.matcher(headerLine);
-			if (matcher.lookingAt()) {
-				String age = matcher.group(1);
-				if (StringUtils.isNotBlank(age) && StringUtils.isNumeric(age)) {
-					rrInfo.setAge(Long.valueOf(matcher.group(1)));
-				}
+		default:
+			break;
+		}
+	}
 
-				return;
-			}
+	/**
+	 * Finds the header of a name with a switch on its length and third
+	 * character, which tell all the headers apart
+	 */
+	private static Header findHeader(byte[] data, int offset, int length) {
+		if (length < 3) {
+			return null;
+		}
+		Header header;
+		switch (length << 8 | data[offset + 2] & 0xFF) {
+		case 3 << 8 | 'e':
+			header = Header.AGE;
+			break;
+		case 4 << 8 | 's':
+			header = Header.HOST;
+			break;
+		case 4 << 8 | 't':
+			header = Header.DATE;
+			break;
+		case 4 << 8 | 'a':
+			header = Header.ETAG;
+			break;
+		case 6 << 8 | 'a':
+			header = Header.PRAGMA;
+			break;
+		case 7 << 8 | 'p':
+			header = Header.EXPIRES;
+			break;
+		case 7 << 8 | 'f':
+			header = Header.REFERER;
+			break;
+		case 12 << 8 | 'n':
+			header = Header.CONTENT_TYPE;
+			break;
+		case 13 << 8 | 'c':
+			header = Header.CACHE_CONTROL;
+			break;
+		case 13 << 8 | 's':
+			header = Header.LAST_MODIFIED;
+			break;
+		case 13 << 8 | 'n':
+			header = Header.CONTENT_RANGE;
+			break;
+		case 13 << 8 | '-':
+			header = Header.IF_NONE_MATCH;
+			break;
+		case 14 << 8 | 'n':
+			header = Header.CONTENT_LENGTH;
+			break;
+		case 16 << 8 | 'n':
+			header = Header.CONTENT_ENCODING;
+			break;
+		case 17 << 8 | 'a':
+			header = Header.TRANSFER_ENCODING;
+			break;
+		case 17 << 8 | '-':
+			header = Header.IF_MODIFIED_SINCE;
+			break;
+		default:
+			return null;
+		}
+		return header.matches(data, offset) ? header : null;
+	}
 
-			// Expires
-			matcher = HttpPattern.strReResponseExpires.matcher(headerLine);
-			if (matcher.lookingAt()) {
-				rrInfo.setExpires(Util.readHttpDate(matcher.group(1), true));
-				return;
+	/**
+	 * White space as matched by \s
+	 */
+	private static boolean isSpace(byte character) {
+		return character == ' ' || character == '\t' || character == '\n' || character == 0x0B || character == '\f' || character == '\r';
+	}
+
+	private void parseCacheControl(String[] str, HttpRequestResponseInfo rrInfo) {
+		Matcher matcher;
+		if (str.length > 0) {
+			rrInfo.setHasCacheHeaders(true);
+		}
+		for (int i = 0; i < str.length; ++i) {
+			String directive = str[i].trim();
+			if (NOCACHE.equals(directive)) {
+				rrInfo.setNoCache(true);
+				continue;
+			} else if (NOSTORE.equals(directive)) {
+				rrInfo.setNoStore(true);
+				continue;
 			}
 
-			// Last modified
-			matcher = HttpPattern.strReResponseLastMod.matcher(headerLine);
+			// max-age
+			matcher = HttpPattern.strReCacheMaxAge.matcher(directive);
 			if (matcher.lookingAt()) {
-				rrInfo.setLastModified(Util.readHttpDate(matcher.group(1), false));
-				return;
+				rrInfo.setMaxAge(Long.valueOf(matcher.group(1)));
+				continue;
 			}
 
-			// Content-Range
-			matcher = HttpPattern.strReContentRange.matcher(headerLine);
-			if (matcher.lookingAt()) {
-				rrInfo.setRangeResponse(true);
-				rrInfo.setRangeFirst(Integer.parseInt(matcher.group(1)));
-				try {
-					rrInfo.setRangeLast(Integer.parseInt(matcher.group(2)));
-				} catch (NumberFormatException e) {
-					/*
-					 * The value exceeds the Interger.MAX_VALUE i.e
-					 * 2^31-1=2147483647. Continue.
-					 */
-					LOGGER.info("Cannot parse the string to int for rangeLast,because" + " The value to parse is :" + matcher.group(2)
-							+ " which is greater than the Integer.MAX_VALUE (2^31-1=2147483647).");
+			if (rrInfo.getDirection() == HttpDirection.REQUEST) {
+				if (ONLYIFCACHED.equals(directive)) { // only-if-cached
+					rrInfo.setOnlyIfCached(true);
+					continue;
+				}
 
+				// min-fresh
+				matcher = HttpPattern.strReCacheMinFresh.matcher(directive);
+				if (matcher.lookingAt()) {
+					rrInfo.setMinFresh(Long.valueOf(matcher.group(1)));
+					continue;
 				}
-				rrInfo.setRangeFull(Long.parseLong(matcher.group(3)));
 
-				if (rrInfo.getContentLength() == 0) {
-					rrInfo.setContentLength(rrInfo.getRangeLast() - rrInfo.getRangeFirst() + 1);
+				// max-stale
+				matcher = HttpPattern.strReCacheMaxStale.matcher(directive);
+				if (matcher.lookingAt()) {
+					rrInfo.setMaxStale(matcher.group(1) != null ? Long.valueOf(matcher.group(1)) : Long.MAX_VALUE);
+					continue;
 				}
-				return;
-			}
 
-		} else if (rrInfo.getDirection() == HttpDirection.REQUEST) {
+			} else if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
+				if (PUBLIC.equals(directive)) {
+					rrInfo.setPublicCache(true);
+					continue;
+				} else if (PRIVATE.equals(directive)) {
+					rrInfo.setPrivateCache(true);
+					continue;
+				} else if (MUSTREVALIDATE.equals(directive)) {
+					rrInfo.setMustRevalidate(true);
+					continue;
+				} else if (PROXYREVALIDATE.equals(directive)) {
+					rrInfo.setProxyRevalidate(true);
+					continue;
+				}
 
-			// Referer
-			matcher = HttpPattern.strReResponseReferer.matcher(headerLine);
-			if (matcher.lookingAt()) {
-				try {
-					rrInfo.setReferrer(new URI(matcher.group(1).trim()));
-				} catch (URISyntaxException e) {
-					LOGGER.warn("Invalid referrer URI: " + matcher.group(1));
+				// s-maxage
+				matcher = HttpPattern.strReCacheSMaxAge.matcher(directive);
+				if (matcher.lookingAt()) {
+					rrInfo.setsMaxAge(Long.valueOf(matcher.group(1)));
+					continue;
 				}
-				return;
-			}
 
-			// If-Modified-Since
-			matcher = HttpPattern.strReIfModifiedSince.matcher(headerLine);
-			if (matcher.lookingAt()) {
-				rrInfo.setIfModifiedSince(true);
-				return;
 			}
+		}
+	}
 
-			// If-None-Match
-			matcher = HttpPattern.strReIfNoneMatch.matcher(headerLine);
-			if (matcher.lookingAt()) {
-				rrInfo.setIfNoneMatch(true);
-				return;
-			}
+	private void parseContentRange(Matcher matcher, HttpRequestResponseInfo rrInfo) {
+		rrInfo.setRangeResponse(true);
+		rrInfo.setRangeFirst(Integer.parseInt(matcher.group(1)));
+		try {
+			rrInfo.setRangeLast(Integer.parseInt(matcher.group(2)));
+		} catch (NumberFormatException e) {
+			/*
+			 * The value exceeds the Interger.MAX_VALUE i.e
+			 * 2^31-1=2147483647. Continue.
+			 */
+			LOGGER.info("Cannot parse the string to int for rangeLast,because" + " The value to parse is :" + matcher.group(2)
+					+ " which is greater than the Integer.MAX_VALUE (2^31-1=2147483647).");
+
+		}
+		rrInfo.setRangeFull(Long.parseLong(matcher.group(3)));
+
+		if (rrInfo.getContentLength() == 0) {
+			rrInfo.setContentLength(rrInfo.getRangeLast() - rrInfo.getRangeFirst() + 1);
 		}
 	}
 
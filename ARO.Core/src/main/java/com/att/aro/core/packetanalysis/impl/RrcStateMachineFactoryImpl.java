@@ -15,9 +15,11 @@
 */
 package com.att.aro.core.packetanalysis.impl;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.att.aro.core.configuration.IProfileFactory;
@@ -30,17 +32,30 @@ import com.att.aro.core.packetanalysis.IRrcStateMachineFactory;
 import com.att.aro.core.packetanalysis.IRrcStateRangeFactory;
 import com.att.aro.core.packetanalysis.pojo.AbstractRrcStateMachine;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
+import com.att.aro.core.packetanalysis.pojo.RRCState;
 import com.att.aro.core.packetanalysis.pojo.RrcStateMachine3G;
 import com.att.aro.core.packetanalysis.pojo.RrcStateMachineLTE;
 import com.att.aro.core.packetanalysis.pojo.RrcStateMachineWiFi;
 import com.att.aro.core.packetanalysis.pojo.RrcStateRange;
+import com.att.aro.core.packetanalysis.pojo.RrcStateTable;
 import com.att.aro.core.packetanalysis.pojo.TimeRange;
+import com.att.aro.core.util.ParallelTasks;
 
 /**
  * Date: November 3, 2014
+ * <p>
+ * The statistics are computed on the columns of a RrcStateTable. Profiles
+ * evaluated together run in parallel, the number of threads is set by
+ * PROFILE_THREADS, it defaults to the number of processors.
+ * </p>
  */
 public class RrcStateMachineFactoryImpl implements IRrcStateMachineFactory {
 
+	private static final Logger LOGGER = LogManager.getLogger(RrcStateMachineFactoryImpl.class.getName());
+
+	private int profileThreads;
+
 	@Autowired
 	IRrcStateRangeFactory staterange;
 	@Autowired
@@ -51,31 +66,71 @@ public class RrcStateMachineFactoryImpl implements IRrcStateMachineFactory {
 			Profile profile, double packetDuration, double traceDuration, double totalBytes,
 			TimeRange timerange) {
 		List<RrcStateRange> staterangelist = staterange.create(packetlist, profile, traceDuration);
+		return create(RrcStateTable.of(staterangelist), PacketTable.of(packetlist), profile, packetDuration, traceDuration,
+				totalBytes, timerange);
+	}
+
+	@Override
+	public AbstractRrcStateMachine create(PacketTable packets, Profile profile, double packetDuration,
+			double traceDuration, double totalBytes, TimeRange timerange) {
+		RRCState[] packetStates = new RRCState[packets.size()];
+		RrcStateTable staterangetable = staterange.createTable(packets, profile, traceDuration, packetStates);
+		List<PacketInfo> packetlist = packets.getPackets();
+		for (int row = 0; row < packetStates.length; row++) {
+			packetlist.get(row).setStateMachine(packetStates[row]);
+		}
+		return create(staterangetable, packets, profile, packetDuration, traceDuration, totalBytes, timerange);
+	}
+
+	@Override
+	public List<AbstractRrcStateMachine> create(PacketTable packets, List<Profile> profiles, double packetDuration,
+			double traceDuration, double totalBytes, TimeRange timerange) {
+		AbstractRrcStateMachine[] results = new AbstractRrcStateMachine[profiles.size()];
+		ParallelTasks.forEach(profiles.size(), getProfileThreads(), "RrcStateMachine", "evaluating profiles",
+				index -> results[index] = evaluate(packets, profiles.get(index), packetDuration, traceDuration, totalBytes,
+						timerange));
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Runs the state machine of one profile without changing the packets
+	 */
+	private AbstractRrcStateMachine evaluate(PacketTable packets, Profile profile, double packetDuration,
+			double traceDuration, double totalBytes, TimeRange timerange) {
+		RrcStateTable staterangetable = staterange.createTable(packets, profile, traceDuration, null);
+		return create(staterangetable, packets, profile, packetDuration, traceDuration, totalBytes, timerange);
+	}
+
+	private AbstractRrcStateMachine create(RrcStateTable staterangetable, PacketTable packets,
+			Profile profile, double packetDuration, double traceDuration, double totalBytes, TimeRange timerange) {
 		if(timerange != null){
-			staterangelist = this.getRRCStatesForTheTimeRange(staterangelist, timerange.getBeginTime(), timerange.getEndTime());
+			staterangetable = staterangetable.clip(timerange.getBeginTime(), timerange.getEndTime());
 		}
 		AbstractRrcStateMachine data = null;
 		if(profile.getProfileType() == ProfileType.T3G){
-			data = run3GRRcStatistics(staterangelist, (Profile3G)profile, totalBytes, packetDuration, traceDuration);
+			data = run3GRRcStatistics(staterangetable, (Profile3G)profile, totalBytes, packetDuration, traceDuration);
 		}else if(profile.getProfileType() == ProfileType.LTE){
-			data = runLTERRcStatistics(staterangelist, (ProfileLTE)profile, packetlist, totalBytes, packetDuration, traceDuration);
+			data = runLTERRcStatistics(staterangetable, (ProfileLTE)profile, packets, totalBytes, packetDuration, traceDuration);
 		}else if(profile.getProfileType() == ProfileType.WIFI){
-			data = runWiFiRRcStatistics(staterangelist, (ProfileWiFi)profile, totalBytes, packetDuration, traceDuration);
+			data = runWiFiRRcStatistics(staterangetable, (ProfileWiFi)profile, totalBytes, packetDuration, traceDuration);
 		}
 		if(data != null){
-			data.setStaterangelist(staterangelist);
+			data.setStaterangelist(staterangetable.toRanges());
 		}
 		return data;
 	}
-	private RrcStateMachineWiFi runWiFiRRcStatistics(List<RrcStateRange> staterangelist, ProfileWiFi prof,
+	private RrcStateMachineWiFi runWiFiRRcStatistics(RrcStateTable staterangetable, ProfileWiFi prof,
 			double totalBytes, double packetDuration, double traceDuration) {
 		double totalRRCEnergy = 0, wifiActiveTime = 0, wifiActiveEnergy = 0, wifiTailTime = 0;
 		double wifiTailEnergy = 0, wifiIdleTime = 0, wifiIdleEnergy = 0;
-		for (RrcStateRange rrc : staterangelist) {
-			double rrcTimeDiff = rrc.getEndTime() - rrc.getBeginTime();
-			double energy = profilefactory.energyWiFi(rrc.getBeginTime(), rrc.getEndTime(), rrc.getState(), prof);
+		for (int row = 0; row < staterangetable.size(); row++) {
+			double beginTime = staterangetable.getBeginTime(row);
+			double endTime = staterangetable.getEndTime(row);
+			RRCState state = staterangetable.getState(row);
+			double rrcTimeDiff = endTime - beginTime;
+			double energy = profilefactory.energyWiFi(beginTime, endTime, state, prof);
 			totalRRCEnergy += energy;
-			switch (rrc.getState()) {
+			switch (state) {
 			case WIFI_ACTIVE:
 				wifiActiveTime += rrcTimeDiff;
 				wifiActiveEnergy += energy;
@@ -115,17 +170,20 @@ public class RrcStateMachineFactoryImpl implements IRrcStateMachineFactory {
 	/**
 	 * LTE RRC state time modification.
 	 */
-	private RrcStateMachineLTE runLTERRcStatistics(List<RrcStateRange> staterangelist, ProfileLTE profile, List<PacketInfo> packets,
+	private RrcStateMachineLTE runLTERRcStatistics(RrcStateTable staterangetable, ProfileLTE profile, PacketTable packets,
 			double totalBytes, double packetsDuration, double traceDuration) {
 		double totalRRCEnergy = 0, lteIdleTime = 0, lteIdleEnergy = 0, lteIdleToCRPromotionTime = 0;
 		double lteIdleToCRPromotionEnergy = 0, lteCrTime = 0, lteCrEnergy = 0, lteCrTailTime = 0;
 		double lteCrTailEnergy = 0, lteDrxShortTime = 0, lteDrxShortEnergy = 0, lteDrxLongTime = 0;
 		double lteDrxLongEnergy = 0;
-		for (RrcStateRange rrc : staterangelist) {
-			double duration = rrc.getEndTime() - rrc.getBeginTime();
-			double energy = profilefactory.energyLTE(rrc.getBeginTime(), rrc.getEndTime(), rrc.getState(), profile, packets);
+		for (int row = 0; row < staterangetable.size(); row++) {
+			double beginTime = staterangetable.getBeginTime(row);
+			double endTime = staterangetable.getEndTime(row);
+			RRCState state = staterangetable.getState(row);
+			double duration = endTime - beginTime;
+			double energy = profilefactory.energyLTE(beginTime, endTime, state, profile, packets);
 			totalRRCEnergy += energy;
-			switch (rrc.getState()) {
+			switch (state) {
 			case LTE_IDLE:
 				lteIdleTime += duration;
 				lteIdleEnergy += energy;
@@ -155,7 +213,7 @@ public class RrcStateMachineFactoryImpl implements IRrcStateMachineFactory {
 			default:
 				break;
 			}
-			rrc.setEnergy(energy);
+			staterangetable.setEnergy(row, energy);
 		}
 		double bytes = totalBytes;
 		double joulesPerKilobyte = bytes != 0 ? totalRRCEnergy / (bytes / 1000.0) : 0.0;
@@ -186,7 +244,7 @@ public class RrcStateMachineFactoryImpl implements IRrcStateMachineFactory {
 	/**
 	 * 3G RRC state time modification.
 	 */
-	private RrcStateMachine3G run3GRRcStatistics(List<RrcStateRange> staterangelist,
+	private RrcStateMachine3G run3GRRcStatistics(RrcStateTable staterangetable,
 			Profile3G prof3g, double totalBytes, double packetsDuration, double traceDuration) {
 		
 		double idleTime = 0, idleEnergy = 0, dchTime = 0, dchEnergy = 0, dchTailTime =0, dchTailEnergy=0;
@@ -195,10 +253,13 @@ public class RrcStateMachineFactoryImpl implements IRrcStateMachineFactory {
 		double fachToDchTime=0, fachToDchEnergy=0;
 		RrcStateMachine3G statemachine = new RrcStateMachine3G();
 		
-		for (RrcStateRange rrc : staterangelist) {
-			double energy = profilefactory.energy3G(rrc.getBeginTime(), rrc.getEndTime(), rrc.getState(), prof3g);
-			double duration = rrc.getEndTime() - rrc.getBeginTime();
-			switch (rrc.getState()) {
+		for (int row = 0; row < staterangetable.size(); row++) {
+			double beginTime = staterangetable.getBeginTime(row);
+			double endTime = staterangetable.getEndTime(row);
+			RRCState state = staterangetable.getState(row);
+			double energy = profilefactory.energy3G(beginTime, endTime, state, prof3g);
+			double duration = endTime - beginTime;
+			switch (state) {
 			case STATE_IDLE:
 				idleTime += duration;
 				idleEnergy += energy;
@@ -268,34 +329,16 @@ public class RrcStateMachineFactoryImpl implements IRrcStateMachineFactory {
 		
 		return statemachine;
 	}
-	private List<RrcStateRange> getRRCStatesForTheTimeRange(List<RrcStateRange> rrcRanges , double beginTime , double endTime){
-		
-		List<RrcStateRange> filteredRRCStates = new ArrayList<RrcStateRange>();
-		boolean stateAdded = false;
-
-		for (RrcStateRange rrcRange : rrcRanges) {
+	/**
+	 * Number of profiles evaluated in parallel, setting PROFILE_THREADS,
+	 * defaults to the number of processors
+	 */
+	private int getProfileThreads() {
+		return profileThreads > 0 ? profileThreads : ParallelTasks.getThreads(ParallelTasks.PROFILE_THREADS);
+	}
 
-			if (rrcRange.getBeginTime() >= beginTime
-					&& rrcRange.getEndTime() <= endTime) {
-				filteredRRCStates.add(rrcRange);
-			} else if (rrcRange.getBeginTime() <= beginTime
-					&& rrcRange.getEndTime() <= endTime && rrcRange.getEndTime() > beginTime) {
-				filteredRRCStates.add(new RrcStateRange(beginTime, rrcRange
-						.getEndTime(), rrcRange.getState()));
-			} else if (rrcRange.getBeginTime() <= beginTime
-					&& rrcRange.getEndTime() >= endTime) {
-				filteredRRCStates.add(new RrcStateRange(beginTime, endTime,
-						rrcRange.getState()));
-			} else if (rrcRange.getBeginTime() >= beginTime && rrcRange.getBeginTime() < endTime
-					&& rrcRange.getEndTime() >= endTime && !stateAdded) {
-				filteredRRCStates.add(new RrcStateRange(rrcRange
-						.getBeginTime(), endTime, rrcRange
-						.getState()));
-				stateAdded = true;
-			}
-		}
-		return filteredRRCStates;
-		
+	void setProfileThreads(int profileThreads) {
+		this.profileThreads = profileThreads;
 	}
 
 }
@@ -15,9 +15,7 @@
 */
 package com.att.aro.core.packetanalysis.impl;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 
 import com.att.aro.core.configuration.pojo.Profile;
@@ -29,8 +27,10 @@ import com.att.aro.core.packetanalysis.IRrcStateRangeFactory;
 import com.att.aro.core.packetanalysis.pojo.DchDemotionQueue;
 import com.att.aro.core.packetanalysis.pojo.FachQueue;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
 import com.att.aro.core.packetanalysis.pojo.RRCState;
 import com.att.aro.core.packetanalysis.pojo.RrcStateRange;
+import com.att.aro.core.packetanalysis.pojo.RrcStateTable;
 import com.att.aro.core.packetreader.pojo.PacketDirection;
 
 
@@ -43,20 +43,43 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 	@Override
 	public List<RrcStateRange> create(List<PacketInfo> packetlist,
 			Profile profile, double traceDuration) {
+		return create(PacketTable.of(packetlist), profile, traceDuration);
+	}
+
+	@Override
+	public List<RrcStateRange> create(PacketTable packets, Profile profile, double traceDuration) {
+		RRCState[] packetStates = new RRCState[packets.size()];
+		RrcStateTable result = createTable(packets, profile, traceDuration, packetStates);
+		List<PacketInfo> packetlist = packets.getPackets();
+		for (int row = 0; row < packetStates.length; row++) {
+			packetlist.get(row).setStateMachine(packetStates[row]);
+		}
+		return result.toRanges();
+	}
+
+	@Override
+	public RrcStateTable createTable(PacketTable packets, Profile profile, double traceDuration, RRCState[] packetStates) {
 		if(profile.getProfileType() == ProfileType.T3G){
 			Profile3G prof = (Profile3G)profile;
-			return this.create3G(packetlist, prof, traceDuration);
+			return this.create3G(packets, prof, traceDuration, packetStates != null ? packetStates : new RRCState[packets.size()]);
 		}else if(profile.getProfileType() == ProfileType.WIFI){
 			ProfileWiFi prof = (ProfileWiFi)profile;
-			return this.createWiFi(packetlist, prof, traceDuration);
+			if (packetStates != null) {
+				Arrays.fill(packetStates, RRCState.WIFI_ACTIVE);
+			}
+			return this.createWiFi(packets.getTimestamps(), prof, traceDuration);
 		}else if(profile.getProfileType() == ProfileType.LTE){
 			ProfileLTE prof = (ProfileLTE)profile;
-			return this.createLTE(packetlist, prof, traceDuration);
+			if (packetStates != null) {
+				Arrays.fill(packetStates, RRCState.LTE_CONTINUOUS);
+			}
+			return this.createLTE(packets.getTimestamps(), prof, traceDuration);
 		}else{
 			throw new IllegalArgumentException("Invalid profile type for state machine: "
 					+ profile.getClass());
 		}
 	}
+
 	/**
 	 * This method contains the main algorithm for creating the List of
 	 * RrcStateRange for a LTE profile
@@ -67,36 +90,25 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 	 *            LTE profile
 	 * @return list of RRC State range values.
 	 */
-	private List<RrcStateRange> createLTE(List<PacketInfo> packetlist,
+	private RrcStateTable createLTE(double[] timestamps,
 			ProfileLTE profile, double traceDuration) {
 
 		// Create results list
-		ArrayList<RrcStateRange> result = new ArrayList<RrcStateRange>();
+		RrcStateTable result = new RrcStateTable();
 
 		// Iterate through packets in trace
-		if(packetlist == null) {
-			result.add(new RrcStateRange(0.0, traceDuration,
-				RRCState.LTE_IDLE));
-			return result;
-		}
-		Iterator<PacketInfo> iter = packetlist.iterator();
-		PacketInfo packet;
-		if (iter.hasNext()) {
+		if (timestamps.length > 0) {
 
 			// Track time of state changes
 			double timer = 0.0;
 
 			// Keep timestamp of previous packet in iteration
-			packet = iter.next();
-			packet.setStateMachine(RRCState.LTE_CONTINUOUS);
-			double last = packet.getTimeStamp();
+			double last = timestamps[0];
 
 			// First packet starts continuous reception
 			timer = promoteLTE(result, timer, last, profile);
-			while (iter.hasNext()) {
-				packet = iter.next();
-				packet.setStateMachine(RRCState.LTE_CONTINUOUS);
-				double curr = packet.getTimeStamp();
+			for (int row = 1; row < timestamps.length; row++) {
+				double curr = timestamps[row];
 
 				// Check to see if we dropped to CR tail
 				if (curr - last > profile.getInactivityTimer()) {
@@ -118,13 +130,13 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 
 			// Check for final idle time
 			if (timer < traceDuration) {
-				result.add(new RrcStateRange(timer, traceDuration, RRCState.LTE_IDLE));
+				result.add(timer, traceDuration, RRCState.LTE_IDLE);
 			}
 		} else {
 
 			// State is idle for the entire trace
-			result.add(new RrcStateRange(0.0, traceDuration,
-					RRCState.LTE_IDLE));
+			result.add(0.0, traceDuration,
+					RRCState.LTE_IDLE);
 		}
 
 		return result;
@@ -147,32 +159,32 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 	 *            LTE profile being used to model state ranges
 	 * @return The time at which the tail sequence was completed or stopped
 	 */
-	private static double tailLTE(List<RrcStateRange> result, double timer, double start,
+	private static double tailLTE(RrcStateTable result, double timer, double start,
 			double end, ProfileLTE profile) {
 
 		double tailTime = timer;
 		double startTime = start;
 		// Add the continuous reception time
-		result.add(new RrcStateRange(tailTime, startTime, RRCState.LTE_CONTINUOUS));
+		result.add(tailTime, startTime, RRCState.LTE_CONTINUOUS);
 
 		// Check for CR tail time
 		tailTime = Math.min(startTime + profile.getInactivityTimer(), end);
 		if (tailTime > startTime) {
-			result.add(new RrcStateRange(startTime, tailTime, RRCState.LTE_CR_TAIL));
+			result.add(startTime, tailTime, RRCState.LTE_CR_TAIL);
 			startTime = tailTime;
 		}
 
 		// Check for DRX short tail time
 		tailTime = Math.min(startTime + profile.getDrxShortTime(), end);
 		if (tailTime > startTime) {
-			result.add(new RrcStateRange(startTime, tailTime, RRCState.LTE_DRX_SHORT));
+			result.add(startTime, tailTime, RRCState.LTE_DRX_SHORT);
 			startTime = tailTime;
 		}
 
 		// Check for DRX long tail time
 		tailTime = Math.min(startTime + profile.getDrxLongTime(), end);
 		if (tailTime > startTime) {
-			result.add(new RrcStateRange(startTime, tailTime, RRCState.LTE_DRX_LONG));
+			result.add(startTime, tailTime, RRCState.LTE_DRX_LONG);
 			startTime = tailTime;
 		}
 		return tailTime;
@@ -193,7 +205,7 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 	 *            LTE profile being used to model state ranges
 	 * @return The time at which the promotion is complete
 	 */
-	private double promoteLTE(List<RrcStateRange> result, double start, double end,
+	private double promoteLTE(RrcStateTable result, double start, double end,
 			ProfileLTE profile) {
 
 		// Find the time that the promotion started before the packet was
@@ -202,41 +214,35 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 
 		// Check to see if there was some IDLE time
 		if (promoStart > start) {
-			result.add(new RrcStateRange(start, promoStart, RRCState.LTE_IDLE));
+			result.add(start, promoStart, RRCState.LTE_IDLE);
 		}
 
 		// Add the promotion state range
-		result.add(new RrcStateRange(promoStart, end, RRCState.LTE_PROMOTION));
+		result.add(promoStart, end, RRCState.LTE_PROMOTION);
 		return end;
 	}
 	
-	private List<RrcStateRange> createWiFi(List<PacketInfo> packetlist , ProfileWiFi profile, double traceDuration) {
+	private RrcStateTable createWiFi(double[] timestamps, ProfileWiFi profile, double traceDuration) {
 		
 
 		// Create results list
-		ArrayList<RrcStateRange> result = new ArrayList<RrcStateRange>();
+		RrcStateTable result = new RrcStateTable();
 
 		// Iterate through packets in trace
-		Iterator<PacketInfo> iter = packetlist.iterator();
-		PacketInfo packet;
-		if (iter.hasNext()) {
+		if (timestamps.length > 0) {
 
 			// Track time of state changes
 			double timer = 0.0;
 
 			// Keep timestamp of previous packet in iteration
-			packet = iter.next();
-			packet.setStateMachine(RRCState.WIFI_ACTIVE);
-			double last = packet.getTimeStamp();
+			double last = timestamps[0];
  
 			// Idle state till first packet is received
-			result.add(new RrcStateRange(timer, last, RRCState.WIFI_IDLE));
+			result.add(timer, last, RRCState.WIFI_IDLE);
 			timer = last;
 			 
-			while (iter.hasNext()) {
-				packet = iter.next();
-				packet.setStateMachine(RRCState.WIFI_ACTIVE);
-				double curr = packet.getTimeStamp();
+			for (int row = 1; row < timestamps.length; row++) {
+				double curr = timestamps[row];
 
 				// Check to see if we dropped to WiFi Active
 				if (curr - last > profile.getWifiTailTime()) {
@@ -244,7 +250,7 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 
 					// If end of tail was reached, we need to the idle time before the next packet arrives
 					if (timer < curr) {
-						result.add(new RrcStateRange(timer , curr , RRCState.WIFI_IDLE));
+						result.add(timer , curr , RRCState.WIFI_IDLE);
 						timer = curr;
 					}
 				}
@@ -258,30 +264,30 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 
 			// Check for final idle time
 			if (timer < traceDuration) {
-				result.add(new RrcStateRange(timer, traceDuration, RRCState.WIFI_IDLE));
+				result.add(timer, traceDuration, RRCState.WIFI_IDLE);
 			}
 		} else {
 
 			// State is idle for the entire trace
-			result.add(new RrcStateRange(0.0, traceDuration,
-					RRCState.WIFI_IDLE));
+			result.add(0.0, traceDuration,
+					RRCState.WIFI_IDLE);
 		}
 
 		return result;
 		
 	}
 	
-	private static double tailWiFi(List<RrcStateRange> result, double timer, double start,
+	private static double tailWiFi(RrcStateTable result, double timer, double start,
 			double end, ProfileWiFi profile) {
 		
 		double tailTime = timer;
 		// Add the continuous reception time
-		result.add(new RrcStateRange(tailTime, start, RRCState.WIFI_ACTIVE));
+		result.add(tailTime, start, RRCState.WIFI_ACTIVE);
 
 		// Check for CR tail time
 		tailTime = Math.min(start + profile.getWifiTailTime(), end);
 		if (tailTime > start) {
-			result.add(new RrcStateRange(start, tailTime, RRCState.WIFI_TAIL));
+			result.add(start, tailTime, RRCState.WIFI_TAIL);
 
 		}
 		return tailTime;
@@ -297,12 +303,14 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 	 *            3G profile
 	 * @return list of RRC State range values.
 	 */
-	private List<RrcStateRange> create3G(List<PacketInfo> packetlist, Profile3G profile, double traceDuration) {
+	private RrcStateTable create3G(PacketTable packets, Profile3G profile, double traceDuration, RRCState[] packetStates) {
 
-		List<PacketInfo> packetInfos = packetlist;
+		double[] timestamps = packets.getTimestamps();
+		int[] lengths = packets.getLengths();
+		byte[] directions = packets.getDirections();
 
-		List<RrcStateRange> result = new ArrayList<RrcStateRange>();
-		if (packetInfos != null && !packetInfos.isEmpty()) {
+		RrcStateTable result = new RrcStateTable();
+		if (timestamps.length > 0) {
 
 			// Get important profile info
 			double idleDchPromoAvg = profile.getIdleDchPromoAvg();
@@ -320,37 +328,33 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 			FachQueue fachQueue = new FachQueue(profile);
 
 			// Set up initial packet
-			PacketInfo prevPacket = packetInfos.get(0);
-			double currTimeStamp = prevPacket.getTimeStamp();
-			prevPacket.setStateMachine(RRCState.PROMO_IDLE_DCH);
+			double currTimeStamp = timestamps[0];
+			packetStates[0] = RRCState.PROMO_IDLE_DCH;
 
 			// Add initial idle state
 			addStateRangeEx(result, 0, Double.MAX_VALUE, RRCState.STATE_IDLE, currTimeStamp);
 
-			for (int i = 1; i <= packetInfos.size(); ++i) {
-				PacketInfo packet;
+			for (int i = 1; i <= timestamps.length; ++i) {
 				PacketDirection dir;
 				int currLen;
-				if (i >= packetInfos.size()) {
+				if (i >= timestamps.length) {
 
 					// The last iteration of this loop
-					packet = null;
 					dir = PacketDirection.UPLINK;
 					currTimeStamp = Double.MAX_VALUE;
 					currLen = 0;
 				} else {
 
 					// Iteration on a packet
-					packet = packetInfos.get(i);
-					dir = packet.getDir();
-					currTimeStamp = packet.getTimeStamp();
-					currLen = packet.getLen();
+					dir = direction(directions[i]);
+					currTimeStamp = timestamps[i];
+					currLen = lengths[i];
 				}
-				double prevTimeStamp = (prevPacket == null ? 0.0 : prevPacket.getTimeStamp());
+				double prevTimeStamp = timestamps[i - 1];
 				double deltaTime = currTimeStamp - prevTimeStamp;
 
 				RRCState state = null; // the next state to be determined
-				RRCState promoState = (prevPacket == null ? RRCState.STATE_IDLE : prevPacket.getStateMachine());
+				RRCState promoState = packetStates[i - 1];
 				
 				if(promoState == RRCState.PROMO_IDLE_DCH || promoState == RRCState.PROMO_FACH_DCH){
 					double promoAvg, promoMin, promoMax;
@@ -609,26 +613,23 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 												// packet
 										boolean bFixed = false;
 										for (int ii = i - 1; ii > 0; ii--) {
-											PacketInfo earlierPacket = packetInfos.get(ii);
-											if (earlierPacket.getStateMachine() == RRCState.STATE_FACH) {
+											if (packetStates[ii] == RRCState.STATE_FACH) {
 												// FACH-DCH promo: from
 												// packets[ii].ts to
 												// packets[ii].ts+y
 												// DCH: from packets[ii].ts+y to
 												// tMax
 
-												double piTimeStamp = packetInfos.get(ii).getTimeStamp();
-												if (earlierPacket.getDir() == PacketDirection.UPLINK
+												double piTimeStamp = timestamps[ii];
+												if (directions[ii] == PacketTable.DIRECTION_UPLINK
 														&& currTimeStamp >= piTimeStamp + fachDchPromoMin) {
 													int resultSize = result.size() - 1;
 													// boolean bDone = false;
 													for (int jj = resultSize; jj > 0; jj--) {
 														// double EPS = 1e-4;
-														if (result.get(jj).getBeginTime() == piTimeStamp) {
+														if (result.getBeginTime(jj) == piTimeStamp) {
 
-															for (int k = 0; k < resultSize - jj + 1; k++) {
-																result.remove(result.size() - 1);
-															}
+															result.truncate(jj);
 
 															double avgDchPromo;
 															if (currTimeStamp >= piTimeStamp
@@ -638,11 +639,11 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 																avgDchPromo = fachDchPromoMin;
 															}
 
-															result.add(new RrcStateRange(piTimeStamp, piTimeStamp
-																	+ avgDchPromo, RRCState.PROMO_FACH_DCH));
-															result.add(new RrcStateRange(piTimeStamp + avgDchPromo,
+															result.add(piTimeStamp, piTimeStamp
+																	+ avgDchPromo, RRCState.PROMO_FACH_DCH);
+															result.add(piTimeStamp + avgDchPromo,
 																	prevTimeStamp,
-																	RRCState.STATE_DCH));
+																	RRCState.STATE_DCH);
 
 															prevTimeStamp = addStateRangeEx(result,
 																	prevTimeStamp,
@@ -712,32 +713,29 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 				}
 				
 
-				if (packet != null) {
-					packet.setStateMachine(state);
+				if (i < timestamps.length) {
+					packetStates[i] = state;
 				}
-				prevPacket = packet;
 			}
 		}
 
-		result = compressStateRanges(result);
+		compressStateRanges(result);
 
 		// Truncate state ranges at end of trace
-		Iterator<RrcStateRange> iter = result.iterator();
+		int size = 0;
 		double prevTimeStamp = 0.0;
-		while (iter.hasNext()) {
-			RrcStateRange rrc = iter.next();
-			if (rrc.getBeginTime() >= traceDuration) {
-				iter.remove();
+		for (int row = 0; row < result.size(); row++) {
+			double endTime = Math.min(result.getEndTime(row), traceDuration);
+			if (result.getBeginTime(row) < traceDuration) {
+				result.set(size++, result.getBeginTime(row), endTime, result.getState(row));
 			}
-			if (rrc.getEndTime() > traceDuration) {
-				rrc.setEndTime(traceDuration);
-			}
-			prevTimeStamp = rrc.getEndTime();
+			prevTimeStamp = endTime;
 		}
+		result.truncate(size);
 		if (prevTimeStamp < traceDuration) {
 
 			// Add idle time to end of trace
-			result.add(new RrcStateRange(prevTimeStamp, traceDuration, RRCState.STATE_IDLE));
+			result.add(prevTimeStamp, traceDuration, RRCState.STATE_IDLE);
 		}
 
 		return result;
@@ -752,7 +750,7 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 	 *            The RRC state
 	 * @param tMax
 	 */
-	private static double addStateRangeEx(List<RrcStateRange> rrc, double time, double duration1,
+	private static double addStateRangeEx(RrcStateTable rrc, double time, double duration1,
 			RRCState state, double tMax) {
 		double duration = duration1;
 		if ((time >= tMax) || (duration <= 0)) {
@@ -763,11 +761,11 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 		}
 
 		double end = time + duration;
-		rrc.add(new RrcStateRange(time, end, state));
+		rrc.add(time, end, state);
 		return end;
 	}
 
-	private static void changeStateRangeBack(List<RrcStateRange> rrc, double duration,
+	private static void changeStateRangeBack(RrcStateTable rrc, double duration,
 			RRCState newState) {
 
 		double tDuration = duration;
@@ -779,8 +777,8 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 
 		int size = rrc.size();
 		for (int i = size - 1; i >= 0; i--) {
-			rrc.get(i).setState(newState);
-			tDuration -= rrc.get(i).getEndTime() - rrc.get(i).getBeginTime();
+			rrc.setState(i, newState);
+			tDuration -= rrc.getDuration(i);
 
 			if (tDuration <= EPS) {
 				break;
@@ -789,26 +787,32 @@ public class RrcStateRangeFactoryImpl implements IRrcStateRangeFactory {
 
 	}
 
-	private static List<RrcStateRange> compressStateRanges(List<RrcStateRange> rrc) {
-		Collections.sort(rrc);
+	private static void compressStateRanges(RrcStateTable rrc) {
+		rrc.sort();
 		int rrcSize = rrc.size();
 
-		List<RrcStateRange> rrc2 = new ArrayList<RrcStateRange>();
 		if (rrcSize > 0) {
 			int rrcObjPosition = 0;
-			rrc2.add(rrc.get(0));
 
 			for (int i = 1; i < rrcSize; i++) {
-				if (rrc.get(i).getState() != rrc2.get(rrcObjPosition).getState()) {
-					rrc2.get(rrcObjPosition++).setEndTime(rrc.get(i - 1).getEndTime());
-					rrc2.add(rrc.get(i));
+				if (rrc.getState(i) != rrc.getState(rrcObjPosition)) {
+					rrc.setEndTime(rrcObjPosition++, rrc.getEndTime(i - 1));
+					rrc.set(rrcObjPosition, rrc.getBeginTime(i), rrc.getEndTime(i), rrc.getState(i));
 				}
 			}
 
-			rrc2.get(rrcObjPosition).setEndTime( rrc.get(rrcSize - 1).getEndTime());
+			rrc.setEndTime(rrcObjPosition, rrc.getEndTime(rrcSize - 1));
+			rrc.truncate(rrcObjPosition + 1);
 		}
+	}
 
-		return rrc2;
+	private static PacketDirection direction(byte direction) {
+		if (direction == PacketTable.DIRECTION_UPLINK) {
+			return PacketDirection.UPLINK;
+		} else if (direction == PacketTable.DIRECTION_DOWNLINK) {
+			return PacketDirection.DOWNLINK;
+		}
+		return PacketDirection.UNKNOWN;
 	}
 
 }//end class
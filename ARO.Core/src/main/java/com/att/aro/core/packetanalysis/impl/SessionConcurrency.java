@@ -0,0 +1,248 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
+import com.att.aro.core.packetanalysis.pojo.Session;
+
+/**
+ * Interval index of the TCP sessions of a trace, answering how many sessions
+ * are open at once, per group and overall, and when.
+ * <p>
+ * The open and close times of the sessions of a group are sorted once into
+ * primitive arrays, and one sweep over them finds the peak of concurrent
+ * sessions. The index of a trace by remote IP is stored in the analysis
+ * result, so the simultaneous connection best practices share it.
+ * </p>
+ */
+public class SessionConcurrency {
+
+	/**
+	 * Most sessions open at once
+	 */
+	public static final class Peak {
+		private final int count;
+		private final double time;
+		private final Session session;
+
+		private Peak(int count, double time, Session session) {
+			this.count = count;
+			this.time = time;
+			this.session = session;
+		}
+
+		/**
+		 * @return number of sessions open at once, 0 for no sessions
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * @return first time the peak is reached, the start of a session
+		 */
+		public double getTime() {
+			return time;
+		}
+
+		/**
+		 * @return the session starting at the peak, the last one collected when
+		 *         several start at that time
+		 */
+		public Session getSession() {
+			return session;
+		}
+	}
+
+	/**
+	 * Sessions of a group, with their open and close times sorted
+	 */
+	public static final class Group {
+		private final String key;
+		private final List<Session> sessions;
+		private final double[] starts;
+		private final double[] ends;
+		/**
+		 * session of each start, ties in collected order
+		 */
+		private final Session[] startSessions;
+		private Peak peak;
+
+		private Group(String key, List<Session> sessions) {
+			this.key = key;
+			this.sessions = Collections.unmodifiableList(sessions);
+			int count = sessions.size();
+			startSessions = sessions.toArray(new Session[count]);
+			Arrays.sort(startSessions, Comparator.comparingDouble(Session::getSessionStartTime));
+			starts = new double[count];
+			ends = new double[count];
+			for (int index = 0; index < count; index++) {
+				starts[index] = startSessions[index].getSessionStartTime();
+				ends[index] = sessions.get(index).getSessionEndTime();
+			}
+			Arrays.sort(ends);
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * @return the sessions in the order they were collected
+		 */
+		public List<Session> getSessions() {
+			return sessions;
+		}
+
+		/**
+		 * @return session start times, sorted
+		 */
+		public double[] getStarts() {
+			return starts;
+		}
+
+		/**
+		 * @return session end times, sorted
+		 */
+		public double[] getEnds() {
+			return ends;
+		}
+
+		/**
+		 * Sweeps the start and end times in order, a session ending when
+		 * another starts is closed first
+		 */
+		public synchronized Peak getPeak() {
+			if (peak == null) {
+				int open = 0;
+				int most = 0;
+				int mostStart = -1;
+				for (int start = 0, end = 0; start < starts.length && end < ends.length;) {
+					if (starts[start] < ends[end]) {
+						if (++open > most) {
+							most = open;
+							mostStart = start;
+						}
+						start++;
+					} else {
+						open--;
+						end++;
+					}
+				}
+				if (mostStart < 0) {
+					peak = new Peak(0, 0, null);
+				} else {
+					int last = mostStart;
+					while (last + 1 < starts.length && starts[last + 1] == starts[mostStart]) {
+						last++;
+					}
+					peak = new Peak(most, starts[mostStart], startSessions[last]);
+				}
+			}
+			return peak;
+		}
+	}
+
+	/**
+	 * Index of the TCP sessions of a trace
+	 */
+	public static final class Index {
+		private final Map<String, Group> groups;
+		private final Group all;
+
+		private Index(Map<String, Group> groups, Group all) {
+			this.groups = Collections.unmodifiableMap(groups);
+			this.all = all;
+		}
+
+		/**
+		 * @return the groups, in the order of a HashMap of their keys
+		 */
+		public Map<String, Group> getGroups() {
+			return groups;
+		}
+
+		/**
+		 * @return all the sessions, group after group
+		 */
+		public Group getAll() {
+			return all;
+		}
+	}
+
+	/**
+	 * Returns the index of the TCP sessions of the trace by remote IP. It is
+	 * built on the first call and stored in the result.
+	 * 
+	 * @param tracedata
+	 * @return
+	 */
+	public synchronized Index getByRemoteIp(PacketAnalyzerResult tracedata) {
+		Index index = tracedata.getSessionsByRemoteIp();
+		if (index == null) {
+			List<Session> sessions = tracedata.getSessionlist();
+			index = index(sessions != null ? sessions : Collections.<Session> emptyList(), session -> session.getRemoteIP().toString());
+			tracedata.setSessionsByRemoteIp(index);
+		}
+		return index;
+	}
+
+	/**
+	 * Indexes TCP sessions by group
+	 * 
+	 * @param sessions
+	 *            sessions, null and UDP only sessions are left out
+	 * @param groupBy
+	 *            key of the group of a session
+	 * @return
+	 */
+	public static Index index(Collection<Session> sessions, Function<Session, String> groupBy) {
+		Map<String, List<Session>> sessionsByKey = new HashMap<>();
+		for (Session session : sessions) {
+			if (session != null && !session.isUdpOnly()) {
+				sessionsByKey.computeIfAbsent(groupBy.apply(session), key -> new ArrayList<>()).add(session);
+			}
+		}
+		Map<String, Group> groups = new LinkedHashMap<>();
+		List<Session> allSessions = new ArrayList<>();
+		for (Map.Entry<String, List<Session>> entry : sessionsByKey.entrySet()) {
+			groups.put(entry.getKey(), new Group(entry.getKey(), entry.getValue()));
+			allSessions.addAll(entry.getValue());
+		}
+		return new Index(groups, new Group(null, allSessions));
+	}
+
+	/**
+	 * Indexes sessions as one group
+	 * 
+	 * @param sessions
+	 * @return
+	 */
+	public static Group group(List<Session> sessions) {
+		return new Group(null, new ArrayList<>(sessions));
+	}
+}
@@ -23,16 +23,17 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.IntConsumer;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
@@ -45,6 +46,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import com.att.aro.core.packetanalysis.IByteArrayLineReader;
 import com.att.aro.core.packetanalysis.IParseHeaderLine;
 import com.att.aro.core.packetanalysis.ISessionManager;
+import com.att.aro.core.packetanalysis.impl.AssembledFlow.DnsLookup;
 import com.att.aro.core.packetanalysis.pojo.HttpDirection;
 import com.att.aro.core.packetanalysis.pojo.HttpPattern;
 import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
@@ -58,6 +60,7 @@ import com.att.aro.core.packetreader.pojo.Packet;
 import com.att.aro.core.packetreader.pojo.PacketDirection;
 import com.att.aro.core.packetreader.pojo.TCPPacket;
 import com.att.aro.core.packetreader.pojo.UDPPacket;
+import com.att.aro.core.util.ParallelTasks;
 import com.att.aro.core.util.Util;
 
 public class SessionManagerImpl implements ISessionManager {
@@ -77,6 +80,31 @@ public class SessionManagerImpl implements ISessionManager {
 
 	private double pcapTimeOffset;
 
+	/**
+	 * Traces with fewer packets per thread are assembled on the calling thread
+	 */
+	private static final int MIN_PACKETS_PER_SHARD = 20000;
+
+	private static final int MIN_SESSIONS_PER_THREAD = 16;
+
+	/**
+	 * Line reader of a worker thread, the injected reader is used on the calling thread
+	 */
+	private final ThreadLocal<IByteArrayLineReader> workerReader = new ThreadLocal<>();
+
+	/**
+	 * Overrides the SESSION_THREADS setting when greater than 0
+	 */
+	private int sessionThreads;
+
+	/**
+	 * Flows assembled by the previous call
+	 */
+	private Map<FlowKey, AssembledFlow> previousTCPFlows = Collections.emptyMap();
+	private Map<FlowKey, AssembledFlow> previousUDPFlows = Collections.emptyMap();
+	private String previousTracePath;
+	private double previousPcapTimeOffset;
+
 	public double getPcapTimeOffset() {
 		return pcapTimeOffset;
 	}
@@ -100,9 +128,6 @@ public class SessionManagerImpl implements ISessionManager {
 
 	Map<String, Integer> wellKnownPorts = new HashMap<String, Integer>(5);
 
-	private double synTime = 0.0;
-	private double synAckTime = 0.0;
-
 	public SessionManagerImpl() {
 		wellKnownPorts.put("HTTP", 80);
 		wellKnownPorts.put("HTTPS", 443);
@@ -112,85 +137,288 @@ public class SessionManagerImpl implements ISessionManager {
 	/**
 	 * Entry point into SessionManager from PacketAnalyzerImpl
 	 * 
+	 * Packets are grouped into flows on their addresses and ports, the flows
+	 * are hashed into shards and the shards are reassembled on separate
+	 * threads. Sessions are listed in the order they were created, so the
+	 * result is the same for any number of threads.
+	 * 
+	 * The flows of the previous call are kept. A flow made of the same packets
+	 * as before, with the same DNS lookups, keeps its analyzed sessions, so a
+	 * new time range or application filter only assembles and analyzes the
+	 * flows it changed.
+	 * 
 	 * returns List<Session> sessionList
 	 */
 	public List<Session> processPacketsAndAssembleSessions(List<PacketInfo> packets) {
 
 		LOGGER.warn("processPacketsAndAssembleSessions -> Trace path: " + tracePath);
 		List<Session> sessions = new ArrayList<>();
-		List<PacketInfo> udpPackets = new ArrayList<>();
+		if (packets == null || packets.isEmpty()) {
+			previousTCPFlows = Collections.emptyMap();
+			previousUDPFlows = Collections.emptyMap();
+			return sessions;
+		}
+		if (!tracePath.equals(previousTracePath) || pcapTimeOffset != previousPcapTimeOffset) {
+			previousTCPFlows = Collections.emptyMap();
+			previousUDPFlows = Collections.emptyMap();
+		}
+
+		int packetCount = packets.size();
+		int shards = Math.max(1, Math.min(getSessionThreads(), packetCount / MIN_PACKETS_PER_SHARD));
+		Map<FlowKey, AssembledFlow> tcpFlows = new HashMap<>();
+		Map<FlowKey, AssembledFlow> udpFlows = new HashMap<>();
+		List<List<AssembledFlow>> shardFlows = new ArrayList<>(shards);
+		for (int shard = 0; shard < shards; shard++) {
+			shardFlows.add(new ArrayList<>());
+		}
+
+		// Step 1: the flow of each packet
+		for (int index = 0; index < packetCount; index++) {
+			PacketInfo packetInfo = packets.get(index);
+			Packet packet = packetInfo.getPacket();
+
+			if (packet instanceof UDPPacket) { // UDP
+				UDPPacket udpPacket = (UDPPacket) packet;
+				FlowKey key = flowKey(packetInfo.getDir(), udpPacket.getSourceIPAddress(), udpPacket.getSourcePort(),
+						udpPacket.getDestinationIPAddress(), udpPacket.getDestinationPort(), "29 - Unable to determine packet direction");
+				flow(udpFlows, shardFlows, key, true).add(index);
+			} else if (packet instanceof TCPPacket) { // TCP
+				TCPPacket tcpPacket = (TCPPacket) packet;
+				FlowKey key = flowKey(packetInfo.getDir(), tcpPacket.getSourceIPAddress(), tcpPacket.getSourcePort(),
+						tcpPacket.getDestinationIPAddress(), tcpPacket.getDestinationPort(), "29 - Unable to determine packet direction. Assuming Uplink");
+				flow(tcpFlows, shardFlows, key, false).add(index);
+			}
+		}
+
+		// Step 2: sessions of the flows that changed, each shard on its own thread
+		Session[] createdBy = new Session[packetCount];
+		Session[] sessionOf = new Session[packetCount];
+		forEach(shards, shards, "SessionShard", shard -> {
+			for (AssembledFlow flow : shardFlows.get(shard)) {
+				AssembledFlow previous = (flow.isUdp() ? previousUDPFlows : previousTCPFlows).get(flow.getKey());
+				if (flow.hasPacketsOf(previous, packets)) {
+					flow.reuse(previous);
+				} else {
+					assembleFlow(packets, flow);
+				}
+				publishFlow(flow, createdBy, sessionOf);
+			}
+		});
+
+		// Step 3: DNS lookups need the DNS packets seen before each TCP packet
 		Map<InetAddress, String> hostMap = new HashMap<>();
-		Map<String, Session> udpSessions = new LinkedHashMap<>();
 		Map<String, PacketInfo> dnsRequestDomains = new HashMap<>();
-		Map<String, List<Session>> tcpSessions = new LinkedHashMap<>();
 		Map<InetAddress, PacketInfo> dnsResponsePackets = new HashMap<>();
-
-		if (packets != null) {
-			for (PacketInfo packetInfo : packets) {
-				Packet packet = packetInfo.getPacket();
-
-				if (packet instanceof UDPPacket) { // UDP
-					udpPackets.add(packetInfo);
-					if (((UDPPacket) packet).isDNSPacket()) {
-						DomainNameSystem dns = ((UDPPacket) packet).getDns();
-						if (dns != null && dns.isResponse()) {
-							for (InetAddress inet : dns.getIpAddresses()) {
-								hostMap.put(inet, dns.getDomainName());
-								dnsResponsePackets.put(inet, packetInfo);
-							}
-						} else if (dns != null && !dns.isResponse()) {
-							dnsRequestDomains.put(dns.getDomainName(), packetInfo);
-						}
-					}
-					associatePacketToUDPSessionAndPopulateCollections(sessions, udpSessions, packetInfo, (UDPPacket) packet);
-				} else if (packet instanceof TCPPacket) { // TCP
-					TCPPacket tcpPacket = (TCPPacket) packet;
-					packetInfo.setTcpInfo(null);
-					Session session = associatePacketToTCPSessionAndPopulateCollections(sessions, tcpSessions, packetInfo, tcpPacket);
-
-					populateTCPPacketInfo(packetInfo, tcpPacket);
-
-					session.setSsl(session.isSsl() ? session.isSsl() : tcpPacket.isSsl());
-					if (tcpPacket.isDecrypted()) {
-						tcpPacket.setDataOffset(0);
-						session.setDecrypted(true);
-					}
-					if (session.getDnsResponsePacket() == null && dnsResponsePackets.containsKey(session.getRemoteIP())) {
-						session.setDnsResponsePacket(dnsResponsePackets.get(session.getRemoteIP()));
-						session.setDomainName((((UDPPacket) (session.getDnsResponsePacket()).getPacket()).getDns()).getIpAddresses().stream().findFirst().get().getHostName());
-					}
-					if (session.getDnsRequestPacket() == null && StringUtils.isNotBlank(session.getDomainName()) && dnsRequestDomains.containsKey(session.getDomainName())) {
-						session.setRemoteHostName(session.getDomainName());
-						session.setDnsRequestPacket(dnsRequestDomains.get(session.getDomainName()));
-					} else {
-						session.setRemoteHostName(hostMap.get(session.getRemoteIP()));
-					}
-					if (tcpPacket.isSslHandshake()) {
-						session.setLastSslHandshakePacket(packetInfo);
-						if (tcpPacket.isClientHello() && StringUtils.isNotBlank(tcpPacket.getServerNameIndication())) {
-							session.setServerNameIndication(tcpPacket.getServerNameIndication());
-						}
-					}
-					if (packetInfo.getAppName() != null) {
-						session.getAppNames().add(packetInfo.getAppName());
+		Map<Session, DnsLookup> lookups = new IdentityHashMap<>();
+		for (int index = 0; index < packetCount; index++) {
+			Packet packet = packets.get(index).getPacket();
+			if (packet instanceof UDPPacket && ((UDPPacket) packet).isDNSPacket()) {
+				DomainNameSystem dns = ((UDPPacket) packet).getDns();
+				if (dns != null && dns.isResponse()) {
+					for (InetAddress inet : dns.getIpAddresses()) {
+						hostMap.put(inet, dns.getDomainName());
+						dnsResponsePackets.put(inet, packets.get(index));
 					}
+				} else if (dns != null && !dns.isResponse()) {
+					dnsRequestDomains.put(dns.getDomainName(), packets.get(index));
+				}
+			} else if (sessionOf[index] != null) {
+				InetAddress remoteIP = sessionOf[index].getRemoteIP();
+				DnsLookup lookup = lookups.computeIfAbsent(sessionOf[index], session -> new DnsLookup());
+				if (lookup.getDnsResponsePacket() == null && dnsResponsePackets.containsKey(remoteIP)) {
+					lookup.setDnsResponsePacket(dnsResponsePackets.get(remoteIP));
+					lookup.setDomainName((((UDPPacket) (lookup.getDnsResponsePacket()).getPacket()).getDns()).getIpAddresses().stream().findFirst().get().getHostName());
+				}
+				if (lookup.getDnsRequestPacket() == null && StringUtils.isNotBlank(lookup.getDomainName()) && dnsRequestDomains.containsKey(lookup.getDomainName())) {
+					lookup.setRemoteHostName(lookup.getDomainName());
+					lookup.setDnsRequestPacket(dnsRequestDomains.get(lookup.getDomainName()));
+				} else {
+					lookup.setRemoteHostName(hostMap.get(remoteIP));
+				}
+			}
+		}
 
-					if (!session.isSessionComplete() && (packetInfo.getTcpFlagString().contains("R")
-							|| packetInfo.getTcpFlagString().contains("F"))) {
-						session.setSessionComplete(true);
+		// Step 4: sessions analyzed with other DNS lookups are assembled again
+		for (AssembledFlow flow : tcpFlows.values()) {
+			if (flow.isReused() && !flow.hasLookups(lookups)) {
+				List<Session> previousSessions = flow.getSessions();
+				assembleFlow(packets, flow);
+				publishFlow(flow, createdBy, sessionOf);
+				for (int index = 0; index < previousSessions.size(); index++) {
+					lookups.put(flow.getSessions().get(index), lookups.get(previousSessions.get(index)));
+				}
+			}
+			if (!flow.isReused()) {
+				DnsLookup[] flowLookups = new DnsLookup[flow.getSessions().size()];
+				for (int index = 0; index < flowLookups.length; index++) {
+					Session session = flow.getSessions().get(index);
+					flowLookups[index] = lookups.get(session);
+					if (flowLookups[index] != null) {
+						flowLookups[index].applyTo(session);
 					}
-
-					session.setLatency((!session.getSynAckPackets().isEmpty() && !session.getSynPackets().isEmpty()) ? calculateLatency(session) :  -1 );
 				}
+				flow.setLookups(flowLookups);
 			}
 		}
 
+		for (int index = 0; index < packetCount; index++) {
+			if (createdBy[index] != null) {
+				sessions.add(createdBy[index]);
+			}
+		}
 		Collections.sort(sessions);
-		analyzeRequestResponses(sessions);
 
+		// Step 5: only the sessions that were assembled are analyzed
+		Set<Session> reusedSessions = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (AssembledFlow flow : tcpFlows.values()) {
+			if (flow.isReused()) {
+				reusedSessions.addAll(flow.getSessions());
+			}
+		}
+		for (AssembledFlow flow : udpFlows.values()) {
+			if (flow.isReused()) {
+				reusedSessions.addAll(flow.getSessions());
+			}
+		}
+		List<Session> changedSessions = sessions.stream().filter(session -> !reusedSessions.contains(session)).collect(Collectors.toList());
+		LOGGER.debug(String.format("Reused %d of %d sessions", sessions.size() - changedSessions.size(), sessions.size()));
+		analyzeRequestResponses(changedSessions);
+
+		previousTCPFlows = tcpFlows;
+		previousUDPFlows = udpFlows;
+		previousTracePath = tracePath;
+		previousPcapTimeOffset = pcapTimeOffset;
 		return sessions;
 	}
 
+	/**
+	 * Returns the flow of the key, a new flow is added to its shard
+	 */
+	private AssembledFlow flow(Map<FlowKey, AssembledFlow> flows, List<List<AssembledFlow>> shardFlows, FlowKey key, boolean udp) {
+		AssembledFlow flow = flows.get(key);
+		if (flow == null) {
+			flow = new AssembledFlow(key, udp);
+			flows.put(key, flow);
+			shardFlows.get(key.shard(shardFlows.size())).add(flow);
+		}
+		return flow;
+	}
+
+	/**
+	 * Records the session of each packet of the flow, and the session created
+	 * by a packet at the index of the packet
+	 */
+	private void publishFlow(AssembledFlow flow, Session[] createdBy, Session[] sessionOf) {
+		Session previousSession = null;
+		for (int index = 0; index < flow.size(); index++) {
+			Session session = flow.getSessionOf(index);
+			int packetIndex = flow.getPacketIndex(index);
+			createdBy[packetIndex] = session != previousSession ? session : null;
+			if (!flow.isUdp()) {
+				sessionOf[packetIndex] = session;
+			}
+			previousSession = session;
+		}
+	}
+
+	/**
+	 * Assembles the packets of one flow into sessions
+	 */
+	private void assembleFlow(List<PacketInfo> packets, AssembledFlow flow) {
+		PacketInfo[] flowPackets = new PacketInfo[flow.size()];
+		Session[] flowSessionOf = new Session[flow.size()];
+		List<Session> flowSessions = new ArrayList<>();
+		Session udpSession = null;
+		for (int index = 0; index < flowPackets.length; index++) {
+			PacketInfo packetInfo = packets.get(flow.getPacketIndex(index));
+			flowPackets[index] = packetInfo;
+			if (flow.isUdp()) {
+				udpSession = associatePacketToUDPSessionAndPopulateCollections(udpSession, flow.getKey(), packetInfo, (UDPPacket) packetInfo.getPacket());
+				flowSessionOf[index] = udpSession;
+			} else {
+				flowSessionOf[index] = assembleTCPPacket(flowSessions, flow.getKey(), packetInfo);
+			}
+		}
+		if (udpSession != null) {
+			flowSessions.add(udpSession);
+		}
+		for (Session session : flowSessions) {
+			if (!session.isUdpOnly()) {
+				session.setLatency((!session.getSynAckPackets().isEmpty() && !session.getSynPackets().isEmpty()) ? calculateLatency(session) :  -1 );
+			}
+		}
+		flow.assembled(flowPackets, flowSessionOf, flowSessions);
+	}
+
+	/**
+	 * Adds a TCP packet to the last session of its flow
+	 * 
+	 * @return the session of the packet
+	 */
+	private Session assembleTCPPacket(List<Session> flowSessions, FlowKey flow, PacketInfo packetInfo) {
+		TCPPacket tcpPacket = (TCPPacket) packetInfo.getPacket();
+		packetInfo.setTcpInfo(null);
+		Session session = associatePacketToTCPSessionAndPopulateCollections(flowSessions, flow, packetInfo, tcpPacket);
+
+		populateTCPPacketInfo(packetInfo, tcpPacket);
+
+		session.setSsl(session.isSsl() ? session.isSsl() : tcpPacket.isSsl());
+		if (tcpPacket.isDecrypted()) {
+			tcpPacket.setDataOffset(0);
+			session.setDecrypted(true);
+		}
+		if (tcpPacket.isSslHandshake()) {
+			session.setLastSslHandshakePacket(packetInfo);
+			if (tcpPacket.isClientHello() && StringUtils.isNotBlank(tcpPacket.getServerNameIndication())) {
+				session.setServerNameIndication(tcpPacket.getServerNameIndication());
+			}
+		}
+		if (packetInfo.getAppName() != null) {
+			session.getAppNames().add(packetInfo.getAppName());
+		}
+
+		if (!session.isSessionComplete() && (packetInfo.getTcpFlagString().contains("R")
+				|| packetInfo.getTcpFlagString().contains("F"))) {
+			session.setSessionComplete(true);
+		}
+		return session;
+	}
+
+	/**
+	 * Runs task(0) to task(count - 1), on the calling thread when threads is 1
+	 * or less. Pool threads get a line reader of their own, it is discarded
+	 * with the thread at the end of the run.
+	 */
+	private void forEach(int count, int threads, String threadName, IntConsumer task) {
+		boolean parallel = Math.min(threads, count) > 1;
+		ParallelTasks.forEach(count, threads, threadName, "assembling sessions", !parallel ? task : index -> {
+			if (workerReader.get() == null) {
+				workerReader.set(new ByteArrayLineReaderImpl());
+			}
+			task.accept(index);
+		});
+	}
+
+	/**
+	 * Number of threads used to assemble and analyze sessions, setting
+	 * SESSION_THREADS, defaults to the number of processors
+	 */
+	private int getSessionThreads() {
+		return sessionThreads > 0 ? sessionThreads : ParallelTasks.getThreads(ParallelTasks.SESSION_THREADS);
+	}
+
+	void setSessionThreads(int sessionThreads) {
+		this.sessionThreads = sessionThreads;
+	}
+
+	/**
+	 * Sessions analyzed on worker threads each use their own line reader
+	 */
+	private IByteArrayLineReader getLineReader() {
+		IByteArrayLineReader reader = workerReader.get();
+		return reader != null ? reader : storageReader;
+	}
+
 	/*
 	 * Returns calculated Latency value
 	 * 
@@ -202,47 +430,20 @@ public class SessionManagerImpl implements ISessionManager {
 	 * 
 	 */
 	private double calculateLatency(Session session) {
-		double latencyValue = 0.0;
 		double latency = -1.0;
-		calculateSynAckTimestamp(session.getSynAckPackets());
-		if (synAckTime > 0.0) {
-			calculateSynTimestamp(session.getSynPackets(), synAckTime);
-			if (synAckTime >= synTime) {
-				latencyValue = synAckTime - synTime;
-				latency = latencyValue > 0 ? latencyValue : 0.0;
-			} else {
-				LOGGER.debug("Negative latency value : " + session.getSessionKey());
-			}
-			session.setSynAckTime(synAckTime);
+		// the first packet with the SYNACK flag
+		double synAckTime = session.getSynAckPackets().firstKey();
+		// the last SYN before the SYNACK
+		Double synTime = session.getSynPackets().floorKey(synAckTime);
+		if (synTime != null) {
+			double latencyValue = synAckTime - synTime;
+			latency = latencyValue > 0 ? latencyValue : 0.0;
 			session.setSynTime(synTime);
-		}
-		return latency;
-	}
-
-	/*
-	 * Returns the timestamp of the packet with last SYN before the SYNACK
-	 */
-	private void calculateSynTimestamp(TreeMap<Double, PacketInfo> synPackets, double syncAckTime) {
-		if (synPackets.containsKey(syncAckTime)) {
-			synTime = syncAckTime;
 		} else {
-			Entry<Double, PacketInfo> synEntry = synPackets.lowerEntry(syncAckTime);
-			if (synEntry != null) {
-				synTime = synEntry.getKey();
-			} else {
-				LOGGER.debug("Packet info error : No SYN's found before the SYNACK - " + syncAckTime);
-			}
-		}
-	}
-
-	/*
-	 * Returns the timestamp of the first packet with the SYNACK flag
-	 */
-	private void calculateSynAckTimestamp(TreeMap<Double, PacketInfo> synAckPackets) {
-		for (PacketInfo packetInfo : synAckPackets.values()) {
-			synAckTime = packetInfo.getTimeStamp();
-			break;
+			LOGGER.debug("Packet info error : No SYN's found before the SYNACK - " + synAckTime);
 		}
+		session.setSynAckTime(synAckTime);
+		return latency;
 	}
 
 	private void populateTCPPacketInfo(PacketInfo packetInfo, TCPPacket tcpPacket) {
@@ -258,48 +459,35 @@ public class SessionManagerImpl implements ISessionManager {
 		}
 	}
 
+	/**
+	 * Returns the flow of a packet as seen from the device
+	 */
+	private FlowKey flowKey(PacketDirection direction, InetAddress sourceIP, int sourcePort, InetAddress destinationIP, int destinationPort, String unknownDirectionMessage) {
+		switch (direction) {
+		case UPLINK:
+			return new FlowKey(sourceIP, sourcePort, destinationIP, destinationPort);
+		case DOWNLINK:
+			return new FlowKey(destinationIP, destinationPort, sourceIP, sourcePort);
+		default:
+			LOGGER.warn(unknownDirectionMessage);
+			return new FlowKey(sourceIP, sourcePort, destinationIP, destinationPort);
+		}
+	}
+
 	/**
 	 * Assemble UDP packets into Session
 	 * 
-	 * @param sessions
-	 * @param udpSessions
+	 * @param session
+	 *            session of the flow, null for the first packet
+	 * @param flow
 	 * @param packetInfo
 	 * @param packet
 	 * @return Session of UDP packets
 	 */
-	private Session associatePacketToUDPSessionAndPopulateCollections(List<Session> sessions, Map<String, Session> udpSessions, PacketInfo packetInfo, UDPPacket packet) {
+	private Session associatePacketToUDPSessionAndPopulateCollections(Session session, FlowKey flow, PacketInfo packetInfo, UDPPacket packet) {
 
-		int localPort;
-		int remotePort;
-		Session session;
-		InetAddress localIP;
-		InetAddress remoteIP;
-
-		switch (packetInfo.getDir()) {
-		case UPLINK:
-			localIP = packet.getSourceIPAddress();
-			localPort = packet.getSourcePort();
-			remoteIP = packet.getDestinationIPAddress();
-			remotePort = packet.getDestinationPort();
-			break;
-		case DOWNLINK:
-			localIP = packet.getDestinationIPAddress();
-			localPort = packet.getDestinationPort();
-			remoteIP = packet.getSourceIPAddress();
-			remotePort = packet.getSourcePort();
-			break;
-		default:
-			localIP = packet.getSourceIPAddress();
-			localPort = packet.getSourcePort();
-			remoteIP = packet.getDestinationIPAddress();
-			remotePort = packet.getDestinationPort();
-			LOGGER.warn("29 - Unable to determine packet direction");
-			break;
-		}
-
-		String sessionKey = localIP.getHostAddress() + " " + localPort + " " + remotePort + " " + remoteIP.getHostAddress();
-		if (!udpSessions.containsKey(sessionKey)) {
-			session = new Session(localIP, remoteIP, remotePort, localPort, sessionKey);
+		if (session == null) {
+			session = new Session(flow.getLocalIP(), flow.getRemoteIP(), flow.getRemotePort(), flow.getLocalPort(), flow.getSessionKey());
 			if (packet.isDNSPacket()) {
 				DomainNameSystem dns = packet.getDns();
 				if (dns != null) {
@@ -311,68 +499,30 @@ public class SessionManagerImpl implements ISessionManager {
 				session.setRemoteHostName(session.getRemoteIP().getHostAddress());
 			}
 			session.setUdpOnly(true);
-			sessions.add(session);
-			udpSessions.put(sessionKey, session);
-		} else {
-			session = udpSessions.get(sessionKey);
 		}
 		session.setBytesTransferred(session.getBytesTransferred() + packetInfo.getPayloadLen());
 		session.addUdpPacket(packetInfo);
 		return session;
 	}
 
-	private Session associatePacketToTCPSessionAndPopulateCollections(List<Session> sessions, Map<String, List<Session>> tcpSessions, PacketInfo packetInfo, TCPPacket tcpPacket) {
+	private Session associatePacketToTCPSessionAndPopulateCollections(List<Session> flowSessions, FlowKey flow, PacketInfo packetInfo, TCPPacket tcpPacket) {
 
-		int localPort;
-		int remotePort;
 		Session session;
-		InetAddress localIP;
-		InetAddress remoteIP;
 
-		switch (packetInfo.getDir()) {
-		case UPLINK:
-			localIP = tcpPacket.getSourceIPAddress();
-			localPort = tcpPacket.getSourcePort();
-			remoteIP = tcpPacket.getDestinationIPAddress();
-			remotePort = tcpPacket.getDestinationPort();
-			break;
+		if (flowSessions.isEmpty()) {
 
-		case DOWNLINK:
-			localIP = tcpPacket.getDestinationIPAddress();
-			localPort = tcpPacket.getDestinationPort();
-			remoteIP = tcpPacket.getSourceIPAddress();
-			remotePort = tcpPacket.getSourcePort();
-			break;
-
-		default:
-			localIP = tcpPacket.getSourceIPAddress();
-			localPort = tcpPacket.getSourcePort();
-			remoteIP = tcpPacket.getDestinationIPAddress();
-			remotePort = tcpPacket.getDestinationPort();
-			LOGGER.warn("29 - Unable to determine packet direction. Assuming Uplink");
-			break;
-		}
-
-		String sessionKey = localIP.getHostAddress() + " " + localPort + " " + remotePort + " " + remoteIP.getHostAddress();
-
-		if (!tcpSessions.containsKey(sessionKey)) {
-
-			session = new Session(localIP, remoteIP, remotePort, localPort, sessionKey);
-			sessions.add(session);
-			List<Session> tcpSessionList = new ArrayList<>();
-			tcpSessionList.add(session);
-			tcpSessions.put(sessionKey, tcpSessionList);
+			session = new Session(flow.getLocalIP(), flow.getRemoteIP(), flow.getRemotePort(), flow.getLocalPort(), flow.getSessionKey());
+			flowSessions.add(session);
 
 		} else {
 
-			session = (tcpSessions.get(sessionKey)).get(tcpSessions.get(sessionKey).size() - 1);
+			session = flowSessions.get(flowSessions.size() - 1);
 
 			if (tcpPacket.isSYN() && packetInfo.getDir().equals(PacketDirection.UPLINK)) {
 
 				if (session.getBaseUplinkSequenceNumber() != tcpPacket.getSequenceNumber()) {
-					session = new Session(localIP, remoteIP, remotePort, localPort, sessionKey);
-					sessions.add(session);
-					tcpSessions.get(sessionKey).add(session);
+					session = new Session(flow.getLocalIP(), flow.getRemoteIP(), flow.getRemotePort(), flow.getLocalPort(), flow.getSessionKey());
+					flowSessions.add(session);
 
 				} else {
 					tcpPacket.setRetransmission(true);
@@ -415,235 +565,240 @@ public class SessionManagerImpl implements ISessionManager {
 	/**
 	 * Traverse all Sessions of all types UDP/TCP/
 	 * 
+	 * Sessions are independent of each other, so large traces analyze them on
+	 * several threads.
+	 * 
 	 * @param sessions
 	 */
 	private void analyzeRequestResponses(List<Session> sessions) {
+		int threads = Math.min(getSessionThreads(), sessions.size() / MIN_SESSIONS_PER_THREAD);
+		forEach(sessions.size(), threads, "SessionAnalysis", index -> analyzeRequestResponses(sessions.get(index)));
+	}
 
-		ArrayList<HttpRequestResponseInfo> results;
-		for (Session session : sessions) {
-			int limit = 0;
-			results = new ArrayList<>();
-			PacketInfo previousPacket = null;
-			if (session.isUdpOnly()) { // UDP
-				HttpRequestResponseInfo rrInfo = null;
-				HttpRequestResponseInfo recentUpRRInfo = null;
-				HttpRequestResponseInfo recentDnRRInfo = null;
-				for (PacketInfo udpPacketInfo : session.getUdpPackets()) {
-					try {
-						switch (udpPacketInfo.getDir()) {
-						case UPLINK:
-							if (!session.isDataInaccessible()) {
-								rrInfo = extractHttpRequestResponseInfo(results, session, udpPacketInfo, udpPacketInfo.getDir(), previousPacket, limit);
+	private void analyzeRequestResponses(Session session) {
+
+		ArrayList<HttpRequestResponseInfo> results = new ArrayList<>();
+		int limit = 0;
+		PacketInfo previousPacket = null;
+		if (session.isUdpOnly()) { // UDP
+			HttpRequestResponseInfo rrInfo = null;
+			HttpRequestResponseInfo recentUpRRInfo = null;
+			HttpRequestResponseInfo recentDnRRInfo = null;
+			for (PacketInfo udpPacketInfo : session.getUdpPackets()) {
+				try {
+					switch (udpPacketInfo.getDir()) {
+					case UPLINK:
+						if (!session.isDataInaccessible()) {
+							rrInfo = extractHttpRequestResponseInfo(results, session, udpPacketInfo, udpPacketInfo.getDir(), previousPacket, limit);
+						}
+						if (rrInfo != null) {
+							recentUpRRInfo = rrInfo;
+						} else {
+							if (443 == session.getLocalPort() || 443 == session.getRemotePort() || 80 == session.getLocalPort() || 80 == session.getRemotePort()) {
+								session.setDataInaccessible(true);
+								results = analyzeRequestResponsesForQUICUDPSession(session);
+								break;
 							}
-							if (rrInfo != null) {
+							if (recentUpRRInfo == null) {
+								// Creating a Request Objects when no actual requests were found.
+								session.setDataInaccessible(true);
+								rrInfo = new HttpRequestResponseInfo(session.getRemoteHostName(), udpPacketInfo.getDir());
+								populateRRInfo(rrInfo, udpPacketInfo, false, false, HttpDirection.REQUEST);
+								results.add(rrInfo);
 								recentUpRRInfo = rrInfo;
-							} else {
-								if (443 == session.getLocalPort() || 443 == session.getRemotePort() || 80 == session.getLocalPort() || 80 == session.getRemotePort()) {
-									session.setDataInaccessible(true);
-									results = analyzeRequestResponsesForQUICUDPSession(session);
-									break;
-								}
-								if (recentUpRRInfo == null) {
-									// Creating a Request Objects when no actual requests were found.
-									session.setDataInaccessible(true);
-									rrInfo = new HttpRequestResponseInfo(session.getRemoteHostName(), udpPacketInfo.getDir());
-									populateRRInfo(rrInfo, udpPacketInfo, false, false, HttpDirection.REQUEST);
-									results.add(rrInfo);
-									recentUpRRInfo = rrInfo;
-								}
-								if (udpPacketInfo.getPayloadLen() != 0) {
-									updateRequestResponseObject(recentUpRRInfo, udpPacketInfo);
-								}
 							}
-							rrInfo = null;
-							recentUpRRInfo.writePayload(udpPacketInfo, false, 0);
-							recentUpRRInfo.addUDPPacket(udpPacketInfo);
-							break;
-
-						case DOWNLINK:
-							if (!session.isDataInaccessible()) {
-								rrInfo = extractHttpRequestResponseInfo(results, session, udpPacketInfo, udpPacketInfo.getDir(), previousPacket, limit);
+							if (udpPacketInfo.getPayloadLen() != 0) {
+								updateRequestResponseObject(recentUpRRInfo, udpPacketInfo);
 							}
-							if (rrInfo != null) {
+						}
+						rrInfo = null;
+						recentUpRRInfo.writePayload(udpPacketInfo, false, 0);
+						recentUpRRInfo.addUDPPacket(udpPacketInfo);
+						break;
+
+					case DOWNLINK:
+						if (!session.isDataInaccessible()) {
+							rrInfo = extractHttpRequestResponseInfo(results, session, udpPacketInfo, udpPacketInfo.getDir(), previousPacket, limit);
+						}
+						if (rrInfo != null) {
+							recentDnRRInfo = rrInfo;
+						} else {
+							if (recentDnRRInfo == null) {
+								rrInfo = new HttpRequestResponseInfo(session.getRemoteHostName(), udpPacketInfo.getDir());
+								populateRRInfo(rrInfo, udpPacketInfo, false, false, HttpDirection.RESPONSE);
+								results.add(rrInfo);
 								recentDnRRInfo = rrInfo;
-							} else {
-								if (recentDnRRInfo == null) {
-									rrInfo = new HttpRequestResponseInfo(session.getRemoteHostName(), udpPacketInfo.getDir());
-									populateRRInfo(rrInfo, udpPacketInfo, false, false, HttpDirection.RESPONSE);
-									results.add(rrInfo);
-									recentDnRRInfo = rrInfo;
-								}
-								if (udpPacketInfo.getPayloadLen() != 0) {
-									updateRequestResponseObject(recentDnRRInfo, udpPacketInfo);
-								}
 							}
-							rrInfo = null;
-							recentDnRRInfo.writePayload(udpPacketInfo, false, 0);
-							recentDnRRInfo.addUDPPacket(udpPacketInfo);
-							break;
+							if (udpPacketInfo.getPayloadLen() != 0) {
+								updateRequestResponseObject(recentDnRRInfo, udpPacketInfo);
+							}
+						}
+						rrInfo = null;
+						recentDnRRInfo.writePayload(udpPacketInfo, false, 0);
+						recentDnRRInfo.addUDPPacket(udpPacketInfo);
+						break;
 
-						default:
-							LOGGER.warn("91 - No direction for packet");
-							continue;
+					default:
+						LOGGER.warn("91 - No direction for packet");
+						continue;
+					}
+				} catch (IOException e) {
+					LOGGER.error("Error Storing data to UDP Request Response Obect. Session ID: " + session.getSessionKey());
+				}
+			}
+
+		} else { // TCP
+			analyzeACK(session);
+			analyzeZeroWindow(session);
+			analyzeRecoverPkts(session);
+			PacketInfo packetInfo = null;
+			TCPPacket tcpPacket = null;
+			HttpRequestResponseInfo rrInfo = null;
+			HttpRequestResponseInfo tempRRInfo = null;
+
+			try {
+
+				long expectedUploadSeqNo = 0;
+				for (long uploadSequenceNumber : session.getUplinkPacketsSortedBySequenceNumbers().keySet()) {
+					// Identify correct packet from the whole transmission stream
+					packetInfo = identifyCorrectTransmissionStream(session.getUplinkPacketsSortedBySequenceNumbers().get(uploadSequenceNumber),
+							session.getAckNumbers(), session, PacketDirection.UPLINK);
+					tcpPacket = (TCPPacket) packetInfo.getPacket();
+					if (packetInfo.getPayloadLen() > 0) {
+						if (!session.isDataInaccessible()) {
+							rrInfo = extractHttpRequestResponseInfo(results, session, packetInfo, packetInfo.getDir(), previousPacket, limit);
 						}
-					} catch (IOException e) {
-						LOGGER.error("Error Storing data to UDP Request Response Obect. Session ID: " + session.getSessionKey());
+						if (rrInfo != null) {
+							tempRRInfo = rrInfo;
+
+							String host = rrInfo.getHostName();
+
+							if (host != null) {
+								session.setRemoteHostName(host);								}
+
+
+							expectedUploadSeqNo = uploadSequenceNumber + tcpPacket.getPayloadLen();
+
+						} else if (tempRRInfo != null) {
+							int headerDelta = 0;
+							boolean flag = false;
+							if (!session.isDataInaccessible() && !tempRRInfo.isHeaderParseComplete()) {
+								flag = true;
+								headerDelta = setHeaderOffset(tempRRInfo, packetInfo, tcpPacket);
+								tempRRInfo.writeHeader(packetInfo, headerDelta);
+							}
+
+							tempRRInfo.setLastDataPacket(packetInfo);
+							tempRRInfo.setRawSize(tempRRInfo.getRawSize() + packetInfo.getLen() - headerDelta);
+							if (tcpPacket.getSequenceNumber() == expectedUploadSeqNo) {
+								expectedUploadSeqNo = tcpPacket.getSequenceNumber() + tcpPacket.getPayloadLen();
+								tempRRInfo.writePayload(packetInfo, flag, headerDelta);
+							} else if (tcpPacket.getSequenceNumber() < expectedUploadSeqNo) {
+								tcpPacket.setRetransmission(true);
+							} else {
+								LOGGER.warn("Identified the following Request is corrupt. Session: " + session.getSessionKey() + ". Request Age: " + tempRRInfo.getAge());
+								tempRRInfo.setCorrupt(true);
+								tempRRInfo.writePayload(packetInfo, false, 0);
+							}
+						} else {
+							if (session.isDecrypted()) {
+								continue;
+							} else if (session.isSsl()) {
+								break;
+							}
+							session.setDataInaccessible(true);
+							rrInfo = new HttpRequestResponseInfo(session.getRemoteHostName(), packetInfo.getDir());
+							expectedUploadSeqNo = uploadSequenceNumber + tcpPacket.getPayloadLen();
+							populateRRInfo(rrInfo, packetInfo, false, true, HttpDirection.REQUEST);
+							results.add(rrInfo);
+							tempRRInfo = rrInfo;
+						}
+						rrInfo = null;
+						tempRRInfo.addTCPPacket(uploadSequenceNumber, packetInfo);
 					}
 				}
 
-			} else { // TCP
-				analyzeACK(session);
-				analyzeZeroWindow(session);
-				analyzeRecoverPkts(session);
-				PacketInfo packetInfo = null;
-				TCPPacket tcpPacket = null;
-				HttpRequestResponseInfo rrInfo = null;
-				HttpRequestResponseInfo tempRRInfo = null;
+				rrInfo = null;
+				tempRRInfo = null;
 
-				try {
+				if (!((session.isSsl() && !session.isDecrypted()))) {
 
-					long expectedUploadSeqNo = 0;
-					for (long uploadSequenceNumber : session.getUplinkPacketsSortedBySequenceNumbers().keySet()) {
+					long expectedDownloadSeqNo = 0;
+					for (long downloadSequenceNumber : session.getDownlinkPacketsSortedBySequenceNumbers().keySet()) {
 						// Identify correct packet from the whole transmission stream
-						packetInfo = identifyCorrectTransmissionStream(session.getUplinkPacketsSortedBySequenceNumbers().get(uploadSequenceNumber),
-								session.getAckNumbers(), session, PacketDirection.UPLINK);
+						packetInfo = identifyCorrectTransmissionStream(session.getDownlinkPacketsSortedBySequenceNumbers().get(downloadSequenceNumber),
+								session.getAckNumbers(), session, PacketDirection.DOWNLINK);
 						tcpPacket = (TCPPacket) packetInfo.getPacket();
+
 						if (packetInfo.getPayloadLen() > 0) {
 							if (!session.isDataInaccessible()) {
 								rrInfo = extractHttpRequestResponseInfo(results, session, packetInfo, packetInfo.getDir(), previousPacket, limit);
+								limit = 0;
+
+								if (rrInfo != null && !rrInfo.isHeaderParseComplete()) {
+									previousPacket = packetInfo;
+									continue;
+								} else {
+									previousPacket = null;
+								}
 							}
+
 							if (rrInfo != null) {
 								tempRRInfo = rrInfo;
-
-								String host = rrInfo.getHostName();
-
-								if (host != null) {
-									session.setRemoteHostName(host);								}
-
-
-								expectedUploadSeqNo = uploadSequenceNumber + tcpPacket.getPayloadLen();
-
+								expectedDownloadSeqNo = downloadSequenceNumber + tcpPacket.getPayloadLen();
 							} else if (tempRRInfo != null) {
-								int headerDelta = 0;
 								boolean flag = false;
-								if (!session.isDataInaccessible() && !tempRRInfo.isHeaderParseComplete()) {
-									flag = true;
-									headerDelta = setHeaderOffset(tempRRInfo, packetInfo, tcpPacket);
-									tempRRInfo.writeHeader(packetInfo, headerDelta);
-								}
-
+								int headerDelta = 0;
 								tempRRInfo.setLastDataPacket(packetInfo);
-								tempRRInfo.setRawSize(tempRRInfo.getRawSize() + packetInfo.getLen() - headerDelta);
-								if (tcpPacket.getSequenceNumber() == expectedUploadSeqNo) {
-									expectedUploadSeqNo = tcpPacket.getSequenceNumber() + tcpPacket.getPayloadLen();
-									tempRRInfo.writePayload(packetInfo, flag, headerDelta);
-								} else if (tcpPacket.getSequenceNumber() < expectedUploadSeqNo) {
+								if (tcpPacket.getSequenceNumber() == expectedDownloadSeqNo) {
+									expectedDownloadSeqNo = tcpPacket.getSequenceNumber() + tcpPacket.getPayloadLen();
+									if (tempRRInfo.getContentLength() == 0 || ((tempRRInfo.getPayloadData().size() + packetInfo.getPayloadLen()) <= tempRRInfo.getContentLength())) {
+										tempRRInfo.writePayload(packetInfo, flag, headerDelta);
+										tempRRInfo.setRawSize(tempRRInfo.getRawSize() + packetInfo.getLen() - headerDelta);
+									} else if (tempRRInfo.getContentLength() > 0 && (tempRRInfo.getPayloadData().size() + packetInfo.getPayloadLen()) > tempRRInfo.getContentLength()) {
+										limit = tempRRInfo.getContentLength() - tempRRInfo.getPayloadData().size();
+										tempRRInfo.writePayload(packetInfo, limit);
+										previousPacket = packetInfo;
+										// TODO: Update RAW SIZE
+									}
+
+								} else if (tcpPacket.getSequenceNumber() < expectedDownloadSeqNo) {
 									tcpPacket.setRetransmission(true);
 								} else {
-									LOGGER.warn("Identified the following Request is corrupt. Session: " + session.getSessionKey() + ". Request Age: " + tempRRInfo.getAge());
+									LOGGER.warn("Identified the following Response is corrupt. Session: " + session.getSessionKey() + ". Request Age: " + tempRRInfo.getAge());
 									tempRRInfo.setCorrupt(true);
 									tempRRInfo.writePayload(packetInfo, false, 0);
 								}
 							} else {
 								if (session.isDecrypted()) {
 									continue;
-								} else if (session.isSsl()) {
-									break;
 								}
-								session.setDataInaccessible(true);
 								rrInfo = new HttpRequestResponseInfo(session.getRemoteHostName(), packetInfo.getDir());
-								expectedUploadSeqNo = uploadSequenceNumber + tcpPacket.getPayloadLen();
-								populateRRInfo(rrInfo, packetInfo, false, true, HttpDirection.REQUEST);
+								expectedDownloadSeqNo = downloadSequenceNumber + tcpPacket.getPayloadLen();
+								populateRRInfo(rrInfo, packetInfo, false, true, HttpDirection.RESPONSE);
 								results.add(rrInfo);
 								tempRRInfo = rrInfo;
 							}
 							rrInfo = null;
-							tempRRInfo.addTCPPacket(uploadSequenceNumber, packetInfo);
-						}
-					}
-
-					rrInfo = null;
-					tempRRInfo = null;
-
-					if (!((session.isSsl() && !session.isDecrypted()))) {
-
-						long expectedDownloadSeqNo = 0;
-						for (long downloadSequenceNumber : session.getDownlinkPacketsSortedBySequenceNumbers().keySet()) {
-							// Identify correct packet from the whole transmission stream
-							packetInfo = identifyCorrectTransmissionStream(session.getDownlinkPacketsSortedBySequenceNumbers().get(downloadSequenceNumber),
-									session.getAckNumbers(), session, PacketDirection.DOWNLINK);
-							tcpPacket = (TCPPacket) packetInfo.getPacket();
-
-							if (packetInfo.getPayloadLen() > 0) {
-								if (!session.isDataInaccessible()) {
-									rrInfo = extractHttpRequestResponseInfo(results, session, packetInfo, packetInfo.getDir(), previousPacket, limit);
-									limit = 0;
-
-									if (rrInfo != null && !rrInfo.isHeaderParseComplete()) {
-										previousPacket = packetInfo;
-										continue;
-									} else {
-										previousPacket = null;
-									}
-								}
-
-								if (rrInfo != null) {
-									tempRRInfo = rrInfo;
-									expectedDownloadSeqNo = downloadSequenceNumber + tcpPacket.getPayloadLen();
-								} else if (tempRRInfo != null) {
-									boolean flag = false;
-									int headerDelta = 0;
-									tempRRInfo.setLastDataPacket(packetInfo);
-									if (tcpPacket.getSequenceNumber() == expectedDownloadSeqNo) {
-										expectedDownloadSeqNo = tcpPacket.getSequenceNumber() + tcpPacket.getPayloadLen();
-										if (tempRRInfo.getContentLength() == 0 || ((tempRRInfo.getPayloadData().size() + packetInfo.getPayloadLen()) <= tempRRInfo.getContentLength())) {
-											tempRRInfo.writePayload(packetInfo, flag, headerDelta);
-											tempRRInfo.setRawSize(tempRRInfo.getRawSize() + packetInfo.getLen() - headerDelta);
-										} else if (tempRRInfo.getContentLength() > 0 && (tempRRInfo.getPayloadData().size() + packetInfo.getPayloadLen()) > tempRRInfo.getContentLength()) {
-											limit = tempRRInfo.getContentLength() - tempRRInfo.getPayloadData().size();
-											tempRRInfo.writePayload(packetInfo, limit);
-											previousPacket = packetInfo;
-											// TODO: Update RAW SIZE
-										}
-
-									} else if (tcpPacket.getSequenceNumber() < expectedDownloadSeqNo) {
-										tcpPacket.setRetransmission(true);
-									} else {
-										LOGGER.warn("Identified the following Response is corrupt. Session: " + session.getSessionKey() + ". Request Age: " + tempRRInfo.getAge());
-										tempRRInfo.setCorrupt(true);
-										tempRRInfo.writePayload(packetInfo, false, 0);
-									}
-								} else {
-									if (session.isDecrypted()) {
-										continue;
-									}
-									rrInfo = new HttpRequestResponseInfo(session.getRemoteHostName(), packetInfo.getDir());
-									expectedDownloadSeqNo = downloadSequenceNumber + tcpPacket.getPayloadLen();
-									populateRRInfo(rrInfo, packetInfo, false, true, HttpDirection.RESPONSE);
-									results.add(rrInfo);
-									tempRRInfo = rrInfo;
-								}
-								rrInfo = null;
-								tempRRInfo.addTCPPacket(downloadSequenceNumber, packetInfo);
-							}
+							tempRRInfo.addTCPPacket(downloadSequenceNumber, packetInfo);
 						}
 					}
-				} catch (IOException e) {
-					LOGGER.error("Error Storing data to TCP Request Response Obect. Session ID: " + session.getSessionKey());
-				}
-
-				if (session.isSsl() && !session.isDecrypted()) {
-					results =  analyzeRequestResponsesForSecureSessions(session);
 				}
-
+			} catch (IOException e) {
+				LOGGER.error("Error Storing data to TCP Request Response Obect. Session ID: " + session.getSessionKey());
 			}
 
-			Collections.sort(results);
-			session.setRequestResponseInfo(results);
-			populateDataForRequestResponses(session);
+			if (session.isSsl() && !session.isDecrypted()) {
+				results =  analyzeRequestResponsesForSecureSessions(session);
+			}
 
-			session.setDomainName(session.getRemoteIP().getHostName());
 		}
+
+		Collections.sort(results);
+		session.setRequestResponseInfo(results);
+		populateDataForRequestResponses(session);
+
+		session.setDomainName(session.getRemoteIP().getHostName());
 	}
 
 	/**
@@ -810,11 +965,11 @@ public class SessionManagerImpl implements ISessionManager {
 
 		for (PacketInfo packetInfo : session.getAllPackets()) {
 			tcpPacket = (TCPPacket) packetInfo.getPacket();
-			byte[] data = tcpPacket.getData();
+			ByteBuffer data = tcpPacket.getDataBuffer();
 			int packetPosition = tcpPacket.getDataOffset();
 
 			if (packetInfo.getDir() == PacketDirection.UPLINK) {
-				if ((packetPosition + 4) < tcpPacket.getLen() && data[packetPosition] == TLS_APPLICATION_DATA) {
+				if ((packetPosition + 4) < tcpPacket.getLen() && data.get(packetPosition) == TLS_APPLICATION_DATA) {
 					rrInfo = generateRequestResponseObjectsForSSLOrUDPSessions(session.getRemoteHostName(), packetInfo.getDir(), packetInfo, true);
 					results.add(rrInfo);
 					flag = true;	
@@ -823,7 +978,7 @@ public class SessionManagerImpl implements ISessionManager {
 			}
 
 			if (packetInfo.getDir() == PacketDirection.DOWNLINK) {
-				if (flag && (packetPosition + 4) < tcpPacket.getLen() && data[packetPosition] == TLS_APPLICATION_DATA) {
+				if (flag && (packetPosition + 4) < tcpPacket.getLen() && data.get(packetPosition) == TLS_APPLICATION_DATA) {
 					downlinkRRInfo = generateRequestResponseObjectsForSSLOrUDPSessions(session.getRemoteHostName(), packetInfo.getDir(), packetInfo, true);
 					results.add(downlinkRRInfo);
 					flag = false;
@@ -1071,29 +1226,21 @@ public class SessionManagerImpl implements ISessionManager {
 	}
 
 	private int setHeaderOffset(HttpRequestResponseInfo rrInfo, PacketInfo packetInfo, TCPPacket tcpPacket) {
-		String line;
 		ByteArrayOutputStream stream = new ByteArrayOutputStream();
 		BufferedOutputStream bufferedStream = new BufferedOutputStream(stream);
 
 		try {
-			bufferedStream.write(tcpPacket.getData(), tcpPacket.getDataOffset(), tcpPacket.getData().length - tcpPacket.getDataOffset());
+			tcpPacket.writeData(bufferedStream, tcpPacket.getDataOffset(), tcpPacket.getDataLength() - tcpPacket.getDataOffset());
 			bufferedStream.flush();
-			storageReader.init(stream.toByteArray());
-
-			while ((line = storageReader.readLine()) != null && line.length() != 0) {
-				parseHeaderLine.parseHeaderLine(line, rrInfo);
-			}
-
-			if (line != null && line.length() == 0) {
-				rrInfo.setHeaderParseComplete(true);
-			}
+			getLineReader().init(stream.toByteArray());
+			parseHeaderLines(rrInfo);
 
 		} catch (Exception exception) {
 			LOGGER.error("Error Reading Data from TCP Packet: " + exception.getMessage());
 			return 0;
 		}
 
-		return storageReader.getIndex();
+		return getLineReader().getIndex();
 	}
 
 	private void populateDataForRequestResponses(Session session) {
@@ -1250,11 +1397,11 @@ public class SessionManagerImpl implements ISessionManager {
 			try {
 				if (previousPacketInfo != null) {
 					TCPPacket previousTCPPacket = (TCPPacket) previousPacketInfo.getPacket();
-					carryoverPayloadLength = previousTCPPacket.getData().length - (previousTCPPacket.getDataOffset() + addToOffset);
-					bufferedStream.write(previousTCPPacket.getData(), (previousTCPPacket.getDataOffset() + addToOffset), carryoverPayloadLength);
+					carryoverPayloadLength = previousTCPPacket.getDataLength() - (previousTCPPacket.getDataOffset() + addToOffset);
+					previousTCPPacket.writeData(bufferedStream, (previousTCPPacket.getDataOffset() + addToOffset), carryoverPayloadLength);
 				}
 
-				bufferedStream.write(tcpPacket.getData(), tcpPacket.getDataOffset(), tcpPacket.getData().length - tcpPacket.getDataOffset());
+				tcpPacket.writeData(bufferedStream, tcpPacket.getDataOffset(), tcpPacket.getDataLength() - tcpPacket.getDataOffset());
 			} catch (Exception exception) {
 				LOGGER.error("Error Reading Data from TCP Packet: ", exception);
 			}
@@ -1264,11 +1411,11 @@ public class SessionManagerImpl implements ISessionManager {
 			try {
 				if (previousPacketInfo != null) {
 					UDPPacket previousUDPPacket = (UDPPacket) previousPacketInfo.getPacket();
-					carryoverPayloadLength = previousUDPPacket.getData().length - (previousUDPPacket.getDataOffset() + addToOffset);
-					bufferedStream.write(previousUDPPacket.getData(), (previousUDPPacket.getDataOffset() + addToOffset), carryoverPayloadLength);
+					carryoverPayloadLength = previousUDPPacket.getDataLength() - (previousUDPPacket.getDataOffset() + addToOffset);
+					previousUDPPacket.writeData(bufferedStream, (previousUDPPacket.getDataOffset() + addToOffset), carryoverPayloadLength);
 				}
 
-				bufferedStream.write(udpPacket.getData(), udpPacket.getDataOffset(), udpPacket.getData().length - udpPacket.getDataOffset());
+				udpPacket.writeData(bufferedStream, udpPacket.getDataOffset(), udpPacket.getDataLength() - udpPacket.getDataOffset());
 			} catch (Exception exception) {
 				LOGGER.error("Error Reading Data from UDP Packet: ", exception);
 			}
@@ -1277,7 +1424,7 @@ public class SessionManagerImpl implements ISessionManager {
 		try {
 			bufferedStream.flush();
 			byte[] streamArray = stream.toByteArray();
-			storageReader.init(streamArray);
+			getLineReader().init(streamArray);
 			return getLastRRInfo(streamArray, packetInfo, tcpPacket, previousPacketInfo, carryoverPayloadLength, session, results, packetDirection);
 		} catch (IOException e) {
 			LOGGER.error(e);
@@ -1297,8 +1444,8 @@ public class SessionManagerImpl implements ISessionManager {
 		try {
 			do {
 				while (true) {
-					readerIndex = storageReader.getIndex();
-					line = storageReader.readLine();
+					readerIndex = getLineReader().getIndex();
+					line = getLineReader().readLine();
 
 					if (line == null) {
 						return rrInfo;
@@ -1333,18 +1480,18 @@ public class SessionManagerImpl implements ISessionManager {
 				} else {
 					results.add(rrInfo);
 
-					rrInfo.getHeaderData().write(streamArray, 0, storageReader.getIndex());
-					remainingLength = streamArray.length - storageReader.getIndex();
+					rrInfo.getHeaderData().write(streamArray, 0, getLineReader().getIndex());
+					remainingLength = streamArray.length - getLineReader().getIndex();
 					if (remainingLength <= 0) {
 						return rrInfo;
 					}
 
 					if (rrInfo.getContentLength() > 0) {
 						if (rrInfo.getContentLength() <= remainingLength) {
-							rrInfo.getPayloadData().write(streamArray, storageReader.getIndex(), rrInfo.getContentLength());
+							writePayload(rrInfo, streamArray, getLineReader().getIndex(), rrInfo.getContentLength(), previousPacket, carryoverPayloadLength, tcpPacket);
 
-							storageReader.setArrayIndex(storageReader.getIndex() + rrInfo.getContentLength());
-							remainingLength = streamArray.length - storageReader.getIndex();
+							getLineReader().setArrayIndex(getLineReader().getIndex() + rrInfo.getContentLength());
+							remainingLength = streamArray.length - getLineReader().getIndex();
 							if (remainingLength <= 0) {
 								return rrInfo;
 							}
@@ -1353,7 +1500,7 @@ public class SessionManagerImpl implements ISessionManager {
 							// Continue processing for the next rrInfo object.
 							carryoverPayloadForNewRRInfo = true;
 						} else {
-							rrInfo.getPayloadData().write(streamArray, storageReader.getIndex(), remainingLength);
+							writePayload(rrInfo, streamArray, getLineReader().getIndex(), remainingLength, previousPacket, carryoverPayloadLength, tcpPacket);
 							return rrInfo;
 						}
 					} else {
@@ -1370,24 +1517,50 @@ public class SessionManagerImpl implements ISessionManager {
 		// We have a carry over payload data belonging to previous rrInfo object
 		if (tcpPacket != null && carryoverPayloadForNewRRInfo && remainingLength > 0) {
 			rrInfo = results.get(results.size() - 1);
-			rrInfo.getPayloadData().write(streamArray, readerIndex, remainingLength);
+			writePayload(rrInfo, streamArray, readerIndex, remainingLength, previousPacket, carryoverPayloadLength, tcpPacket);
 		}
 
 		return rrInfo;
 	}
 
-	private HttpRequestResponseInfo populateRRInfo(Session session, TCPPacket tcpPacket, HttpRequestResponseInfo rrInfo) throws IOException {
+	/**
+	 * Writes part of streamArray to the payload of rrInfo, with where it was read
+	 * from: the carried over data of the previous packet, then the data of the
+	 * packet.
+	 */
+	private void writePayload(HttpRequestResponseInfo rrInfo, byte[] streamArray, int index, int length, PacketInfo previousPacket,
+			int carryoverPayloadLength, TCPPacket tcpPacket) {
+		int carried = Math.max(0, Math.min(length, carryoverPayloadLength - index));
+		if (carried > 0) {
+			Packet previous = previousPacket.getPacket();
+			rrInfo.writePayload(streamArray, index, carried, previous, previous.getDataLength() - carryoverPayloadLength + index);
+		}
+		if (length > carried) {
+			rrInfo.writePayload(streamArray, index + carried, length - carried, tcpPacket,
+					tcpPacket.getDataOffset() + index + carried - carryoverPayloadLength);
+		}
+	}
+
+	private HttpRequestResponseInfo populateRRInfo(Session session, TCPPacket tcpPacket, HttpRequestResponseInfo rrInfo) {
 
-		String line;
 		rrInfo.setSsl(session.isSsl());
 		rrInfo.setRawSize(tcpPacket.getLen());
-		while ((line = storageReader.readLine()) != null && line.length() != 0) {
-			parseHeaderLine.parseHeaderLine(line, rrInfo);
+		parseHeaderLines(rrInfo);
+		return rrInfo;
+	}
+
+	/**
+	 * Parses the header lines in place up to the empty line ending the headers
+	 */
+	private void parseHeaderLines(HttpRequestResponseInfo rrInfo) {
+		IByteArrayLineReader reader = getLineReader();
+		boolean lineRead;
+		while ((lineRead = reader.nextLine()) && reader.getLineLength() != 0) {
+			parseHeaderLine.parseHeaderLine(reader.getData(), reader.getLineOffset(), reader.getLineLength(), rrInfo);
 		}
-		if (line != null && line.length() == 0) {
+		if (lineRead) {
 			rrInfo.setHeaderParseComplete(true);
 		}
-		return rrInfo;
 	}
 
 	/**
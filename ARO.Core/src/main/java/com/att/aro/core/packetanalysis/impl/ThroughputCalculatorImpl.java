@@ -21,61 +21,84 @@ import java.util.List;
 
 import com.att.aro.core.packetanalysis.IThroughputCalculator;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
 import com.att.aro.core.packetanalysis.pojo.Throughput;
+import com.att.aro.core.packetanalysis.pojo.ThroughputIndex;
 import com.att.aro.core.packetreader.pojo.PacketDirection;
 
+/**
+ * Throughput of time windows, read from a {@link ThroughputIndex}.
+ * <p>
+ * The indexes are kept by the {@link PacketTable} they are built from, so
+ * callers that pass the same table, such as the energy of every LTE state,
+ * do not go through the packets again. A packet list is turned into a table
+ * on each call.
+ * </p>
+ */
 public class ThroughputCalculatorImpl implements IThroughputCalculator {
 
+	@Override
 	public List<Throughput> calculateThroughput(double startTime, double endTime, double window, List<PacketInfo> packets) {
-		
-		List<Throughput> result = new ArrayList<Throughput>();
-		List<PacketInfo> split = new ArrayList<>();
+		return calculateThroughput(startTime, endTime, window, packets, PacketDirection.BOTH);
+	}
+
+	@Override
+	public List<Throughput> calculateThroughput(double startTime, double endTime, double window, List<PacketInfo> packets,
+			PacketDirection direction) {
 		if (window < 0.00001 || endTime - startTime < 0.00001) {
 			return Collections.emptyList();
 		}
+		return calculateThroughput(startTime, endTime, window, PacketTable.of(packets), direction);
+	}
+
+	@Override
+	public List<Throughput> calculateThroughput(double startTime, double endTime, double window, PacketTable packets) {
+		return calculateThroughput(startTime, endTime, window, packets, PacketDirection.BOTH);
+	}
+
+	@Override
+	public List<Throughput> calculateThroughput(double startTime, double endTime, double window, PacketTable packets,
+			PacketDirection direction) {
+		if (window < 0.00001 || endTime - startTime < 0.00001) {
+			return Collections.emptyList();
+		}
+		return calculateThroughput(startTime, endTime, window, packets.getThroughputIndex(ThroughputIndex.direction(direction)));
+	}
+
+	@Override
+	public List<Throughput> calculateThroughput(double startTime, double endTime, double window, ThroughputIndex index) {
+		if (window < 0.00001 || endTime - startTime < 0.00001) {
+			return Collections.emptyList();
+		}
+		List<Throughput> result = new ArrayList<Throughput>();
+		// entries first to end are in the time range
+		int first = index.indexOf(startTime);
+		int end = Math.max(first, index.indexOf(endTime));
 		double splitStart = startTime;
 		double splitEnd = startTime + window;
-		for (PacketInfo packet : packets) {
-			double stamp = packet.getTimeStamp();
-			if (stamp < startTime) {
-				continue;
-			} else if (stamp >= endTime) {
-				result.add(getThroughput(splitStart, splitEnd, split));
-				break;
-			} else if (stamp >= splitEnd) {
-				while (stamp >= splitEnd) {
-					result.add(getThroughput(splitStart, splitEnd, split));
-					splitStart = splitEnd;
-					splitEnd = splitStart + window;
-					split = new ArrayList<>();
-				}
-				split.add(packet);
-			} else if (stamp >= splitStart) {
-				split.add(packet);
+		if (end > first) {
+			double last = index.getTimestamp(end - 1);
+			while (last >= splitEnd) {
+				result.add(index.getThroughput(splitStart, splitEnd));
+				splitStart = splitEnd;
+				splitEnd = splitStart + window;
 			}
 		}
+		int from = Math.min(index.indexOf(splitStart), end);
+		long up = index.getUplinkBytes(from, end);
+		long down = index.getDownlinkBytes(from, end);
+		if (end < index.size()) {
+			// a packet at or after the end time closes the open split, it is added here and once more below
+			result.add(new Throughput(splitStart, splitEnd, up, down));
+		}
 		do {
-			result.add(getThroughput(splitStart, splitEnd, split));
+			result.add(new Throughput(splitStart, splitEnd, up, down));
 			splitStart = splitEnd;
 			splitEnd = splitStart + window;
-			split = new ArrayList<>();
+			up = 0;
+			down = 0;
 		} while (endTime >= splitStart);
 		return result;
 	}
 
-	private Throughput getThroughput(double startTime, double endTime, List<PacketInfo> packets) {
-		long up = 0;
-		long down = 0;
-		for (PacketInfo packet : packets) {
-			if (packet.getDir() == null || packet.getDir() == PacketDirection.UNKNOWN) {
-				continue;
-			} else if (packet.getDir() == PacketDirection.UPLINK) {
-				up += packet.getLen();
-			} else {
-				down += packet.getLen();
-			}
-		}
-		return new Throughput(startTime, endTime, up, down);
-	}
-
 }
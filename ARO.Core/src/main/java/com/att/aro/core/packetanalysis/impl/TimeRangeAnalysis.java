@@ -18,8 +18,10 @@ package com.att.aro.core.packetanalysis.impl;
 import java.io.Serializable;
 import java.util.List;
 
+import org.springframework.context.ApplicationContext;
+
 import com.att.aro.core.SpringContextUtil;
-import com.att.aro.core.configuration.impl.ProfileFactoryImpl;
+import com.att.aro.core.configuration.IProfileFactory;
 import com.att.aro.core.configuration.pojo.Profile;
 import com.att.aro.core.configuration.pojo.Profile3G;
 import com.att.aro.core.configuration.pojo.ProfileLTE;
@@ -28,6 +30,7 @@ import com.att.aro.core.configuration.pojo.ProfileWiFi;
 import com.att.aro.core.packetanalysis.IThroughputCalculator;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
 import com.att.aro.core.packetanalysis.pojo.RRCState;
 import com.att.aro.core.packetanalysis.pojo.RrcStateRange;
 import com.att.aro.core.packetanalysis.pojo.Throughput;
@@ -48,10 +51,13 @@ import lombok.Getter;
 public class TimeRangeAnalysis implements Serializable {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Beans of the analysis, only used by the constructor
+	 */
 	@JsonIgnore
-	private static final ProfileFactoryImpl profileFactory = SpringContextUtil.getInstance().getContext().getBean(ProfileFactoryImpl.class);
+	private transient IProfileFactory profileFactory;
 	@JsonIgnore
-	private IThroughputCalculator throughputHelper = SpringContextUtil.getInstance().getContext().getBean(IThroughputCalculator.class);
+	private transient IThroughputCalculator throughputHelper;
 
 	@Getter
 	private double startTime;
@@ -93,8 +99,26 @@ public class TimeRangeAnalysis implements Serializable {
 	 * @param analysisData
 	 */
 	public TimeRangeAnalysis(double startTime, double endTime, PacketAnalyzerResult analysisData) {
+		this(startTime, endTime, analysisData, (AROController) null);
+	}
+
+	/**
+	 * Constructor taking start time and end time of the time range, and performs
+	 * analysis with the profile factory and throughput calculator of the caller
+	 * rather than those of the application context
+	 * 
+	 * @param startTime
+	 * @param endTime
+	 * @param analysisData
+	 * @param profileFactory
+	 * @param throughputHelper
+	 */
+	public TimeRangeAnalysis(double startTime, double endTime, PacketAnalyzerResult analysisData, IProfileFactory profileFactory,
+			IThroughputCalculator throughputHelper) {
 		this.startTime = startTime;
 		this.endTime = endTime;
+		this.profileFactory = profileFactory;
+		this.throughputHelper = throughputHelper;
 		performTimeRangeAnalysis(analysisData);
 	}
 
@@ -109,6 +133,9 @@ public class TimeRangeAnalysis implements Serializable {
 		this.startTime = startTime;
 		this.endTime = endTime;
 		this.controller = controller;
+		ApplicationContext context = SpringContextUtil.getInstance().getContext();
+		this.profileFactory = context.getBean(IProfileFactory.class);
+		this.throughputHelper = context.getBean(IThroughputCalculator.class);
 		performTimeRangeAnalysis(analysisData);
 	}
 
@@ -239,6 +266,8 @@ public class TimeRangeAnalysis implements Serializable {
 				}
 			}
 	
+			// built once, the table keeps the throughput index for all the states
+			PacketTable allPackets = PacketTable.of(analysisData.getTraceresult().getAllpackets());
 			int collectionSize = rrcCollection.size();
 			for (int i = 0; i < collectionSize; i++) {
 				double beginTime;
@@ -265,7 +294,7 @@ public class TimeRangeAnalysis implements Serializable {
 				}
 	
 				RRCState rrcState = rrc.getState();
-				rrcEnergy += updateEnergy(analysisData, profile, beginTime, endTime, rrcState);
+				rrcEnergy += updateEnergy(allPackets, profile, beginTime, endTime, rrcState);
 				activeTime += updateActiveTime(profile, beginTime, endTime, rrcState);
 			}
 			
@@ -287,14 +316,14 @@ public class TimeRangeAnalysis implements Serializable {
 		return activeTime;
 	}
 
-	private double updateEnergy(PacketAnalyzerResult analysisData,
+	private double updateEnergy(PacketTable allPackets,
 			Profile profile, double beginTime, double endTime, RRCState rrcState) {
 		double energy = 0.0f;
 
 		if (profile.getProfileType().equals(ProfileType.T3G)) {
 			energy += profileFactory.energy3G(beginTime, endTime, rrcState, (Profile3G)profile);
 		} else if (profile.getProfileType().equals(ProfileType.LTE)) {
-			energy += profileFactory.energyLTE(beginTime, endTime, rrcState, (ProfileLTE)profile, analysisData.getTraceresult().getAllpackets());
+			energy += profileFactory.energyLTE(beginTime, endTime, rrcState, (ProfileLTE)profile, allPackets);
 		} else if (profile.getProfileType().equals(ProfileType.WIFI)) {
 			energy += profileFactory.energyWiFi(beginTime, endTime, rrcState, (ProfileWiFi)profile);
 		}
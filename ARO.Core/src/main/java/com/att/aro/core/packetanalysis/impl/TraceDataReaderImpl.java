@@ -22,7 +22,6 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
@@ -51,6 +50,9 @@ import com.att.aro.core.packetanalysis.pojo.TraceResultType;
 import com.att.aro.core.packetanalysis.pojo.TraceTime;
 import com.att.aro.core.packetreader.IPacketListener;
 import com.att.aro.core.packetreader.IPacketReader;
+import com.att.aro.core.packetreader.IPacketSpillStore;
+import com.att.aro.core.packetreader.impl.MappedPcapReaderImpl;
+import com.att.aro.core.packetreader.impl.PacketSpillStoreImpl;
 import com.att.aro.core.packetreader.pojo.IPPacket;
 import com.att.aro.core.packetreader.pojo.Packet;
 import com.att.aro.core.packetreader.pojo.PacketDirection;
@@ -124,6 +126,10 @@ public class TraceDataReaderImpl implements IPacketListener, ITraceDataReader {
 	@Qualifier("packetReader")
 	private IPacketReader packetreader;
 
+	@Autowired
+	@Qualifier("mappedPacketReader")
+	private IPacketReader mappedPacketReader;
+
 	@Autowired
 	private ICpuActivityReader cpureader;
 
@@ -222,9 +228,29 @@ public class TraceDataReaderImpl implements IPacketListener, ITraceDataReader {
 	private Set<String> sessionKeys = null; 
 	private Map<InetAddress, Integer> ipCountMap = null;
 	private boolean isSecurePcap = false;
+	private DecryptedPacketIndex decryptedPacketIndex = null;
+
+	private IPacketSpillStore spillStore = null;
+	private volatile boolean spillEnabled = false;
+	private long residentPacketBytes = 0;
+	private long packetHeapBudget = 0;
 
 	public static final String UNKNOWN_APPNAME = "Unknown";
 
+	/**
+	 * Packet files at least this many MB are read through the {@link PacketIngestionPipeline}
+	 */
+	public static final String PACKET_PIPELINE_THRESHOLD_MB = "PACKET_PIPELINE_THRESHOLD_MB";
+	/**
+	 * MB of packet data kept on the heap before further packets are spilled to disk
+	 */
+	public static final String PACKET_HEAP_BUDGET_MB = "PACKET_HEAP_BUDGET_MB";
+	/**
+	 * Set to "mapped" to read packet files with the {@link MappedPcapReaderImpl}
+	 */
+	public static final String PACKET_READER = "PACKET_READER";
+	private static final long DEFAULT_PIPELINE_THRESHOLD_MB = 256;
+
 	@Autowired
 	public void setFileReader(IFileManager filereader) {
 		this.filereader = filereader;
@@ -242,6 +268,10 @@ public class TraceDataReaderImpl implements IPacketListener, ITraceDataReader {
 		localAddress = new HashSet<InetAddress>();
 		allPackets = new ArrayList<PacketInfo>();
 		unknownPackets = new ArrayList<PacketInfo>();
+		// the packets of the previous result keep their spill store, it is closed once they are collected
+		spillStore = null;
+		residentPacketBytes = 0;
+		packetHeapBudget = getSizeAttribute(PACKET_HEAP_BUDGET_MB, Runtime.getRuntime().maxMemory() / 4);
 		// Adding the reserved DNS, HTTP and HTTPS port numbers to the list of remote ports.
 		remotePortNumbers.add(53);
 		remotePortNumbers.add(80);
@@ -707,7 +737,19 @@ public class TraceDataReaderImpl implements IPacketListener, ITraceDataReader {
 			// this.packetreader = new PacketReaderImpl();
 			throw new NullPointerException("this.packetreader is null");
 		}
-		this.packetreader.readPacket(filepath, this);
+		long pipelineThreshold = getSizeAttribute(PACKET_PIPELINE_THRESHOLD_MB, DEFAULT_PIPELINE_THRESHOLD_MB * 1024 * 1024);
+		if (new File(filepath).length() >= pipelineThreshold && pipelineThreshold > 0) {
+			LOGGER.info("Streaming packet file " + filepath);
+			// only packet files read through the pipeline are large enough to spill
+			spillEnabled = true;
+			try {
+				new PacketIngestionPipeline(this, PacketIngestionPipeline.DEFAULT_CAPACITY).ingest(getPacketReader(), filepath);
+			} finally {
+				spillEnabled = false;
+			}
+		} else {
+			getPacketReader().readPacket(filepath, this);
+		}
 
 		double pcapTime0 = 0;
 		double traceDuration = 0;
@@ -821,7 +863,14 @@ public class TraceDataReaderImpl implements IPacketListener, ITraceDataReader {
 			LOGGER.error("Secure packet file unavailable at: " + filepath);
 			return result;
 		}
-		this.packetreader.readPacket(filepath, this);
+		decryptedPacketIndex = new DecryptedPacketIndex(allPackets);
+		isSecurePcap = true;
+		try {
+			this.packetreader.readPacket(filepath, this);
+		} finally {
+			isSecurePcap = false;
+			decryptedPacketIndex = null;
+		}
 		return result;
 	}
 
@@ -948,23 +997,10 @@ public class TraceDataReaderImpl implements IPacketListener, ITraceDataReader {
 	}
 
 	private void updatePacket(Packet packet) {
-		if (packet instanceof TCPPacket) {
-			TCPPacket ipPacket = (TCPPacket) packet;
-			for (PacketInfo info : allPackets) {
-				Packet curPacket = (Packet) info.getPacket();
-				if (curPacket instanceof TCPPacket) {
-					TCPPacket tcpPacket = (TCPPacket) curPacket;
-					if (ipPacket.getDestinationIPAddress().equals(tcpPacket.getDestinationIPAddress())
-							&& ipPacket.getSourceIPAddress().equals(tcpPacket.getSourceIPAddress())
-							&& ipPacket.getSequenceNumber() == tcpPacket.getSequenceNumber()
-							&& ipPacket.getAckNumber() == tcpPacket.getAckNumber() && packet.getData().length > 66) {
-						byte[] data = Arrays.copyOfRange(packet.getData(), 66, packet.getData().length);
-						tcpPacket.setDecrypted(true);
-						curPacket.setData(data);
-					}
-				}
-			}
+		if (decryptedPacketIndex == null) {
+			decryptedPacketIndex = new DecryptedPacketIndex(allPackets);
 		}
+		decryptedPacketIndex.merge(packet);
 	}
 
 	private void addToAllPackets(String appName, Packet packet) {
@@ -977,6 +1013,57 @@ public class TraceDataReaderImpl implements IPacketListener, ITraceDataReader {
 			addIpCount(ipack.getDestinationIPAddress());
 		}
 		allPackets.add(new PacketInfo(appName, packet));
+		spillIfOverBudget(packet);
+	}
+
+	/**
+	 * Keeps the bytes of the packets read so far within the heap budget, once the
+	 * budget is used up the data of every further packet is moved to a spill file.
+	 * Only done for the packet files read through the ingestion pipeline.
+	 */
+	private void spillIfOverBudget(Packet packet) {
+		// mapped packet data is not on the heap
+		int length = packet.getDataLength();
+		if (!spillEnabled || packet.isMapped() || packet.isSpilled() || length == 0) {
+			return;
+		}
+		if (residentPacketBytes + length <= packetHeapBudget) {
+			residentPacketBytes += length;
+			return;
+		}
+		try {
+			if (spillStore == null) {
+				LOGGER.info("Packet data exceeds heap budget of " + packetHeapBudget + " bytes");
+				spillStore = new PacketSpillStoreImpl();
+			}
+			packet.spill(spillStore);
+		} catch (IOException e) {
+			LOGGER.error("Unable to spill packet data, keeping it on the heap", e);
+			residentPacketBytes += length;
+			packetHeapBudget = Long.MAX_VALUE;
+		}
+	}
+
+	private IPacketReader getPacketReader() {
+		if (mappedPacketReader != null && "mapped".equalsIgnoreCase(Util.getAttribute(PACKET_READER))) {
+			return mappedPacketReader;
+		}
+		return packetreader;
+	}
+
+	/**
+	 * Reads a size in MB from settings, returning the value in bytes
+	 */
+	private long getSizeAttribute(String key, long defaultBytes) {
+		String value = Util.getAttribute(key);
+		if (!value.isEmpty()) {
+			try {
+				return Long.parseLong(value.trim()) * 1024 * 1024;
+			} catch (NumberFormatException e) {
+				LOGGER.warn("Invalid value for " + key + ": " + value);
+			}
+		}
+		return defaultBytes;
 	}
 
 	/**
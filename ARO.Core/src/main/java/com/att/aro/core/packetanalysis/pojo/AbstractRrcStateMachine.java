@@ -15,9 +15,12 @@
 */
 package com.att.aro.core.packetanalysis.pojo;
 
+import java.io.Serializable;
 import java.util.List;
 
-public abstract class AbstractRrcStateMachine {
+public abstract class AbstractRrcStateMachine implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	private double totalRRCEnergy;
 	private double joulesPerKilobyte;
 	private double traceDuration;
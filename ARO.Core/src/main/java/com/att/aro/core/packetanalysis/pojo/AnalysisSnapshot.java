@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.pojo;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Results of the packet analysis of a trace directory that are saved next to
+ * the trace, so the trace can be opened again without assembling sessions.
+ * <p>
+ * Packets are not part of the snapshot, they are written as their index in the
+ * analyzed packets and resolved against the packets read from the trace. The
+ * state the analysis leaves on the packets is kept per index.
+ * </p>
+ */
+@Data
+public class AnalysisSnapshot implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Number of analyzed packets
+	 */
+	private int packetCount;
+	private double firstTimestamp;
+	private double lastTimestamp;
+
+	private List<Session> sessions;
+	private AbstractRrcStateMachine statemachine;
+	private BurstCollectionAnalysisData burstCollectionAnalysisData;
+
+	/**
+	 * TCP state of each analyzed packet
+	 */
+	private TcpInfo[] tcpInfos;
+	/**
+	 * RRC state of each analyzed packet
+	 */
+	private RRCState[] rrcStates;
+	/**
+	 * Indexes of the TCP packets found to be retransmissions
+	 */
+	private BitSet retransmissions;
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.pojo;
+
+import java.io.Serializable;
+
+import com.att.aro.core.util.XxHash64;
+
+/**
+ * XXH64 hash and length of a response body, two bodies with the same
+ * fingerprint are taken as the same content
+ */
+public final class ContentFingerprint implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final long hash;
+	private final long length;
+
+	public ContentFingerprint(long hash, long length) {
+		this.hash = hash;
+		this.length = length;
+	}
+
+	public static ContentFingerprint of(byte[] content) {
+		return new ContentFingerprint(XxHash64.hash(content), content.length);
+	}
+
+	public long getHash() {
+		return hash;
+	}
+
+	public long getLength() {
+		return length;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ContentFingerprint)) {
+			return false;
+		}
+		ContentFingerprint other = (ContentFingerprint) obj;
+		return hash == other.hash && length == other.length;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hash) * 31 + Long.hashCode(length);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%016x/%d", hash, length);
+	}
+}
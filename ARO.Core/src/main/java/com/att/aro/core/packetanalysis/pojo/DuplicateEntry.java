@@ -31,7 +31,6 @@ public class DuplicateEntry {
 	private Double timeStamp;
 	private HttpRequestResponseInfo httpRequestResponse;
 	private String httpObjectName;
-	private byte[] content;
 	private int count;
 	@JsonIgnore
 	private Session session;
@@ -42,7 +41,7 @@ public class DuplicateEntry {
 	}
 
 	public DuplicateEntry(HttpRequestResponseInfo assocRequest, HttpRequestResponseInfo assocResponse,
-			Diagnosis diagnosis, PacketInfo sessionFirstPacket, Session session, byte[] content) {
+			Diagnosis diagnosis, PacketInfo sessionFirstPacket, Session session) {
 		if (assocRequest != null) {
 			this.assocRequest = assocRequest;
 		}
@@ -61,11 +60,6 @@ public class DuplicateEntry {
 		this.contentLength = assocResponse.getContentLength();
 		this.diagnosis = diagnosis;
 		this.sessionFirstPacket = sessionFirstPacket;
-		this.content = content;
-	}
-
-	public byte[] getContent() {
-		return content;
 	}
 
 	public HttpRequestResponseInfo getRequest() {
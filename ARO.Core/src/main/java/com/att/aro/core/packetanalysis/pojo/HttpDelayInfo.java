@@ -15,6 +15,8 @@
  */
 package com.att.aro.core.packetanalysis.pojo;
 
+import java.io.Serializable;
+
 import com.att.aro.core.util.Util;
 
 import lombok.Data;
@@ -22,7 +24,8 @@ import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
-public class HttpDelayInfo {
+public class HttpDelayInfo implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	private double requestTimeStamp;
 	private String firstPacketTimeStamp;
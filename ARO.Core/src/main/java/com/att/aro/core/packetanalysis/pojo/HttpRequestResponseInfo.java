@@ -19,15 +19,25 @@ import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
+import com.att.aro.core.packetreader.pojo.Packet;
 import com.att.aro.core.packetreader.pojo.PacketDirection;
 import com.att.aro.core.packetreader.pojo.TCPPacket;
 import com.att.aro.core.packetreader.pojo.UDPPacket;
@@ -41,8 +51,9 @@ import lombok.Setter;
  * Encapsulates information about an HTTP request or response. This class was converted from struct HTTP_REQUEST_RESPONSE
  * Date: April 24, 2014
  */
-public class HttpRequestResponseInfo implements Comparable<HttpRequestResponseInfo> {
-	
+public class HttpRequestResponseInfo implements Comparable<HttpRequestResponseInfo>, Serializable {
+	private static final long serialVersionUID = 1L;
+
 	private static final Logger LOGGER = LogManager.getLogger(HttpRequestResponseInfo.class.getName());
 
 	/**
@@ -171,11 +182,32 @@ public class HttpRequestResponseInfo implements Comparable<HttpRequestResponseIn
 	@Getter @Setter
 	private boolean headerParseComplete;
 	@Getter @Setter
-	private ByteArrayOutputStream payloadData = new ByteArrayOutputStream();
+	private transient ByteArrayOutputStream payloadData = new PayloadStream();
 	@Getter @Setter
-	private ByteArrayOutputStream headerData = new ByteArrayOutputStream();
+	private transient ByteArrayOutputStream headerData = new ByteArrayOutputStream();
 	@Getter @Setter
-	private BufferedOutputStream dataStream;
+	private transient BufferedOutputStream dataStream;
+	/**
+	 * Fingerprint of the content, set the first time it is asked for
+	 */
+	@JsonIgnore
+	private transient ContentFingerprint contentFingerprint;
+	/**
+	 * Version of the payload the fingerprint is of
+	 */
+	@JsonIgnore
+	private transient long contentFingerprintVersion;
+	/**
+	 * Header lines appended since all headers were read, each after a space
+	 */
+	@JsonIgnore
+	private transient ByteArrayOutputStream pendingHeaders;
+	/**
+	 * Where in the packets the payload was written from, in order, null once
+	 * it is written from anything else
+	 */
+	@JsonIgnore
+	private transient ArrayList<PayloadRange> payloadRanges = new ArrayList<>();
 	
 	@Getter @Setter
 	private double key;
@@ -867,12 +899,68 @@ public class HttpRequestResponseInfo implements Comparable<HttpRequestResponseIn
 		this.waterfallInfos = waterfallInfos;
 	}
 
-	public String getAllHeaders() {
+	public synchronized String getAllHeaders() {
+		if (pendingHeaders != null) {
+			String headers = new String(pendingHeaders.toByteArray(), StandardCharsets.UTF_8);
+			allHeaders = allHeaders != null ? allHeaders + headers : headers;
+			pendingHeaders = null;
+		}
 		return allHeaders;
 	}
 
-	public void setAllHeaders(String allHeaders) {
+	public synchronized void setAllHeaders(String allHeaders) {
 		this.allHeaders = allHeaders;
+		pendingHeaders = null;
+	}
+
+	/**
+	 * Appends a header line to all headers after a space. The lines are
+	 * decoded when all headers are read.
+	 * 
+	 * @param data
+	 * @param offset
+	 * @param length
+	 */
+	public synchronized void appendHeader(byte[] data, int offset, int length) {
+		if (pendingHeaders == null) {
+			pendingHeaders = new ByteArrayOutputStream();
+		}
+		pendingHeaders.write(' ');
+		pendingHeaders.write(data, offset, length);
+	}
+
+	/**
+	 * Returns a version of the payload that changes with every write to it and
+	 * is not shared with any other payload.
+	 * 
+	 * @return the version, 0 when the payload was set to a stream whose writes
+	 *         are not seen
+	 */
+	@JsonIgnore
+	public long getPayloadVersion() {
+		ByteArrayOutputStream payload = payloadData;
+		return payload instanceof PayloadStream ? ((PayloadStream) payload).version : 0;
+	}
+
+	/**
+	 * Returns the fingerprint of the content.
+	 * 
+	 * @return the fingerprint, null when it was not set for the current payload
+	 */
+	@JsonIgnore
+	public synchronized ContentFingerprint getContentFingerprint() {
+		long version = getPayloadVersion();
+		return version != 0 && version == contentFingerprintVersion ? contentFingerprint : null;
+	}
+
+	/**
+	 * Sets the fingerprint of the content of the current payload.
+	 * 
+	 * @param contentFingerprint
+	 */
+	public synchronized void setContentFingerprint(ContentFingerprint contentFingerprint) {
+		this.contentFingerprint = contentFingerprint;
+		contentFingerprintVersion = getPayloadVersion();
 	}
 
 	/**
@@ -1020,7 +1108,7 @@ public class HttpRequestResponseInfo implements Comparable<HttpRequestResponseIn
 		try {
 			TCPPacket tcpPacket = (TCPPacket) packetInfo.getPacket();
 			dataStream = new BufferedOutputStream(headerData);
-			dataStream.write(tcpPacket.getData(), tcpPacket.getDataOffset(), headerDelta);
+			tcpPacket.writeData(dataStream, tcpPacket.getDataOffset(), headerDelta);
 			dataStream.flush();
 		} catch (Exception exception) {
 			LOGGER.error("Error Writing Header to Request Response Info Object", exception);
@@ -1030,7 +1118,7 @@ public class HttpRequestResponseInfo implements Comparable<HttpRequestResponseIn
 	public void writeHeader(PacketInfo packetInfo, int addToOffset, int headerDelta) throws IOException {
 		TCPPacket tcpPacket = (TCPPacket) packetInfo.getPacket();
 		dataStream = new BufferedOutputStream(headerData);
-		dataStream.write(tcpPacket.getData(), tcpPacket.getDataOffset() + addToOffset, headerDelta);
+		tcpPacket.writeData(dataStream, tcpPacket.getDataOffset() + addToOffset, headerDelta);
 		dataStream.flush();
 	}
 	
@@ -1039,19 +1127,19 @@ public class HttpRequestResponseInfo implements Comparable<HttpRequestResponseIn
 			if (packetInfo.getPacket() instanceof TCPPacket) {
 				TCPPacket tcpPacket = (TCPPacket) packetInfo.getPacket();
 				dataStream = new BufferedOutputStream(payloadData);
-				if (containsHeader) {
-					dataStream.write(tcpPacket.getData(), tcpPacket.getDataOffset() + headerDelta , tcpPacket.getData().length - (tcpPacket.getDataOffset() + headerDelta));
-				} else {
-					dataStream.write(tcpPacket.getData(), tcpPacket.getDataOffset(), tcpPacket.getData().length - tcpPacket.getDataOffset());
-				}
+				int offset = containsHeader ? tcpPacket.getDataOffset() + headerDelta : tcpPacket.getDataOffset();
+				tcpPacket.writeData(dataStream, offset, tcpPacket.getDataLength() - offset);
 				dataStream.flush();
+				addPayloadRange(tcpPacket, offset, tcpPacket.getDataLength() - offset);
 			} else {
 				UDPPacket udpPacket = (UDPPacket) packetInfo.getPacket();
 				dataStream = new BufferedOutputStream(payloadData);
-				dataStream.write(udpPacket.getData(), udpPacket.getDataOffset(), udpPacket.getData().length - udpPacket.getDataOffset());
+				udpPacket.writeData(dataStream, udpPacket.getDataOffset(), udpPacket.getDataLength() - udpPacket.getDataOffset());
 				dataStream.flush();
+				addPayloadRange(udpPacket, udpPacket.getDataOffset(), udpPacket.getDataLength() - udpPacket.getDataOffset());
 			}
 		} catch (Exception exception) {
+			payloadRanges = null;
 			LOGGER.error("Error Writing Payload to Request Response Info Object", exception);
 		}
 	}
@@ -1061,23 +1149,35 @@ public class HttpRequestResponseInfo implements Comparable<HttpRequestResponseIn
 			if (packetInfo.getPacket() instanceof TCPPacket) {
 				TCPPacket tcpPacket = (TCPPacket) packetInfo.getPacket();
 				dataStream = new BufferedOutputStream(payloadData);
-				dataStream.write(tcpPacket.getData(), tcpPacket.getDataOffset(), limit);
+				tcpPacket.writeData(dataStream, tcpPacket.getDataOffset(), limit);
 				dataStream.flush();
+				addPayloadRange(tcpPacket, tcpPacket.getDataOffset(), limit);
 			}
 		} catch (Exception exception) {
+			payloadRanges = null;
 			LOGGER.error("Error Writing Payload to Request Response Info Object", exception);
 		}
 	}
 	
+	/**
+	 * Writes bytes that were read from the packet at packetOffset
+	 */
+	public void writePayload(byte[] data, int offset, int length, Packet packet, int packetOffset) {
+		payloadData.write(data, offset, length);
+		addPayloadRange(packet, packetOffset, length);
+	}
+
 	public void writeHeader(String dataRead) throws IOException {
 		writeDataToStream(dataRead, headerData);
 	}
 	
 	public void writePayload(String dataRead) throws IOException {
+		payloadRanges = null;
 		writeDataToStream(dataRead, payloadData);
 	}
 	
 	public void writePayload(InputStream stream) throws IOException {
+		payloadRanges = null;
 	    byte[] buffer = new byte[8 * 1024];
 	    int bytesRead;
 	    dataStream = new BufferedOutputStream(payloadData);
@@ -1094,4 +1194,130 @@ public class HttpRequestResponseInfo implements Comparable<HttpRequestResponseIn
 		dataStream.write(dataRead.getBytes());
 		dataStream.flush();
 	}
-}
\ No newline at end of file
+
+	private void addPayloadRange(Packet packet, int offset, int length) {
+		if (payloadRanges != null && length > 0) {
+			payloadRanges.add(new PayloadRange(packet, offset, length));
+		}
+	}
+
+	/**
+	 * The payload read again from its packets, null when it can not be
+	 */
+	private static byte[] readPayload(List<PayloadRange> ranges) {
+		if (ranges == null) {
+			return null;
+		}
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		try {
+			for (PayloadRange range : ranges) {
+				range.packet.writeData(data, range.offset, range.length);
+			}
+		} catch (IOException | RuntimeException exception) {
+			return null;
+		}
+		return data.toByteArray();
+	}
+
+	private static long checksum(byte[] data) {
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length);
+		return crc.getValue();
+	}
+
+	/**
+	 * A payload that is still what its packets hold is written as where it is
+	 * in them, its bytes otherwise
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getAllHeaders();
+		out.defaultWriteObject();
+		byte[] payload = payloadData != null ? payloadData.toByteArray() : null;
+		if (payload != null && payload.length > 0 && Arrays.equals(payload, readPayload(payloadRanges))) {
+			out.writeObject(payloadRanges);
+			out.writeInt(payload.length);
+			out.writeLong(checksum(payload));
+		} else {
+			out.writeObject(payload);
+		}
+		out.writeObject(headerData != null ? headerData.toByteArray() : null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		Object payload = in.readObject();
+		if (payload instanceof ArrayList) {
+			payloadRanges = (ArrayList<PayloadRange>) payload;
+			int length = in.readInt();
+			long checksum = in.readLong();
+			byte[] data = readPayload(payloadRanges);
+			if (data == null || data.length != length || checksum(data) != checksum) {
+				throw new InvalidObjectException("Payload differs from its packets");
+			}
+			payloadData = toStream(data);
+		} else {
+			payloadRanges = null;
+			payloadData = toStream((byte[]) payload);
+		}
+		headerData = toStream((byte[]) in.readObject());
+	}
+
+	private static ByteArrayOutputStream toStream(byte[] data) {
+		if (data == null) {
+			return null;
+		}
+		ByteArrayOutputStream stream = new PayloadStream(data.length);
+		stream.write(data, 0, data.length);
+		return stream;
+	}
+
+	/**
+	 * Payload that takes a new version on each change
+	 */
+	private static final class PayloadStream extends ByteArrayOutputStream {
+		private static final AtomicLong VERSIONS = new AtomicLong();
+
+		private volatile long version = VERSIONS.incrementAndGet();
+
+		private PayloadStream() {
+			super();
+		}
+
+		private PayloadStream(int size) {
+			super(size);
+		}
+
+		@Override
+		public synchronized void write(int data) {
+			super.write(data);
+			version = VERSIONS.incrementAndGet();
+		}
+
+		@Override
+		public synchronized void write(byte[] data, int offset, int length) {
+			super.write(data, offset, length);
+			version = VERSIONS.incrementAndGet();
+		}
+
+		@Override
+		public synchronized void reset() {
+			super.reset();
+			version = VERSIONS.incrementAndGet();
+		}
+	}
+
+	private static final class PayloadRange implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final Packet packet;
+		private final int offset;
+		private final int length;
+
+		private PayloadRange(Packet packet, int offset, int length) {
+			this.packet = packet;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+}
@@ -18,7 +18,10 @@ package com.att.aro.core.packetanalysis.pojo;
 import java.util.List;
 import java.util.Map;
 
+import com.att.aro.core.bestpractice.pojo.BestPracticeTiming;
 import com.att.aro.core.configuration.pojo.Profile;
+import com.att.aro.core.packetanalysis.impl.ImagePipeline;
+import com.att.aro.core.packetanalysis.impl.SessionConcurrency;
 import com.att.aro.core.packetanalysis.impl.TimeRangeAnalysis;
 import com.att.aro.core.videoanalysis.pojo.StreamingVideoData;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -31,6 +34,11 @@ public class PacketAnalyzerResult {
 	private AbstractTraceResult traceresult;
 	@JsonIgnore
 	private List<Session> sessionlist;
+	/**
+	 * columns of the analyzed packets, built once for the timeline analysis
+	 */
+	@JsonIgnore
+	private PacketTable packetTable;
 	private Statistic statistic;
 
 	private TimeRangeAnalysis timeRangeAnalysis;
@@ -78,6 +86,12 @@ public class PacketAnalyzerResult {
 	@JsonIgnore
 	private CacheAnalysis cacheAnalysis = null;
 	
+	/**
+	 * Execution timings of the best practices run against this result
+	 */
+	@JsonIgnore
+	private List<BestPracticeTiming> bestPracticeTimings;
+	
 	/**
 	 * sensitive data from device
 	 */
@@ -89,6 +103,19 @@ public class PacketAnalyzerResult {
 	 */
 	@JsonIgnore
 	private StreamingVideoData streamingVideoData;
+
+	/**
+	 * JPEG images of the responses, found once for the image best practices
+	 */
+	@JsonIgnore
+	private List<ImagePipeline.JpegImage> jpegImages;
+
+	/**
+	 * TCP sessions by remote IP, indexed once for the simultaneous connection
+	 * best practices
+	 */
+	@JsonIgnore
+	private SessionConcurrency.Index sessionsByRemoteIp;
 	
 	/**
 	 * Returns trace results
@@ -327,4 +354,36 @@ public class PacketAnalyzerResult {
 	public void setTimeRangeAnalysis(TimeRangeAnalysis timeRangeAnalysis) {
 		this.timeRangeAnalysis = timeRangeAnalysis;
 	}
+
+	public List<BestPracticeTiming> getBestPracticeTimings() {
+		return bestPracticeTimings;
+	}
+
+	public void setBestPracticeTimings(List<BestPracticeTiming> bestPracticeTimings) {
+		this.bestPracticeTimings = bestPracticeTimings;
+	}
+
+	public PacketTable getPacketTable() {
+		return packetTable;
+	}
+
+	public void setPacketTable(PacketTable packetTable) {
+		this.packetTable = packetTable;
+	}
+
+	public List<ImagePipeline.JpegImage> getJpegImages() {
+		return jpegImages;
+	}
+
+	public void setJpegImages(List<ImagePipeline.JpegImage> jpegImages) {
+		this.jpegImages = jpegImages;
+	}
+
+	public SessionConcurrency.Index getSessionsByRemoteIp() {
+		return sessionsByRemoteIp;
+	}
+
+	public void setSessionsByRemoteIp(SessionConcurrency.Index sessionsByRemoteIp) {
+		this.sessionsByRemoteIp = sessionsByRemoteIp;
+	}
 }
@@ -0,0 +1,182 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.pojo;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.att.aro.core.packetreader.pojo.PacketDirection;
+
+/**
+ * Column store of the packet timeline used by the throughput, RRC state and
+ * burst analysis.
+ * <p>
+ * Row i of every column describes packet i of the list the table was built
+ * from, so results can still be mapped back to the {@link PacketInfo}. The
+ * arrays are shared, not copied, and must not be modified by callers.
+ * </p>
+ */
+public class PacketTable {
+
+	public static final byte DIRECTION_UNKNOWN = 0;
+	public static final byte DIRECTION_UPLINK = 1;
+	public static final byte DIRECTION_DOWNLINK = 2;
+
+	/**
+	 * Session id of a packet that does not belong to any session
+	 */
+	public static final int NO_SESSION = -1;
+
+	private final List<PacketInfo> packets;
+	private final double[] timestamps;
+	private final int[] lengths;
+	private final int[] payloadLengths;
+	private final byte[] directions;
+	private final int[] sessionIds;
+	/**
+	 * Throughput indexes of the table by direction, ALL_DIRECTIONS first
+	 */
+	private final ThroughputIndex[] throughputIndexes = new ThroughputIndex[4];
+
+	private PacketTable(List<PacketInfo> packets) {
+		this.packets = packets;
+		int size = packets.size();
+		timestamps = new double[size];
+		lengths = new int[size];
+		payloadLengths = new int[size];
+		directions = new byte[size];
+		sessionIds = new int[size];
+	}
+
+	/**
+	 * Builds a table without session ids
+	 */
+	public static PacketTable of(List<PacketInfo> packets) {
+		return of(packets, null);
+	}
+
+	/**
+	 * Builds a table of the packets
+	 *
+	 * @param packets
+	 *            packets in timeline order
+	 * @param sessions
+	 *            sessions of the packets, the session id of a packet is the index
+	 *            of its session in this list
+	 * @return the table
+	 */
+	public static PacketTable of(List<PacketInfo> packets, List<Session> sessions) {
+		PacketTable table = new PacketTable(packets == null ? Collections.<PacketInfo>emptyList() : packets);
+		Map<PacketInfo, Integer> sessionOfPacket = new IdentityHashMap<>();
+		if (sessions != null) {
+			for (int sessionId = 0; sessionId < sessions.size(); sessionId++) {
+				for (PacketInfo packet : sessions.get(sessionId).getAllPackets()) {
+					sessionOfPacket.put(packet, sessionId);
+				}
+			}
+		}
+		int row = 0;
+		for (PacketInfo packet : table.packets) {
+			table.timestamps[row] = packet.getTimeStamp();
+			table.lengths[row] = packet.getLen();
+			table.payloadLengths[row] = packet.getPayloadLen();
+			table.directions[row] = direction(packet.getDir());
+			Integer sessionId = sessionOfPacket.get(packet);
+			table.sessionIds[row] = sessionId != null ? sessionId : NO_SESSION;
+			row++;
+		}
+		return table;
+	}
+
+	/**
+	 * @return the direction column value of a packet direction
+	 */
+	public static byte direction(PacketDirection dir) {
+		if (dir == PacketDirection.UPLINK) {
+			return DIRECTION_UPLINK;
+		} else if (dir == PacketDirection.DOWNLINK) {
+			return DIRECTION_DOWNLINK;
+		}
+		return DIRECTION_UNKNOWN;
+	}
+
+	public int size() {
+		return timestamps.length;
+	}
+
+	/**
+	 * Returns the throughput index of the rows of one direction, built the first
+	 * time it is asked for
+	 *
+	 * @param direction
+	 *            one of the directions, ThroughputIndex.ALL_DIRECTIONS for all
+	 *            the rows
+	 * @return the index
+	 */
+	public synchronized ThroughputIndex getThroughputIndex(byte direction) {
+		int slot = direction - ThroughputIndex.ALL_DIRECTIONS;
+		if (throughputIndexes[slot] == null) {
+			throughputIndexes[slot] = ThroughputIndex.of(this, direction);
+		}
+		return throughputIndexes[slot];
+	}
+
+	/**
+	 * @return the packets the rows were built from
+	 */
+	public List<PacketInfo> getPackets() {
+		return packets;
+	}
+
+	public PacketInfo getPacket(int row) {
+		return packets.get(row);
+	}
+
+	/**
+	 * @return timestamps in seconds, relative to the start of the trace
+	 */
+	public double[] getTimestamps() {
+		return timestamps;
+	}
+
+	/**
+	 * @return packet lengths without the datalink header, see {@link PacketInfo#getLen()}
+	 */
+	public int[] getLengths() {
+		return lengths;
+	}
+
+	public int[] getPayloadLengths() {
+		return payloadLengths;
+	}
+
+	/**
+	 * @return one of DIRECTION_UNKNOWN, DIRECTION_UPLINK or DIRECTION_DOWNLINK per row
+	 */
+	public byte[] getDirections() {
+		return directions;
+	}
+
+	/**
+	 * @return index of the session of each row, NO_SESSION if the packet is not
+	 *         part of a session
+	 */
+	public int[] getSessionIds() {
+		return sessionIds;
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.pojo;
+
+import static org.apache.commons.text.StringEscapeUtils.escapeCsv;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.att.aro.core.configuration.pojo.Profile;
+
+/**
+ * Results of a profile sweep, a row per profile in the order of the profiles
+ */
+public class ProfileComparisonTable {
+
+	private static final String[] COLUMNS = { "Profile", "Type", "RRC Energy (J)", "Total Energy (J)", "J/KB", "Bursts",
+			"Long Bursts", "Burst Energy (J)" };
+
+	private final List<ProfileSweepResult> results;
+
+	public ProfileComparisonTable(List<ProfileSweepResult> results) {
+		this.results = Collections.unmodifiableList(new ArrayList<>(results));
+	}
+
+	public List<ProfileSweepResult> getResults() {
+		return results;
+	}
+
+	public String[] getColumns() {
+		return COLUMNS.clone();
+	}
+
+	/**
+	 * @return a row per profile, with the values of the columns
+	 */
+	public List<Object[]> getRows() {
+		List<Object[]> rows = new ArrayList<>(results.size());
+		for (ProfileSweepResult result : results) {
+			Profile profile = result.getProfile();
+			AbstractRrcStateMachine statemachine = result.getStatemachine();
+			BurstCollectionAnalysisData bursts = result.getBurstCollectionAnalysisData();
+			rows.add(new Object[] { profile.getName(), profile.getProfileType(), statemachine.getTotalRRCEnergy(),
+					result.getEnergyModel().getTotalEnergyConsumed(), statemachine.getJoulesPerKilobyte(),
+					bursts.getBurstCollection().size(), bursts.getLongBurstCount(), bursts.getTotalEnergy() });
+		}
+		return rows;
+	}
+
+	/**
+	 * @return the table as CSV, with a header line
+	 */
+	public String toCsv() {
+		StringBuilder csv = new StringBuilder();
+		appendLine(csv, COLUMNS);
+		for (Object[] row : getRows()) {
+			appendLine(csv, row);
+		}
+		return csv.toString();
+	}
+
+	private static void appendLine(StringBuilder csv, Object[] values) {
+		for (int column = 0; column < values.length; column++) {
+			if (column > 0) {
+				csv.append(',');
+			}
+			csv.append(escapeCsv(String.valueOf(values[column])));
+		}
+		csv.append(System.lineSeparator());
+	}
+}
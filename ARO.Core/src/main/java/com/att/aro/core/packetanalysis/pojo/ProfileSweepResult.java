@@ -0,0 +1,36 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.pojo;
+
+import com.att.aro.core.configuration.pojo.Profile;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * RRC state machine, energy model and bursts of a trace analyzed with one of
+ * the profiles of a profile sweep
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfileSweepResult {
+	private Profile profile;
+	private AbstractRrcStateMachine statemachine;
+	private EnergyModel energyModel;
+	private BurstCollectionAnalysisData burstCollectionAnalysisData;
+}
@@ -16,6 +16,8 @@
 package com.att.aro.core.packetanalysis.pojo;
 
 public class RrcStateMachine3G extends AbstractRrcStateMachine {
+	private static final long serialVersionUID = 1L;
+
 	private double idleTime;
 	private double idleEnergy;
 	private double dchTime;
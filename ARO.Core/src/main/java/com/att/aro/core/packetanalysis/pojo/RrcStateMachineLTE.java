@@ -16,6 +16,8 @@
 package com.att.aro.core.packetanalysis.pojo;
 
 public class RrcStateMachineLTE extends AbstractRrcStateMachine {
+	private static final long serialVersionUID = 1L;
+
 	private double lteIdleTime;
 	private double lteIdleToCRPromotionTime;
 	private double lteCrTime;
@@ -16,6 +16,8 @@
 package com.att.aro.core.packetanalysis.pojo;
 
 public class RrcStateMachineWiFi extends AbstractRrcStateMachine {
+	private static final long serialVersionUID = 1L;
+
 	private double wifiActiveEnergy;
 	private double wifiTailEnergy;
 	private double wifiIdleEnergy;
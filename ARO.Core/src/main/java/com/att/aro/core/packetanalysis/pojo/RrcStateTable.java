@@ -0,0 +1,204 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.pojo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column store of RRC state ranges in time order.
+ * <p>
+ * The state machines write their ranges here and the RRC statistics and
+ * energy are computed on the columns, so a what-if run over another profile
+ * does not create a {@link RrcStateRange} per range unless the list is asked
+ * for.
+ * </p>
+ */
+public class RrcStateTable {
+
+	private static final RRCState[] STATES = RRCState.values();
+
+	private double[] beginTimes;
+	private double[] endTimes;
+	private byte[] states;
+	private double[] energies;
+	private int size;
+
+	public RrcStateTable() {
+		this(16);
+	}
+
+	public RrcStateTable(int capacity) {
+		beginTimes = new double[capacity];
+		endTimes = new double[capacity];
+		states = new byte[capacity];
+		energies = new double[capacity];
+	}
+
+	/**
+	 * Builds a table of the ranges, with their energy
+	 */
+	public static RrcStateTable of(List<RrcStateRange> ranges) {
+		RrcStateTable table = new RrcStateTable(Math.max(1, ranges.size()));
+		for (RrcStateRange range : ranges) {
+			table.add(range.getBeginTime(), range.getEndTime(), range.getState());
+			table.energies[table.size - 1] = range.getEnergy();
+		}
+		return table;
+	}
+
+	public void add(double beginTime, double endTime, RRCState state) {
+		if (size == beginTimes.length) {
+			int capacity = Math.max(16, size * 2);
+			beginTimes = Arrays.copyOf(beginTimes, capacity);
+			endTimes = Arrays.copyOf(endTimes, capacity);
+			states = Arrays.copyOf(states, capacity);
+			energies = Arrays.copyOf(energies, capacity);
+		}
+		size++;
+		set(size - 1, beginTime, endTime, state);
+	}
+
+	/**
+	 * Replaces a row, its energy is reset
+	 */
+	public void set(int row, double beginTime, double endTime, RRCState state) {
+		beginTimes[row] = beginTime;
+		endTimes[row] = endTime;
+		states[row] = (byte) state.ordinal();
+		energies[row] = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double getBeginTime(int row) {
+		return beginTimes[row];
+	}
+
+	public double getEndTime(int row) {
+		return endTimes[row];
+	}
+
+	public double getDuration(int row) {
+		return endTimes[row] - beginTimes[row];
+	}
+
+	public RRCState getState(int row) {
+		return STATES[states[row]];
+	}
+
+	public void setState(int row, RRCState state) {
+		states[row] = (byte) state.ordinal();
+	}
+
+	public void setEndTime(int row, double endTime) {
+		endTimes[row] = endTime;
+	}
+
+	public double getEnergy(int row) {
+		return energies[row];
+	}
+
+	public void setEnergy(int row, double energy) {
+		energies[row] = energy;
+	}
+
+	/**
+	 * Drops the rows from a row on
+	 */
+	public void truncate(int size) {
+		this.size = Math.min(this.size, size);
+	}
+
+	/**
+	 * Sorts the rows by begin time, keeping the order of rows beginning at the
+	 * same time
+	 */
+	public void sort() {
+		boolean sorted = true;
+		for (int row = 1; row < size && sorted; row++) {
+			sorted = beginTimes[row - 1] <= beginTimes[row];
+		}
+		if (sorted) {
+			return;
+		}
+		Integer[] order = new Integer[size];
+		for (int row = 0; row < size; row++) {
+			order[row] = row;
+		}
+		Arrays.sort(order, (row1, row2) -> Double.compare(beginTimes[row1], beginTimes[row2]));
+		double[] sortedBegins = new double[beginTimes.length];
+		double[] sortedEnds = new double[endTimes.length];
+		byte[] sortedStates = new byte[states.length];
+		double[] sortedEnergies = new double[energies.length];
+		for (int row = 0; row < size; row++) {
+			sortedBegins[row] = beginTimes[order[row]];
+			sortedEnds[row] = endTimes[order[row]];
+			sortedStates[row] = states[order[row]];
+			sortedEnergies[row] = energies[order[row]];
+		}
+		beginTimes = sortedBegins;
+		endTimes = sortedEnds;
+		states = sortedStates;
+		energies = sortedEnergies;
+	}
+
+	/**
+	 * Returns the part of the ranges in a time range. A range crossing the end
+	 * of the time range is only kept for the first one.
+	 *
+	 * @param beginTime
+	 * @param endTime
+	 * @return the ranges cut to the time range
+	 */
+	public RrcStateTable clip(double beginTime, double endTime) {
+		RrcStateTable clipped = new RrcStateTable(Math.max(1, size));
+		boolean stateAdded = false;
+		for (int row = 0; row < size; row++) {
+			double begin = beginTimes[row];
+			double end = endTimes[row];
+			RRCState state = getState(row);
+			if (begin >= beginTime && end <= endTime) {
+				clipped.add(begin, end, state);
+				clipped.energies[clipped.size - 1] = energies[row];
+			} else if (begin <= beginTime && end <= endTime && end > beginTime) {
+				clipped.add(beginTime, end, state);
+			} else if (begin <= beginTime && end >= endTime) {
+				clipped.add(beginTime, endTime, state);
+			} else if (begin >= beginTime && begin < endTime && end >= endTime && !stateAdded) {
+				clipped.add(begin, endTime, state);
+				stateAdded = true;
+			}
+		}
+		return clipped;
+	}
+
+	/**
+	 * @return a RrcStateRange per row, with its energy
+	 */
+	public List<RrcStateRange> toRanges() {
+		List<RrcStateRange> ranges = new ArrayList<RrcStateRange>(size);
+		for (int row = 0; row < size; row++) {
+			RrcStateRange range = new RrcStateRange(beginTimes[row], endTimes[row], getState(row));
+			range.setEnergy(energies[row]);
+			ranges.add(range);
+		}
+		return ranges;
+	}
+}
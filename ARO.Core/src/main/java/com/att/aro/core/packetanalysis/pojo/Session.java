@@ -167,9 +167,10 @@ public class Session implements Serializable, Comparable<Session> {
 	private List<HttpRequestResponseInfo> requestResponseInfo = new ArrayList<HttpRequestResponseInfo>();
 
 	/**
-	 * An array of bytes containing the uplink storage.
+	 * An array of bytes containing the uplink storage, not kept in a
+	 * snapshot of the analysis.
 	 */
-	private byte[] storageUl;
+	private transient byte[] storageUl;
 
 	/**
 	 * A Map of offsets and corresponding PacketInfo objects that contain the
@@ -178,9 +179,10 @@ public class Session implements Serializable, Comparable<Session> {
 	private SortedMap<Integer, PacketInfo> packetOffsetsUl;
 
 	/**
-	 * An array of bytes containing the downlink storage.
+	 * An array of bytes containing the downlink storage, not kept in a
+	 * snapshot of the analysis.
 	 */
-	private byte[] storageDl;
+	private transient byte[] storageDl;
 
 	/**
 	 * A Map of offsets and corresponding PacketInfo objects that contain the
@@ -201,14 +203,16 @@ public class Session implements Serializable, Comparable<Session> {
 	private int httpsMode = HTTPS_MODE_NONE;
 
 	/**
-	 * An array of bytes containing the extended uplink storage.
+	 * An array of bytes containing the extended uplink storage, not kept in a
+	 * snapshot of the analysis.
 	 */
-	private byte[] storageUlext = null;
+	private transient byte[] storageUlext = null;
 
 	/**
-	 * An array of bytes containing the extended downlink storage.
+	 * An array of bytes containing the extended downlink storage, not kept in a
+	 * snapshot of the analysis.
 	 */
-	private byte[] storageDlext = null;
+	private transient byte[] storageDlext = null;
 		
 	private TreeMap<Double, PacketInfo> synPackets = new TreeMap<>();
 	private TreeMap<Double, PacketInfo> synAckPackets = new TreeMap<>();
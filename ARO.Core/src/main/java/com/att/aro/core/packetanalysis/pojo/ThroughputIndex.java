@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.pojo;
+
+import com.att.aro.core.packetreader.pojo.PacketDirection;
+
+/**
+ * Prefix sums of the uplink and downlink bytes of a packet timeline.
+ * <p>
+ * Built once from a {@link PacketTable} in timeline order, the bytes sent in
+ * any time range are found with two binary searches on the timestamps, so the
+ * throughput of a window does not depend on the number of packets in it.
+ * </p>
+ */
+public final class ThroughputIndex {
+
+	/**
+	 * Direction of an index holding the rows of every direction
+	 */
+	public static final byte ALL_DIRECTIONS = -1;
+
+	private final double[] timestamps;
+	/**
+	 * bytes of the rows before each row, one more entry than rows
+	 */
+	private final long[] uplinkBytes;
+	private final long[] downlinkBytes;
+
+	private ThroughputIndex(int size) {
+		timestamps = new double[size];
+		uplinkBytes = new long[size + 1];
+		downlinkBytes = new long[size + 1];
+	}
+
+	/**
+	 * Builds the index of all the rows of the table
+	 */
+	public static ThroughputIndex of(PacketTable table) {
+		return of(table, ALL_DIRECTIONS);
+	}
+
+	/**
+	 * Builds the index of the rows of one direction of the table, as if the
+	 * table had been built from the packets of that direction only
+	 *
+	 * @param table
+	 *            packets in timeline order
+	 * @param direction
+	 *            one of the PacketTable directions, ALL_DIRECTIONS for all the
+	 *            rows
+	 * @return the index
+	 */
+	public static ThroughputIndex of(PacketTable table, byte direction) {
+		byte[] directions = table.getDirections();
+		int size = 0;
+		for (int row = 0; row < directions.length; row++) {
+			if (direction == ALL_DIRECTIONS || directions[row] == direction) {
+				size++;
+			}
+		}
+		ThroughputIndex index = new ThroughputIndex(size);
+		double[] stamps = table.getTimestamps();
+		int[] lengths = table.getLengths();
+		int entry = 0;
+		for (int row = 0; row < directions.length; row++) {
+			if (direction != ALL_DIRECTIONS && directions[row] != direction) {
+				continue;
+			}
+			index.timestamps[entry] = stamps[row];
+			index.uplinkBytes[entry + 1] = index.uplinkBytes[entry] + (directions[row] == PacketTable.DIRECTION_UPLINK ? lengths[row] : 0);
+			index.downlinkBytes[entry + 1] = index.downlinkBytes[entry] + (directions[row] == PacketTable.DIRECTION_DOWNLINK ? lengths[row] : 0);
+			entry++;
+		}
+		return index;
+	}
+
+	/**
+	 * @return the PacketTable direction of the packets of a direction,
+	 *         ALL_DIRECTIONS for BOTH
+	 */
+	public static byte direction(PacketDirection dir) {
+		return dir == PacketDirection.BOTH ? ALL_DIRECTIONS : PacketTable.direction(dir);
+	}
+
+	public int size() {
+		return timestamps.length;
+	}
+
+	public double getTimestamp(int entry) {
+		return timestamps[entry];
+	}
+
+	/**
+	 * @return the first entry with a timestamp at or after the time, size() if
+	 *         there is none
+	 */
+	public int indexOf(double time) {
+		int low = 0;
+		int high = timestamps.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (timestamps[middle] < time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return uplink bytes of the entries from (inclusive) to (exclusive)
+	 */
+	public long getUplinkBytes(int from, int to) {
+		return uplinkBytes[to] - uplinkBytes[from];
+	}
+
+	/**
+	 * @return downlink bytes of the entries from (inclusive) to (exclusive)
+	 */
+	public long getDownlinkBytes(int from, int to) {
+		return downlinkBytes[to] - downlinkBytes[from];
+	}
+
+	/**
+	 * @return uplink bytes of the packets with startTime <= timestamp < endTime
+	 */
+	public long getUplinkBytes(double startTime, double endTime) {
+		int from = indexOf(startTime);
+		return getUplinkBytes(from, Math.max(from, indexOf(endTime)));
+	}
+
+	/**
+	 * @return downlink bytes of the packets with startTime <= timestamp < endTime
+	 */
+	public long getDownlinkBytes(double startTime, double endTime) {
+		int from = indexOf(startTime);
+		return getDownlinkBytes(from, Math.max(from, indexOf(endTime)));
+	}
+
+	/**
+	 * @return throughput of the packets with startTime <= timestamp < endTime
+	 */
+	public Throughput getThroughput(double startTime, double endTime) {
+		int from = indexOf(startTime);
+		int to = Math.max(from, indexOf(endTime));
+		return new Throughput(startTime, endTime, getUplinkBytes(from, to), getDownlinkBytes(from, to));
+	}
+}
@@ -328,6 +328,11 @@ public class TraceDataConst {
 		 * The file of Carrier name and cell tower ID
 		 */
 		public static final String CELL_STATUS = "cell_events";
+
+		/**
+		 * The file of the saved packet analysis
+		 */
+		public static final String ANALYSIS_SNAPSHOT = "analysis_snapshot";
 		
 	}
 	
@@ -15,11 +15,20 @@
 */
 package com.att.aro.core.packetreader;
 
+import java.nio.ByteBuffer;
+
 import com.att.aro.core.packetreader.pojo.Packet;
 
 public interface IPacketService {
 	Packet createPacketFromPcap(int datalink, long seconds, long microSeconds, int len,
 			byte[] data, String pcapfile);
+	/**
+	 * Same as {@link #createPacketFromPcap(int, long, long, int, byte[], String)}, the headers
+	 * are read from the buffer in place and the packet keeps a view of it rather than a copy.
+	 * @param data A buffer over the packet bytes, from index 0 to its limit.
+	 */
+	Packet createPacketFromPcap(int datalink, long seconds, long microSeconds, int len,
+			ByteBuffer data, String pcapfile);
 	/**
 	 * Returns a new instance of the Packet class, using a datalink to the Microsoft Network Monitor 
 	 * and the specified parameters to initialize the class members.
@@ -46,4 +55,10 @@ public interface IPacketService {
 	 */
 	Packet createPacket(short network, long seconds, long microSeconds, int len, int datalinkHdrLen,
 			byte[] data);
+	/**
+	 * Same as {@link #createPacket(short, long, long, int, int, byte[])} over a buffer, see
+	 * {@link #createPacketFromPcap(int, long, long, int, ByteBuffer, String)}.
+	 */
+	Packet createPacket(short network, long seconds, long microSeconds, int len, int datalinkHdrLen,
+			ByteBuffer data);
 }
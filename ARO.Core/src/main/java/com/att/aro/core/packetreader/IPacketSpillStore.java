@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetreader;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Off-heap backing store for packet data. Packets whose raw bytes have been
+ * written to a spill store release their in-heap copy and read it back on
+ * demand through {@link com.att.aro.core.packetreader.pojo.Packet#getData()}.
+ */
+public interface IPacketSpillStore extends Closeable {
+
+	/**
+	 * Appends the bytes to the store.
+	 *
+	 * @param data
+	 *            raw packet bytes
+	 * @return offset of the bytes within the store
+	 * @throws IOException
+	 */
+	long write(byte[] data) throws IOException;
+
+	/**
+	 * Reads back bytes previously written with {@link #write(byte[])}.
+	 *
+	 * @param offset
+	 *            value returned by write
+	 * @param length
+	 *            number of bytes written
+	 * @return a new array holding the bytes
+	 * @throws IOException
+	 */
+	byte[] read(long offset, int length) throws IOException;
+
+	/**
+	 * @return total number of bytes held by the store
+	 */
+	long size();
+}
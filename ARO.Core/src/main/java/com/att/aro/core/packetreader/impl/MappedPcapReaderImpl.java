@@ -0,0 +1,176 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetreader.impl;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import com.att.aro.core.packetreader.IPacketListener;
+import com.att.aro.core.packetreader.IPacketReader;
+import com.att.aro.core.packetreader.IPacketService;
+import com.att.aro.core.packetreader.pojo.Packet;
+
+/**
+ * Reads a pcap file through memory mapped windows without pcap4j.
+ * <p>
+ * Headers are read in place by {@link IPacketService} and every packet keeps a
+ * slice of the mapping as its data, so packet bytes are not copied onto the
+ * heap until a consumer asks for them. Files that are not plain pcap, or use a
+ * link type other than Ethernet, raw IP or Linux cooked capture, are handed to
+ * the packetReader bean.
+ * </p>
+ */
+public class MappedPcapReaderImpl implements IPacketReader {
+	private static final Logger LOGGER = LogManager.getLogger(MappedPcapReaderImpl.class);
+
+	private static final int MAGIC_MICROSECONDS = 0xa1b2c3d4;
+	private static final int MAGIC_NANOSECONDS = 0xa1b23c4d;
+	private static final int FILE_HEADER_LENGTH = 24;
+	private static final int RECORD_HEADER_LENGTH = 16;
+
+	private static final int LINKTYPE_ETHERNET = 1;
+	private static final int DLT_RAW = 12;
+	private static final int LINKTYPE_RAW = 101;
+	private static final int LINKTYPE_LINUX_SLL = 113;
+	private static final int LINKTYPE_IPV4 = 228;
+	private static final int LINKTYPE_IPV6 = 229;
+
+	/**
+	 * Size of the mapped window, a packet larger than this is mapped on its own
+	 */
+	private static final int WINDOW_SIZE = 256 * 1024 * 1024;
+
+	@Autowired
+	private IPacketService packetservice;
+
+	@Autowired
+	@Qualifier("packetReader")
+	private IPacketReader packetReader;
+
+	public void setPacketService(IPacketService packetservice) {
+		this.packetservice = packetservice;
+	}
+
+	public void setPacketReader(IPacketReader packetReader) {
+		this.packetReader = packetReader;
+	}
+
+	@Override
+	public void readPacket(String packetfile, IPacketListener listener) throws IOException {
+		long start = System.currentTimeMillis();
+		try (RandomAccessFile file = new RandomAccessFile(packetfile, "r"); FileChannel channel = file.getChannel()) {
+			long fileSize = channel.size();
+			ByteBuffer header = fileSize >= FILE_HEADER_LENGTH ? channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_HEADER_LENGTH) : null;
+			ByteOrder order = header == null ? null : byteOrder(header.getInt(0));
+			int datalink = order == null ? -1 : datalink(getInt(header, 20, order));
+			if (datalink < 0) {
+				LOGGER.info("Reading " + packetfile + " with " + packetReader.getClass().getSimpleName());
+				packetReader.readPacket(packetfile, listener);
+				return;
+			}
+			boolean nanoseconds = getInt(header, 0, order) == MAGIC_NANOSECONDS;
+
+			int totalPacketReads = 0;
+			MappedByteBuffer window = null;
+			long windowStart = 0;
+			long position = FILE_HEADER_LENGTH;
+			while (position + RECORD_HEADER_LENGTH <= fileSize) {
+				if (window == null || position + RECORD_HEADER_LENGTH > windowStart + window.capacity()) {
+					window = map(channel, position, RECORD_HEADER_LENGTH, fileSize);
+					windowStart = position;
+				}
+				int offset = (int) (position - windowStart);
+				long seconds = getInt(window, offset, order) & 0xFFFFFFFFL;
+				long fraction = getInt(window, offset + 4, order) & 0xFFFFFFFFL;
+				int capturedLength = getInt(window, offset + 8, order);
+				if (capturedLength < 0 || position + RECORD_HEADER_LENGTH + capturedLength > fileSize) {
+					LOGGER.warn(String.format("Truncated packet record at offset %d of %s", position, packetfile));
+					break;
+				}
+				if (position + RECORD_HEADER_LENGTH + capturedLength > windowStart + window.capacity()) {
+					window = map(channel, position, RECORD_HEADER_LENGTH + capturedLength, fileSize);
+					windowStart = position;
+					offset = 0;
+				}
+
+				ByteBuffer data = window.duplicate();
+				data.position(offset + RECORD_HEADER_LENGTH);
+				data.limit(offset + RECORD_HEADER_LENGTH + capturedLength);
+				try {
+					Packet packet = packetservice.createPacketFromPcap(datalink, seconds, nanoseconds ? fraction / 1000 : fraction,
+							capturedLength, data.slice(), packetfile);
+					++totalPacketReads;
+					listener.packetArrived(null, packet);
+				} catch (Exception ex) {
+					LOGGER.debug("Error while reading packet at offset " + position, ex);
+				}
+				position += RECORD_HEADER_LENGTH + capturedLength;
+			}
+			LOGGER.info(String.format("Finished reading total %d packets for pcap file %s", totalPacketReads, packetfile));
+		}
+		LOGGER.info("Time to read pcap file in ms: " + (System.currentTimeMillis() - start));
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long position, long length, long fileSize) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(WINDOW_SIZE, length), fileSize - position));
+	}
+
+	private static int getInt(ByteBuffer buffer, int offset, ByteOrder order) {
+		int value = buffer.getInt(offset);
+		return order == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value);
+	}
+
+	/**
+	 * @return the byte order of the file, null if it is not a pcap file
+	 */
+	private static ByteOrder byteOrder(int magic) {
+		if (magic == MAGIC_MICROSECONDS || magic == MAGIC_NANOSECONDS) {
+			return ByteOrder.BIG_ENDIAN;
+		} else if (Integer.reverseBytes(magic) == MAGIC_MICROSECONDS || Integer.reverseBytes(magic) == MAGIC_NANOSECONDS) {
+			return ByteOrder.LITTLE_ENDIAN;
+		}
+		return null;
+	}
+
+	/**
+	 * @param linkType link type of the file header, the upper bits carry FCS details
+	 * @return the datalink understood by {@link IPacketService}, -1 if not supported
+	 */
+	private static int datalink(int linkType) {
+		switch (linkType & 0x0FFFFFFF) {
+		case LINKTYPE_ETHERNET:
+			return LINKTYPE_ETHERNET;
+		case LINKTYPE_LINUX_SLL:
+			return LINKTYPE_LINUX_SLL;
+		case DLT_RAW:
+		case LINKTYPE_RAW:
+		case LINKTYPE_IPV4:
+		case LINKTYPE_IPV6:
+			return DLT_RAW;
+		default:
+			return -1;
+		}
+	}
+}
@@ -21,21 +21,14 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
-import java.math.RoundingMode;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.sql.Timestamp;
-import java.text.DecimalFormat;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 
-import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
@@ -56,18 +49,13 @@ import org.pcap4j.packet.namednumber.ProtocolFamily;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.att.aro.core.commandline.IExternalProcessRunner;
-import com.att.aro.core.exception.TsharkException;
 import com.att.aro.core.packetreader.IPacketListener;
 import com.att.aro.core.packetreader.IPacketReader;
-import com.att.aro.core.packetreader.model.pcapng.RawPacketData;
 import com.att.aro.core.packetreader.pojo.IPPacket;
 import com.att.aro.core.packetreader.pojo.TCPPacket;
 import com.att.aro.core.packetreader.pojo.UDPPacket;
 import com.att.aro.core.util.StringParse;
-import com.att.aro.core.util.TSharkConfirmationImpl;
 import com.att.aro.core.util.Util;
-import com.google.gson.Gson;
-import com.google.gson.stream.JsonReader;
 
 import lombok.Data;
 
@@ -75,8 +63,6 @@ import lombok.Data;
 public class PacketReaderLibraryImpl implements IPacketReader {
 	private static final Logger LOGGER = LogManager.getLogger(PacketReaderLibraryImpl.class);
 
-	private static final Random RANDOM = new Random();
-	private static DataLinkType lastDataLinkType;
 	private boolean existNativeLib = false;
 
 
@@ -107,10 +93,11 @@ public class PacketReaderLibraryImpl implements IPacketReader {
 		}
 
 		long start = System.currentTimeMillis();
-		// Update system property org.pcap4j.af.inet6 to correct value based on original OS which captured pcap/pcapng file
-		identifyOSInfo(packetfile);
 
 		if (fileDetails.isPcap) {
+			// Update system property org.pcap4j.af.inet6 to correct value based on original OS which captured pcap file
+			identifyOSInfo(packetfile);
+
 			PcapHandle handle = null;
 			try {
 				handle = Pcaps.openOffline(packetfile);
@@ -149,11 +136,6 @@ public class PacketReaderLibraryImpl implements IPacketReader {
 	        	handle.close();
 	        }
 		} else {
-			TSharkConfirmationImpl tsharkConfirmation = new TSharkConfirmationImpl(externalProcessRunner);
-			if (!tsharkConfirmation.checkTsharkVersion()) {
-				throw new TsharkException("Wireshark is either not installed on your machine or its not in your path.");
-			}
-
 			handlePCAPNGFile(packetfile, listener);
 		}
 
@@ -267,7 +249,15 @@ public class PacketReaderLibraryImpl implements IPacketReader {
 		LOGGER.debug("OS Info for Packet Reader: " + result);
 
 		String osInfo = StringParse.findLabeledDataFromString("Capture oper-sys", ":", result);
-		LOGGER.error("OS info: " + osInfo);
+		updateAfInet6(osInfo);
+	}
+
+	/**
+	 * Update pcap4j system property "org.pcap4j.af.inet6" for the OS which captured the packets
+	 * @param osInfo name of the capturing OS, ignored when blank
+	 */
+	private void updateAfInet6(String osInfo) {
+		LOGGER.info("OS info: " + osInfo);
 
 		if (StringUtils.isNotBlank(osInfo)) {
 			int af_inet6_value = 23; // Default value for all other OS
@@ -326,100 +316,63 @@ public class PacketReaderLibraryImpl implements IPacketReader {
 	}
 
 	/**
-	 * Process PCAPNG file using Wireshark's tool "tshark"
+	 * Process PCAPNG file by reading its blocks directly, see {@link PcapngBlockReader}
 	 * @param packetfile
 	 * @param listener
 	 */
 	private void handlePCAPNGFile(String packetfile, IPacketListener listener) {
-		File tempFile = null;
+		Set<DataLinkType> nextDataLinkTypesSet = getDataLinkTypes();
+		int[] counts = new int[2];
 		try {
-	        // Write content data (json file) to a temporary file to enable reading json entry in a streaming fashion
-			String[] tsharkCmds = Util.getParentAndCommand(Util.getTshark());
-            tempFile = File.createTempFile("temp" + RANDOM.nextInt(), ".json");
-            String cmd = String.format("%s -r \"%s\" -x -T json -j \"frame\" > \"%s\"", tsharkCmds[1], packetfile, tempFile.getAbsolutePath());
-            LOGGER.info("Exporting raw packet data to external path " + tempFile.getAbsolutePath() + " for pcapng file " + packetfile + " with command: " + cmd);
-
-            String result = externalProcessRunner.executeCmd((tsharkCmds[0] != null) ? new File(tsharkCmds[0]) : null, cmd, true , true);
-            LOGGER.info("Export result: " + result);
-
-            readPcapNGJson(tempFile.getAbsolutePath(), listener);
-        } catch (Exception e) {
-            LOGGER.error("Something went wrong while processing pcapng file " + packetfile, e);
-        } finally {
-            if (tempFile != null && !tempFile.delete()) {
-                tempFile.deleteOnExit();
-            }
-        }
-	}
-
-	/**
-	 * Read PCAPNG json file generated by tshark to read frame's raw data and timestamp, and process it as VO packet
-	 * @param path
-	 * @param listener
-	 * @throws IOException
-	 */
-	private void readPcapNGJson(String path, IPacketListener listener) throws IOException {
-		try (
-			InputStream inputStream = Files.newInputStream(Paths.get(path));
-			JsonReader reader = new JsonReader(new InputStreamReader(inputStream));
-	    ) {
-			Gson gson = new Gson();
-	        reader.beginArray();
-	        Set<DataLinkType> nextDataLinkTypesSet = getDataLinkTypes();
-	        int currentPacketNumber = 0;
-			int totalPacketReads = 0;
-			lastDataLinkType = DataLinkType.EN10MB;
-			DecimalFormat df = new DecimalFormat("#.######");
-			df.setRoundingMode(RoundingMode.HALF_UP);
-
-	        while (reader.hasNext()) {
-	        	try {
-		        	++currentPacketNumber;
-		        	RawPacketData pcapngRawDataPacket = gson.fromJson(reader, RawPacketData.class);
-		        	
-		        	Double time = pcapngRawDataPacket.getSource().getLayers().getFrame().getEpochTimewithMicrosecondPrecision();
-		        	time = Double.valueOf(df.format(time));
-		        	// Convert timestamp to seconds and microseconds
-		        	long seconds = time.longValue();
-		        	long microseconds = (long) ((time - seconds) * 1000000);
-	
-		        	// Create Pcap4j packet object
-		        	String rawHexData = String.valueOf(pcapngRawDataPacket.getSource().getLayers().getRawAttributesList().get(0));
-		        	byte[] bytes = Hex.decodeHex(rawHexData.toCharArray());
-		        	Packet pcap4jPacket = createPcap4jPacket(bytes, nextDataLinkTypesSet, currentPacketNumber);
-
-		        	// create and process VO packet 
-		        	if (pcap4jPacket != null) {
-		        		com.att.aro.core.packetreader.pojo.Packet packet = translatePcap4jPacket(seconds, microseconds, pcap4jPacket);
-		        		++totalPacketReads;
-		        		listener.packetArrived(null, packet);
-		        	}
-	        	} catch (Exception ex) {
-	        		LOGGER.debug("Error while reading packet number " + currentPacketNumber, ex);
-	        	}
-	        }
-
-	        LOGGER.info(String.format("Finished reading total %d packets out of %d packets for pcap file %s",
-					totalPacketReads, currentPacketNumber, path));
+			PcapngBlockReader.read(packetfile, new PcapngBlockReader.FrameListener() {
+				@Override
+				public void sectionStarted(String os) {
+					// The section header carries the capturing OS, same as reported by capinfos
+					updateAfInet6(os);
+				}
 
-	        reader.endArray();
-	    }
+				@Override
+				public void frameArrived(long seconds, long microseconds, int linkType, byte[] data) {
+					int currentPacketNumber = ++counts[0];
+					try {
+						// Try the link type of the capturing interface first
+						Packet pcap4jPacket = createPcap4jPacket(data, DataLinkType.getInstance(linkType), nextDataLinkTypesSet,
+								currentPacketNumber);
+
+						// create and process VO packet
+						if (pcap4jPacket != null) {
+							com.att.aro.core.packetreader.pojo.Packet packet = translatePcap4jPacket(seconds, microseconds, pcap4jPacket);
+							++counts[1];
+							listener.packetArrived(null, packet);
+						}
+					} catch (Exception ex) {
+						LOGGER.debug("Error while reading packet number " + currentPacketNumber, ex);
+					}
+				}
+			});
+			LOGGER.info(String.format("Finished reading total %d packets out of %d packets for pcapng file %s",
+					counts[1], counts[0], packetfile));
+		} catch (Exception e) {
+			LOGGER.error("Something went wrong while processing pcapng file " + packetfile, e);
+		}
 	}
 
 	/**
 	 * Create pcap4j packet using PacketFactory by trying most used DataLink Types in practice
 	 * @param data
+	 * @param firstDataLinkType datalink type tried first
 	 * @param nextDataLinkTypesMap
 	 * @return
 	 */
-	private Packet createPcap4jPacket(byte[] data, Set<DataLinkType> nextDataLinkTypesSet, int currentPacketNumber) {
+	private Packet createPcap4jPacket(byte[] data, DataLinkType firstDataLinkType, Set<DataLinkType> nextDataLinkTypesSet,
+			int currentPacketNumber) {
 		Packet packet = null;
 		boolean isValidPacket = false;
-		DataLinkType saveLastDataLinkType = lastDataLinkType;
-		DataLinkType currentDataLinkType = lastDataLinkType;
+		DataLinkType saveLastDataLinkType = firstDataLinkType;
+		DataLinkType currentDataLinkType = firstDataLinkType;
 
 		Iterator<DataLinkType> dataLinkTypesIterator = nextDataLinkTypesSet.iterator();
-		// Try the last datalink type first. Run for every other datalink type until we find a correct one.
+		// Try the first datalink type first. Run for every other datalink type until we find a correct one.
 		do {
 			packet = PacketFactories.getFactory(Packet.class, DataLinkType.class).newInstance(data, 0, data.length, currentDataLinkType);
 			
@@ -430,7 +383,6 @@ public class PacketReaderLibraryImpl implements IPacketReader {
 				!(packet.getPayload() instanceof UnknownPacket)) {
 
 				isValidPacket = true;
-				lastDataLinkType = currentDataLinkType;
 				break;
 			}
 
@@ -73,10 +73,15 @@ public class PacketServiceImpl implements IPacketService {
 	 */
 	@Override
 	public Packet createPacketFromPcap(int datalink, long seconds, long microSeconds, int len, byte[] data, String pcapfile) {
+		return createPacketFromPcap(datalink, seconds, microSeconds, len, ByteBuffer.wrap(data), pcapfile);
+	}
+
+	@Override
+	public Packet createPacketFromPcap(int datalink, long seconds, long microSeconds, int len, ByteBuffer data, String pcapfile) {
 		// Determine network protocol
 		short network = 0;
 		int hdrLen = 0;
-		ByteBuffer bytes = ByteBuffer.wrap(data);
+		ByteBuffer bytes = data;
 		try {
 			switch (datalink) {
 			case DLT_RAW: // Raw IP
@@ -197,16 +202,16 @@ public class PacketServiceImpl implements IPacketService {
      * @param pair Custom tuple object to store and update Total extension headers length and upper layer protocol
      * @return
      */
-	private void calculateLengthOfExtensionHeaders(byte[] data, int start, Pair pair) {
-		if (start < data.length - 1) {
+	private void calculateLengthOfExtensionHeaders(ByteBuffer data, int start, Pair pair) {
+		if (start < data.limit() - 1) {
 	        switch (pair.protocol) {
 	            case 0: // Hop by Hop Options Header
 	            case 43: // Routing Header
 	            case 51: // Authentication Header
 	            case 60: // Destination Options Header
-	                int extensionHeaderLength = (pair.protocol == 51 ? (data[start + 1] + 2) * 4 : (data[start + 1] * 8) + 8);
+	                int extensionHeaderLength = (pair.protocol == 51 ? (data.get(start + 1) + 2) * 4 : (data.get(start + 1) * 8) + 8);
 	                pair.extensionHeadersLength += extensionHeaderLength;
-	                pair.protocol = data[start];
+	                pair.protocol = data.get(start);
 	                calculateLengthOfExtensionHeaders(data, start + extensionHeaderLength, pair);
 	                break;
 	            case 59: // No Next header. This signifies that there exists nothing after the corresponding header
@@ -254,12 +259,17 @@ public class PacketServiceImpl implements IPacketService {
 	 */
 	@Override
 	public Packet createPacket(short network, long seconds, long microSeconds, int len, int datalinkHdrLen, byte[] data) {
+		return createPacket(network, seconds, microSeconds, len, datalinkHdrLen, ByteBuffer.wrap(data));
+	}
+
+	@Override
+	public Packet createPacket(short network, long seconds, long microSeconds, int len, int datalinkHdrLen, ByteBuffer data) {
 		Packet packet = null;
 		// Minimum IP header length is 20 bytes
-		ByteBuffer bytes = ByteBuffer.wrap(data);
-		if (network == IPV6 && data.length >= datalinkHdrLen + 40) {
+		ByteBuffer bytes = data;
+		if (network == IPV6 && data.limit() >= datalinkHdrLen + 40) {
 			// Determine IPV6 protocol
-			Pair pair = new Pair(data[datalinkHdrLen + 6], 0);
+			Pair pair = new Pair(data.get(datalinkHdrLen + 6), 0);
 			calculateLengthOfExtensionHeaders(data, datalinkHdrLen + 40, pair);
 
 			// Create IPPacket
@@ -274,28 +284,28 @@ public class PacketServiceImpl implements IPacketService {
 				packet = new IPPacket(seconds, microSeconds, len, datalinkHdrLen, pair.protocol, pair.extensionHeadersLength, data);
 				break;
 			}
-		} else if (network == IPV4 && data.length >= datalinkHdrLen + 20) {
+		} else if (network == IPV4 && data.limit() >= datalinkHdrLen + 20) {
 
 			byte iphlen = (byte) ((bytes.get(datalinkHdrLen) & 0x0f) << 2);
-			if (data.length < datalinkHdrLen + iphlen) {
+			if (data.limit() < datalinkHdrLen + iphlen) {
 				// Truncated packet
-				packet = new Packet(seconds, microSeconds, len, datalinkHdrLen, data);
+				packet = Packet.ofBuffer(seconds, microSeconds, len, datalinkHdrLen, data);
 			} else {
 				// Determine IP protocol
 				byte protocol = bytes.get(datalinkHdrLen + 9);
 				switch (protocol) {
 				case 6: // TCP
-					if (data.length >= datalinkHdrLen + iphlen + 20) {
+					if (data.limit() >= datalinkHdrLen + iphlen + 20) {
 						packet = new TCPPacket(seconds, microSeconds, len, datalinkHdrLen, null, null, data);
 					} else {
-						packet = new Packet(seconds, microSeconds, len, datalinkHdrLen, data);
+						packet = Packet.ofBuffer(seconds, microSeconds, len, datalinkHdrLen, data);
 					}
 					break;
 				case 17: // UDP
-					if (data.length >= datalinkHdrLen + iphlen + 6) {
+					if (data.limit() >= datalinkHdrLen + iphlen + 6) {
 						packet = createUDPPacket(seconds, microSeconds, len, datalinkHdrLen, null, null, data);
 					} else {
-						packet = new Packet(seconds, microSeconds, len, datalinkHdrLen, data);
+						packet = Packet.ofBuffer(seconds, microSeconds, len, datalinkHdrLen, data);
 					}
 					break;
 				default:
@@ -303,12 +313,12 @@ public class PacketServiceImpl implements IPacketService {
 				}
 			}
 		} else {
-			packet = new Packet(seconds, microSeconds, len, datalinkHdrLen, data);
+			packet = Packet.ofBuffer(seconds, microSeconds, len, datalinkHdrLen, data);
 		}
 		return packet;
 	}
 
-	private Packet createUDPPacket(long seconds, long microSeconds, int len, int datalinkHdrLen, Byte protocol, Integer extensionHeadersLength, byte[] data) {
+	private Packet createUDPPacket(long seconds, long microSeconds, int len, int datalinkHdrLen, Byte protocol, Integer extensionHeadersLength, ByteBuffer data) {
 		UDPPacket packet = new UDPPacket(seconds, microSeconds, len, datalinkHdrLen, protocol, extensionHeadersLength, data);
 		if (packet.isDNSPacket()) {
 			DomainNameSystem dns = domainparser.parseDomainName(packet);
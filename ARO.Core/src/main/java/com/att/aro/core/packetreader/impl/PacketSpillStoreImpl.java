@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetreader.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.att.aro.core.packetreader.IPacketSpillStore;
+
+/**
+ * Append-only temporary file holding packet bytes that no longer fit in the
+ * heap budget of the trace reader. Writes come from the single ingest thread.
+ * Reads are positional reads of the file channel and take no lock, so the
+ * analysis threads read packets at the same time; packets read in order are
+ * served by the page cache of the OS.
+ * <p>
+ * The spilled packets refer to the store, so the store lives as long as the
+ * packets of the analysis result. The file is removed when the store is
+ * closed, or once the store is garbage collected with the last of its packets.
+ * </p>
+ */
+public class PacketSpillStoreImpl implements IPacketSpillStore {
+	private static final Logger LOGGER = LogManager.getLogger(PacketSpillStoreImpl.class.getName());
+
+	/**
+	 * Spill files of the stores not closed yet
+	 */
+	private static final Set<SpillFile> OPEN_FILES = ConcurrentHashMap.newKeySet();
+	private static final ReferenceQueue<PacketSpillStoreImpl> COLLECTED = new ReferenceQueue<>();
+
+	/**
+	 * The file of a store, closed once the store is garbage collected. It must
+	 * not refer to the store.
+	 */
+	private static final class SpillFile extends PhantomReference<PacketSpillStoreImpl> {
+		private final File file;
+		private final RandomAccessFile raf;
+
+		private SpillFile(PacketSpillStoreImpl store, File file, RandomAccessFile raf) {
+			super(store, COLLECTED);
+			this.file = file;
+			this.raf = raf;
+		}
+
+		private void close() throws IOException {
+			if (!OPEN_FILES.remove(this)) {
+				return;
+			}
+			try {
+				raf.close();
+			} finally {
+				if (!file.delete()) {
+					LOGGER.debug("Unable to delete spill file " + file.getAbsolutePath());
+				}
+			}
+		}
+	}
+
+	private final SpillFile spillFile;
+	private final FileChannel channel;
+	/**
+	 * End of the bytes written, set once they are in the file
+	 */
+	private volatile long position = 0;
+
+	public PacketSpillStoreImpl() throws IOException {
+		closeCollected();
+		File file = File.createTempFile("vo_packets", ".spill");
+		file.deleteOnExit();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		channel = raf.getChannel();
+		spillFile = new SpillFile(this, file, raf);
+		OPEN_FILES.add(spillFile);
+		LOGGER.info("Spilling packet data to " + file.getAbsolutePath());
+	}
+
+	/**
+	 * Closes the files of the stores that were garbage collected
+	 */
+	static void closeCollected() {
+		for (Reference<? extends PacketSpillStoreImpl> collected = COLLECTED.poll(); collected != null; collected = COLLECTED.poll()) {
+			try {
+				((SpillFile) collected).close();
+			} catch (IOException e) {
+				LOGGER.debug("Failed to close spill file", e);
+			}
+		}
+	}
+
+	@Override
+	public synchronized long write(byte[] data) throws IOException {
+		long offset = position;
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, offset + buffer.position());
+		}
+		position = offset + data.length;
+		return offset;
+	}
+
+	@Override
+	public byte[] read(long offset, int length) throws IOException {
+		long end = position;
+		if (offset < 0 || length < 0 || offset + length > end) {
+			throw new IOException("Spill file range " + offset + "+" + length + " beyond " + end);
+		}
+		byte[] data = new byte[length];
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of spill file at " + (offset + buffer.position()));
+			}
+		}
+		return data;
+	}
+
+	@Override
+	public long size() {
+		return position;
+	}
+
+	File getFile() {
+		return spillFile.file;
+	}
+
+	/**
+	 * @return the reference that is enqueued once the store is garbage collected
+	 */
+	Reference<PacketSpillStoreImpl> getCollectedReference() {
+		return spillFile;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		spillFile.close();
+	}
+}
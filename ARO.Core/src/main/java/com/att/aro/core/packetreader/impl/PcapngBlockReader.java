@@ -0,0 +1,332 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetreader.impl;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * Reads the blocks of a pcapng file through memory mapped windows.
+ * <p>
+ * Section Header, Interface Description, Enhanced Packet, Simple Packet and the
+ * obsolete Packet blocks are decoded, every other block type is skipped. Each
+ * interface keeps its own link type, timestamp resolution and offset.
+ * </p>
+ *
+ * @see <a href=
+ *      "https://pcapng.github.io/pcapng/draft-tuexen-opsawg-pcapng.html">PCAPNG
+ *      file format</a>
+ */
+class PcapngBlockReader {
+	private static final Logger LOGGER = LogManager.getLogger(PcapngBlockReader.class);
+
+	static final int SECTION_HEADER_BLOCK = 0x0A0D0D0A;
+	static final int INTERFACE_DESCRIPTION_BLOCK = 0x00000001;
+	static final int PACKET_BLOCK = 0x00000002;
+	static final int SIMPLE_PACKET_BLOCK = 0x00000003;
+	static final int ENHANCED_PACKET_BLOCK = 0x00000006;
+	static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+
+	private static final int OPT_END_OF_OPT = 0;
+	private static final int SHB_OS = 3;
+	private static final int IF_TSRESOL = 9;
+	private static final int IF_TSOFFSET = 14;
+
+	/**
+	 * Size of the mapped window, a block larger than this is mapped on its own
+	 */
+	private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * Receives the sections and frames of a pcapng file in file order
+	 */
+	interface FrameListener {
+		/**
+		 * A new section starts, interfaces of the previous section no longer apply
+		 *
+		 * @param os
+		 *            value of the shb_os option, null if not present
+		 */
+		void sectionStarted(String os);
+
+		void frameArrived(long seconds, long microseconds, int linkType, byte[] data);
+	}
+
+	private static class Interface {
+		private final int linkType;
+		private final int snapLength;
+		private long unitsPerSecond = 1_000_000;
+		private long offsetSeconds;
+
+		Interface(int linkType, int snapLength) {
+			this.linkType = linkType;
+			this.snapLength = snapLength;
+		}
+	}
+
+	private final FileChannel channel;
+	private final long fileSize;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private ByteOrder order = ByteOrder.BIG_ENDIAN;
+	private final List<Interface> interfaces = new ArrayList<>();
+	private long lastSeconds;
+	private long lastMicroseconds;
+
+	private PcapngBlockReader(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.fileSize = channel.size();
+	}
+
+	/**
+	 * Reads all blocks of the file
+	 *
+	 * @return number of frames handed to the listener
+	 */
+	static int read(String packetfile, FrameListener listener) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(packetfile, "r"); FileChannel channel = file.getChannel()) {
+			return new PcapngBlockReader(channel).readBlocks(listener);
+		}
+	}
+
+	private int readBlocks(FrameListener listener) throws IOException {
+		int frames = 0;
+		long position = 0;
+		while (position + 12 <= fileSize) {
+			map(position, 12);
+			int blockType = getInt(position);
+			if (blockType == SECTION_HEADER_BLOCK) {
+				int magic = getInt(position + 8);
+				if (magic != BYTE_ORDER_MAGIC) {
+					order = order == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+					if (getInt(position + 8) != BYTE_ORDER_MAGIC) {
+						LOGGER.warn("Invalid section header at offset " + position);
+						break;
+					}
+				}
+			}
+			long blockLength = getInt(position + 4) & 0xFFFFFFFFL;
+			if (blockLength < 12 || blockLength % 4 != 0 || position + blockLength > fileSize) {
+				LOGGER.warn(String.format("Truncated or invalid block of length %d at offset %d", blockLength, position));
+				break;
+			}
+			map(position, blockLength);
+			switch (blockType) {
+			case SECTION_HEADER_BLOCK:
+				interfaces.clear();
+				listener.sectionStarted(readSectionOs(position, blockLength));
+				break;
+			case INTERFACE_DESCRIPTION_BLOCK:
+				interfaces.add(readInterface(position, blockLength));
+				break;
+			case ENHANCED_PACKET_BLOCK:
+				frames += readEnhancedPacket(position, blockLength, listener);
+				break;
+			case SIMPLE_PACKET_BLOCK:
+				frames += readSimplePacket(position, blockLength, listener);
+				break;
+			case PACKET_BLOCK:
+				frames += readPacket(position, blockLength, listener);
+				break;
+			default:
+				break;
+			}
+			position += blockLength;
+		}
+		return frames;
+	}
+
+	/**
+	 * Maps a window covering [position, position + length) unless the current
+	 * window already does.
+	 */
+	private void map(long position, long length) throws IOException {
+		if (window != null && position >= windowStart && position + length <= windowStart + window.capacity()) {
+			return;
+		}
+		long size = Math.min(Math.max(WINDOW_SIZE, length), fileSize - position);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		windowStart = position;
+	}
+
+	private int getInt(long position) {
+		int value = window.getInt((int) (position - windowStart));
+		return order == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value);
+	}
+
+	private int getUnsignedShort(long position) {
+		short value = window.getShort((int) (position - windowStart));
+		return (order == ByteOrder.BIG_ENDIAN ? value : Short.reverseBytes(value)) & 0xFFFF;
+	}
+
+	private long getLong(long position) {
+		long value = window.getLong((int) (position - windowStart));
+		return order == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+	}
+
+	private byte[] getBytes(long position, int length) {
+		byte[] data = new byte[length];
+		ByteBuffer view = window.duplicate();
+		view.position((int) (position - windowStart));
+		view.get(data);
+		return data;
+	}
+
+	/**
+	 * Section header: magic(4), major(2), minor(2), section length(8), options
+	 */
+	private String readSectionOs(long position, long blockLength) {
+		String[] os = new String[1];
+		readOptions(position + 24, position + blockLength - 4, (code, start, length) -> {
+			if (code == SHB_OS) {
+				os[0] = new String(getBytes(start, length), StandardCharsets.UTF_8);
+			}
+		});
+		return os[0];
+	}
+
+	/**
+	 * Interface description: link type(2), reserved(2), snap length(4), options
+	 */
+	private Interface readInterface(long position, long blockLength) {
+		Interface networkInterface = new Interface(getUnsignedShort(position + 8), getInt(position + 12));
+		readOptions(position + 16, position + blockLength - 4, (code, start, length) -> {
+			if (code == IF_TSRESOL && length >= 1) {
+				int resolution = window.get((int) (start - windowStart)) & 0xFF;
+				int exponent = resolution & 0x7F;
+				if ((resolution & 0x80) == 0) {
+					networkInterface.unitsPerSecond = exponent <= 18 ? pow10(exponent) : 1_000_000;
+				} else {
+					networkInterface.unitsPerSecond = exponent <= 62 ? 1L << exponent : 1_000_000;
+				}
+			} else if (code == IF_TSOFFSET && length >= 8) {
+				networkInterface.offsetSeconds = getLong(start);
+			}
+		});
+		return networkInterface;
+	}
+
+	/**
+	 * Enhanced packet: interface id(4), timestamp high(4), timestamp low(4),
+	 * captured length(4), original length(4), data
+	 */
+	private int readEnhancedPacket(long position, long blockLength, FrameListener listener) {
+		Interface networkInterface = getInterface(getInt(position + 8));
+		long timestamp = ((getInt(position + 12) & 0xFFFFFFFFL) << 32) | (getInt(position + 16) & 0xFFFFFFFFL);
+		long capturedLength = getInt(position + 20) & 0xFFFFFFFFL;
+		if (networkInterface == null || capturedLength > blockLength - 32) {
+			LOGGER.debug("Skipping invalid enhanced packet block at offset " + position);
+			return 0;
+		}
+		return frameArrived(networkInterface, timestamp, getBytes(position + 28, (int) capturedLength), listener);
+	}
+
+	/**
+	 * Simple packet: original length(4), data. It belongs to the first interface
+	 * and has no timestamp, the timestamp of the preceding frame is used.
+	 */
+	private int readSimplePacket(long position, long blockLength, FrameListener listener) {
+		Interface networkInterface = getInterface(0);
+		if (networkInterface == null) {
+			LOGGER.debug("Skipping simple packet block without interface at offset " + position);
+			return 0;
+		}
+		long capturedLength = Math.min(getInt(position + 8) & 0xFFFFFFFFL, blockLength - 16);
+		if (networkInterface.snapLength > 0) {
+			capturedLength = Math.min(capturedLength, networkInterface.snapLength);
+		}
+		listener.frameArrived(lastSeconds, lastMicroseconds, networkInterface.linkType,
+				getBytes(position + 12, (int) capturedLength));
+		return 1;
+	}
+
+	/**
+	 * Obsolete packet block: interface id(2), drops count(2), timestamp high(4),
+	 * timestamp low(4), captured length(4), original length(4), data
+	 */
+	private int readPacket(long position, long blockLength, FrameListener listener) {
+		Interface networkInterface = getInterface(getUnsignedShort(position + 8));
+		long timestamp = ((getInt(position + 12) & 0xFFFFFFFFL) << 32) | (getInt(position + 16) & 0xFFFFFFFFL);
+		long capturedLength = getInt(position + 20) & 0xFFFFFFFFL;
+		if (networkInterface == null || capturedLength > blockLength - 32) {
+			LOGGER.debug("Skipping invalid packet block at offset " + position);
+			return 0;
+		}
+		return frameArrived(networkInterface, timestamp, getBytes(position + 28, (int) capturedLength), listener);
+	}
+
+	private int frameArrived(Interface networkInterface, long timestamp, byte[] data, FrameListener listener) {
+		long units = networkInterface.unitsPerSecond;
+		long seconds = Long.divideUnsigned(timestamp, units);
+		long fraction = Long.remainderUnsigned(timestamp, units);
+		// round to microseconds, as the timestamps are kept in microsecond precision
+		long microseconds;
+		if (units <= 1_000_000_000_000L) {
+			microseconds = (fraction * 1_000_000 + units / 2) / units;
+		} else {
+			microseconds = Math.round(fraction * 1_000_000d / units);
+		}
+		if (microseconds >= 1_000_000) {
+			seconds++;
+			microseconds -= 1_000_000;
+		}
+		lastSeconds = seconds + networkInterface.offsetSeconds;
+		lastMicroseconds = microseconds;
+		listener.frameArrived(lastSeconds, lastMicroseconds, networkInterface.linkType, data);
+		return 1;
+	}
+
+	private Interface getInterface(int interfaceId) {
+		return interfaceId >= 0 && interfaceId < interfaces.size() ? interfaces.get(interfaceId) : null;
+	}
+
+	private interface OptionHandler {
+		void option(int code, long start, int length);
+	}
+
+	/**
+	 * Options are code(2), length(2) and a value padded to 32 bits
+	 */
+	private void readOptions(long position, long end, OptionHandler handler) {
+		while (position + 4 <= end) {
+			int code = getUnsignedShort(position);
+			int length = getUnsignedShort(position + 2);
+			if (code == OPT_END_OF_OPT || position + 4 + length > end) {
+				return;
+			}
+			handler.option(code, position + 4, length);
+			position += 4 + ((length + 3) & ~3);
+		}
+	}
+
+	private static long pow10(int exponent) {
+		long value = 1;
+		for (int index = 0; index < exponent; index++) {
+			value *= 10;
+		}
+		return value;
+	}
+}
@@ -109,10 +109,17 @@ public class IPPacket extends Packet implements Serializable {
 	 * Creates a new instance of the IPPacket class.
 	 */
 	public IPPacket(long seconds, long microSeconds, int len, int datalinkHdrLen, Byte protocol, Integer extensionHeadersLength, byte[] data) {
+		this(seconds, microSeconds, len, datalinkHdrLen, protocol, extensionHeadersLength, ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Creates a new instance of the IPPacket class, the headers are read from the buffer in place.
+	 */
+	public IPPacket(long seconds, long microSeconds, int len, int datalinkHdrLen, Byte protocol, Integer extensionHeadersLength, ByteBuffer data) {
 		super(seconds, microSeconds, len, datalinkHdrLen, data);
 
 		// Parse data
-		ByteBuffer bytes = ByteBuffer.wrap(data);
+		ByteBuffer bytes = data.duplicate();
 		int headerOffset = super.getDataOffset();
 
 		// check for IPv4 or IPv6
@@ -123,7 +130,7 @@ public class IPPacket extends Packet implements Serializable {
 			hlen = 40;
 			if (extensionHeadersLength == null || protocol == null) {
 				this.protocol = protocol == null ? bytes.get(headerOffset + 6) : protocol;
-				extensionHeadersLength = calculateLengthOfExtensionHeaders(data, headerOffset + hlen);
+				extensionHeadersLength = calculateLengthOfExtensionHeaders(bytes, headerOffset + hlen);
 			}
 
 			packetLength = len - headerOffset;
@@ -195,17 +202,17 @@ public class IPPacket extends Packet implements Serializable {
      * @param start
      * @return Total length of extension headers present
      */
-	private int calculateLengthOfExtensionHeaders(byte[] data, int start) {
+	private int calculateLengthOfExtensionHeaders(ByteBuffer data, int start) {
 		int headerLength = 0;
 
-		if (start < data.length - 1) {
+		if (start < data.limit() - 1) {
 	        switch (protocol) {
 	            case 0: // Hop by Hop Options Header
 	            case 43: // Routing Header
 	            case 51: // Authentication Header
 	            case 60: // Destination Options Header
-	                headerLength += (protocol == 51 ? (data[start + 1] + 2) * 4 : (data[start + 1] * 8) + 8);
-	                protocol = data[start];
+	                headerLength += (protocol == 51 ? (data.get(start + 1) + 2) * 4 : (data.get(start + 1) * 8) + 8);
+	                protocol = data.get(start);
 	                headerLength += calculateLengthOfExtensionHeaders(data, start + headerLength);
 	                break;
 	            case 59: // No Next header. This signifies that there exists nothing after the corresponding header
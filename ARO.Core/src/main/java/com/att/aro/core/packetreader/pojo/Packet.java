@@ -16,11 +16,18 @@
 
 package com.att.aro.core.packetreader.pojo;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 import org.pcap4j.packet.IpV4Packet;
 import org.pcap4j.packet.IpV6Packet;
 
+import com.att.aro.core.exception.ARORuntimeException;
+import com.att.aro.core.packetreader.IPacketSpillStore;
+
 /**
  * generic packet data
  */
@@ -33,6 +40,12 @@ public class Packet implements Serializable {
 	private int len;
 	private int dataOffset;
 	private Packet nextPacketInSession;
+	private transient IPacketSpillStore spillStore;
+	private long spillOffset;
+	private int spillLength;
+	private transient ByteBuffer mappedData;
+
+	private static final ThreadLocal<byte[]> COPY_BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
 
 	@Override
 	public String toString() {
@@ -70,15 +83,142 @@ public class Packet implements Serializable {
 		this.data = data;
 	}
 
+	/**
+	 * Initializes a new instance of the Packet class whose data is a view into
+	 * a buffer, typically a slice of a memory mapped capture file. The data is
+	 * not copied onto the heap.
+	 * 
+	 * @param seconds The number of seconds for the packet.
+	 * @param microSeconds The number of microseconds for the packet.
+	 * @param len The length of the packet (in bytes) including both the header and the data.
+	 * @param datalinkHdrLen The datalink for the packet.
+	 * @param data The packet data, from index 0 to its limit.
+	 */
+	protected Packet(long seconds, long microSeconds, int len, int datalinkHdrLen, ByteBuffer data) {
+		this(seconds, microSeconds, len, datalinkHdrLen, (byte[]) null);
+		if (data.hasArray() && data.arrayOffset() == 0 && data.limit() == data.array().length) {
+			this.data = data.array();
+		} else {
+			this.mappedData = data.duplicate();
+		}
+	}
+
+	/**
+	 * Creates a packet whose data is a view into the buffer, see
+	 * {@link #Packet(long, long, int, int, ByteBuffer)}.
+	 */
+	public static Packet ofBuffer(long seconds, long microSeconds, int len, int datalinkHdrLen, ByteBuffer data) {
+		return new Packet(seconds, microSeconds, len, datalinkHdrLen, data);
+	}
+
 	/**
 	 * Gets the data portion of the packet.
 	 * 
 	 * @return The packet data.
 	 */
 	public byte[] getData() {
+		if (data == null && mappedData != null) {
+			// a copy on every call, use getDataBuffer or writeData to read it in place
+			byte[] copy = new byte[mappedData.limit()];
+			mappedData.duplicate().get(copy);
+			return copy;
+		}
+		if (data == null && spillStore != null) {
+			try {
+				return spillStore.read(spillOffset, spillLength);
+			} catch (IOException e) {
+				throw new ARORuntimeException("Failed to read spilled packet data", e);
+			}
+		}
 		return data;
 	}
 
+	/**
+	 * Gets the data portion of the packet without copying it when possible.
+	 * 
+	 * @return A read only buffer over the packet data, positioned at 0.
+	 */
+	public ByteBuffer getDataBuffer() {
+		if (data == null && mappedData != null) {
+			return mappedData.asReadOnlyBuffer();
+		}
+		byte[] bytes = getData();
+		return bytes == null ? null : ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return The length of the data portion of the packet, 0 if there is none.
+	 */
+	public int getDataLength() {
+		if (data != null) {
+			return data.length;
+		} else if (mappedData != null) {
+			return mappedData.limit();
+		} else if (spillStore != null) {
+			return spillLength;
+		}
+		return 0;
+	}
+
+	/**
+	 * Writes part of the data portion of the packet to a stream.
+	 * 
+	 * @param out The stream receiving the bytes.
+	 * @param offset The offset into the packet data.
+	 * @param length The number of bytes to write.
+	 * @throws IOException
+	 */
+	public void writeData(OutputStream out, int offset, int length) throws IOException {
+		if (data == null && mappedData != null) {
+			if (offset < 0 || length < 0 || offset + length > mappedData.limit()) {
+				throw new IndexOutOfBoundsException();
+			}
+			ByteBuffer source = mappedData.duplicate();
+			source.position(offset);
+			byte[] buffer = COPY_BUFFER.get();
+			while (length > 0) {
+				int count = Math.min(length, buffer.length);
+				source.get(buffer, 0, count);
+				out.write(buffer, 0, count);
+				length -= count;
+			}
+			return;
+		}
+		out.write(getData(), offset, length);
+	}
+
+	/**
+	 * @return true if the packet data is a view into a mapped file rather than the heap
+	 */
+	public boolean isMapped() {
+		return data == null && mappedData != null;
+	}
+
+	/**
+	 * Moves the data portion of the packet into the spill store and releases
+	 * the in-heap copy. Subsequent calls to {@link #getData()} read the bytes
+	 * back from the store.
+	 * 
+	 * @param store The store receiving the packet data.
+	 * @throws IOException
+	 */
+	public void spill(IPacketSpillStore store) throws IOException {
+		if (data == null || spillStore != null) {
+			return;
+		}
+		spillOffset = store.write(data);
+		spillLength = data.length;
+		spillStore = store;
+		data = null;
+	}
+
+	/**
+	 * @return true if the packet data is held by a spill store rather than the heap
+	 */
+	public boolean isSpilled() {
+		return data == null && spillStore != null;
+	}
+
 	/**
 	 * Gets the number of seconds.
 	 * 
@@ -160,6 +300,17 @@ public class Packet implements Serializable {
 
 	public void setData(byte[] data) {
 		this.data = data;
+		this.spillStore = null;
+		this.mappedData = null;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		if (isSpilled() || isMapped()) {
+			data = getData();
+			spillStore = null;
+			mappedData = null;
+		}
+		out.defaultWriteObject();
 	}
 	
 }
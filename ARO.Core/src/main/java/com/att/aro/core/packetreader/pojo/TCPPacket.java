@@ -128,11 +128,19 @@ public class TCPPacket extends IPPacket implements Serializable {
 	 * @param data An array of bytes that is the data portion of the TCP packet.
 	 */
 	public TCPPacket(long seconds, long microSeconds, int len, int datalinkHdrLen, Byte protocol, Integer extensionHeadersLength, byte[] data) {
+		this(seconds, microSeconds, len, datalinkHdrLen, protocol, extensionHeadersLength, ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Creates a new instance of the TCPPacket class, the headers are read from the buffer in place.
+	 * @param data A buffer over the data portion of the TCP packet, from index 0 to its limit.
+	 */
+	public TCPPacket(long seconds, long microSeconds, int len, int datalinkHdrLen, Byte protocol, Integer extensionHeadersLength, ByteBuffer data) {
 		super(seconds, microSeconds, len, datalinkHdrLen, protocol, extensionHeadersLength, data);
 
 		int headerOffset = super.getDataOffset();
 
-		ByteBuffer bytes = ByteBuffer.wrap(data);
+		ByteBuffer bytes = data.duplicate();
 		sourcePort = bytes.getShort(headerOffset) & 0xFFFF;
 		destinationPort = bytes.getShort(headerOffset + 2) & 0xFFFF;
 		sequenceNumber = bytes.getInt(headerOffset + 4) & 0xFFFFFFFFL;
@@ -350,7 +358,7 @@ public class TCPPacket extends IPPacket implements Serializable {
 	 */
 	private int parseSecureSocketsLayer(ByteBuffer bytes, int offset) {
 
-		if (bytes.array().length >= offset + 5) {
+		if (bytes.limit() >= offset + 5) {
 			// Check for TLS/SSL
 			bytes.position(offset);
 			byte contentType = bytes.get();
@@ -81,12 +81,19 @@ public class UDPPacket extends IPPacket implements Serializable {
 	 * Constructor
 	 */
 	public UDPPacket(long seconds, long microSeconds, int len, int datalinkHdrLen, Byte protocol, Integer extensionHeadersLength, byte[] data) {
+		this(seconds, microSeconds, len, datalinkHdrLen, protocol, extensionHeadersLength, ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Constructor, the header is read from the buffer in place
+	 */
+	public UDPPacket(long seconds, long microSeconds, int len, int datalinkHdrLen, Byte protocol, Integer extensionHeadersLength, ByteBuffer data) {
 		super(seconds, microSeconds, len, datalinkHdrLen, protocol, extensionHeadersLength, data);
 
 		int headerOffset = super.getDataOffset();
 		dataOffset = headerOffset + 8;
 
-		ByteBuffer bytes = ByteBuffer.wrap(data);
+		ByteBuffer bytes = data.duplicate();
 		sourcePort = bytes.getShort(headerOffset) & 0xFFFF;
 		destinationPort = bytes.getShort(headerOffset + 2) & 0xFFFF;
 		packetLength = bytes.getShort(headerOffset + 4) & 0xFFFF;
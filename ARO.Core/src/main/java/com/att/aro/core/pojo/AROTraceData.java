@@ -45,8 +45,12 @@ public class AROTraceData {
 	private List<AbstractBestPracticeResult> bestPracticeResults;
 	private PacketAnalyzerResult analyzerResult;
 	private String errorDescription = "";
-	private IMetaDataHelper metaDataHelper = SpringContextUtil.getInstance().getContext()
-			.getBean(IMetaDataHelper.class);
+	/**
+	 * reads the metadata of the trace, the one of the application context when
+	 * not set by the service that analyzed the trace
+	 */
+	@JsonIgnore
+	private IMetaDataHelper metaDataHelper;
 
 	/**
 	 * Returns the PacketAnalyzerResult, an object that contains the analyzed trace.
@@ -130,10 +134,18 @@ public class AROTraceData {
 		this.errorDescription = errorDescription;
 	}
 
+	@JsonIgnore
+	public void setMetaDataHelper(IMetaDataHelper metaDataHelper) {
+		this.metaDataHelper = metaDataHelper;
+	}
+
 	@JsonProperty("traceMetadata")
 	public MetaDataModel getMetaDataModel() {
 		MetaDataModel metadataModel = null;
 		if (analyzerResult != null && analyzerResult.getTraceresult() instanceof TraceDirectoryResult) {
+			if (metaDataHelper == null) {
+				metaDataHelper = SpringContextUtil.getInstance().getContext().getBean(IMetaDataHelper.class);
+			}
 			metadataModel = metaDataHelper.initMetaData(analyzerResult);
 		}
 		return (metadataModel == null ? new MetaDataModel() : metadataModel);
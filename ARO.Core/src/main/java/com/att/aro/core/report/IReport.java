@@ -16,9 +16,22 @@
 package com.att.aro.core.report;
 
 import com.att.aro.core.pojo.AROTraceData;
+import com.att.aro.core.report.pojo.ReportOptions;
 
 public interface IReport {
 
 	boolean reportGenerator(String resultFilePath,AROTraceData results);
+
+	/**
+	 * Writes the report section by section, without building it in memory
+	 *
+	 * @param resultFilePath
+	 *            the path for the output report
+	 * @param results
+	 * @param options
+	 *            sections to write and whether to write the lists of the results
+	 * @return true if report generated
+	 */
+	boolean reportGenerator(String resultFilePath, AROTraceData results, ReportOptions options);
 	
 }
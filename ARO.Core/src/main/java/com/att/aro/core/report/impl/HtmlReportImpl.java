@@ -15,10 +15,10 @@
 */
 package com.att.aro.core.report.impl;
 
-import java.io.File;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.ArrayList;
+import java.io.Writer;
 import java.util.List;
 
 import org.apache.log4j.LogManager;
@@ -38,6 +38,8 @@ import com.att.aro.core.packetanalysis.pojo.TraceDirectoryResult;
 import com.att.aro.core.packetanalysis.pojo.TraceResultType;
 import com.att.aro.core.pojo.AROTraceData;
 import com.att.aro.core.report.IReport;
+import com.att.aro.core.report.pojo.ReportOptions;
+import com.att.aro.core.report.pojo.ReportSection;
 
 public class HtmlReportImpl implements IReport {
 
@@ -49,6 +51,15 @@ public class HtmlReportImpl implements IReport {
 	@Override
 	public boolean reportGenerator(String resultFilePath,
 			AROTraceData results) {
+		return reportGenerator(resultFilePath, results, new ReportOptions());
+	}
+
+	/**
+	 * Writes the page one section at a time. The HTML report has no per packet
+	 * content, the packet arrays option does not change it.
+	 */
+	@Override
+	public boolean reportGenerator(String resultFilePath, AROTraceData results, ReportOptions options) {
 		if (results == null) {
 			return false;
 		} 
@@ -57,29 +68,33 @@ public class HtmlReportImpl implements IReport {
 		
 		List<AbstractBestPracticeResult> bpResults = results.getBestPracticeResults();
  
-		StringBuilder htmlString = new StringBuilder(200);
-		htmlString.append(getHtmlHead());
-		htmlString.append("	<body>");
-		htmlString.append(System.getProperty(lineSeperator()));
-		htmlString.append("		<table class='table'>");
-		htmlString.append(System.getProperty(lineSeperator()));
-		htmlString.append(getTableHeader(analyzerResults));
-		htmlString.append(getTraceRows(analyzerResults));
-		htmlString.append(getTimeRangeAnalysisAndStatisticRows(analyzerResults));
-		htmlString.append(getBPSummaryRows(bpResults));
-		htmlString.append("<tr><th></th><td></td></tr><tr><th>Best Practices Results</th><td></td></tr>\n");
-		htmlString.append(getBpRows(bpResults));
-		htmlString.append("		</table>");
-		htmlString.append(System.getProperty(lineSeperator()));
-		htmlString.append(System.getProperty(lineSeperator()));
-		htmlString.append("	</body>");
-		htmlString.append(System.getProperty(lineSeperator()));
-		htmlString.append("</html>");
-		try { 
-			File file = filereader.createFile(resultFilePath);
-			PrintWriter writer = new PrintWriter(file);
-			writer.println(htmlString.toString());
-			writer.close();
+		try (Writer writer = new BufferedWriter(new FileWriter(filereader.createFile(resultFilePath)))) {
+			writer.write(getHtmlHead());
+			writer.write("	<body>");
+			writer.write(System.getProperty(lineSeperator()));
+			writer.write("		<table class='table'>");
+			writer.write(System.getProperty(lineSeperator()));
+			if (options.includes(ReportSection.TRACE)) {
+				writer.write(getTableHeader(analyzerResults));
+				writer.write(getTraceRows(analyzerResults));
+			}
+			if (options.includes(ReportSection.STATISTICS)) {
+				writer.write(getTimeRangeAnalysisAndStatisticRows(analyzerResults));
+			}
+			if (options.includes(ReportSection.BEST_PRACTICES)) {
+				writer.write(getBPSummaryRows(bpResults));
+				writer.write("<tr><th></th><td></td></tr><tr><th>Best Practices Results</th><td></td></tr>\n");
+				for (AbstractBestPracticeResult bpResult : bpResults) {
+					writer.write(getBpRow(bpResult));
+				}
+			}
+			writer.write("		</table>");
+			writer.write(System.getProperty(lineSeperator()));
+			writer.write(System.getProperty(lineSeperator()));
+			writer.write("	</body>");
+			writer.write(System.getProperty(lineSeperator()));
+			writer.write("</html>");
+			writer.write(System.getProperty(lineSeperator()));
 			return true;
 		} catch (IOException e) {
 			LOGGER.info("IOException: "+e);
@@ -276,51 +291,35 @@ public class HtmlReportImpl implements IReport {
     	return builder.toString();
 	}
 
-	// gets all bp rows - name, result (pass/fail/warning/selftest)
+	// gets a bp row - name, result (pass/fail/warning/selftest)
 	// end of first table - difference in columns in 2nd table
-	private String getBpRows(List<AbstractBestPracticeResult> bpResults) {
-		ArrayList<StringBuffer> sbTemps = new ArrayList<StringBuffer>();
+	private String getBpRow(AbstractBestPracticeResult bpResult) {
 		// makes the row start tag and BP name cell
-		for (int row = 0; row < bpResults.size(); row++) {
-			StringBuffer temp = new StringBuffer(65);
-			temp.append(tableLIne()+"<tr><th rowspan=\"2\">" + 
-			"<a href =\""+ bpResults.get(row).getLearnMoreUrl()+"\" target=\"_blank\" >"+
-				bpResults.get(row).getBestPracticeType().getDescription()
-					+ "<a></th>");
-			sbTemps.add(temp);
-		}
+		StringBuilder temp = new StringBuilder(65);
+		temp.append(tableLIne()+"<tr><th rowspan=\"2\">" + 
+		"<a href =\""+ bpResult.getLearnMoreUrl()+"\" target=\"_blank\" >"+
+			bpResult.getBestPracticeType().getDescription()
+				+ "<a></th>");
 
-		// makes the cells containing test results
+		// makes the cell containing the test result
 		// cells are colored according to their results
- 
-		for (int row = 0; row < bpResults.size(); row++) {
-			StringBuffer temp = sbTemps.get(row);
-			BPResultType result = bpResults.get(row).getResultType();
-			if (result.equals(BPResultType.PASS)) {				
-				temp.append("<td class='success'>"+result + tableChange()+"<tr><td class='success'>"+formatResultText(bpResults.get(row).getResultText())+tableSeperate());
-			} else if (result.equals(BPResultType.FAIL)) {
-				temp.append("<td class='danger'>"+ result + tableChange()+"<tr><td class='danger'>"+formatResultText(bpResults.get(row).getResultText())+tableSeperate());
-			} else if (result.equals(BPResultType.WARNING)) {
-				temp.append("<td class='warning'>"+result + tableChange()+"<tr><td class='warning'>"+formatResultText(bpResults.get(row).getResultText())+tableSeperate());
-			} else {
-				temp.append("<td class='info'>"+result + tableChange()+"<tr><td class='info'>"+formatResultText(bpResults.get(row).getResultText())+tableSeperate());
-			}			
-			
-		}
-		
-		// makes the row end tag and starts new line
-		for (int row = 0; row < sbTemps.size(); row++) {
-			StringBuffer temp = sbTemps.get(row);
-			temp.append("</tr>");
-			temp.append(System.getProperty(lineSeperator()));
+		BPResultType result = bpResult.getResultType();
+		String cellClass;
+		if (result.equals(BPResultType.PASS)) {
+			cellClass = "success";
+		} else if (result.equals(BPResultType.FAIL)) {
+			cellClass = "danger";
+		} else if (result.equals(BPResultType.WARNING)) {
+			cellClass = "warning";
+		} else {
+			cellClass = "info";
 		}
+		temp.append("<td class='"+cellClass+"'>"+result + tableChange()+"<tr><td class='"+cellClass+"'>"+formatResultText(bpResult.getResultText())+tableSeperate());
 
-		StringBuffer finalBpRows = new StringBuffer();
-		for (int i = 0; i < sbTemps.size(); i++) {
-			finalBpRows.append(sbTemps.get(i).toString());
-		}
-
-		return finalBpRows.toString();
+		// makes the row end tag and starts new line
+		temp.append("</tr>");
+		temp.append(System.getProperty(lineSeperator()));
+		return temp.toString();
 	}
 	
 	private String formatResultText(String description) {
@@ -15,33 +15,99 @@
 */
 package com.att.aro.core.report.impl;
 
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.att.aro.core.bestpractice.pojo.AbstractBestPracticeResult;
 import com.att.aro.core.fileio.IFileManager;
+import com.att.aro.core.packetanalysis.pojo.AbstractTraceResult;
+import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
 import com.att.aro.core.pojo.AROTraceData;
 import com.att.aro.core.report.IReport;
+import com.att.aro.core.report.pojo.ReportOptions;
+import com.att.aro.core.report.pojo.ReportSection;
+import com.att.aro.core.tracemetadata.pojo.MetaDataModel;
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
 
+/**
+ * Writes the AROTraceData as JSON, streaming it one section at a time to the
+ * file. Each value is written with the type it is declared with in
+ * AROTraceData and PacketAnalyzerResult, so the report reads the same as the
+ * serialized AROTraceData.
+ */
 public class JSonReportImpl implements IReport {
 	
 	private static final Logger LOGGER = LogManager.getLogger(JSonReportImpl.class.getName());
+
+	private static final TypeReference<List<AbstractBestPracticeResult>> BEST_PRACTICE_RESULTS = new TypeReference<List<AbstractBestPracticeResult>>() {
+	};
+
+	/**
+	 * Leaves out the bean properties holding a collection, map or array
+	 */
+	private static final class PacketArraysModifier extends BeanSerializerModifier {
+		@Override
+		public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+				List<BeanPropertyWriter> beanProperties) {
+			List<BeanPropertyWriter> properties = new ArrayList<>(beanProperties.size());
+			for (BeanPropertyWriter property : beanProperties) {
+				if (!property.getType().isContainerType()) {
+					properties.add(property);
+				}
+			}
+			return properties;
+		}
+	}
+
 	@Autowired
 	private IFileManager filereader;
+
 	@Override
 	public boolean reportGenerator(String resultFilePath, AROTraceData results) {
+		return reportGenerator(resultFilePath, results, new ReportOptions());
+	}
+
+	@Override
+	public boolean reportGenerator(String resultFilePath, AROTraceData results, ReportOptions options) {
 		if (resultFilePath == null || results == null) {
 			return false;
 		}
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.enableDefaultTyping();
-		try {
-			mapper.writeValue(filereader.createFile(resultFilePath), results);
+		ObjectMapper mapper = createMapper(options);
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(filereader.createFile(resultFilePath)));
+				JsonGenerator generator = mapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			if (options.includes(ReportSection.BEST_PRACTICES)) {
+				generator.writeFieldName("bestPracticeResults");
+				mapper.writerFor(BEST_PRACTICE_RESULTS).writeValue(generator, results.getBestPracticeResults());
+			}
+			if (options.includes(ReportSection.TRACE) || options.includes(ReportSection.STATISTICS)) {
+				generator.writeFieldName("analyzerResult");
+				writeAnalyzerResult(mapper, generator, results.getAnalyzerResult(), options);
+			}
+			generator.writeStringField("errorDescription", results.getErrorDescription());
+			if (options.includes(ReportSection.METADATA)) {
+				generator.writeFieldName("traceMetadata");
+				mapper.writerFor(MetaDataModel.class).writeValue(generator, results.getMetaDataModel());
+			}
+			generator.writeEndObject();
 			return true;
 		} catch (JsonGenerationException e) {
 			LOGGER.error(e.getMessage());
@@ -53,4 +119,34 @@ public class JSonReportImpl implements IReport {
 		return false;
 	}
 
+	private ObjectMapper createMapper(ReportOptions options) {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.enableDefaultTyping();
+		if (!options.isPacketArrays()) {
+			SimpleModule module = new SimpleModule("PacketArrays");
+			module.setSerializerModifier(new PacketArraysModifier());
+			mapper.registerModule(module);
+		}
+		return mapper;
+	}
+
+	private void writeAnalyzerResult(ObjectMapper mapper, JsonGenerator generator, PacketAnalyzerResult analyzerResult,
+			ReportOptions options) throws IOException {
+		if (analyzerResult == null) {
+			generator.writeNull();
+			return;
+		}
+		generator.writeStartObject();
+		if (options.includes(ReportSection.TRACE)) {
+			generator.writeFieldName("traceresult");
+			mapper.writerFor(AbstractTraceResult.class).writeValue(generator, analyzerResult.getTraceresult());
+		}
+		if (options.includes(ReportSection.STATISTICS)) {
+			generator.writeFieldName("statistic");
+			mapper.writeValue(generator, analyzerResult.getStatistic());
+			generator.writeFieldName("timeRangeAnalysis");
+			mapper.writeValue(generator, analyzerResult.getTimeRangeAnalysis());
+		}
+		generator.writeEndObject();
+	}
 }
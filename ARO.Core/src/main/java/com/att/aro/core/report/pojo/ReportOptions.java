@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.report.pojo;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import lombok.Data;
+
+/**
+ * What a report writes. By default every section is written, with the lists
+ * held in the results.
+ */
+@Data
+public class ReportOptions {
+
+	private Set<ReportSection> sections = EnumSet.allOf(ReportSection.class);
+
+	/**
+	 * false to leave out the lists, maps and arrays nested in the results, such
+	 * as the per packet and per entry details of the best practices, so the
+	 * size of the report does not grow with the trace
+	 */
+	private boolean packetArrays = true;
+
+	public boolean includes(ReportSection section) {
+		return sections.contains(section);
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.report.pojo;
+
+/**
+ * Sections of a report, written one after the other
+ */
+public enum ReportSection {
+	/**
+	 * trace file, date and device
+	 */
+	TRACE,
+	/**
+	 * time range, data and throughput statistics
+	 */
+	STATISTICS,
+	/**
+	 * best practice summary and results
+	 */
+	BEST_PRACTICES,
+	/**
+	 * trace metadata, JSON report only
+	 */
+	METADATA;
+
+	/**
+	 * Returns the section of a name, ignoring case
+	 *
+	 * @param name
+	 * @return the section, null if there is none of that name
+	 */
+	public static ReportSection fromName(String name) {
+		for (ReportSection section : values()) {
+			if (section.name().equalsIgnoreCase(name.trim())) {
+				return section;
+			}
+		}
+		return null;
+	}
+}
@@ -15,13 +15,12 @@
 */
 package com.att.aro.core.searching.impl;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.validator.CreditCardValidator;
 import org.apache.log4j.Logger;
@@ -42,7 +41,31 @@ public class PatternSearchingHandler implements ISearchingHandler {
 
 	private static final Logger LOGGER = LogManager.getLogger(PatternSearchingHandler.class.getName());
 
+	/**
+	 * pivot characters are looked up in a table of this size
+	 */
+	private static final int PIVOT_TABLE_SIZE = 256;
+
+	/**
+	 * pivot table of a pattern
+	 */
+	private static final class CompiledPattern {
+		private final SearchingPattern pattern;
+		private final PatternInfo[][] pivotTable;
+
+		private CompiledPattern(SearchingPattern pattern, PatternInfo[][] pivotTable) {
+			this.pattern = pattern;
+			this.pivotTable = pivotTable;
+		}
+	}
+
 	private CreditCardValidator validator;
+
+	/**
+	 * pivot table of the pattern searched last, the same pattern is searched in
+	 * every session of a trace
+	 */
+	private volatile CompiledPattern compiled;
 	
 	public PatternSearchingHandler() {
 		initCreditCardValidator();
@@ -62,24 +85,25 @@ public class PatternSearchingHandler implements ISearchingHandler {
 			return resultBuilder.build();
 		}
 
-		Map<Character, List<PatternInfo>> pivotCharMap = initPivotCharMap(pattern);
-		String text = content.get();
+		PatternInfo[][] pivotTable = getPivotTable(pattern);
+		CharSequence text = content.getText();
 
 		for(int i = 0; i < text.length(); i++) {
 			char pivotChar = text.charAt(i);
 			
-			if (!hasRelatedPattern(pivotChar, pivotCharMap)) {
+			if (!hasRelatedPattern(pivotChar, pivotTable)) {
 				continue;
 			}
-			List<PatternInfo> relatedPattern = pivotCharMap.get(pivotChar);
+			PatternInfo[] relatedPattern = pivotTable[pivotChar];
 			
 			for(PatternInfo info : relatedPattern) {
 				if (isValidCandidatePattern(info, text, i)) {
-					String candidate = getValidCandidatePattern(info, pivotChar, text, i);
-					if (candidate == null) {
+					int start = getStartIndex(info, pivotChar, i);
+					if (start + info.getLength() > text.length()) {
 						continue;
 					}
-					if (compare(candidate, info)) {
+					String candidate = compare(text, start, info);
+					if (candidate != null) {
 						resultBuilder.add(candidate, info.getType());
 					}
 				}
@@ -92,27 +116,11 @@ public class PatternSearchingHandler implements ISearchingHandler {
 	/**
 	 * check if the current scanning character has related possible pattern
 	 * @param pivotChar
-	 * @param pivotCharMap
-	 * @return
-	 */
-	private boolean hasRelatedPattern(char pivotChar, Map<Character, List<PatternInfo>> pivotCharMap) {
-		return pivotCharMap.containsKey(pivotChar);
-	}
-	
-	/**
-	 * get valid candidate substring in text
-	 * @param info
-	 * @param pivotChar
-	 * @param text
-	 * @param index
+	 * @param pivotTable
 	 * @return
 	 */
-	private String getValidCandidatePattern(PatternInfo info, char pivotChar, String text, int index) {
-		int start = getStartIndex(info, pivotChar, index);
-		if (start + info.getLength() > text.length()) {
-			return null;
-		}
-		return text.substring(start, start + info.getLength());
+	private boolean hasRelatedPattern(char pivotChar, PatternInfo[][] pivotTable) {
+		return pivotChar < PIVOT_TABLE_SIZE && pivotTable[pivotChar] != null;
 	}
 	
 	/**
@@ -127,21 +135,24 @@ public class PatternSearchingHandler implements ISearchingHandler {
 	}
 	
 	/**
-	 * compare candidate string and pattern expression
-	 * @param candidate
+	 * compare candidate in text and pattern expression, the candidate is only
+	 * turned into a string when it matches
+	 * @param text
+	 * @param start
 	 * @param info
-	 * @return
+	 * @return the candidate, null if it does not match
 	 */
-	private boolean compare(String candidate, PatternInfo info) {
-		Pattern patt = Pattern.compile(info.getExpression());
-		Matcher matcher = patt.matcher(candidate);
+	private String compare(CharSequence text, int start, PatternInfo info) {
+		int end = start + info.getLength();
+		Matcher matcher = info.getPattern().matcher(text).region(start, end);
 		if (matcher.matches()) {
-			if (isCreditCardType(info)) {
-				return validator.isValid(candidate);
+			String candidate = text.subSequence(start, end).toString();
+			if (isCreditCardType(info) && !validator.isValid(candidate)) {
+				return null;
 			}
-			return true;
+			return candidate;
 		}
-		return false;
+		return null;
 	}
 	
 	/**
@@ -152,7 +163,7 @@ public class PatternSearchingHandler implements ISearchingHandler {
 	 * @param index
 	 * @return
 	 */
-	private boolean isValidCandidatePattern(PatternInfo info, String text, int index) {
+	private boolean isValidCandidatePattern(PatternInfo info, CharSequence text, int index) {
 		Map<Character, List<PatternInfo.OffsetPair>> charToOffsets = info.getCharToOffsets();
 		
 		char pivotChar = text.charAt(index);
@@ -187,13 +198,32 @@ public class PatternSearchingHandler implements ISearchingHandler {
 	}
 	
 	/**
-	 * generate in-memory map (pivot character -> list of potential pattern information)
+	 * get the pivot table of the pattern, generating it if the pattern is not
+	 * the one searched last
 	 * 
 	 * @param pattern
 	 * @return
 	 */
-	private Map<Character, List<PatternInfo>> initPivotCharMap(SearchingPattern pattern) {
-		Map<Character, List<PatternInfo>> pivotCharMap = new HashMap<Character, List<PatternInfo>>();
+	private PatternInfo[][] getPivotTable(SearchingPattern pattern) {
+		CompiledPattern current = compiled;
+		if (current == null || current.pattern != pattern) {
+			current = new CompiledPattern(pattern, initPivotTable(pattern));
+			compiled = current;
+		}
+		return current.pivotTable;
+	}
+	
+	/**
+	 * generate in-memory table (pivot character -> potential pattern information)
+	 * 
+	 * @param pattern
+	 * @return
+	 */
+	private PatternInfo[][] initPivotTable(SearchingPattern pattern) {
+		List<List<PatternInfo>> pivotLists = new ArrayList<>(PIVOT_TABLE_SIZE);
+		for (int i = 0; i < PIVOT_TABLE_SIZE; i++) {
+			pivotLists.add(null);
+		}
 
 		List<String> words = pattern.getWords();
 		List<String> types = pattern.getTypes();
@@ -204,13 +234,20 @@ public class PatternSearchingHandler implements ISearchingHandler {
 				continue;
 			}
 
-			if (!pivotCharMap.containsKey(info.getPivotChar())) {
-				pivotCharMap.put(info.getPivotChar(), new LinkedList<PatternInfo>());
+			char pivotChar = info.getPivotChar();
+			if (pivotLists.get(pivotChar) == null) {
+				pivotLists.set(pivotChar, new ArrayList<PatternInfo>());
 			}
-			pivotCharMap.get(info.getPivotChar()).add(info);
+			pivotLists.get(pivotChar).add(info);
 		}
 
-		return pivotCharMap;
+		PatternInfo[][] pivotTable = new PatternInfo[PIVOT_TABLE_SIZE][];
+		for (int i = 0; i < PIVOT_TABLE_SIZE; i++) {
+			if (pivotLists.get(i) != null) {
+				pivotTable[i] = pivotLists.get(i).toArray(new PatternInfo[0]);
+			}
+		}
+		return pivotTable;
 	}
 	
 	/**
@@ -267,6 +304,9 @@ public class PatternSearchingHandler implements ISearchingHandler {
 			
 			if (isFirstTime) {
 				info.setLength(offsetToHead + offsetToEnd + 1);	// set length
+				if (tokens[i].charAt(0) >= PIVOT_TABLE_SIZE) {
+					throw new IllegalArgumentException("Pivot character should be below " + PIVOT_TABLE_SIZE + ".");
+				}
 				info.setPivotChar(tokens[i].charAt(0));	// set pivot char
 				isFirstTime = false;
 			}
@@ -292,7 +332,7 @@ public class PatternSearchingHandler implements ISearchingHandler {
 	 * @param text
 	 * @return
 	 */
-	private boolean isValidCreditCardCandidate(int start, int end, String text) {
+	private boolean isValidCreditCardCandidate(int start, int end, CharSequence text) {
 		// check one character before the pattern
 		if (start - 1 >= 0 && Character.isDigit(text.charAt(start - 1))) {
 			return false;
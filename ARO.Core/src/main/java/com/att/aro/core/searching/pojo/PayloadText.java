@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.searching.pojo;
+
+/**
+ * Payload bytes read as the text Util.byteArrayToString would return, without
+ * creating the string. Bytes other than printable ASCII, tab, CR and LF read as
+ * '.'.
+ */
+final class PayloadText implements CharSequence {
+
+	private static final char[] CHARS = new char[256];
+
+	static {
+		for (int value = 0; value < CHARS.length; value++) {
+			byte data = (byte) value;
+			CHARS[value] = data >= 32 || data == '\n' || data == '\r' || data == '\t' ? (char) data : '.';
+		}
+	}
+
+	private final byte[] data;
+	private final int offset;
+	private final int length;
+
+	PayloadText(byte[] data) {
+		this(data, 0, data.length);
+	}
+
+	private PayloadText(byte[] data, int offset, int length) {
+		this.data = data;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * @return the character the byte reads as
+	 */
+	static char toChar(byte data) {
+		return CHARS[data & 0xFF];
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+		}
+		return CHARS[data[offset + index] & 0xFF];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+		}
+		return new PayloadText(data, offset + start, end - start);
+	}
+
+	@Override
+	public String toString() {
+		char[] chars = new char[length];
+		for (int index = 0; index < length; index++) {
+			chars[index] = CHARS[data[offset + index] & 0xFF];
+		}
+		return new String(chars);
+	}
+}
@@ -16,18 +16,56 @@
 package com.att.aro.core.searching.pojo;
 
 public class SearchingContent {
-	
+
 	private final String content;
+	private final byte[] data;
 
 	public SearchingContent(String content) {
+		this(content, null);
+	}
+
+	private SearchingContent(String content, byte[] data) {
 		this.content = content;
+		this.data = data;
 	}
-	
+
+	/**
+	 * Content of payload bytes, searched as the text Util.byteArrayToString
+	 * returns for them without converting them
+	 *
+	 * @param data
+	 * @return
+	 */
+	public static SearchingContent fromPayload(byte[] data) {
+		return new SearchingContent(null, data);
+	}
+
 	public String get() {
-		return content;
+		return data != null ? getText().toString() : content;
 	}
-	
+
+	/**
+	 * @return the payload bytes, null if the content is a string
+	 */
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * @return the content as text, reading payload bytes in place
+	 */
+	public CharSequence getText() {
+		return data != null ? new PayloadText(data) : content;
+	}
+
+	/**
+	 * @return the character a payload byte is searched as
+	 */
+	public static char toChar(byte data) {
+		return PayloadText.toChar(data);
+	}
+
 	public boolean isEmpty() {
-		return content == null || content.isEmpty();
+		return data != null ? data.length == 0 : content == null || content.isEmpty();
 	}
 }
@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.searching.strategy.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.att.aro.core.searching.pojo.SearchingContent;
+
+/**
+ * Aho-Corasick automaton of a keyword set, finding every keyword in one pass
+ * over the content.
+ * <p>
+ * The keyword trie is turned into a transition table of 256 entries per
+ * state, so each content character costs one array lookup. Keywords are
+ * matched on characters up to 0xFF, payload bytes are read as
+ * SearchingContent.toChar does.
+ * </p>
+ */
+final class KeywordAutomaton {
+
+	private static final int ALPHABET = 256;
+
+	private static final int ROOT = 0;
+
+	private final int keywordCount;
+
+	/**
+	 * next state of each state and character, state * ALPHABET + character
+	 */
+	private int[] transitions;
+	/**
+	 * keyword ending in each state, -1 for none
+	 */
+	private int[] keywordOf;
+	/**
+	 * nearest state on the failure path of each state with a keyword, ROOT for
+	 * none
+	 */
+	private int[] outputLink;
+	private int stateCount;
+
+	/**
+	 * @param keywords
+	 *            keywords, an empty keyword or one with characters above 0xFF is
+	 *            never found
+	 */
+	KeywordAutomaton(List<String> keywords) {
+		keywordCount = keywords.size();
+		int capacity = 1;
+		for (String keyword : keywords) {
+			capacity += keyword.length();
+		}
+		transitions = new int[capacity * ALPHABET];
+		keywordOf = new int[capacity];
+		Arrays.fill(keywordOf, -1);
+		outputLink = new int[capacity];
+		stateCount = 1;
+		for (int index = 0; index < keywords.size(); index++) {
+			insert(keywords.get(index), index);
+		}
+		link();
+	}
+
+	int getKeywordCount() {
+		return keywordCount;
+	}
+
+	private void insert(String keyword, int index) {
+		if (keyword.isEmpty()) {
+			return;
+		}
+		for (int position = 0; position < keyword.length(); position++) {
+			if (keyword.charAt(position) >= ALPHABET) {
+				return;
+			}
+		}
+		int state = ROOT;
+		for (int position = 0; position < keyword.length(); position++) {
+			int slot = state * ALPHABET + keyword.charAt(position);
+			if (transitions[slot] == ROOT) {
+				transitions[slot] = stateCount++;
+			}
+			state = transitions[slot];
+		}
+		keywordOf[state] = index;
+	}
+
+	/**
+	 * Completes the trie into the transition table, breadth first, so the
+	 * failure state of every state is done before its children
+	 */
+	private void link() {
+		int[] failure = new int[stateCount];
+		int[] queue = new int[stateCount];
+		int head = 0;
+		int tail = 0;
+		for (int character = 0; character < ALPHABET; character++) {
+			int child = transitions[character];
+			if (child != ROOT) {
+				queue[tail++] = child;
+			}
+		}
+		while (head < tail) {
+			int state = queue[head++];
+			int fail = failure[state];
+			outputLink[state] = keywordOf[fail] >= 0 ? fail : outputLink[fail];
+			for (int character = 0; character < ALPHABET; character++) {
+				int slot = state * ALPHABET + character;
+				int child = transitions[slot];
+				if (child != ROOT) {
+					failure[child] = transitions[fail * ALPHABET + character];
+					queue[tail++] = child;
+				} else {
+					transitions[slot] = transitions[fail * ALPHABET + character];
+				}
+			}
+		}
+		transitions = Arrays.copyOf(transitions, stateCount * ALPHABET);
+		keywordOf = Arrays.copyOf(keywordOf, stateCount);
+		outputLink = Arrays.copyOf(outputLink, stateCount);
+	}
+
+	/**
+	 * Scans payload bytes, marking the keywords found
+	 *
+	 * @param state
+	 *            state returned by the scan of the bytes before, 0 to start
+	 * @param found
+	 *            keywords found, by index
+	 * @return the state to continue the scan from
+	 */
+	int scan(byte[] data, int offset, int length, int state, boolean[] found) {
+		int[] table = transitions;
+		for (int index = offset, end = offset + length; index < end; index++) {
+			state = table[state * ALPHABET + SearchingContent.toChar(data[index])];
+			if (keywordOf[state] >= 0 || outputLink[state] != ROOT) {
+				report(state, found);
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Scans text, marking the keywords found
+	 *
+	 * @return the state to continue the scan from
+	 */
+	int scan(CharSequence text, int state, boolean[] found) {
+		int[] table = transitions;
+		for (int index = 0, end = text.length(); index < end; index++) {
+			char character = text.charAt(index);
+			state = character < ALPHABET ? table[state * ALPHABET + character] : ROOT;
+			if (keywordOf[state] >= 0 || outputLink[state] != ROOT) {
+				report(state, found);
+			}
+		}
+		return state;
+	}
+
+	private void report(int state, boolean[] found) {
+		for (int output = keywordOf[state] >= 0 ? state : outputLink[state]; output != ROOT; output = outputLink[output]) {
+			found[keywordOf[output]] = true;
+		}
+	}
+}
@@ -15,12 +15,10 @@
 */
 package com.att.aro.core.searching.strategy.impl;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
 
 import com.att.aro.core.searching.pojo.SearchingContent;
 import com.att.aro.core.searching.pojo.SearchingPattern;
@@ -28,152 +26,74 @@ import com.att.aro.core.searching.pojo.SearchingResult;
 import com.att.aro.core.searching.pojo.SearchingResultBuilder;
 import com.att.aro.core.searching.strategy.ISearchingStrategy;
 
+/**
+ * Searches keywords with an Aho-Corasick automaton built from the keyword trie.
+ * The automaton of the last pattern is kept, as the same pattern is searched in
+ * every session of a trace.
+ */
 public class TrieSearchingStrategy implements ISearchingStrategy {
-	
+
 	/**
-	 * TrieNode
-	 * 
-	 *
-	 *
+	 * keyword automaton of a pattern
 	 */
-	private class TrieNode {
-		private Map<Character, TrieNode> children;
-		private boolean isEnd;
-		private String pattern;
-		private String type;
-		
-		public TrieNode() {
-			children = new HashMap<Character, TrieNode>();
-		}
-	}
-	
-	/**
-	 * keyword Trie
-	 * 
-	 *
-	 *
-	 */
-	private class KeywordTrie {
-		
-		private TrieNode root;
-		
-		public KeywordTrie() {
-			root = new TrieNode();
-		}
-		
-		// insert a pattern
-		public void insert(String pattern, String type) {
-			insertHelper(pattern.toCharArray(), type, 0, root);
-		}
-		
-		private void insertHelper(char[] chars, String type, int index, TrieNode root) {
-			if (index == chars.length) {
-				root.isEnd = true;
-				root.pattern = new String(chars);
-				root.type = type;
-				return;
-			}
-			
-			char next = chars[index];
-			if (!root.children.containsKey(next)) {
-				root.children.put(next, new TrieNode());
-			}
-			insertHelper(chars, type, index + 1, root.children.get(next));
-		}
-		
-		// peek trie to get next trie node
-		public TrieNode peek(TrieNode current, char next) {
-			if (current.children.containsKey(next)) {
-				return current.children.get(next);
-			} else {
-				return null;
+	private static final class CompiledPattern {
+		private final SearchingPattern pattern;
+		private final List<String> words;
+		private final List<String> types;
+		private final KeywordAutomaton automaton;
+
+		private CompiledPattern(SearchingPattern pattern) {
+			this.pattern = pattern;
+			// a keyword added twice is found once, with the type added last
+			Map<String, String> keywords = new LinkedHashMap<>();
+			List<String> patternWords = pattern.getWords();
+			List<String> patternTypes = pattern.getTypes();
+			for (int i = 0; i < patternWords.size(); i++) {
+				keywords.put(patternWords.get(i), patternTypes.get(i));
 			}
-		}
-		
-		// check if the upcoming character is a valid start
-		public boolean isCandidateStart(char character) {
-			return root.children.containsKey(character);
+			words = new ArrayList<>(keywords.keySet());
+			types = new ArrayList<>(keywords.values());
+			automaton = new KeywordAutomaton(words);
 		}
 	}
-	
+
+	private volatile CompiledPattern compiled;
+
 	@Override
 	public SearchingResult applySearch(SearchingPattern pattern, SearchingContent content) {
 		SearchingResultBuilder resultBuilder = new SearchingResultBuilder();
 
-		List<String> words = pattern.getWords();
-		List<String> types = pattern.getTypes();
-		String text = content.get();
-
-		KeywordTrie trie = buildTrie(words, types);
-		
-		Map<String, String> wordsFound = search(trie, text);
-		
-		Set<String> keySet = wordsFound.keySet();
-		for(String key : keySet) {
-			resultBuilder.add(key, wordsFound.get(key));
+		CompiledPattern current = compile(pattern);
+		boolean[] found = new boolean[current.automaton.getKeywordCount()];
+		byte[] data = content.getData();
+		if (data != null) {
+			current.automaton.scan(data, 0, data.length, 0, found);
+		} else {
+			current.automaton.scan(content.get(), 0, found);
 		}
 
-		return resultBuilder.build();
-	}
-	
-	private Map<String, String> search(KeywordTrie trie, String text) {
-		Map<String, String> result = new HashMap<String, String>();
-		
-		Queue<Integer> candidateStartQueue = new LinkedList<Integer>();
-		
-		int index = 0;
-		while(index < text.length()) {
-			
-			while(index < text.length() && !trie.isCandidateStart(text.charAt(index))) {
-				index++;
-			}
-			
-			if (index == text.length()) {
-				return result;
-			}
-			candidateStartQueue.add(index);
-			
-			int nextStart = index + 1;
-			
-			while(!candidateStartQueue.isEmpty()) {
-				int candidate = candidateStartQueue.poll();
-				
-				TrieNode current = trie.root;	// check from root
-				int runIndex = candidate;	// candidate start point
-				while(runIndex < text.length() && trie.peek(current, text.charAt(runIndex)) != null) {
-					current = trie.peek(current, text.charAt(runIndex++));
-					
-					if (current.isEnd && !result.containsKey(current.pattern)) {
-						result.put(current.pattern, current.type);
-					}
-					
-					if (runIndex < text.length() && trie.isCandidateStart(text.charAt(runIndex))) {
-						candidateStartQueue.add(runIndex);
-					}
-				}
-				
-				nextStart = Math.max(nextStart, candidate + 1);
+		for (int i = 0; i < found.length; i++) {
+			if (found[i]) {
+				resultBuilder.add(current.words.get(i), current.types.get(i));
 			}
-			
-			index = nextStart;
 		}
-		
-		return result;
+
+		return resultBuilder.build();
 	}
 
 	/**
-	 * build trie from list of keywords
-	 * 
-	 * @param keywords
+	 * get the automaton of the pattern, building it if the pattern is not the
+	 * one searched last
+	 *
+	 * @param pattern
 	 * @return
 	 */
-	private KeywordTrie buildTrie(List<String> keywords, List<String> types) {
-		KeywordTrie trie = new KeywordTrie();
-		
-		for(int i = 0; i < keywords.size(); i++) {
-			trie.insert(keywords.get(i), types.get(i));
+	private CompiledPattern compile(SearchingPattern pattern) {
+		CompiledPattern current = compiled;
+		if (current == null || current.pattern != pattern) {
+			current = new CompiledPattern(pattern);
+			compiled = current;
 		}
-		
-		return trie;
+		return current;
 	}
 }
@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.att.aro.core.exception.ARORuntimeException;
+
+/**
+ * Thread count settings and pools of the parallel analysis steps.
+ * <p>
+ * Each step reads its number of threads from a setting, which defaults to the
+ * number of processors. Pool threads are daemon threads named after the step.
+ * </p>
+ */
+public final class ParallelTasks {
+
+	private static final Logger LOGGER = LogManager.getLogger(ParallelTasks.class.getName());
+
+	/**
+	 * Threads running best practices
+	 */
+	public static final String BP_THREADS = "BP_THREADS";
+
+	/**
+	 * Threads assembling and analyzing sessions
+	 */
+	public static final String SESSION_THREADS = "SESSION_THREADS";
+
+	/**
+	 * Threads evaluating RRC profiles
+	 */
+	public static final String PROFILE_THREADS = "PROFILE_THREADS";
+
+	/**
+	 * Threads processing images
+	 */
+	public static final String IMAGE_THREADS = "IMAGE_THREADS";
+
+	/**
+	 * Threads extracting video segment thumbnails
+	 */
+	public static final String THUMBNAIL_THREADS = "THUMBNAIL_THREADS";
+
+	private ParallelTasks() {
+	}
+
+	/**
+	 * Number of threads of a setting, at least 1, defaults to the number of
+	 * processors when unset or invalid
+	 */
+	public static int getThreads(String key) {
+		String threads = Util.getAttribute(key);
+		if (!threads.isEmpty()) {
+			try {
+				return Math.max(1, Integer.parseInt(threads.trim()));
+			} catch (NumberFormatException e) {
+				LOGGER.warn("Invalid " + key + " setting: " + threads);
+			}
+		}
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Creates daemon threads named threadName-1, threadName-2, ...
+	 */
+	public static ThreadFactory threadFactory(String threadName) {
+		AtomicInteger threadCount = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, threadName + "-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Fixed pool of daemon threads, see {@link #threadFactory(String)}
+	 */
+	public static ExecutorService newPool(int threads, String threadName) {
+		return Executors.newFixedThreadPool(threads, threadFactory(threadName));
+	}
+
+	/**
+	 * Runs task(0) to task(count - 1) on up to threads threads, on the calling
+	 * thread when that is 1 or less. Returns once all have run; the first
+	 * exception thrown by a task is rethrown.
+	 * 
+	 * @param threadName
+	 *            name of the pool threads
+	 * @param action
+	 *            what the tasks do, for the message of a failure
+	 */
+	public static void forEach(int count, int threads, String threadName, String action, IntConsumer task) {
+		threads = Math.min(threads, count);
+		if (threads <= 1) {
+			for (int index = 0; index < count; index++) {
+				task.accept(index);
+			}
+			return;
+		}
+		AtomicInteger next = new AtomicInteger();
+		ExecutorService pool = newPool(threads, threadName);
+		try {
+			List<Future<?>> workers = new ArrayList<>(threads);
+			for (int worker = 0; worker < threads; worker++) {
+				workers.add(pool.submit(() -> {
+					for (int index = next.getAndIncrement(); index < count; index = next.getAndIncrement()) {
+						task.accept(index);
+					}
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ARORuntimeException("Interrupted while " + action, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new ARORuntimeException("Failed while " + action, e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
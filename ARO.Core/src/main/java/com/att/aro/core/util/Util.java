@@ -694,16 +694,18 @@ public final class Util {
 	 */
 	private static final String PATTERN_ASCTIME = "EEE MMM d HH:mm:ss yyyy";
 	private static final String PATTERN_ASCTIME2 = "EEE MMM d HH:mm:ss zzz yyyy";
-	private static DateFormat rfc1123 = new SimpleDateFormat(PATTERN_RFC1123);
-	private static DateFormat rfc1036 = new SimpleDateFormat(PATTERN_RFC1036);
-	private static DateFormat asctime = new SimpleDateFormat(PATTERN_ASCTIME);
-	private static DateFormat asctime2 = new SimpleDateFormat(PATTERN_ASCTIME2);
-	private static DateFormat[] dateFormats = { rfc1123, rfc1036, asctime, asctime2 };
+	/**
+	 * HTTP date formats, one set per thread as DateFormat objects are not
+	 * thread-safe
+	 */
+	private static final ThreadLocal<DateFormat[]> DATE_FORMATS = ThreadLocal.withInitial(() -> new DateFormat[] {
+			new SimpleDateFormat(PATTERN_RFC1123), new SimpleDateFormat(PATTERN_RFC1036),
+			new SimpleDateFormat(PATTERN_ASCTIME), new SimpleDateFormat(PATTERN_ASCTIME2) });
 	private static final Date BEGINNING_OF_TIME = new Date(0);
 
 	/**
-	 * Parses HTTP date formats. Synchronized because DateFormat objects are not
-	 * thread-safe. If defaultForExpired is true and value is an invalid
+	 * Parses HTTP date formats. Thread-safe, each thread parses with its own
+	 * DateFormat objects. If defaultForExpired is true and value is an invalid
 	 * dateFormat (such as -1 or 0 meaning already expired), the returned Date
 	 * will be "beginning of time" Jan 1 1970.
 	 *
@@ -715,7 +717,7 @@ public final class Util {
 	 */
 	public static Date readHttpDate(String value, boolean defaultForExpired) {
 		if (value != null) {
-			for (DateFormat dateFormat : dateFormats) {
+			for (DateFormat dateFormat : DATE_FORMATS.get()) {
 				try {
 					return dateFormat.parse(value.trim());
 				} catch (ParseException e) {
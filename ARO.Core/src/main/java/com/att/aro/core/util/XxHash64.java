@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.util;
+
+/**
+ * Streaming XXH64 hash, seed 0.
+ * <p>
+ * Bytes are added with update in any number of calls, getValue returns the
+ * hash of all the bytes added so far.
+ * </p>
+ */
+public final class XxHash64 {
+
+	private static final long PRIME1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long PRIME3 = 0x165667B19E3779F9L;
+	private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+	private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+	private long v1 = PRIME1 + PRIME2;
+	private long v2 = PRIME2;
+	private long v3 = 0;
+	private long v4 = -PRIME1;
+	private long length;
+
+	/**
+	 * bytes that do not fill a 32 byte stripe yet
+	 */
+	private final byte[] buffer = new byte[32];
+	private int buffered;
+
+	/**
+	 * @return the hash of the bytes
+	 */
+	public static long hash(byte[] data) {
+		XxHash64 hash = new XxHash64();
+		hash.update(data, 0, data.length);
+		return hash.getValue();
+	}
+
+	public void update(byte[] data, int offset, int count) {
+		length += count;
+		int end = offset + count;
+		if (buffered > 0) {
+			int fill = Math.min(32 - buffered, count);
+			System.arraycopy(data, offset, buffer, buffered, fill);
+			buffered += fill;
+			offset += fill;
+			if (buffered < 32) {
+				return;
+			}
+			stripe(buffer, 0);
+			buffered = 0;
+		}
+		for (; offset + 32 <= end; offset += 32) {
+			stripe(data, offset);
+		}
+		if (offset < end) {
+			System.arraycopy(data, offset, buffer, 0, end - offset);
+			buffered = end - offset;
+		}
+	}
+
+	/**
+	 * @return the hash of the bytes added so far
+	 */
+	public long getValue() {
+		long hash;
+		if (length >= 32) {
+			hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+			hash = merge(hash, v1);
+			hash = merge(hash, v2);
+			hash = merge(hash, v3);
+			hash = merge(hash, v4);
+		} else {
+			hash = PRIME5;
+		}
+		hash += length;
+
+		int index = 0;
+		for (; index + 8 <= buffered; index += 8) {
+			hash ^= round(0, readLong(buffer, index));
+			hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+		}
+		if (index + 4 <= buffered) {
+			hash ^= (readInt(buffer, index) & 0xFFFFFFFFL) * PRIME1;
+			hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+			index += 4;
+		}
+		for (; index < buffered; index++) {
+			hash ^= (buffer[index] & 0xFF) * PRIME5;
+			hash = Long.rotateLeft(hash, 11) * PRIME1;
+		}
+
+		hash ^= hash >>> 33;
+		hash *= PRIME2;
+		hash ^= hash >>> 29;
+		hash *= PRIME3;
+		hash ^= hash >>> 32;
+		return hash;
+	}
+
+	private void stripe(byte[] data, int offset) {
+		v1 = round(v1, readLong(data, offset));
+		v2 = round(v2, readLong(data, offset + 8));
+		v3 = round(v3, readLong(data, offset + 16));
+		v4 = round(v4, readLong(data, offset + 24));
+	}
+
+	private static long round(long acc, long input) {
+		acc += input * PRIME2;
+		acc = Long.rotateLeft(acc, 31);
+		return acc * PRIME1;
+	}
+
+	private static long merge(long hash, long acc) {
+		hash ^= round(0, acc);
+		return hash * PRIME1 + PRIME4;
+	}
+
+	private static long readLong(byte[] data, int offset) {
+		return (readInt(data, offset) & 0xFFFFFFFFL) | ((long) readInt(data, offset + 4) << 32);
+	}
+
+	private static int readInt(byte[] data, int offset) {
+		return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16
+				| (data[offset + 3] & 0xFF) << 24;
+	}
+}
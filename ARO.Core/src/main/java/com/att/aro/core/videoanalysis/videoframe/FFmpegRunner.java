@@ -19,9 +19,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.LogManager;
@@ -30,13 +31,27 @@ import org.apache.log4j.Logger;
 import com.att.aro.core.commandline.IExternalProcessRunner;
 import com.att.aro.core.fileio.IFileManager;
 import com.att.aro.core.util.IStringParse;
+import com.att.aro.core.util.ParallelTasks;
 import com.att.aro.core.util.StringParse;
 import com.att.aro.core.util.Util;
+import com.att.aro.core.videoanalysis.pojo.ChildManifest;
 import com.att.aro.core.videoanalysis.pojo.Manifest.ContentType;
 import com.att.aro.core.videoanalysis.pojo.StreamingVideoData;
 import com.att.aro.core.videoanalysis.pojo.VideoEvent;
 
-public class FFmpegRunner implements Runnable{
+/**
+ * Extracts the metadata and thumbnail of the segments of a trace, off the
+ * analysis thread.
+ * <p>
+ * Resolution and channels are read in process by SegmentProbe, ffmpeg only
+ * runs for the thumbnail of segments with video, or when the probe does not
+ * recognize the segment, in which case its output gives the metadata as well.
+ * Jobs run on a pool of THUMBNAIL_THREADS workers, defaulting to the number of
+ * processors, each writing its own thumbnail file. The workers stop when idle.
+ * StreamingVideoData is not finished while jobs are pending.
+ * </p>
+ */
+public class FFmpegRunner {
 
 	private static final Logger LOG = LogManager.getLogger(FFmpegRunner.class.getName());
 
@@ -44,17 +59,15 @@ public class FFmpegRunner implements Runnable{
 	private IFileManager filemanager;
 	private IExternalProcessRunner externalProcessRunner;
 
-	private static final Queue<VideoEvent> queue = new PriorityQueue<>();
-	
-	private static final HashMap<VideoEvent, String> clipMap = new HashMap<>();
-	
 	private StreamingVideoData streamingVideoData;
 
 	private byte[] defaultThumbnail;
-	private int timeout;
+
+	private ThreadPoolExecutor pool;
+	private int thumbnailThreads;
+	private final AtomicInteger jobCount = new AtomicInteger();
+	private int pending;
 	private int processed;
-	private boolean running = false;
-	private boolean halt = false;
 
 	public FFmpegRunner(StreamingVideoData streamingVideoData, byte[] defaultThumbnail
 			, IFileManager filemanager, IExternalProcessRunner externalProcessRunner,IStringParse stringParse) {
@@ -63,87 +76,85 @@ public class FFmpegRunner implements Runnable{
 		this.stringParse = stringParse;
 		this.defaultThumbnail = defaultThumbnail;
 		this.streamingVideoData = streamingVideoData;
-		halt = false;
-		running = false;
-		processed = 0;
 	}
 	
+	/**
+	 * Queues the extraction of the metadata and thumbnail of a segment, the
+	 * clipping file is deleted once done
+	 * 
+	 * @param videoEvent
+	 * @param tempClippingFullPath
+	 *            segment, with the moov box of its stream in front for MPEG4
+	 */
 	public void addJob(VideoEvent videoEvent, String tempClippingFullPath) {
-		if (!running) {
-			run();
-		}
 		LOG.debug("addJob: " + videoEvent);
-		queue.add(videoEvent);
-		clipMap.put(videoEvent, tempClippingFullPath);
+		jobAdded();
+		getPool().execute(() -> {
+			try {
+				extractSegmentData(videoEvent, tempClippingFullPath);
+			} catch (Exception e) {
+				LOG.debug("extractSegmentData() failure", e);
+			} finally {
+				jobDone();
+			}
+		});
 	}
-	
-	@Override
-	public void run() {
-		halt = false;
-		if (!halt) {
-			running = true;
-			timeout = 100;
-
-			Runnable processQueue = () -> {
-				streamingVideoData.setFinished(false);
-
-				while (running && !halt && timeout > 0) {
-					if (!queue.isEmpty()) {
-						timeout = 100; // reset to 10 seconds with every item found in queue
-						
-						try {
-							extractSegmentData(queue.remove());
-						} catch (Exception e) {
-							LOG.debug("extractSegmentData() failure", e);
-						}
-						processed++;
-						LOG.debug(String.format("FFmpegRunner processed:%d, remaining:%d", processed, queue.size()));
-					} else {
-						try {
-							timeout -= 10; // counting down, still allows for additions to queue
-							LOG.debug(String.format("FFmpegRunner count down:%d", timeout/10));
-							Thread.sleep(100);
-						} catch (InterruptedException e) {
-							LOG.debug("interrupted");
-						}
-					}
-				}
 
-				LOG.debug(String.format("FFmpegRunner HALTED. processed:%d", processed));
-				streamingVideoData.setFinished(true);
-			};
-			new Thread(processQueue, "ffmpegRunner").start();
+	private synchronized ThreadPoolExecutor getPool() {
+		if (pool == null) {
+			int threads = getThumbnailThreads();
+			pool = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+					ParallelTasks.threadFactory("FFmpegRunner"));
+			pool.allowCoreThreadTimeOut(true);
 		}
+		return pool;
 	}
 
-	/**
-	 * 
-	 * @param startTime
-	 * @param frameCount
-	 */
-	private boolean extractSegmentData(VideoEvent videoEvent) {
+	private synchronized void jobAdded() {
+		if (pending++ == 0) {
+			streamingVideoData.setFinished(false);
+		}
+	}
 
-		String clippingFile;
-		if ((clippingFile = clipMap.get(videoEvent)) != null) {
-			clipMap.remove(videoEvent);
-		} else {
-			clippingFile = buildSegmentFullPathName(videoEvent);
-		} 
+	private synchronized void jobDone() {
+		processed++;
+		LOG.debug(String.format("FFmpegRunner processed:%d, remaining:%d", processed, pending - 1));
+		if (--pending == 0) {
+			LOG.debug(String.format("FFmpegRunner idle. processed:%d", processed));
+			streamingVideoData.setFinished(true);
+		}
+	}
+
+	private void extractSegmentData(VideoEvent videoEvent, String clippingFile) {
+
+		SegmentMetadata metadata = null;
+		try {
+			metadata = SegmentProbe.probe(Files.readAllBytes(Paths.get(clippingFile)));
+		} catch (IOException e) {
+			LOG.debug("Unable to read " + clippingFile + ": " + e.getMessage());
+		}
+		if (metadata != null) {
+			LOG.debug("probed " + metadata + " :" + clippingFile);
+			applyMetadata(videoEvent, metadata);
+		}
 
 		byte[] data = null;
-		String thumbnailFile = streamingVideoData.getVideoPath() + "thumbnail.png";
-		filemanager.deleteFile(thumbnailFile);
-		String cmd = Util.getFFMPEG() + " -y -i " + "\"" + clippingFile + "\"" + " -ss 00:00:00   -vframes 1 " + "\"" + thumbnailFile + "\"";
-		String lines = externalProcessRunner.executeCmd(cmd, true, true);
-		if (filemanager.fileExist(thumbnailFile)) {
-			Path path = Paths.get(thumbnailFile);
-			try {
-				data = Files.readAllBytes(path);
-				filemanager.deleteFile(thumbnailFile);
-				videoEvent.setThumbnail(data);
-				videoEvent.getSegmentInfo().setThumbnailExtracted(true);
-			} catch (IOException e) {
-				LOG.debug("getThumbnail IOException:" + e.getMessage());
+		String lines = null;
+		if (metadata == null || metadata.isVideo()) {
+			String thumbnailFile = String.format("%sthumbnail_%d.png", streamingVideoData.getVideoPath(), jobCount.incrementAndGet());
+			filemanager.deleteFile(thumbnailFile);
+			String cmd = Util.getFFMPEG() + " -y -i " + "\"" + clippingFile + "\"" + " -ss 00:00:00   -vframes 1 " + "\"" + thumbnailFile + "\"";
+			lines = externalProcessRunner.executeCmd(cmd, true, true);
+			if (filemanager.fileExist(thumbnailFile)) {
+				Path path = Paths.get(thumbnailFile);
+				try {
+					data = Files.readAllBytes(path);
+					filemanager.deleteFile(thumbnailFile);
+					videoEvent.setThumbnail(data);
+					videoEvent.getSegmentInfo().setThumbnailExtracted(true);
+				} catch (IOException e) {
+					LOG.debug("getThumbnail IOException:" + e.getMessage());
+				}
 			}
 		}
 		if (data == null) {
@@ -154,45 +165,77 @@ public class FFmpegRunner implements Runnable{
 		}
 		filemanager.deleteFile(clippingFile);
 
-		if (!StringUtils.isEmpty(lines)) {
-			String[] height = stringParse.parse(lines, "\\d{2,4}x(\\d+)");
-			if (videoEvent.getResolutionHeight() == 0 && height != null) {
-				videoEvent.setResolutionHeight(StringParse.stringToInteger(height[0], 0));
-				videoEvent.getChildManifest().setPixelHeight(videoEvent.getResolutionHeight());
-			}
+		if ((metadata == null || (metadata.isVideo() && metadata.getHeight() == 0)) && !StringUtils.isEmpty(lines)) {
+			applyFFmpegOutput(videoEvent, lines);
+		}
+	}
 
-			if ((stringParse.parse(lines, "Stream #0.*Audio: ([A-Za-z0-9]*) ")) != null) {
-				if (videoEvent.getSegmentInfo().isVideo() && videoEvent.getSegmentInfo().getContentType().equals(ContentType.VIDEO)) {
-					videoEvent.getSegmentInfo().setContentType(ContentType.MUXED);
-				}
-				if (videoEvent.getChannels() == null) {
-					String chnls = "";
-					if (lines.contains(" stereo,")) {
-						chnls = "2";
-					} else if (lines.contains(" mono,")) {
-						chnls = "1";
-					}
-					if (videoEvent.getChildManifest().getChannels() == null) {
-						videoEvent.getChildManifest().setChannels(chnls);
-					}
-					videoEvent.setChannels(chnls);
-				}
+	/**
+	 * Sets the metadata the probe found and the segment does not have yet
+	 */
+	private synchronized void applyMetadata(VideoEvent videoEvent, SegmentMetadata metadata) {
+		ChildManifest childManifest = videoEvent.getChildManifest();
+		if (videoEvent.getResolutionHeight() == 0 && metadata.getHeight() > 0) {
+			videoEvent.setResolutionHeight(metadata.getHeight());
+			childManifest.setPixelHeight(metadata.getHeight());
+			if (childManifest.getPixelWidth() == 0) {
+				childManifest.setPixelWidth(metadata.getWidth());
 			}
-		} else {
-			// false for meta data
-			return false;
 		}
+		if (metadata.isAudio()) {
+			setAudio(videoEvent, metadata.getChannels() == 2 ? "2" : metadata.getChannels() == 1 ? "1" : "");
+		}
+	}
 
-		return true;
+	/**
+	 * Sets the metadata from the output of ffmpeg, for segments the probe could
+	 * not read
+	 */
+	private synchronized void applyFFmpegOutput(VideoEvent videoEvent, String lines) {
+		String[] height = stringParse.parse(lines, "\\d{2,4}x(\\d+)");
+		if (videoEvent.getResolutionHeight() == 0 && height != null) {
+			videoEvent.setResolutionHeight(StringParse.stringToInteger(height[0], 0));
+			videoEvent.getChildManifest().setPixelHeight(videoEvent.getResolutionHeight());
+		}
+
+		if ((stringParse.parse(lines, "Stream #0.*Audio: ([A-Za-z0-9]*) ")) != null) {
+			String chnls = "";
+			if (lines.contains(" stereo,")) {
+				chnls = "2";
+			} else if (lines.contains(" mono,")) {
+				chnls = "1";
+			}
+			setAudio(videoEvent, chnls);
+		}
 	}
-	
-	private String buildSegmentFullPathName(VideoEvent videoEvent) {
-		String fileName = videoEvent.getRequest().getFileName();
-		int pos = fileName.lastIndexOf("/");
-		if (pos > -1) {
-			fileName = fileName.substring(pos + 1);
+
+	/**
+	 * A video segment with audio is muxed
+	 * 
+	 * @param chnls
+	 *            "2" for stereo, "1" for mono, empty for other layouts
+	 */
+	private void setAudio(VideoEvent videoEvent, String chnls) {
+		if (videoEvent.getSegmentInfo().isVideo() && videoEvent.getSegmentInfo().getContentType().equals(ContentType.VIDEO)) {
+			videoEvent.getSegmentInfo().setContentType(ContentType.MUXED);
+		}
+		if (videoEvent.getChannels() == null) {
+			if (videoEvent.getChildManifest().getChannels() == null) {
+				videoEvent.getChildManifest().setChannels(chnls);
+			}
+			videoEvent.setChannels(chnls);
 		}
-		String segName = String.format("%sclip_%09.0f_%08d_%s_%s", streamingVideoData.getVideoPath(), videoEvent.getRequest().getTimeStamp(), (int)videoEvent.getSegmentID(), videoEvent.getQuality(), fileName);
-		return segName;
+	}
+
+	/**
+	 * Number of segments processed in parallel, setting THUMBNAIL_THREADS,
+	 * defaults to the number of processors
+	 */
+	private int getThumbnailThreads() {
+		return thumbnailThreads > 0 ? thumbnailThreads : ParallelTasks.getThreads(ParallelTasks.THUMBNAIL_THREADS);
+	}
+
+	void setThumbnailThreads(int thumbnailThreads) {
+		this.thumbnailThreads = thumbnailThreads;
 	}
 }
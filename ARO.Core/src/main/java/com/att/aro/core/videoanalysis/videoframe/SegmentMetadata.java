@@ -5,7 +5,7 @@
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
  *
- *      http://www.apache.org/licenses/LICENSE-2.0 
+ *      http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -13,19 +13,29 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
 */
-package com.att.aro.core.packetreader.model.pcapng;
+package com.att.aro.core.videoanalysis.videoframe;
 
-
-import java.util.List;
-import com.google.gson.annotations.SerializedName;
 import lombok.Data;
 
-
+/**
+ * Stream information of a segment, as SegmentProbe reads it from the container
+ */
 @Data
-public class Layers {
-	@SerializedName("frame")
-	private Frame frame;
+public class SegmentMetadata {
+
+	private boolean video;
+	private boolean audio;
+
+	/**
+	 * ffmpeg name of the codecs, null when unknown
+	 */
+	private String videoCodec;
+	private String audioCodec;
 
-	@SerializedName("frame_raw")
-	List<Object> rawAttributesList;
+	/**
+	 * 0 when unknown
+	 */
+	private int width;
+	private int height;
+	private int channels;
 }
@@ -0,0 +1,621 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.videoanalysis.videoframe;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.mp4parser.Container;
+import org.mp4parser.IsoFile;
+import org.mp4parser.boxes.iso14496.part12.HandlerBox;
+import org.mp4parser.boxes.iso14496.part12.OriginalFormatBox;
+import org.mp4parser.boxes.iso14496.part12.SampleDescriptionBox;
+import org.mp4parser.boxes.iso14496.part12.TrackBox;
+import org.mp4parser.boxes.iso14496.part12.TrackHeaderBox;
+import org.mp4parser.boxes.sampleentry.AudioSampleEntry;
+import org.mp4parser.boxes.sampleentry.SampleEntry;
+import org.mp4parser.boxes.sampleentry.VisualSampleEntry;
+import org.mp4parser.tools.Path;
+
+/**
+ * Reads the streams of a video segment in process, from the ISO-BMFF boxes of
+ * an MP4 segment or the PAT, PMT and elementary stream headers of an MPEG-TS
+ * segment.
+ * <p>
+ * Resolution comes from the visual sample entry of MP4 or the H.264 SPS of
+ * TS, channels from the audio sample entry of MP4 or the ADTS, MPEG audio or
+ * AC-3 header of TS. What is not found is left unknown.
+ * </p>
+ */
+public final class SegmentProbe {
+
+	private static final Logger LOG = LogManager.getLogger(SegmentProbe.class.getName());
+
+	private static final int TS_PACKET_SIZE = 188;
+	private static final byte TS_SYNC = 0x47;
+
+	/**
+	 * bytes of the first PES of an elementary stream kept for its headers
+	 */
+	private static final int PES_LIMIT = 64 * 1024;
+
+	private static final Set<String> ISO_BOX_TYPES = new HashSet<>();
+	private static final Map<String, String> MP4_CODECS = new HashMap<>();
+	static {
+		for (String type : new String[] { "ftyp", "styp", "moov", "moof", "sidx", "free", "skip", "mdat", "emsg", "prft" }) {
+			ISO_BOX_TYPES.add(type);
+		}
+		MP4_CODECS.put("avc1", "h264");
+		MP4_CODECS.put("avc3", "h264");
+		MP4_CODECS.put("hvc1", "hevc");
+		MP4_CODECS.put("hev1", "hevc");
+		MP4_CODECS.put("mp4v", "mpeg4");
+		MP4_CODECS.put("vp09", "vp9");
+		MP4_CODECS.put("av01", "av1");
+		MP4_CODECS.put("mp4a", "aac");
+		MP4_CODECS.put("ac-3", "ac3");
+		MP4_CODECS.put("ec-3", "eac3");
+		MP4_CODECS.put("Opus", "opus");
+	}
+
+	private SegmentProbe() {
+	}
+
+	/**
+	 * Reads the streams of a segment
+	 * 
+	 * @param data
+	 *            segment, with the moov box of its stream in front for
+	 *            fragmented MP4
+	 * @return the streams, null when the container is not recognized or does
+	 *         not describe its tracks
+	 */
+	public static SegmentMetadata probe(byte[] data) {
+		try {
+			if (isTransportStream(data)) {
+				return probeTransportStream(data);
+			}
+			int[] moov = findMoov(data);
+			if (moov != null) {
+				return probeMoov(data, moov[0], moov[1]);
+			}
+		} catch (IOException | RuntimeException e) {
+			LOG.debug("Unable to probe segment: " + e.getMessage());
+		}
+		return null;
+	}
+
+	/*
+	 * ISO-BMFF
+	 */
+
+	/**
+	 * @return offset and size of the moov box, null when data is not a
+	 *         sequence of ISO boxes or has no moov
+	 */
+	private static int[] findMoov(byte[] data) {
+		int offset = 0;
+		while (offset + 8 <= data.length) {
+			long size = readInt(data, offset) & 0xFFFFFFFFL;
+			String type = new String(data, offset + 4, 4, StandardCharsets.ISO_8859_1);
+			int header = 8;
+			if (size == 1) {
+				if (offset + 16 > data.length) {
+					return null;
+				}
+				size = ((long) readInt(data, offset + 8) << 32) | (readInt(data, offset + 12) & 0xFFFFFFFFL);
+				header = 16;
+			} else if (size == 0) {
+				size = data.length - offset;
+			}
+			if (size < header || (offset == 0 && !ISO_BOX_TYPES.contains(type))) {
+				return null;
+			}
+			if ("moov".equals(type)) {
+				return size <= data.length - offset ? new int[] { offset, (int) size } : null;
+			}
+			offset += Math.min(size, data.length - offset);
+		}
+		return null;
+	}
+
+	/**
+	 * Parses the moov box alone, so the media data is not read
+	 */
+	private static SegmentMetadata probeMoov(byte[] data, int offset, int size) throws IOException {
+		SegmentMetadata metadata = new SegmentMetadata();
+		try (IsoFile isoFile = new IsoFile(Channels.newChannel(new ByteArrayInputStream(data, offset, size)))) {
+			List<TrackBox> tracks = Path.getPaths(isoFile, "moov/trak");
+			for (TrackBox track : tracks) {
+				HandlerBox handler = Path.getPath(track, "mdia/hdlr");
+				SampleDescriptionBox stsd = Path.getPath(track, "mdia/minf/stbl/stsd");
+				SampleEntry entry = stsd != null && !stsd.getBoxes(SampleEntry.class).isEmpty() ? stsd.getBoxes(SampleEntry.class).get(0) : null;
+				if (handler == null) {
+					continue;
+				}
+				if ("vide".equals(handler.getHandlerType()) && !metadata.isVideo()) {
+					metadata.setVideo(true);
+					if (entry instanceof VisualSampleEntry) {
+						metadata.setVideoCodec(mp4Codec(entry));
+						metadata.setWidth(((VisualSampleEntry) entry).getWidth());
+						metadata.setHeight(((VisualSampleEntry) entry).getHeight());
+					}
+					TrackHeaderBox tkhd = Path.getPath(track, "tkhd");
+					if (metadata.getHeight() == 0 && tkhd != null) {
+						metadata.setWidth((int) tkhd.getWidth());
+						metadata.setHeight((int) tkhd.getHeight());
+					}
+				} else if ("soun".equals(handler.getHandlerType()) && !metadata.isAudio()) {
+					metadata.setAudio(true);
+					if (entry instanceof AudioSampleEntry) {
+						metadata.setAudioCodec(mp4Codec(entry));
+						metadata.setChannels(((AudioSampleEntry) entry).getChannelCount());
+					}
+				}
+			}
+		}
+		return metadata;
+	}
+
+	/**
+	 * @return ffmpeg name of the codec of a sample entry, the original format
+	 *         for an encrypted entry
+	 */
+	private static String mp4Codec(SampleEntry entry) {
+		String type = entry.getType();
+		if ("encv".equals(type) || "enca".equals(type)) {
+			OriginalFormatBox frma = Path.getPath((Container) entry, "sinf/frma");
+			if (frma != null) {
+				type = frma.getDataFormat();
+			}
+		}
+		String codec = MP4_CODECS.get(type);
+		return codec != null ? codec : type;
+	}
+
+	/*
+	 * MPEG-TS
+	 */
+
+	private static boolean isTransportStream(byte[] data) {
+		return data.length >= TS_PACKET_SIZE && data[0] == TS_SYNC && (data.length < 2 * TS_PACKET_SIZE || data[TS_PACKET_SIZE] == TS_SYNC);
+	}
+
+	/**
+	 * An elementary stream of the PMT
+	 */
+	private static final class ElementaryStream {
+		private final int streamType;
+		private final boolean ac3;
+		private byte[] pes = new byte[0];
+		private int length;
+		private boolean started;
+		private boolean complete;
+
+		private ElementaryStream(int streamType, boolean ac3) {
+			this.streamType = streamType;
+			this.ac3 = ac3;
+		}
+
+		/**
+		 * Keeps the payload of the first PES, without its header
+		 */
+		private void add(byte[] data, int offset, int end, boolean unitStart) {
+			if (complete) {
+				return;
+			}
+			if (unitStart) {
+				if (started) {
+					complete = true;
+					return;
+				}
+				if (end - offset < 9 || data[offset] != 0 || data[offset + 1] != 0 || data[offset + 2] != 1) {
+					return;
+				}
+				started = true;
+				offset += 9 + (data[offset + 8] & 0xFF);
+			}
+			if (!started || offset >= end) {
+				return;
+			}
+			int count = Math.min(end - offset, PES_LIMIT - length);
+			if (length + count > pes.length) {
+				pes = Arrays.copyOf(pes, Math.max(length + count, Math.min(PES_LIMIT, pes.length * 2 + 4096)));
+			}
+			System.arraycopy(data, offset, pes, length, count);
+			length += count;
+			complete = length >= PES_LIMIT;
+		}
+	}
+
+	private static SegmentMetadata probeTransportStream(byte[] data) {
+		Set<Integer> pmtPids = new HashSet<>();
+		Map<Integer, ElementaryStream> streams = new LinkedHashMap<>();
+		boolean pmtRead = false;
+		for (int packet = 0; packet + TS_PACKET_SIZE <= data.length && data[packet] == TS_SYNC; packet += TS_PACKET_SIZE) {
+			boolean unitStart = (data[packet + 1] & 0x40) != 0;
+			int pid = ((data[packet + 1] & 0x1F) << 8) | (data[packet + 2] & 0xFF);
+			int adaptation = (data[packet + 3] >> 4) & 0x03;
+			int offset = packet + 4;
+			if (adaptation == 2 || adaptation == 0) {
+				continue;
+			} else if (adaptation == 3) {
+				offset += 1 + (data[offset] & 0xFF);
+			}
+			int end = packet + TS_PACKET_SIZE;
+			if (offset >= end) {
+				continue;
+			}
+			if (pid == 0 && unitStart) {
+				readPat(data, offset + 1 + (data[offset] & 0xFF), end, pmtPids);
+			} else if (pmtPids.contains(pid) && unitStart && !pmtRead) {
+				pmtRead = readPmt(data, offset + 1 + (data[offset] & 0xFF), end, streams);
+			} else if (streams.containsKey(pid)) {
+				streams.get(pid).add(data, offset, end, unitStart);
+				if (isComplete(streams)) {
+					break;
+				}
+			}
+		}
+		if (!pmtRead) {
+			return null;
+		}
+		SegmentMetadata metadata = new SegmentMetadata();
+		for (ElementaryStream stream : streams.values()) {
+			readElementaryStream(stream, metadata);
+		}
+		return metadata;
+	}
+
+	private static boolean isComplete(Map<Integer, ElementaryStream> streams) {
+		for (ElementaryStream stream : streams.values()) {
+			if (!stream.complete) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Collects the PMT PIDs of the programs of a PAT section
+	 */
+	private static void readPat(byte[] data, int offset, int end, Set<Integer> pmtPids) {
+		if (offset + 8 > end || data[offset] != 0x00) {
+			return;
+		}
+		int sectionEnd = Math.min(end, offset + 3 + (((data[offset + 1] & 0x0F) << 8) | (data[offset + 2] & 0xFF))) - 4;
+		for (int entry = offset + 8; entry + 4 <= sectionEnd; entry += 4) {
+			int program = ((data[entry] & 0xFF) << 8) | (data[entry + 1] & 0xFF);
+			if (program != 0) {
+				pmtPids.add(((data[entry + 2] & 0x1F) << 8) | (data[entry + 3] & 0xFF));
+			}
+		}
+	}
+
+	/**
+	 * Collects the elementary streams of a PMT section
+	 * 
+	 * @return true when the section was read
+	 */
+	private static boolean readPmt(byte[] data, int offset, int end, Map<Integer, ElementaryStream> streams) {
+		if (offset + 12 > end || data[offset] != 0x02) {
+			return false;
+		}
+		int sectionEnd = Math.min(end, offset + 3 + (((data[offset + 1] & 0x0F) << 8) | (data[offset + 2] & 0xFF))) - 4;
+		int entry = offset + 12 + (((data[offset + 10] & 0x0F) << 8) | (data[offset + 11] & 0xFF));
+		while (entry + 5 <= sectionEnd) {
+			int streamType = data[entry] & 0xFF;
+			int pid = ((data[entry + 1] & 0x1F) << 8) | (data[entry + 2] & 0xFF);
+			int infoLength = ((data[entry + 3] & 0x0F) << 8) | (data[entry + 4] & 0xFF);
+			boolean ac3 = false;
+			for (int descriptor = entry + 5; descriptor + 2 <= entry + 5 + infoLength && descriptor + 2 <= sectionEnd; descriptor += 2 + (data[descriptor + 1] & 0xFF)) {
+				// AC-3 descriptor, or registration descriptor of AC-3
+				ac3 |= (data[descriptor] & 0xFF) == 0x6A || ((data[descriptor] & 0xFF) == 0x05 && descriptor + 6 <= sectionEnd
+						&& "AC-3".equals(new String(data, descriptor + 2, 4, StandardCharsets.ISO_8859_1)));
+			}
+			streams.put(pid, new ElementaryStream(streamType, ac3));
+			entry += 5 + infoLength;
+		}
+		return true;
+	}
+
+	private static void readElementaryStream(ElementaryStream stream, SegmentMetadata metadata) {
+		switch (stream.streamType) {
+		case 0x01:
+		case 0x02:
+			setVideo(metadata, "mpeg2video");
+			break;
+		case 0x10:
+			setVideo(metadata, "mpeg4");
+			break;
+		case 0x1B:
+			if (setVideo(metadata, "h264")) {
+				readH264(stream.pes, stream.length, metadata);
+			}
+			break;
+		case 0x24:
+			setVideo(metadata, "hevc");
+			break;
+		case 0x03:
+		case 0x04:
+			if (setAudio(metadata, "mp3")) {
+				readMpegAudio(stream.pes, stream.length, metadata);
+			}
+			break;
+		case 0x0F:
+			if (setAudio(metadata, "aac")) {
+				readAdts(stream.pes, stream.length, metadata);
+			}
+			break;
+		case 0x81:
+			if (setAudio(metadata, "ac3")) {
+				readAc3(stream.pes, stream.length, metadata);
+			}
+			break;
+		case 0x87:
+			setAudio(metadata, "eac3");
+			break;
+		case 0x06:
+			if (stream.ac3 && setAudio(metadata, "ac3")) {
+				readAc3(stream.pes, stream.length, metadata);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * @return true for the first video stream
+	 */
+	private static boolean setVideo(SegmentMetadata metadata, String codec) {
+		if (metadata.isVideo()) {
+			return false;
+		}
+		metadata.setVideo(true);
+		metadata.setVideoCodec(codec);
+		return true;
+	}
+
+	/**
+	 * @return true for the first audio stream
+	 */
+	private static boolean setAudio(SegmentMetadata metadata, String codec) {
+		if (metadata.isAudio()) {
+			return false;
+		}
+		metadata.setAudio(true);
+		metadata.setAudioCodec(codec);
+		return true;
+	}
+
+	/*
+	 * Elementary stream headers
+	 */
+
+	/**
+	 * Reads the resolution from the first SPS of an H.264 stream
+	 */
+	static void readH264(byte[] data, int length, SegmentMetadata metadata) {
+		for (int index = 0; index + 3 < length; index++) {
+			if (data[index] == 0 && data[index + 1] == 0 && data[index + 2] == 1 && (data[index + 3] & 0x1F) == 7) {
+				int start = index + 4;
+				int end = start;
+				while (end + 2 < length && !(data[end] == 0 && data[end + 1] == 0 && (data[end + 2] & 0xFF) <= 1)) {
+					end++;
+				}
+				readSps(new BitReader(unescape(data, start, end < length - 2 ? end : length)), metadata);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes the emulation prevention bytes of a NAL unit
+	 */
+	private static byte[] unescape(byte[] data, int start, int end) {
+		byte[] rbsp = new byte[end - start];
+		int length = 0;
+		int zeros = 0;
+		for (int index = start; index < end; index++) {
+			if (zeros >= 2 && data[index] == 3) {
+				zeros = 0;
+				continue;
+			}
+			zeros = data[index] == 0 ? zeros + 1 : 0;
+			rbsp[length++] = data[index];
+		}
+		return Arrays.copyOf(rbsp, length);
+	}
+
+	private static void readSps(BitReader sps, SegmentMetadata metadata) {
+		int profile = sps.bits(8);
+		sps.bits(16); // constraint flags, level
+		sps.ue(); // seq_parameter_set_id
+		int chromaFormat = 1;
+		boolean separateColourPlanes = false;
+		if (profile == 100 || profile == 110 || profile == 122 || profile == 244 || profile == 44 || profile == 83 || profile == 86 || profile == 118
+				|| profile == 128 || profile == 138 || profile == 139 || profile == 134 || profile == 135) {
+			chromaFormat = sps.ue();
+			if (chromaFormat == 3) {
+				separateColourPlanes = sps.bits(1) == 1;
+			}
+			sps.ue(); // bit_depth_luma_minus8
+			sps.ue(); // bit_depth_chroma_minus8
+			sps.bits(1); // qpprime_y_zero_transform_bypass_flag
+			if (sps.bits(1) == 1) {
+				for (int list = 0; list < (chromaFormat != 3 ? 8 : 12); list++) {
+					if (sps.bits(1) == 1) {
+						skipScalingList(sps, list < 6 ? 16 : 64);
+					}
+				}
+			}
+		}
+		sps.ue(); // log2_max_frame_num_minus4
+		int pocType = sps.ue();
+		if (pocType == 0) {
+			sps.ue();
+		} else if (pocType == 1) {
+			sps.bits(1);
+			sps.se();
+			sps.se();
+			for (int cycle = sps.ue(); cycle > 0; cycle--) {
+				sps.se();
+			}
+		}
+		sps.ue(); // max_num_ref_frames
+		sps.bits(1); // gaps_in_frame_num_value_allowed_flag
+		int width = (sps.ue() + 1) * 16;
+		int mapUnits = sps.ue() + 1;
+		int frameMbsOnly = sps.bits(1);
+		if (frameMbsOnly == 0) {
+			sps.bits(1); // mb_adaptive_frame_field_flag
+		}
+		sps.bits(1); // direct_8x8_inference_flag
+		int height = (2 - frameMbsOnly) * mapUnits * 16;
+		if (sps.bits(1) == 1) {
+			int chromaArrayType = separateColourPlanes ? 0 : chromaFormat;
+			int cropUnitX = chromaArrayType == 1 || chromaArrayType == 2 ? 2 : 1;
+			int cropUnitY = (chromaArrayType == 1 ? 2 : 1) * (2 - frameMbsOnly);
+			width -= (sps.ue() + sps.ue()) * cropUnitX;
+			height -= (sps.ue() + sps.ue()) * cropUnitY;
+		}
+		if (sps.isValid() && width > 0 && height > 0) {
+			metadata.setWidth(width);
+			metadata.setHeight(height);
+		}
+	}
+
+	private static void skipScalingList(BitReader sps, int size) {
+		int last = 8;
+		int next = 8;
+		for (int index = 0; index < size; index++) {
+			if (next != 0) {
+				next = (last + sps.se() + 256) % 256;
+			}
+			last = next == 0 ? last : next;
+		}
+	}
+
+	/**
+	 * Reads the channel configuration of the first ADTS header
+	 */
+	static void readAdts(byte[] data, int length, SegmentMetadata metadata) {
+		for (int index = 0; index + 4 < length; index++) {
+			if ((data[index] & 0xFF) == 0xFF && (data[index + 1] & 0xF6) == 0xF0) {
+				metadata.setChannels(((data[index + 2] & 0x01) << 2) | ((data[index + 3] >> 6) & 0x03));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reads the layer and channel mode of the first MPEG audio header
+	 */
+	static void readMpegAudio(byte[] data, int length, SegmentMetadata metadata) {
+		for (int index = 0; index + 3 < length; index++) {
+			int layer = (data[index + 1] >> 1) & 0x03;
+			if ((data[index] & 0xFF) == 0xFF && (data[index + 1] & 0xE0) == 0xE0 && layer != 0) {
+				metadata.setAudioCodec(layer == 1 ? "mp3" : layer == 2 ? "mp2" : "mp1");
+				metadata.setChannels(((data[index + 3] >> 6) & 0x03) == 3 ? 1 : 2);
+				return;
+			}
+		}
+	}
+
+	private static final int[] AC3_CHANNELS = { 2, 1, 2, 3, 3, 4, 4, 5 };
+
+	/**
+	 * Reads the channels of the first AC-3 sync frame, the LFE channel
+	 * included
+	 */
+	static void readAc3(byte[] data, int length, SegmentMetadata metadata) {
+		for (int index = 0; index + 8 < length; index++) {
+			if (data[index] == 0x0B && data[index + 1] == 0x77) {
+				BitReader bsi = new BitReader(Arrays.copyOfRange(data, index + 6, index + 8));
+				int acmod = bsi.bits(3);
+				if ((acmod & 1) != 0 && acmod != 1) {
+					bsi.bits(2); // cmixlev
+				}
+				if ((acmod & 4) != 0) {
+					bsi.bits(2); // surmixlev
+				}
+				if (acmod == 2) {
+					bsi.bits(2); // dsurmod
+				}
+				metadata.setChannels(AC3_CHANNELS[acmod] + bsi.bits(1));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reads the bits of a header, past the end reads as 0 and makes the reader
+	 * invalid
+	 */
+	private static final class BitReader {
+		private final byte[] data;
+		private int position;
+
+		private BitReader(byte[] data) {
+			this.data = data;
+		}
+
+		private int bits(int count) {
+			int value = 0;
+			for (int bit = 0; bit < count; bit++, position++) {
+				int index = position >> 3;
+				value = (value << 1) | (index < data.length ? (data[index] >> (7 - (position & 7))) & 1 : 0);
+			}
+			return value;
+		}
+
+		/**
+		 * Exp-Golomb code
+		 */
+		private int ue() {
+			int zeros = 0;
+			while (bits(1) == 0 && zeros < 31 && isValid()) {
+				zeros++;
+			}
+			return (int) ((1L << zeros) - 1 + (zeros > 0 ? bits(zeros) & 0xFFFFFFFFL : 0));
+		}
+
+		private int se() {
+			int code = ue();
+			return (code & 1) != 0 ? (code + 1) / 2 : -(code / 2);
+		}
+
+		private boolean isValid() {
+			return position <= data.length * 8;
+		}
+	}
+
+	private static int readInt(byte[] data, int offset) {
+		return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16) | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+	}
+}
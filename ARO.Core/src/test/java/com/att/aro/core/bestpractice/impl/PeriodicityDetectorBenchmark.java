@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.bestpractice.impl;
+
+import static com.att.aro.core.bestpractice.impl.PeriodicityDetectorTest.isPeriodicalTraffic;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+/**
+ * Timing of PeriodicityDetector against the pairwise algorithm. Not part of
+ * the default test run; run with -Dtest=PeriodicityDetectorBenchmark.
+ */
+public class PeriodicityDetectorBenchmark {
+
+	private static final Logger LOGGER = LogManager.getLogger(PeriodicityDetectorBenchmark.class.getName());
+
+	private static final double MIN_CYCLE = 10.0;
+	private static final double CYCLE_TOLERANCE = 1.0;
+	private static final int MIN_SAMPLES = 3;
+
+	/**
+	 * Compares with the pairwise algorithm on periodic beacons of one host,
+	 * in chunks of 200 requests as PeriodicTransferImpl tests them
+	 */
+	@Test
+	public void periodicBeacons() {
+		PeriodicityDetector detector = new PeriodicityDetector(MIN_CYCLE, CYCLE_TOLERANCE, MIN_SAMPLES);
+		Random random = new Random(1);
+		int chunks = 10;
+		List<double[]> timeLists = new ArrayList<>();
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			double[] times = new double[200];
+			for (int index = 0; index < times.length; index++) {
+				times[index] = index % 4 == 0 ? random.nextDouble() * 6000 : index * 30 + random.nextDouble() * 0.8;
+			}
+			timeLists.add(times);
+		}
+
+		long start = System.nanoTime();
+		int periodic = 0;
+		for (double[] times : timeLists) {
+			periodic += detector.isPeriodic(times) ? 1 : 0;
+		}
+		double detectorSeconds = (System.nanoTime() - start) / 1e9;
+
+		start = System.nanoTime();
+		int pairwisePeriodic = 0;
+		for (double[] times : timeLists) {
+			List<Double> timeList = new ArrayList<>();
+			for (double time : times) {
+				timeList.add(time);
+			}
+			pairwisePeriodic += isPeriodicalTraffic(timeList, MIN_CYCLE, CYCLE_TOLERANCE, MIN_SAMPLES) ? 1 : 0;
+		}
+		double pairwiseSeconds = (System.nanoTime() - start) / 1e9;
+		assertEquals(chunks, periodic);
+		assertEquals(pairwisePeriodic, periodic);
+		LOGGER.info(String.format("Periodicity of %d requests: detector %.3fs, pairwise %.3fs (%.0fx)", chunks * 200,
+				detectorSeconds, pairwiseSeconds, pairwiseSeconds / detectorSeconds));
+	}
+}
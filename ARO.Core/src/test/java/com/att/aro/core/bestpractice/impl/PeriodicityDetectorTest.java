@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.bestpractice.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.att.aro.core.bestpractice.pojo.IatInfo;
+
+public class PeriodicityDetectorTest {
+
+	private static final double MIN_CYCLE = 10.0;
+	private static final double CYCLE_TOLERANCE = 1.0;
+	private static final int MIN_SAMPLES = 3;
+
+	private final PeriodicityDetector detector = new PeriodicityDetector(MIN_CYCLE, CYCLE_TOLERANCE, MIN_SAMPLES);
+
+	@Test
+	public void isPeriodic_beacons() {
+		assertTrue(detector.isPeriodic(new double[] { 5, 35.2, 20.1, 50.3, 3 }));
+	}
+
+	@Test
+	public void isPeriodic_tooFrequent() {
+		assertFalse(detector.isPeriodic(new double[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+	}
+
+	@Test
+	public void isPeriodic_notChained() {
+		// cycles of 20s between unrelated pairs do not link into a chain
+		assertFalse(detector.isPeriodic(new double[] { 0, 20, 41, 61, 83, 103 }));
+	}
+
+	@Test
+	public void isPeriodic_sameAsPairwise() {
+		Random random = new Random(7);
+		for (int round = 0; round < 1000; round++) {
+			int count = 4 + random.nextInt(40);
+			double[] times = new double[count];
+			double period = 5 + random.nextInt(20) + (random.nextBoolean() ? random.nextDouble() : 0);
+			for (int index = 0; index < count; index++) {
+				switch (round % 3) {
+				case 0: // periodic with jitter and noise
+					times[index] = random.nextInt(4) == 0 ? random.nextDouble() * count * period : index * period + random.nextDouble() * 1.5;
+					break;
+				case 1: // whole seconds, with many equal IATs
+					times[index] = random.nextInt(count * 8);
+					break;
+				default:
+					times[index] = random.nextDouble() * count * 12;
+					break;
+				}
+			}
+			for (double tolerance : new double[] { 0.5, 1.0, 3.0 }) {
+				for (double minCycle : new double[] { 2, 10.0 }) {
+					List<Double> timeList = new ArrayList<>();
+					for (double time : times) {
+						timeList.add(time);
+					}
+					assertEquals("round " + round, isPeriodicalTraffic(timeList, minCycle, tolerance, MIN_SAMPLES),
+							new PeriodicityDetector(minCycle, tolerance, MIN_SAMPLES).isPeriodic(times));
+				}
+			}
+		}
+	}
+
+	/*
+	 * The pairwise algorithm PeriodicTransferImpl used before
+	 * PeriodicityDetector
+	 */
+
+	static boolean isPeriodicalTraffic(List<Double> timeList, double minVariation, double maxVariation, int minSamples) {
+		int numberOfRequests = timeList.size();
+		List<IatInfo> iatInfoList = new ArrayList<IatInfo>(numberOfRequests * (numberOfRequests - 1) / 2);
+		for (int i = 0; i < numberOfRequests - 1; i++) {
+			for (int j = i + 1; j < numberOfRequests; j++) {
+				double time1 = timeList.get(i).doubleValue();
+				double time2 = timeList.get(j).doubleValue();
+				IatInfo iInfo = new IatInfo();
+				if (time1 <= time2) {
+					iInfo.setBeginTime(time1);
+					iInfo.setIat(time2 - time1);
+					iInfo.setBeginEvent(i);
+					iInfo.setEndEvent(j);
+				} else {
+					iInfo.setBeginTime(time2);
+					iInfo.setIat(time1 - time2);
+					iInfo.setBeginEvent(j);
+					iInfo.setEndEvent(i);
+				}
+				iatInfoList.add(iInfo);
+			}
+		}
+		Collections.sort(iatInfoList, Comparator.comparingDouble(IatInfo::getIat));
+
+		int bestNonOverlapSize = 0;
+		double cycle = 0;
+		for (int idx = 0; idx < iatInfoList.size(); idx++) {
+			List<IatInfo> iAtCluster = new ArrayList<IatInfo>();
+			double sumOfClusterIATs = 0;
+			int index = idx;
+			IatInfo iat = iatInfoList.get(index);
+			while ((index < iatInfoList.size()) && (iatInfoList.get(index).getIat() - iat.getIat() < maxVariation)) {
+				iAtCluster.add(iatInfoList.get(index));
+				sumOfClusterIATs += iatInfoList.get(index).getIat();
+				++index;
+			}
+			double avgIatInCluster = sumOfClusterIATs / iAtCluster.size();
+			if (avgIatInCluster > minVariation) {
+				int nonOverlapSize = getNonOverlapSize(iAtCluster);
+				if (nonOverlapSize > bestNonOverlapSize) {
+					bestNonOverlapSize = nonOverlapSize;
+					cycle = avgIatInCluster;
+				}
+			}
+		}
+		return bestNonOverlapSize >= minSamples && cycle > 0;
+	}
+
+	private static int getNonOverlapSize(List<IatInfo> iAtCluster) {
+		Collections.sort(iAtCluster, Comparator.comparingDouble(IatInfo::getBeginTime));
+		int clusterSize = iAtCluster.size();
+		int[] opt = new int[clusterSize];
+		int best = -1;
+		for (int i = 0; i < clusterSize; i++) {
+			IatInfo iatInfo = iAtCluster.get(i);
+			int tmpBest = 1;
+			for (int j = 0; j <= i - 1; j++) {
+				if (opt[j] >= tmpBest && iAtCluster.get(j).getEndEvent() == iatInfo.getBeginEvent()) {
+					tmpBest = opt[j] + 1;
+				}
+			}
+			if (tmpBest > best) {
+				best = tmpBest;
+			}
+			opt[i] = tmpBest;
+		}
+		return best;
+	}
+}
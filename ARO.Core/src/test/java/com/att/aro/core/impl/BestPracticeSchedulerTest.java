@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.att.aro.core.bestpractice.IBestPractice;
+import com.att.aro.core.bestpractice.pojo.AbstractBestPracticeResult;
+import com.att.aro.core.bestpractice.pojo.BestPracticeTiming;
+import com.att.aro.core.bestpractice.pojo.BestPracticeType;
+import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
+
+public class BestPracticeSchedulerTest {
+
+	private static class TypedResult extends AbstractBestPracticeResult {
+		private final BestPracticeType type;
+
+		TypedResult(BestPracticeType type) {
+			this.type = type;
+		}
+
+		@Override
+		public BestPracticeType getBestPracticeType() {
+			return type;
+		}
+	}
+
+	private static final List<BestPracticeType> REQUESTS = Arrays.asList(BestPracticeType.USING_CACHE,
+			BestPracticeType.VIDEO_STALL, BestPracticeType.PERIODIC_TRANSFER, BestPracticeType.STARTUP_DELAY,
+			BestPracticeType.CACHE_CONTROL, BestPracticeType.IMAGE_SIZE, BestPracticeType.HTTP_4XX_5XX);
+
+	@Test
+	public void resultsInRequestOrder() {
+		AtomicInteger cacheRuns = new AtomicInteger();
+		AtomicBoolean cacheDone = new AtomicBoolean();
+		AtomicBoolean orderViolated = new AtomicBoolean();
+		List<BestPracticeTiming> timings = new ArrayList<>();
+
+		List<AbstractBestPracticeResult> results = new BestPracticeScheduler(4).addPrerequisite(() -> {
+			cacheRuns.incrementAndGet();
+			cacheDone.set(true);
+		}, BestPracticeType.USING_CACHE, BestPracticeType.CACHE_CONTROL).run(new PacketAnalyzerResult(), REQUESTS, type -> {
+			IBestPractice worker = result -> {
+				if ((type == BestPracticeType.USING_CACHE || type == BestPracticeType.CACHE_CONTROL) && !cacheDone.get()) {
+					orderViolated.set(true);
+				}
+				return new TypedResult(type);
+			};
+			return worker;
+		}, timings);
+
+		assertEquals(1, cacheRuns.get());
+		assertTrue(!orderViolated.get());
+		assertEquals(REQUESTS.size(), results.size());
+		for (int index = 0; index < REQUESTS.size(); index++) {
+			assertEquals(REQUESTS.get(index), results.get(index).getBestPracticeType());
+		}
+		assertEquals(REQUESTS.size(), timings.size());
+	}
+
+	@Test
+	public void failureIsReportedAndSkipped() {
+		List<BestPracticeType> failed = new ArrayList<>();
+		List<BestPracticeTiming> timings = new ArrayList<>();
+		for (int threads : new int[] { 1, 3 }) {
+			failed.clear();
+			timings.clear();
+			List<AbstractBestPracticeResult> results = new BestPracticeScheduler(threads)
+					.setFailureListener((type, throwable) -> {
+						synchronized (failed) {
+							failed.add(type);
+						}
+					}).run(new PacketAnalyzerResult(), REQUESTS, type -> result -> {
+						if (type == BestPracticeType.PERIODIC_TRANSFER) {
+							throw new IllegalStateException("failed");
+						}
+						return new TypedResult(type);
+					}, timings);
+
+			assertEquals(REQUESTS.size() - 1, results.size());
+			assertEquals(Arrays.asList(BestPracticeType.PERIODIC_TRANSFER), failed);
+			long successes = timings.stream().filter(BestPracticeTiming::isSuccess).count();
+			assertEquals(REQUESTS.size() - 1, successes);
+		}
+	}
+}
@@ -0,0 +1,312 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.att.aro.core.BaseTest;
+import com.att.aro.core.configuration.pojo.ProfileLTE;
+import com.att.aro.core.packetanalysis.IAnalysisSnapshotStore;
+import com.att.aro.core.packetanalysis.ISessionManager;
+import com.att.aro.core.packetanalysis.pojo.AnalysisSnapshot;
+import com.att.aro.core.packetanalysis.pojo.HttpDirection;
+import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.Session;
+import com.att.aro.core.packetanalysis.pojo.TcpInfo;
+import com.att.aro.core.packetanalysis.pojo.TraceDataConst;
+import com.att.aro.core.packetreader.impl.PacketServiceImpl;
+import com.att.aro.core.packetreader.pojo.Packet;
+import com.att.aro.core.packetreader.pojo.PacketDirection;
+
+public class AnalysisSnapshotStoreImplTest extends BaseTest {
+
+	private static final long MODIFIED = 1600000000000L;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private IAnalysisSnapshotStore snapshotStore;
+	private SessionManagerImpl sessionManager;
+
+	@Before
+	public void setUp() {
+		snapshotStore = context.getBean(IAnalysisSnapshotStore.class);
+		sessionManager = (SessionManagerImpl) context.getBean(ISessionManager.class);
+	}
+
+	/**
+	 * IPv4/TCP packet without link layer between 127.0.0.2:port and 127.0.0.1:80
+	 */
+	private static PacketInfo tcpPacketInfo(int localPort, boolean uplink, boolean syn, long sequence, int payload, double timestamp) {
+		return tcpPacketInfo(localPort, uplink, syn, sequence, new byte[payload], timestamp);
+	}
+
+	private static PacketInfo tcpPacketInfo(int localPort, boolean uplink, boolean syn, long sequence, byte[] data, double timestamp) {
+		int payload = data.length;
+		ByteBuffer buffer = ByteBuffer.allocate(40 + payload);
+		buffer.put((byte) 0x45).put((byte) 0).putShort((short) (40 + payload));
+		buffer.putInt(0).put((byte) 64).put((byte) 6).putShort((short) 0);
+		byte[] local = new byte[] { 127, 0, 0, 2 };
+		byte[] remote = new byte[] { 127, 0, 0, 1 };
+		buffer.put(uplink ? local : remote).put(uplink ? remote : local);
+		buffer.putShort((short) (uplink ? localPort : 80)).putShort((short) (uplink ? 80 : localPort));
+		buffer.putInt((int) sequence).putInt(1);
+		buffer.put((byte) 0x50).put((byte) (syn ? 0x02 : 0x10)).putShort((short) 1024).putInt(0);
+		buffer.put(data);
+		Packet packet = new PacketServiceImpl().createPacketFromPcap(12, 0, 0, 40 + payload, buffer.array(), null);
+		PacketInfo packetInfo = new PacketInfo(packet);
+		packetInfo.setDir(uplink ? PacketDirection.UPLINK : PacketDirection.DOWNLINK);
+		packetInfo.setTimestamp(timestamp);
+		return packetInfo;
+	}
+
+	private static List<PacketInfo> packets() {
+		List<PacketInfo> packets = new ArrayList<>();
+		for (int index = 0; index < 200; index++) {
+			int flow = index % 4;
+			int round = index / 4;
+			packets.add(tcpPacketInfo(40000 + flow, round % 2 == 0, round == 0, round == 0 ? 0 : 1000 + round * 10, round == 0 ? 0 : 10, index * 0.01));
+		}
+		return packets;
+	}
+
+	/**
+	 * A request and a response with a body of random bytes
+	 */
+	private static List<PacketInfo> httpPackets(byte[] body) {
+		byte[] request = "GET /image HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+		byte[] header = ("HTTP/1.1 200 OK\r\nContent-Type: image/jpeg\r\nContent-Length: " + body.length + "\r\n\r\n")
+				.getBytes(StandardCharsets.US_ASCII);
+		List<PacketInfo> packets = new ArrayList<>();
+		packets.add(tcpPacketInfo(40000, true, true, 0, 0, 0));
+		packets.add(tcpPacketInfo(40000, false, true, 5000, 0, 0.01));
+		packets.add(tcpPacketInfo(40000, true, false, 1, request, 0.02));
+		byte[] response = new byte[header.length + body.length];
+		System.arraycopy(header, 0, response, 0, header.length);
+		System.arraycopy(body, 0, response, header.length, body.length);
+		for (int offset = 0; offset < response.length; offset += 1000) {
+			byte[] segment = Arrays.copyOfRange(response, offset, Math.min(offset + 1000, response.length));
+			packets.add(tcpPacketInfo(40000, false, false, 5001 + offset, segment, 0.03 + packets.size() * 0.001));
+		}
+		return packets;
+	}
+
+	private List<String> trafficFile(byte[] content) throws IOException {
+		return trafficFile(content, MODIFIED);
+	}
+
+	private List<String> trafficFile(byte[] content, long modified) throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), content);
+		Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(modified));
+		return Collections.singletonList(file.getAbsolutePath());
+	}
+
+	private static HttpRequestResponseInfo response(List<Session> sessions) {
+		for (Session session : sessions) {
+			for (HttpRequestResponseInfo info : session.getRequestResponseInfo()) {
+				if (info.getDirection() == HttpDirection.RESPONSE) {
+					return info;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void snapshotIsResolvedAgainstNewPackets() throws IOException {
+		List<PacketInfo> packets = packets();
+		AnalysisSnapshot snapshot = new AnalysisSnapshot();
+		snapshot.setSessions(sessionManager.processPacketsAndAssembleSessions(packets));
+		String traceDirectory = folder.getRoot().getAbsolutePath();
+		String key = snapshotStore.getKey(trafficFile(new byte[] { 1, 2, 3 }), new ProfileLTE(), null);
+		assertNotNull(key);
+		snapshotStore.save(traceDirectory, key, snapshot, packets);
+
+		List<PacketInfo> readAgain = packets();
+		AnalysisSnapshot loaded = snapshotStore.load(traceDirectory, key, readAgain);
+		assertNotNull(loaded);
+		assertEquals(snapshot.getSessions().size(), loaded.getSessions().size());
+		Map<PacketInfo, Integer> indexes = new IdentityHashMap<>();
+		for (int index = 0; index < packets.size(); index++) {
+			indexes.put(packets.get(index), index);
+		}
+		for (int index = 0; index < loaded.getSessions().size(); index++) {
+			Session session = loaded.getSessions().get(index);
+			assertEquals(snapshot.getSessions().get(index).getSessionKey(), session.getSessionKey());
+			assertEquals(snapshot.getSessions().get(index).getTcpPackets().size(), session.getTcpPackets().size());
+			for (int packet = 0; packet < session.getTcpPackets().size(); packet++) {
+				assertSame(readAgain.get(indexes.get(snapshot.getSessions().get(index).getTcpPackets().get(packet))), session.getTcpPackets().get(packet));
+			}
+		}
+		assertSame(readAgain.get(0), loaded.getSessions().get(0).getTcpPackets().get(0));
+		assertEquals(TcpInfo.TCP_ESTABLISH, readAgain.get(0).getTcpInfo());
+
+		assertNull(snapshotStore.load(traceDirectory, key.replace(key.charAt(0), key.charAt(0) == '0' ? '1' : '0'), packets()));
+		assertNull(snapshotStore.load(traceDirectory, key, new ArrayList<>(packets().subList(0, 100))));
+	}
+
+	@Test
+	public void payloadIsKeptAsWhereItIsInThePackets() throws IOException {
+		byte[] body = new byte[64 * 1024];
+		new Random(1).nextBytes(body);
+		List<PacketInfo> packets = httpPackets(body);
+		AnalysisSnapshot snapshot = new AnalysisSnapshot();
+		snapshot.setSessions(sessionManager.processPacketsAndAssembleSessions(packets));
+		HttpRequestResponseInfo response = response(snapshot.getSessions());
+		assertNotNull(response);
+		assertArrayEquals(body, response.getPayloadData().toByteArray());
+		String traceDirectory = folder.getRoot().getAbsolutePath();
+		String key = snapshotStore.getKey(trafficFile(new byte[] { 1, 2, 3 }), new ProfileLTE(), null);
+		snapshotStore.save(traceDirectory, key, snapshot, packets);
+
+		// random bytes do not compress, the body is not in the file
+		assertTrue(Files.size(Paths.get(traceDirectory, TraceDataConst.FileName.ANALYSIS_SNAPSHOT)) < body.length / 4);
+		AnalysisSnapshot loaded = snapshotStore.load(traceDirectory, key, httpPackets(body));
+		assertNotNull(loaded);
+		assertArrayEquals(body, response(loaded.getSessions()).getPayloadData().toByteArray());
+
+		byte[] changed = body.clone();
+		changed[body.length / 2]++;
+		assertNull(snapshotStore.load(traceDirectory, key, httpPackets(changed)));
+	}
+
+	@Test
+	public void payloadNotFromThePacketsIsKept() throws IOException {
+		byte[] body = new byte[1000];
+		new Random(2).nextBytes(body);
+		List<PacketInfo> packets = httpPackets(body);
+		AnalysisSnapshot snapshot = new AnalysisSnapshot();
+		snapshot.setSessions(sessionManager.processPacketsAndAssembleSessions(packets));
+		HttpRequestResponseInfo response = response(snapshot.getSessions());
+		response.getPayloadData().reset();
+		response.writePayload("decoded");
+		String traceDirectory = folder.getRoot().getAbsolutePath();
+		String key = snapshotStore.getKey(trafficFile(new byte[] { 1, 2, 3 }), new ProfileLTE(), null);
+		snapshotStore.save(traceDirectory, key, snapshot, packets);
+
+		AnalysisSnapshot loaded = snapshotStore.load(traceDirectory, key, httpPackets(body));
+		assertArrayEquals("decoded".getBytes(StandardCharsets.US_ASCII), response(loaded.getSessions()).getPayloadData().toByteArray());
+	}
+
+	/**
+	 * Records being read, which it must never be
+	 */
+	static final class Gadget implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		static volatile boolean read;
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			in.defaultReadObject();
+			read = true;
+		}
+	}
+
+	@Test
+	public void load_rejectsClassesOutsideTheModel() throws IOException {
+		String traceDirectory = folder.getRoot().getAbsolutePath();
+		String key = snapshotStore.getKey(trafficFile(new byte[] { 1, 2, 3 }), new ProfileLTE(), null);
+		Path file = Paths.get(traceDirectory, TraceDataConst.FileName.ANALYSIS_SNAPSHOT);
+		try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+			out.writeInt(AnalysisSnapshotStoreImpl.MAGIC);
+			out.writeInt(AnalysisSnapshotStoreImpl.FORMAT_VERSION);
+			out.writeUTF(key);
+			try (ObjectOutputStream objects = new ObjectOutputStream(new GZIPOutputStream(out))) {
+				Map<String, Object> map = new HashMap<>();
+				map.put("gadget", new Gadget());
+				objects.writeObject(map);
+			}
+		}
+		Gadget.read = false;
+
+		assertNull(snapshotStore.load(traceDirectory, key, packets()));
+		assertFalse(Gadget.read);
+	}
+
+	@Test
+	public void isModelClass() {
+		assertTrue(AnalysisSnapshotStoreImpl.isModelClass(AnalysisSnapshot.class.getName()));
+		assertTrue(AnalysisSnapshotStoreImpl.isModelClass(PacketInfo[].class.getName()));
+		assertTrue(AnalysisSnapshotStoreImpl.isModelClass(double[][].class.getName()));
+		assertTrue(AnalysisSnapshotStoreImpl.isModelClass(String[].class.getName()));
+		assertTrue(AnalysisSnapshotStoreImpl.isModelClass(ArrayList.class.getName()));
+		assertFalse(AnalysisSnapshotStoreImpl.isModelClass(Gadget.class.getName()));
+		assertFalse(AnalysisSnapshotStoreImpl.isModelClass(Gadget[].class.getName()));
+		assertFalse(AnalysisSnapshotStoreImpl.isModelClass(Object[].class.getName()));
+		assertFalse(AnalysisSnapshotStoreImpl.isModelClass("java.util.PriorityQueue"));
+	}
+
+	@Test
+	public void keyChangesWithTheAnalysis() throws IOException {
+		List<String> trafficFile = trafficFile(new byte[] { 1, 2, 3 });
+		String key = snapshotStore.getKey(trafficFile, new ProfileLTE(), null);
+		assertEquals(key, snapshotStore.getKey(trafficFile(new byte[] { 1, 2, 3 }), new ProfileLTE(), null));
+		assertNotEquals(key, snapshotStore.getKey(trafficFile(new byte[] { 1, 2, 4 }), new ProfileLTE(), null));
+		assertNotEquals(key, snapshotStore.getKey(trafficFile(new byte[] { 1, 2, 3, 4 }), new ProfileLTE(), null));
+		assertNotEquals(key, snapshotStore.getKey(trafficFile(new byte[] { 1, 2, 3 }, MODIFIED + 1000), new ProfileLTE(), null));
+
+		ProfileLTE profile = new ProfileLTE();
+		profile.setPromotionTime(profile.getPromotionTime() + 1);
+		assertNotEquals(key, snapshotStore.getKey(trafficFile, profile, null));
+	}
+
+	@Test
+	public void key_readsOnlyTheHeader() throws IOException {
+		byte[] traffic = new byte[AnalysisSnapshotStoreImpl.HEADER_SIZE + 100];
+		new Random(3).nextBytes(traffic);
+		String key = snapshotStore.getKey(trafficFile(traffic), new ProfileLTE(), null);
+		traffic[traffic.length - 1]++;
+		assertEquals(key, snapshotStore.getKey(trafficFile(traffic), new ProfileLTE(), null));
+		traffic[AnalysisSnapshotStoreImpl.HEADER_SIZE - 1]++;
+		assertNotEquals(key, snapshotStore.getKey(trafficFile(traffic), new ProfileLTE(), null));
+	}
+}
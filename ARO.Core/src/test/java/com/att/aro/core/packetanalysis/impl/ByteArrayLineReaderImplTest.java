@@ -16,6 +16,12 @@
 package com.att.aro.core.packetanalysis.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -46,5 +52,35 @@ public class ByteArrayLineReaderImplTest extends BaseTest{
 		
 	}
 
-	
+	@Test
+	public void Test_nextLine_LinesInPlace() {
+		byte[] dataTest = "ab\r\n\r\nc\r\rd\r\ne".getBytes(StandardCharsets.US_ASCII);
+		storageReader.init(dataTest);
+
+		assertTrue(storageReader.nextLine());
+		assertEquals(0, storageReader.getLineOffset());
+		assertEquals(2, storageReader.getLineLength());
+
+		assertTrue(storageReader.nextLine());
+		assertEquals(0, storageReader.getLineLength());
+
+		// \r is taken with the byte after it
+		assertTrue(storageReader.nextLine());
+		assertEquals("c\r\rd", new String(dataTest, storageReader.getLineOffset(), storageReader.getLineLength(), StandardCharsets.US_ASCII));
+		assertEquals(12, storageReader.getIndex());
+
+		assertTrue(storageReader.nextLine());
+		assertEquals(12, storageReader.getLineOffset());
+		assertEquals(1, storageReader.getLineLength());
+		assertFalse(storageReader.nextLine());
+	}
+
+	@Test
+	public void Test_readLine_IsReturnLines() throws IOException {
+		storageReader.init("Host: a\r\n\r\nbody".getBytes(StandardCharsets.US_ASCII));
+		assertEquals("Host: a", storageReader.readLine());
+		assertEquals("", storageReader.readLine());
+		assertEquals("body", storageReader.readLine());
+		assertNull(storageReader.readLine());
+	}
 }
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
+
+public class ContentCacheTest {
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() {
+		ContentCache cache = new ContentCache(10);
+		HttpRequestResponseInfo first = new HttpRequestResponseInfo();
+		HttpRequestResponseInfo second = new HttpRequestResponseInfo();
+		HttpRequestResponseInfo third = new HttpRequestResponseInfo();
+		byte[] firstContent = new byte[4];
+		cache.put(first, 1, firstContent);
+		cache.put(second, 1, new byte[4]);
+		assertSame(firstContent, cache.get(first, 1));
+
+		cache.put(third, 1, new byte[4]);
+		assertSame(firstContent, cache.get(first, 1));
+		assertNull(cache.get(second, 1));
+		assertEquals(8, cache.getSize());
+	}
+
+	@Test
+	public void contentIsKeptByResponseAndPayload() {
+		ContentCache cache = new ContentCache(10);
+		HttpRequestResponseInfo response = new HttpRequestResponseInfo();
+		HttpRequestResponseInfo equalResponse = new HttpRequestResponseInfo();
+		cache.put(response, 3, new byte[2]);
+
+		assertNull(cache.get(equalResponse, 3));
+		assertNull(cache.get(response, 4));
+
+		cache.put(response, 4, new byte[3]);
+		assertEquals(3, cache.getSize());
+
+		// larger than the budget
+		cache.put(response, 5, new byte[11]);
+		assertNull(cache.get(response, 5));
+		assertEquals(0, cache.getSize());
+
+		// a payload without a version
+		cache.put(response, 0, new byte[1]);
+		assertNull(cache.get(response, 0));
+		assertEquals(0, cache.getSize());
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import static com.att.aro.core.packetanalysis.impl.DecryptedPacketIndexTest.linearMerge;
+import static com.att.aro.core.packetanalysis.impl.DecryptedPacketIndexTest.tcpPacket;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+
+/**
+ * Timing of DecryptedPacketIndex on a large synthetic trace. Not part of the
+ * default test run; run with -Dtest=DecryptedPacketIndexBenchmark.
+ */
+public class DecryptedPacketIndexBenchmark {
+
+	private static final Logger LOGGER = LogManager.getLogger(DecryptedPacketIndexBenchmark.class.getName());
+
+	/**
+	 * Merges a synthetic 500k packet secure trace and compares against the
+	 * per-packet linear scan the index replaced, measured on a sample and
+	 * extrapolated.
+	 */
+	@Test
+	public void syntheticTrace() {
+		int packetCount = 500_000;
+		int flows = 1000;
+		byte[] cipher = new byte[16];
+		List<PacketInfo> packets = new ArrayList<>(packetCount);
+		for (int i = 0; i < packetCount; i++) {
+			packets.add(new PacketInfo(tcpPacket(40000 + i % flows, i, i + 1, cipher, false)));
+		}
+
+		byte[] plain = new byte[32];
+		long start = System.nanoTime();
+		DecryptedPacketIndex index = new DecryptedPacketIndex(packets);
+		int merged = 0;
+		for (int i = 0; i < packetCount; i++) {
+			merged += index.merge(tcpPacket(40000 + i % flows, i, i + 1, plain, true));
+		}
+		double indexedSeconds = (System.nanoTime() - start) / 1e9;
+		assertEquals(packetCount, merged);
+
+		int sample = 200;
+		start = System.nanoTime();
+		for (int i = 0; i < sample; i++) {
+			linearMerge(packets, tcpPacket(40000 + i % flows, i, i + 1, plain, true));
+		}
+		double linearSeconds = (System.nanoTime() - start) / 1e9 * packetCount / sample;
+		LOGGER.info(String.format("Decrypted merge of %d packets: indexed %.2fs, linear scan ~%.0fs (%.0fx)", packetCount,
+				indexedSeconds, linearSeconds, linearSeconds / indexedSeconds));
+	}
+}
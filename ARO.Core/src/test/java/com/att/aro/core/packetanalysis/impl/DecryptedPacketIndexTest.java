@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetreader.pojo.TCPPacket;
+
+public class DecryptedPacketIndexTest {
+
+	private static final byte[] DEVICE = { 10, 0, 0, 1 };
+	private static final byte[] SERVER = { 93, (byte) 184, (byte) 216, 34 };
+
+	/**
+	 * Builds a TCP packet; the decrypted form has the 14 byte link header and 32
+	 * byte TCP header found in the decrypted pcap.
+	 */
+	static TCPPacket tcpPacket(int sourcePort, long seq, long ack, byte[] payload, boolean decrypted) {
+		int linkLength = decrypted ? 14 : 0;
+		int tcpLength = decrypted ? 32 : 20;
+		ByteBuffer buffer = ByteBuffer.allocate(linkLength + 20 + tcpLength + payload.length);
+		buffer.position(linkLength);
+		buffer.put((byte) 0x45).put((byte) 0).putShort((short) (20 + tcpLength + payload.length));
+		buffer.putInt(0).put((byte) 64).put((byte) 6).putShort((short) 0);
+		buffer.put(DEVICE).put(SERVER);
+		buffer.putShort((short) sourcePort).putShort((short) 443).putInt((int) seq).putInt((int) ack);
+		buffer.put((byte) ((tcpLength / 4) << 4)).put((byte) 0x18).putShort((short) 1024).putInt(0);
+		buffer.position(buffer.position() + tcpLength - 20);
+		buffer.put(payload);
+		byte[] data = buffer.array();
+		return new TCPPacket(1, 0, data.length, linkLength, null, null, data);
+	}
+
+	@Test
+	public void mergeMatchingPacket() {
+		TCPPacket captured = tcpPacket(50000, 100, 200, new byte[] { 23, 3, 3, 0, 1, 9 }, false);
+		TCPPacket otherFlow = tcpPacket(50001, 100, 200, new byte[] { 23, 3, 3, 0, 1, 9 }, false);
+		List<PacketInfo> packets = new ArrayList<>();
+		packets.add(new PacketInfo(captured));
+		packets.add(new PacketInfo(otherFlow));
+		DecryptedPacketIndex index = new DecryptedPacketIndex(packets);
+
+		byte[] plain = "GET / HTTP/1.1\r\n".getBytes();
+		assertEquals(1, index.merge(tcpPacket(50000, 100, 200, plain, true)));
+		assertTrue(captured.isDecrypted());
+		assertArrayEquals(plain, captured.getData());
+		assertFalse(otherFlow.isDecrypted());
+
+		assertEquals(0, index.merge(tcpPacket(50000, 101, 200, plain, true)));
+	}
+
+	@Test
+	public void mergeSameAsLinearScan() {
+		int flows = 7;
+		List<PacketInfo> indexed = new ArrayList<>();
+		List<PacketInfo> scanned = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			indexed.add(new PacketInfo(tcpPacket(40000 + i % flows, i / 2, i + 1, new byte[16], false)));
+			scanned.add(new PacketInfo(tcpPacket(40000 + i % flows, i / 2, i + 1, new byte[16], false)));
+		}
+		DecryptedPacketIndex index = new DecryptedPacketIndex(indexed);
+		for (int i = 0; i < 400; i += 3) {
+			byte[] plain = new byte[] { (byte) i, 1, 2 };
+			index.merge(tcpPacket(40000 + i % flows, i / 2, i + 1, plain, true));
+			linearMerge(scanned, tcpPacket(40000 + i % flows, i / 2, i + 1, plain, true));
+		}
+		for (int i = 0; i < indexed.size(); i++) {
+			assertEquals("packet " + i, ((TCPPacket) scanned.get(i).getPacket()).isDecrypted(),
+					((TCPPacket) indexed.get(i).getPacket()).isDecrypted());
+			assertArrayEquals("packet " + i, scanned.get(i).getPacket().getData(), indexed.get(i).getPacket().getData());
+		}
+	}
+
+	/*
+	 * The per-packet linear scan DecryptedPacketIndex replaced
+	 */
+	static void linearMerge(List<PacketInfo> packets, TCPPacket decrypted) {
+		for (PacketInfo info : packets) {
+			TCPPacket tcpPacket = (TCPPacket) info.getPacket();
+			if (decrypted.getDestinationIPAddress().equals(tcpPacket.getDestinationIPAddress())
+					&& decrypted.getSourceIPAddress().equals(tcpPacket.getSourceIPAddress())
+					&& decrypted.getSequenceNumber() == tcpPacket.getSequenceNumber()
+					&& decrypted.getAckNumber() == tcpPacket.getAckNumber() && decrypted.getData().length > 66) {
+				tcpPacket.setDecrypted(true);
+				tcpPacket.setData(Arrays.copyOfRange(decrypted.getData(), 66, decrypted.getData().length));
+			}
+		}
+	}
+}
@@ -15,10 +15,15 @@
 */
 package com.att.aro.core.packetanalysis.impl;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
 import java.io.ByteArrayOutputStream;
@@ -35,6 +40,8 @@ import org.mockito.Spy;
 
 import com.att.aro.core.BaseTest;
 import com.att.aro.core.packetanalysis.IHttpRequestResponseHelper;
+import com.att.aro.core.packetanalysis.pojo.ContentFingerprint;
+import com.att.aro.core.packetanalysis.pojo.HttpDirection;
 import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
 import com.att.aro.core.packetanalysis.pojo.Session;
 import com.att.aro.core.packetreader.pojo.PacketDirection;
@@ -67,6 +74,90 @@ public class HttpRequestResponseHelperImplTest extends BaseTest {
 		assertTrue(httpRequestResponseHelper.isJavaScript("text/javascript"));
 	}
 
+	private HttpRequestResponseInfo response(String content) throws IOException {
+		HttpRequestResponseInfo response = new HttpRequestResponseInfo();
+		response.setDirection(HttpDirection.RESPONSE);
+		response.getPayloadData().write(content.getBytes());
+		response.setContentLength(content.length());
+		return response;
+	}
+
+	@Test
+	public void getContentFingerprint() throws IOException {
+		Session session = mock(Session.class);
+		HttpRequestResponseInfo response = response("same content");
+
+		ContentFingerprint fingerprint = httpRequestResponseHelper.getContentFingerprint(response, session);
+		assertEquals(ContentFingerprint.of("same content".getBytes()), fingerprint);
+		assertSame(fingerprint, response.getContentFingerprint());
+		assertSame(fingerprint, httpRequestResponseHelper.getContentFingerprint(response, session));
+
+		assertEquals(fingerprint, httpRequestResponseHelper.getContentFingerprint(response("same content"), session));
+		assertNotEquals(fingerprint, httpRequestResponseHelper.getContentFingerprint(response("some content"), session));
+	}
+
+	private HttpRequestResponseInfo gzipResponse(String content) throws IOException {
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+			gzip.write(content.getBytes());
+		}
+		HttpRequestResponseInfo response = new HttpRequestResponseInfo();
+		response.setDirection(HttpDirection.RESPONSE);
+		response.setContentEncoding(HttpRequestResponseInfo.CONTENT_ENCODING_GZIP);
+		response.getPayloadData().write(gzipped.toByteArray());
+		response.setContentLength(gzipped.size());
+		return response;
+	}
+
+	@Test
+	public void getContent_decodedOnce() throws Exception {
+		HttpRequestResponseHelperImpl helper = new HttpRequestResponseHelperImpl();
+		helper.setContentCacheSize(1024);
+		Session session = mock(Session.class);
+		HttpRequestResponseInfo response = gzipResponse("compressed content");
+
+		byte[] content = helper.getContent(response, session);
+		assertArrayEquals("compressed content".getBytes(), content);
+
+		// the decoded content is kept, callers get a copy of it
+		assertArrayEquals(content, helper.getContentCache().get(response, response.getPayloadVersion()));
+		content[0] = 'C';
+		assertEquals("compressed content", helper.getContentString(response, session));
+		assertEquals(ContentFingerprint.of("compressed content".getBytes()), helper.getContentFingerprint(response, session));
+
+		// a payload replaced by one of the same length is decoded again
+		response.setPayloadData(gzipResponse("compressed CONTENT").getPayloadData());
+		assertEquals("compressed CONTENT", helper.getContentString(response, session));
+		assertEquals(ContentFingerprint.of("compressed CONTENT".getBytes()), helper.getContentFingerprint(response, session));
+
+		// as is a payload written over in place
+		int payloadLength = response.getPayloadData().size();
+		response.getPayloadData().reset();
+		response.getPayloadData().write(new byte[payloadLength], 0, payloadLength);
+		try {
+			helper.getContent(response, session);
+			fail("corrupted content decoded");
+		} catch (IOException e) {
+			assertFalse(response.isExtractable());
+		}
+	}
+
+	@Test
+	public void getContent_payloadSetFromOutsideIsNotKept() throws Exception {
+		HttpRequestResponseHelperImpl helper = new HttpRequestResponseHelperImpl();
+		helper.setContentCacheSize(1024);
+		Session session = mock(Session.class);
+		HttpRequestResponseInfo response = gzipResponse("compressed content");
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		response.getPayloadData().writeTo(payload);
+		response.setPayloadData(payload);
+
+		assertEquals(0, response.getPayloadVersion());
+		assertEquals("compressed content", helper.getContentString(response, session));
+		assertEquals(0, helper.getContentCache().getSize());
+		assertNull(response.getContentFingerprint());
+	}
+
 	@Test
 	public void getContent() {
 		Session session = null;
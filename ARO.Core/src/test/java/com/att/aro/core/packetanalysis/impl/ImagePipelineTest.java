@@ -0,0 +1,156 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.att.aro.core.packetanalysis.impl.ImagePipeline.JpegImage;
+import com.att.aro.core.packetanalysis.pojo.HttpDirection;
+import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
+import com.att.aro.core.packetanalysis.pojo.Session;
+import com.att.aro.core.packetanalysis.pojo.TraceDirectoryResult;
+
+public class ImagePipelineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private JpegImage jpegImage(String name, int rgb) throws IOException {
+		BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < 16; x++) {
+			image.setRGB(x, x, rgb);
+		}
+		File file = new File(folder.getRoot(), name);
+		ImageIO.write(image, "jpg", file);
+		return new JpegImage(null, null, name, file);
+	}
+
+	private List<File> outputs(JpegImage image) {
+		return Collections.singletonList(new File(folder.getRoot(), image.getName() + ".out"));
+	}
+
+	@Test
+	public void sameContentIsProcessedOnce() throws IOException {
+		List<JpegImage> images = Arrays.asList(jpegImage("a.jpg", 0xff0000), jpegImage("b.jpg", 0xff0000), jpegImage("c.jpg", 0x00ff00));
+		ImagePipeline pipeline = new ImagePipeline();
+		pipeline.setImageThreads(2);
+		AtomicInteger written = new AtomicInteger();
+		ImagePipeline.ImageTask task = (image, outputs) -> {
+			written.incrementAndGet();
+			assertNotNull(image.getImage());
+			Files.write(outputs.get(0).toPath(), image.getContentHash().getBytes());
+		};
+
+		pipeline.process(images, this::outputs, task);
+		assertEquals(2, written.get());
+		assertArrayEquals(Files.readAllBytes(outputs(images.get(0)).get(0).toPath()), Files.readAllBytes(outputs(images.get(1)).get(0).toPath()));
+		assertEquals(images.get(2).getContentHash(), new String(Files.readAllBytes(outputs(images.get(2)).get(0).toPath())));
+
+		// outputs on disk are not written again
+		pipeline.process(images, this::outputs, task);
+		assertEquals(2, written.get());
+	}
+
+	@Test
+	public void imageIsDecodedOnce() throws IOException {
+		JpegImage image = jpegImage("a.jpg", 0x0000ff);
+		BufferedImage decoded = image.getImage();
+		assertEquals(16, decoded.getWidth());
+		assertSame(decoded, image.getImage());
+	}
+
+	private PacketAnalyzerResult result(String traceName, int rgb) throws IOException {
+		File traceDirectory = folder.newFolder(traceName);
+		File imageFolder = new File(traceDirectory, "Image");
+		imageFolder.mkdir();
+		BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(0, 0, rgb);
+		ImageIO.write(image, "jpg", new File(imageFolder, "photo.jpg"));
+
+		HttpRequestResponseInfo request = new HttpRequestResponseInfo();
+		request.setDirection(HttpDirection.REQUEST);
+		request.setObjName("/images/photo.jpg");
+		HttpRequestResponseInfo response = new HttpRequestResponseInfo();
+		response.setDirection(HttpDirection.RESPONSE);
+		response.setContentType("image/jpeg");
+		response.setAssocReqResp(request);
+		Session session = new Session(InetAddress.getLoopbackAddress(), InetAddress.getLoopbackAddress(), 80, 40000, traceName);
+		session.setRequestResponseInfo(new ArrayList<>(Arrays.asList(request, response)));
+
+		PacketAnalyzerResult result = new PacketAnalyzerResult();
+		TraceDirectoryResult traceResult = new TraceDirectoryResult();
+		traceResult.setTraceDirectory(traceDirectory.getPath());
+		result.setTraceresult(traceResult);
+		result.setSessionlist(Collections.singletonList(session));
+		return result;
+	}
+
+	@Test
+	public void getJpegImages_keptWithTheResult() throws IOException {
+		ImagePipeline pipeline = new ImagePipeline();
+		PacketAnalyzerResult first = result("first", 0xff0000);
+		PacketAnalyzerResult second = result("second", 0x00ff00);
+
+		List<JpegImage> firstImages = pipeline.getJpegImages(first);
+		assertEquals(1, firstImages.size());
+		assertSame(first.getSessionlist().get(0), firstImages.get(0).getSession());
+		assertSame(first.getSessionlist().get(0).getRequestResponseInfo().get(1), firstImages.get(0).getResponse());
+		assertSame(firstImages, first.getJpegImages());
+
+		List<JpegImage> secondImages = pipeline.getJpegImages(second);
+		assertSame(second.getSessionlist().get(0), secondImages.get(0).getSession());
+		assertSame(secondImages, second.getJpegImages());
+		// the images of the first trace are still those found for it, not found again
+		assertSame(firstImages, pipeline.getJpegImages(first));
+	}
+
+	/**
+	 * The images and their sessions are only referenced by the result, the
+	 * pipeline bean holds nothing of a trace
+	 */
+	@Test
+	public void pipelineHoldsNoTraceState() {
+		for (Field field : ImagePipeline.class.getDeclaredFields()) {
+			if (!Modifier.isStatic(field.getModifiers())) {
+				assertTrue(field.getName(), field.getType().isPrimitive());
+			}
+		}
+	}
+}
@@ -25,6 +25,8 @@ import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -53,8 +55,11 @@ import com.att.aro.core.packetanalysis.pojo.BurstCollectionAnalysisData;
 import com.att.aro.core.packetanalysis.pojo.EnergyModel;
 import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
+import com.att.aro.core.packetanalysis.pojo.ProfileComparisonTable;
 import com.att.aro.core.packetanalysis.pojo.RrcStateMachineLTE;
 import com.att.aro.core.packetanalysis.pojo.RrcStateRange;
+import com.att.aro.core.packetanalysis.pojo.Session;
 import com.att.aro.core.packetanalysis.pojo.Statistic;
 import com.att.aro.core.packetanalysis.pojo.TcpInfo;
 import com.att.aro.core.packetanalysis.pojo.TimeRange;
@@ -241,7 +246,7 @@ public class PacketAnalyzerImplTest extends BaseTest {
 		EnergyModel energymodel = mock(EnergyModel.class);
 		List<RrcStateRange> rrcstatelist = new ArrayList<RrcStateRange>();
 		when(statemachinefactory.create
-				(any(List.class), any(Profile.class), any(double.class), any(double.class), any(double.class),
+				(any(PacketTable.class), any(Profile.class), any(double.class), any(double.class), any(double.class),
 						any(TimeRange.class))).thenReturn(rrcstate);
 						
 		when(rrcstate.getStaterangelist()).thenReturn(rrcstatelist);
@@ -249,7 +254,7 @@ public class PacketAnalyzerImplTest extends BaseTest {
 		when(energymodelfactory.create(any(Profile.class), any(double.class), any(List.class), any(List.class),
 				any(List.class), any(List.class))).thenReturn(energymodel);
 		BurstCollectionAnalysisData burstvalue = mock(BurstCollectionAnalysisData.class);
-		when(burstcollectionanalyzer.analyze(any(List.class), any(Profile.class), 
+		when(burstcollectionanalyzer.analyze(any(PacketTable.class), any(Profile.class), 
 				any(Map.class), any(List.class), any(List.class), any(List.class), any(List.class)))
 				.thenReturn(burstvalue);
 		
@@ -342,4 +347,55 @@ public class PacketAnalyzerImplTest extends BaseTest {
 		assertEquals(3,testResult.getTotalPackets());
 	}
 
+	@Test
+	public void sweepProfiles_rowPerProfile() {
+		iPacketAnalyzer.setEnergyModelFactory(energymodelfactory);
+		iPacketAnalyzer.setBurstCollectionAnalayzer(burstcollectionanalyzer);
+		iPacketAnalyzer.setRrcStateMachineFactory(statemachinefactory);
+		iPacketAnalyzer.setProfileThreads(2);
+
+		TraceFileResult traceResult = mock(TraceFileResult.class);
+		when(traceResult.getTraceDuration()).thenReturn(100.0);
+		when(traceResult.getCpuActivityList()).thenReturn(new CpuActivityList());
+		PacketAnalyzerResult analysis = new PacketAnalyzerResult();
+		analysis.setTraceresult(traceResult);
+		analysis.setStatistic(new Statistic());
+		analysis.setSessionlist(new ArrayList<Session>());
+		analysis.setPacketTable(PacketTable.of(new ArrayList<PacketInfo>()));
+
+		List<Profile> profiles = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			ProfileLTE profile = new ProfileLTE();
+			profile.setName("timers" + i);
+			profiles.add(profile);
+		}
+		when(statemachinefactory.create(any(PacketTable.class), any(List.class), any(double.class), any(double.class),
+				any(double.class), any(TimeRange.class))).thenAnswer(invocation -> {
+					Profile profile = ((List<Profile>) invocation.getArguments()[1]).get(0);
+					RrcStateMachineLTE statemachine = new RrcStateMachineLTE();
+					statemachine.setTotalRRCEnergy(profiles.indexOf(profile));
+					statemachine.setStaterangelist(new ArrayList<RrcStateRange>());
+					return Collections.singletonList(statemachine);
+				});
+		when(energymodelfactory.create(any(Profile.class), any(double.class), any(List.class), any(List.class),
+				any(List.class), any(List.class))).thenAnswer(invocation -> {
+					EnergyModel energyModel = new EnergyModel();
+					energyModel.setTotalRrcEnergy((Double) invocation.getArguments()[1]);
+					return energyModel;
+				});
+		BurstCollectionAnalysisData bursts = new BurstCollectionAnalysisData();
+		bursts.setBurstCollection(new ArrayList<>());
+		when(burstcollectionanalyzer.analyze(any(PacketTable.class), any(Profile.class), any(Map.class), any(List.class),
+				any(List.class), any(List.class), any(List.class))).thenReturn(bursts);
+
+		ProfileComparisonTable table = iPacketAnalyzer.sweepProfiles(analysis, profiles);
+		List<Object[]> rows = table.getRows();
+		assertEquals(5, rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			assertSame(profiles.get(i), table.getResults().get(i).getProfile());
+			assertEquals(Arrays.asList("timers" + i, "LTE", (double) i, (double) i), Arrays.asList(rows.get(i)[0],
+					rows.get(i)[1].toString(), rows.get(i)[2], rows.get(i)[3]));
+		}
+		assertEquals(6, table.toCsv().split(System.lineSeparator()).length);
+	}
 }
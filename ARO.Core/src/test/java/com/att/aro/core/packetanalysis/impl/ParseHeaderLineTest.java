@@ -3,18 +3,33 @@
  */
 package com.att.aro.core.packetanalysis.impl;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+import org.apache.commons.lang3.StringUtils;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.MockitoAnnotations;
 
 import com.att.aro.core.BaseTest;
+import com.att.aro.core.packetanalysis.IByteArrayLineReader;
 import com.att.aro.core.packetanalysis.IParseHeaderLine;
 import com.att.aro.core.packetanalysis.pojo.HttpDirection;
+import com.att.aro.core.packetanalysis.pojo.HttpPattern;
 import com.att.aro.core.packetanalysis.pojo.HttpRequestResponseInfo;
+import com.att.aro.core.util.Util;
 
 /**
  * ParseHeaderLineTest
@@ -186,4 +201,480 @@ public class ParseHeaderLineTest extends BaseTest {
 		assertTrue(rrInfo.isRangeResponse());
 	}
 	
+	@Test
+	public void testHeaderNames() throws IOException {
+
+		parser.parseHeaderLine("host: lower.case.com", rrInfo);
+		assertEquals("lower.case.com", rrInfo.getHostName());
+
+		parser.parseHeaderLine("HOST: upper.case.com", rrInfo);
+		parser.parseHeaderLine("Host : spaced.com", rrInfo);
+		assertEquals("lower.case.com", rrInfo.getHostName());
+
+		parser.parseHeaderLine("content-length: 12", rrInfo);
+		assertEquals(12, rrInfo.getContentLength());
+
+		parser.parseHeaderLine("Date : Thu, 11 Dec 2014 00:56:39 GMT", rrInfo);
+		assertEquals(1418259399000L, rrInfo.getDate().getTime());
+
+		parser.parseHeaderLine("If-Modified-Since: Mon, 11 Jun 2012 18:15:40 GMT", rrInfo);
+		assertFalse(rrInfo.isIfModifiedSince());
+	}
+
+	@Test
+	public void testBytes() throws IOException {
+
+		String headers = "GET /index.html HTTP/1.1\r\n"
+				+ "Host: www.example.com:8080\r\n"
+				+ "Accept: */*\r\n"
+				+ "Cache-Control: max-age=12, only-if-cached\r\n"
+				+ "If-None-Match: \"1406\"\r\n"
+				+ "User-Agent: caf\u00e9\r\n"
+				+ "\r\n"
+				+ "body";
+		HttpRequestResponseInfo fromString = new HttpRequestResponseInfo();
+		fromString.setDirection(HttpDirection.REQUEST);
+		rrInfo.setDirection(HttpDirection.REQUEST);
+
+		IByteArrayLineReader reader = context.getBean(IByteArrayLineReader.class);
+		reader.init(headers.getBytes(StandardCharsets.UTF_8));
+		reader.nextLine();
+		while (reader.nextLine() && reader.getLineLength() != 0) {
+			parser.parseHeaderLine(reader.getData(), reader.getLineOffset(), reader.getLineLength(), rrInfo);
+			parser.parseHeaderLine(new String(reader.getData(), reader.getLineOffset(), reader.getLineLength(), StandardCharsets.UTF_8), fromString);
+		}
+
+		assertEquals("www.example.com", rrInfo.getHostName());
+		assertEquals(12L, rrInfo.getMaxAge().longValue());
+		assertTrue(rrInfo.isOnlyIfCached());
+		assertTrue(rrInfo.isIfNoneMatch());
+		assertNull(rrInfo.getContentType());
+		assertEquals(" Host: www.example.com:8080 Accept: */* Cache-Control: max-age=12, only-if-cached If-None-Match: \"1406\" User-Agent: caf\u00e9",
+				rrInfo.getAllHeaders());
+		assertEquals(fromString.getAllHeaders(), rrInfo.getAllHeaders());
+
+		parser.parseHeaderLine("Accept-Language: en", rrInfo);
+		assertTrue(rrInfo.getAllHeaders().endsWith("caf\u00e9 Accept-Language: en"));
+	}
+
+
+	private static final String[] NAMES = { "Host", "Content-Length", "Transfer-Encoding", "Content-Encoding", "Content-Type", "Date",
+			"Pragma", "Cache-Control", "ETag", "Age", "Expires", "Last-Modified", "Content-Range", "Referer", "If-Modified-Since",
+			"If-None-Match", "Hose", "Dote", "Etat", "Agent", "Accept", "User-Agent", "Content-Lengths", "Set-Cookie", "Ho" };
+
+	private static final String[] VALUES = { "www.example.com:8080", "localhost", "229", "2z9", "99999999999", "-5", "", "chunked",
+			"gzip", "GZIP", "text/html; charset=utf-8", "application/json;charset = ISO-8859-1; q=1", "Thu, 11 Dec 2014 00:56:39 GMT",
+			"Mon, 11 Jun 2012 18:15:40 GMT", "0", "-1", "not a date", "no-cache", "max-age=12, max-stale=43, public, min-fresh=512",
+			"max-age=0, no-cache, no-store, private, must-revalidate, s-maxage=0", "only-if-cached", "max-stale", "max-stale=",
+			"max-age = 99999999999999999999", "proxy-revalidate,public", ",", "W/\"1406-1245114063000\"", "\"abc\"", "W/abc", "59541",
+			"12a", "bytes 12-34/56", "bytes -/", "bytes 1-99999999999/5", "bytes 0-0/99999999999999999999",
+			"http://www.example.com/a b", "http://www.example.com/path?q=1", "caf\u00e9", "\u00ff\u00fe", ":8080" };
+
+	private static final String SPACES = " \t\u000B\f";
+
+	/**
+	 * Random header lines read from bytes give the same request or response as
+	 * the HttpPattern regular expressions gave. The names are changed in case,
+	 * to '|' and to other characters at any position, so the headers with and
+	 * without white space before the colon and the folded [H|h] positions are
+	 * all covered.
+	 */
+	@Test
+	public void parseHeaderLine_sameAsRegex() {
+		Random random = new Random(24);
+		HttpDirection[] directions = { HttpDirection.REQUEST, HttpDirection.RESPONSE, null };
+		for (int round = 0; round < 20000; round++) {
+			HttpRequestResponseInfo expected = new HttpRequestResponseInfo();
+			HttpRequestResponseInfo fromBytes = new HttpRequestResponseInfo();
+			HttpRequestResponseInfo fromString = new HttpRequestResponseInfo();
+			HttpDirection direction = directions[random.nextInt(directions.length)];
+			int contentLength = random.nextInt(4) == 0 ? 5 : 0;
+			for (HttpRequestResponseInfo info : new HttpRequestResponseInfo[] { expected, fromBytes, fromString }) {
+				info.setDirection(direction);
+				info.setContentLength(contentLength);
+			}
+
+			List<String> lines = new ArrayList<>();
+			List<String> expectedErrors = new ArrayList<>();
+			List<String> bytesErrors = new ArrayList<>();
+			List<String> stringErrors = new ArrayList<>();
+			for (int count = 1 + random.nextInt(6); count > 0; count--) {
+				byte[] line = randomLine(random);
+				// the line is read in place from a larger buffer
+				int offset = random.nextInt(4);
+				byte[] data = new byte[offset + line.length + random.nextInt(4)];
+				random.nextBytes(data);
+				System.arraycopy(line, 0, data, offset, line.length);
+				String text = new String(line, StandardCharsets.UTF_8);
+				lines.add(text);
+
+				try {
+					parseHeaderLineRegex(text, expected);
+					expectedErrors.add(null);
+				} catch (RuntimeException e) {
+					expectedErrors.add(e.getClass().getName());
+				}
+				try {
+					parser.parseHeaderLine(data, offset, line.length, fromBytes);
+					bytesErrors.add(null);
+				} catch (RuntimeException e) {
+					bytesErrors.add(e.getClass().getName());
+				}
+				try {
+					parser.parseHeaderLine(text, fromString);
+					stringErrors.add(null);
+				} catch (RuntimeException e) {
+					stringErrors.add(e.getClass().getName());
+				}
+			}
+
+			String message = "round " + round + " " + lines;
+			assertEquals(message, expectedErrors, bytesErrors);
+			assertEquals(message, expectedErrors, stringErrors);
+			assertEquals(message, describe(expected), describe(fromBytes));
+			assertEquals(message, describe(expected), describe(fromString));
+		}
+	}
+
+	private static byte[] randomLine(Random random) {
+		StringBuilder line = new StringBuilder();
+		if (random.nextInt(20) == 0) {
+			line.append(random.nextBoolean() ? " " : "X-");
+		}
+		StringBuilder name = new StringBuilder(NAMES[random.nextInt(NAMES.length)]);
+		for (int position = 0; position < name.length(); position++) {
+			char character = name.charAt(position);
+			switch (random.nextInt(24)) {
+			case 0:
+			case 1:
+				if (Character.isLetter(character)) {
+					name.setCharAt(position, (char) (character ^ 0x20));
+				}
+				break;
+			case 2:
+				name.setCharAt(position, '|');
+				break;
+			case 3:
+				name.setCharAt(position, "-aAeEnstx: ".charAt(random.nextInt(11)));
+				break;
+			default:
+				break;
+			}
+		}
+		if (random.nextInt(10) == 0) {
+			name.setLength(random.nextInt(name.length() + 1));
+		}
+		line.append(name);
+		if (random.nextInt(4) == 0) {
+			for (int count = 1 + random.nextInt(2); count > 0; count--) {
+				line.append(SPACES.charAt(random.nextInt(SPACES.length())));
+			}
+		}
+		int separator = random.nextInt(20);
+		line.append(separator == 0 ? "" : separator == 1 ? "=" : ":");
+		if (random.nextInt(4) != 0) {
+			line.append(' ');
+		}
+		line.append(VALUES[random.nextInt(VALUES.length)]);
+		if (random.nextInt(4) == 0) {
+			line.append(", ;".charAt(random.nextInt(3))).append(VALUES[random.nextInt(VALUES.length)]);
+		}
+		if (random.nextInt(8) == 0) {
+			line.append(SPACES.charAt(random.nextInt(SPACES.length())));
+		}
+		byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+		if (random.nextInt(20) == 0) {
+			// a byte that is not UTF-8
+			bytes[random.nextInt(bytes.length)] = (byte) (0x80 | random.nextInt(0x80));
+		}
+		return bytes;
+	}
+
+	private static String describe(HttpRequestResponseInfo rrInfo) {
+		return "allHeaders=" + rrInfo.getAllHeaders()
+				+ "\nhostName=" + rrInfo.getHostName()
+				+ "\ncontentLength=" + rrInfo.getContentLength()
+				+ "\nchunked=" + rrInfo.isChunked()
+				+ "\ncontentEncoding=" + rrInfo.getContentEncoding()
+				+ "\ncontentType=" + rrInfo.getContentType()
+				+ "\ncharset=" + rrInfo.getCharset()
+				+ "\ndate=" + rrInfo.getDate()
+				+ "\nhasCacheHeaders=" + rrInfo.isHasCacheHeaders()
+				+ "\npragmaNoCache=" + rrInfo.isPragmaNoCache()
+				+ "\nnoCache=" + rrInfo.isNoCache()
+				+ "\nnoStore=" + rrInfo.isNoStore()
+				+ "\nmaxAge=" + rrInfo.getMaxAge()
+				+ "\nsMaxAge=" + rrInfo.getsMaxAge()
+				+ "\nminFresh=" + rrInfo.getMinFresh()
+				+ "\nmaxStale=" + rrInfo.getMaxStale()
+				+ "\nonlyIfCached=" + rrInfo.isOnlyIfCached()
+				+ "\npublicCache=" + rrInfo.isPublicCache()
+				+ "\nprivateCache=" + rrInfo.isPrivateCache()
+				+ "\nmustRevalidate=" + rrInfo.isMustRevalidate()
+				+ "\nproxyRevalidate=" + rrInfo.isProxyRevalidate()
+				+ "\netag=" + rrInfo.getEtag()
+				+ "\nage=" + rrInfo.getAge()
+				+ "\nexpires=" + rrInfo.getExpires()
+				+ "\nlastModified=" + rrInfo.getLastModified()
+				+ "\nrange=" + rrInfo.isRangeResponse() + " " + rrInfo.getRangeFirst() + "-" + rrInfo.getRangeLast() + "/" + rrInfo.getRangeFull()
+				+ "\nreferrer=" + rrInfo.getReferrer()
+				+ "\nifModifiedSince=" + rrInfo.isIfModifiedSince()
+				+ "\nifNoneMatch=" + rrInfo.isIfNoneMatch();
+	}
+
+	/*
+	 * ParseHeaderLineImpl before the headers were found on the bytes, it tried
+	 * the HttpPattern regular expressions in turn. The logging is left out.
+	 */
+
+	static void parseHeaderLineRegex(String headerLine, HttpRequestResponseInfo rrInfo) {
+
+		appendHeaderToHttpRequestResponseInfo(headerLine, rrInfo);
+
+		Matcher matcher;
+		String[] str;
+
+		// Get request host "[H|h]ost:"
+		matcher = HttpPattern.strReRequestHost.matcher(headerLine);
+		if (matcher.lookingAt()) {
+			String hostName = headerLine.substring(matcher.end()).trim();
+
+			// Strip port info if included
+			int index = hostName.indexOf(':');
+			if (index >= 0) {
+				hostName = hostName.substring(0, index);
+			}
+			rrInfo.setHostName(hostName);
+			return;
+		}
+
+		// Get request content length "[C|c]ontent-[L|l]ength:"
+		matcher = HttpPattern.strReResponseContentLength.matcher(headerLine);
+		if (matcher.lookingAt() && rrInfo.getContentLength() == 0) {
+			try {
+				rrInfo.setContentLength(Integer.parseInt(headerLine.substring(matcher.end()).trim()));
+			} catch (NumberFormatException e) {
+				/*
+				 * The value exceeds the Interger.MAX_VALUE i.e
+				 * 2^31-1=2147483647
+				 */
+			}
+
+			return;
+		}
+
+		// Get request transfer encoding "[T|t]ransfer-[E|e]ncoding:"
+		matcher = HttpPattern.strReTransferEncoding.matcher(headerLine);
+		if (matcher.lookingAt()) {
+			rrInfo.setChunked("chunked".equals(headerLine.substring(matcher.end()).trim()));
+			return;
+		}
+
+		// Get request transfer encoding
+		matcher = HttpPattern.strReResponseContentEncoding.matcher(headerLine);
+		if (matcher.lookingAt()) {
+			rrInfo.setContentEncoding(headerLine.substring(matcher.end()).trim().toLowerCase());
+			return;
+		}
+
+		// Get content type
+		matcher = HttpPattern.strReResponseContentType.matcher(headerLine);
+		if (matcher.lookingAt()) {
+			str = headerLine.substring(matcher.end()).trim().split(";");
+			rrInfo.setContentType(str[0].trim().toLowerCase());
+			for (int i = 1; i < str.length; ++i) {
+				int index = str[i].indexOf('=');
+				if (index >= 0) {
+					String attr = str[i].substring(0, index).trim();
+					if ("charset".equals(attr)) {
+						rrInfo.setCharset(str[i].substring(index+1).trim());
+					}
+				}
+			}
+			return;
+		}
+
+		// Date
+		matcher = HttpPattern.strReResponseDate.matcher(headerLine);
+		if (matcher.lookingAt()) {
+			rrInfo.setDate(Util.readHttpDate(matcher.group(1), false));
+			return;
+		}
+
+		// Pragma: no-cache
+		matcher = HttpPattern.strReResponsePragmaNoCache.matcher(headerLine);
+		if (matcher.lookingAt()) {
+			rrInfo.setHasCacheHeaders(true);
+			rrInfo.setPragmaNoCache(true);
+			return;
+		}
+
+		// Cache-Control
+		matcher = HttpPattern.strReResponseCacheControl.matcher(headerLine);
+		if (matcher.lookingAt()) {
+			str = matcher.group(1).split(",");
+			if (str.length > 0) {
+				rrInfo.setHasCacheHeaders(true);
+			}
+			for (int i = 0; i < str.length; ++i) {
+				String directive = str[i].trim();
+				if ("no-cache".equals(directive)) {
+					rrInfo.setNoCache(true);
+					continue;
+				} else if ("no-store".equals(directive)) {
+					rrInfo.setNoStore(true);
+					continue;
+				}
+
+				// max-age
+				matcher = HttpPattern.strReCacheMaxAge.matcher(directive);
+				if (matcher.lookingAt()) {
+					rrInfo.setMaxAge(Long.valueOf(matcher.group(1)));
+					continue;
+				}
+
+				if (rrInfo.getDirection() == HttpDirection.REQUEST) {
+					if ("only-if-cached".equals(directive)) { // only-if-cached
+						rrInfo.setOnlyIfCached(true);
+						continue;
+					}
+
+					// min-fresh
+					matcher = HttpPattern.strReCacheMinFresh.matcher(directive);
+					if (matcher.lookingAt()) {
+						rrInfo.setMinFresh(Long.valueOf(matcher.group(1)));
+						continue;
+					}
+
+					// max-stale
+					matcher = HttpPattern.strReCacheMaxStale.matcher(directive);
+					if (matcher.lookingAt()) {
+						rrInfo.setMaxStale(matcher.group(1) != null ? Long.valueOf(matcher.group(1)) : Long.MAX_VALUE);
+						continue;
+					}
+
+				} else if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
+					if ("public".equals(directive)) {
+						rrInfo.setPublicCache(true);
+						continue;
+					} else if ("private".equals(directive)) {
+						rrInfo.setPrivateCache(true);
+						continue;
+					} else if ("must-revalidate".equals(directive)) {
+						rrInfo.setMustRevalidate(true);
+						continue;
+					} else if ("proxy-revalidate".equals(directive)) {
+						rrInfo.setProxyRevalidate(true);
+						continue;
+					}
+
+					// s-maxage
+					matcher = HttpPattern.strReCacheSMaxAge.matcher(directive);
+					if (matcher.lookingAt()) {
+						rrInfo.setsMaxAge(Long.valueOf(matcher.group(1)));
+						continue;
+					}
+
+				}
+			}
+			return;
+		}
+
+		if (rrInfo.getDirection() == HttpDirection.RESPONSE) {
+
+			// ETag
+			matcher = HttpPattern.strReResponseEtag.matcher(headerLine);
+			if (matcher.lookingAt()) {
+				rrInfo.setEtag(matcher.group(2));
+				return;
+			}
+
+			// Age
+			matcher = HttpPattern.strReResponseAge.matcher(headerLine);
+			if (matcher.lookingAt()) {
+				String age = matcher.group(1);
+				if (StringUtils.isNotBlank(age) && StringUtils.isNumeric(age)) {
+					rrInfo.setAge(Long.valueOf(matcher.group(1)));
+				}
+
+				return;
+			}
+
+			// Expires
+			matcher = HttpPattern.strReResponseExpires.matcher(headerLine);
+			if (matcher.lookingAt()) {
+				rrInfo.setExpires(Util.readHttpDate(matcher.group(1), true));
+				return;
+			}
+
+			// Last modified
+			matcher = HttpPattern.strReResponseLastMod.matcher(headerLine);
+			if (matcher.lookingAt()) {
+				rrInfo.setLastModified(Util.readHttpDate(matcher.group(1), false));
+				return;
+			}
+
+			// Content-Range
+			matcher = HttpPattern.strReContentRange.matcher(headerLine);
+			if (matcher.lookingAt()) {
+				rrInfo.setRangeResponse(true);
+				rrInfo.setRangeFirst(Integer.parseInt(matcher.group(1)));
+				try {
+					rrInfo.setRangeLast(Integer.parseInt(matcher.group(2)));
+				} catch (NumberFormatException e) {
+					/*
+					 * The value exceeds the Interger.MAX_VALUE i.e
+					 * 2^31-1=2147483647. Continue.
+					 */
+				}
+				rrInfo.setRangeFull(Long.parseLong(matcher.group(3)));
+
+				if (rrInfo.getContentLength() == 0) {
+					rrInfo.setContentLength(rrInfo.getRangeLast() - rrInfo.getRangeFirst() + 1);
+				}
+				return;
+			}
+
+		} else if (rrInfo.getDirection() == HttpDirection.REQUEST) {
+
+			// Referer
+			matcher = HttpPattern.strReResponseReferer.matcher(headerLine);
+			if (matcher.lookingAt()) {
+				try {
+					rrInfo.setReferrer(new URI(matcher.group(1).trim()));
+				} catch (URISyntaxException e) {
+					// invalid referrer URI
+				}
+				return;
+			}
+
+			// If-Modified-Since
+			matcher = HttpPattern.strReIfModifiedSince.matcher(headerLine);
+			if (matcher.lookingAt()) {
+				rrInfo.setIfModifiedSince(true);
+				return;
+			}
+
+			// If-None-Match
+			matcher = HttpPattern.strReIfNoneMatch.matcher(headerLine);
+			if (matcher.lookingAt()) {
+				rrInfo.setIfNoneMatch(true);
+				return;
+			}
+		}
+	}
+
+	private static void appendHeaderToHttpRequestResponseInfo(String line, HttpRequestResponseInfo rrInfo) {
+		if (rrInfo != null) {
+			StringBuilder headersBuilder;
+			if (rrInfo.getAllHeaders() == null) {
+				headersBuilder = new StringBuilder();
+			} else {
+				headersBuilder = new StringBuilder(rrInfo.getAllHeaders());
+			}
+			headersBuilder.append(" ").append(line);
+			rrInfo.setAllHeaders(headersBuilder.toString());
+		}
+	}
+
 }
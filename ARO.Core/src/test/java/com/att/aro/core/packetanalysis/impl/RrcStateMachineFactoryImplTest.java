@@ -17,10 +17,13 @@ package com.att.aro.core.packetanalysis.impl;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -41,11 +44,13 @@ import com.att.aro.core.packetanalysis.IRrcStateMachineFactory;
 import com.att.aro.core.packetanalysis.IRrcStateRangeFactory;
 import com.att.aro.core.packetanalysis.pojo.AbstractRrcStateMachine;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
 import com.att.aro.core.packetanalysis.pojo.RRCState;
 import com.att.aro.core.packetanalysis.pojo.RrcStateMachine3G;
 import com.att.aro.core.packetanalysis.pojo.RrcStateMachineLTE;
 import com.att.aro.core.packetanalysis.pojo.RrcStateMachineWiFi;
 import com.att.aro.core.packetanalysis.pojo.RrcStateRange;
+import com.att.aro.core.packetanalysis.pojo.RrcStateTable;
 import com.att.aro.core.packetanalysis.pojo.TimeRange;
 
 @SuppressWarnings("unchecked")
@@ -195,7 +200,7 @@ public class RrcStateMachineFactoryImplTest extends BaseTest {
 		ProfileLTE profile03 = mock(ProfileLTE.class);
 		when(profile03.getProfileType()).thenReturn(ProfileType.LTE);
 		when(profilefactory.energyLTE(any(double.class), any(double.class), any(RRCState.class), any(ProfileLTE.class),
-				any(ArrayList.class))).thenReturn(100.0);
+				any(PacketTable.class))).thenReturn(100.0);
 		List<PacketInfo> packetlist1 = new ArrayList<PacketInfo>();
 		List<RrcStateRange> staterangelist = new ArrayList<RrcStateRange>();
 		RrcStateRange[] rrcStateRangeArray = new RrcStateRange[5];
@@ -226,7 +231,7 @@ public class RrcStateMachineFactoryImplTest extends BaseTest {
 		ProfileLTE profile04 = mock(ProfileLTE.class);
 		when(profile04.getProfileType()).thenReturn(ProfileType.LTE);
 		when(profilefactory.energyLTE(any(double.class), any(double.class), any(RRCState.class), any(ProfileLTE.class),
-				any(ArrayList.class))).thenReturn(5.0);
+				any(PacketTable.class))).thenReturn(5.0);
 		List<PacketInfo> packetlist1 = new ArrayList<PacketInfo>();
 		List<RrcStateRange> staterangelist = new ArrayList<RrcStateRange>();
 		RrcStateRange[] rrcStateRangeArray = new RrcStateRange[5];
@@ -255,7 +260,7 @@ public class RrcStateMachineFactoryImplTest extends BaseTest {
 		ProfileLTE profile05 = mock(ProfileLTE.class);
 		when(profile05.getProfileType()).thenReturn(ProfileType.LTE);
 		when(profilefactory.energyLTE(any(double.class), any(double.class), any(RRCState.class), any(ProfileLTE.class),
-				any(ArrayList.class))).thenReturn(4.0);
+				any(PacketTable.class))).thenReturn(4.0);
 		List<PacketInfo> packetlist1 = new ArrayList<PacketInfo>();
 		List<RrcStateRange> staterangelist = new ArrayList<RrcStateRange>();
 		RrcStateRange[] rrcStateRangeArray = new RrcStateRange[5];
@@ -286,7 +291,7 @@ public class RrcStateMachineFactoryImplTest extends BaseTest {
 		ProfileLTE profile06 = mock(ProfileLTE.class);
 		when(profile06.getProfileType()).thenReturn(ProfileType.LTE);
 		when(profilefactory.energyLTE(any(double.class), any(double.class), any(RRCState.class), any(ProfileLTE.class),
-				any(ArrayList.class))).thenReturn(5.0);
+				any(PacketTable.class))).thenReturn(5.0);
 		List<PacketInfo> packetlist1 = new ArrayList<PacketInfo>();
 		List<RrcStateRange> staterangelist = new ArrayList<RrcStateRange>();
 		RrcStateRange[] rrcStateRangeArray = new RrcStateRange[5];
@@ -316,7 +321,7 @@ public class RrcStateMachineFactoryImplTest extends BaseTest {
 		ProfileLTE profile07 = mock(ProfileLTE.class);
 		when(profile07.getProfileType()).thenReturn(ProfileType.LTE);
 		when(profilefactory.energyLTE(any(double.class), any(double.class), any(RRCState.class), any(ProfileLTE.class),
-				any(ArrayList.class))).thenReturn(6.0);
+				any(PacketTable.class))).thenReturn(6.0);
 		List<PacketInfo> packetlist1 = new ArrayList<PacketInfo>();
 		List<RrcStateRange> staterangelist = new ArrayList<RrcStateRange>();
 		RrcStateRange[] rrcStateRangeArray = new RrcStateRange[5];
@@ -346,7 +351,7 @@ public class RrcStateMachineFactoryImplTest extends BaseTest {
 		ProfileLTE profile08 = mock(ProfileLTE.class);
 		when(profile08.getProfileType()).thenReturn(ProfileType.LTE);
 		when(profilefactory.energyLTE(any(double.class), any(double.class), any(RRCState.class), any(ProfileLTE.class),
-				any(ArrayList.class))).thenReturn(6.0);
+				any(PacketTable.class))).thenReturn(6.0);
 		List<PacketInfo> packetlist1 = new ArrayList<PacketInfo>();
 		List<RrcStateRange> staterangelist = new ArrayList<RrcStateRange>();
 		RrcStateRange[] rrcStateRangeArray = new RrcStateRange[5];
@@ -601,4 +606,33 @@ public class RrcStateMachineFactoryImplTest extends BaseTest {
 
 	}
 
+	@Test
+	public void create_profilesInParallel() {
+		PacketTable packets = PacketTable.of(new ArrayList<PacketInfo>());
+		ProfileWiFi profile01 = mock(ProfileWiFi.class);
+		when(profile01.getProfileType()).thenReturn(ProfileType.WIFI);
+		ProfileWiFi profile02 = mock(ProfileWiFi.class);
+		when(profile02.getProfileType()).thenReturn(ProfileType.WIFI);
+		RrcStateTable table01 = new RrcStateTable();
+		table01.add(0.0, 1000.0, RRCState.WIFI_ACTIVE);
+		RrcStateTable table02 = new RrcStateTable();
+		table02.add(0.0, 500.0, RRCState.WIFI_ACTIVE);
+		table02.add(500.0, 1000.0, RRCState.WIFI_TAIL);
+		when(staterange.createTable(eq(packets), eq(profile01), any(double.class), (RRCState[]) isNull())).thenReturn(table01);
+		when(staterange.createTable(eq(packets), eq(profile02), any(double.class), (RRCState[]) isNull())).thenReturn(table02);
+		when(profilefactory.energyWiFi(any(double.class), any(double.class), any(RRCState.class), eq(profile01))).thenReturn(2.0);
+		when(profilefactory.energyWiFi(any(double.class), any(double.class), any(RRCState.class), eq(profile02))).thenReturn(3.0);
+
+		((RrcStateMachineFactoryImpl) machineFactoryimpl).setProfileThreads(2);
+		List<AbstractRrcStateMachine> machines = machineFactoryimpl.create(packets, Arrays.<Profile>asList(profile01, profile02, profile01),
+				packetDuration, traceDuration, totalBytes, null);
+		assertEquals(3, machines.size());
+		assertEquals(2.0, machines.get(0).getTotalRRCEnergy(), 0.0);
+		assertEquals(6.0, machines.get(1).getTotalRRCEnergy(), 0.0);
+		assertEquals(500.0, ((RrcStateMachineWiFi) machines.get(1)).getWifiTailTime(), 0.0);
+		assertEquals(2.0, machines.get(2).getTotalRRCEnergy(), 0.0);
+		assertEquals(1, machines.get(0).getStaterangelist().size());
+		assertEquals(2, machines.get(1).getStaterangelist().size());
+	}
+
 }
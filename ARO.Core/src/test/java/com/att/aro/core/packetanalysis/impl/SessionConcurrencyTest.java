@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
+import com.att.aro.core.packetanalysis.pojo.Session;
+
+public class SessionConcurrencyTest {
+
+	private static Session session(String ip, double start, double end) throws UnknownHostException {
+		Session session = mock(Session.class);
+		when(session.getRemoteIP()).thenReturn(InetAddress.getByName(ip));
+		when(session.getSessionStartTime()).thenReturn(start);
+		when(session.getSessionEndTime()).thenReturn(end);
+		return session;
+	}
+
+	@Test
+	public void index_peakPerGroupAndOverall() throws UnknownHostException {
+		Session a1 = session("10.0.0.1", 0, 10);
+		Session a2 = session("10.0.0.1", 2, 5);
+		Session a3 = session("10.0.0.1", 5, 8);
+		Session b1 = session("10.0.0.2", 4, 6);
+		Session b2 = session("10.0.0.2", 4, 9);
+		Session udp = session("10.0.0.2", 4, 9);
+		when(udp.isUdpOnly()).thenReturn(true);
+
+		SessionConcurrency.Index index = SessionConcurrency.index(Arrays.asList(a1, a2, null, b1, a3, b2, udp),
+				session -> session.getRemoteIP().toString());
+		assertEquals(2, index.getGroups().size());
+
+		SessionConcurrency.Group groupA = index.getGroups().get("/10.0.0.1");
+		assertEquals(Arrays.asList(a1, a2, a3), groupA.getSessions());
+		assertArrayEquals(new double[] { 0, 2, 5 }, groupA.getStarts(), 0);
+		assertArrayEquals(new double[] { 5, 8, 10 }, groupA.getEnds(), 0);
+		// a2 ends when a3 starts
+		assertEquals(2, groupA.getPeak().getCount());
+		assertEquals(2, groupA.getPeak().getTime(), 0);
+		assertSame(a2, groupA.getPeak().getSession());
+
+		// the last of the sessions starting at the peak
+		SessionConcurrency.Group groupB = index.getGroups().get("/10.0.0.2");
+		assertSame(b2, groupB.getPeak().getSession());
+
+		SessionConcurrency.Peak all = index.getAll().getPeak();
+		assertEquals(4, all.getCount());
+		assertEquals(4, all.getTime(), 0);
+	}
+
+	@Test
+	public void group_noSessions() {
+		SessionConcurrency.Peak peak = SessionConcurrency.group(new ArrayList<>()).getPeak();
+		assertEquals(0, peak.getCount());
+		assertNull(peak.getSession());
+	}
+
+	@Test
+	public void getPeak_sameAsCountingAtEachStart() throws UnknownHostException {
+		Random random = new Random(3);
+		for (int round = 0; round < 200; round++) {
+			List<Session> sessions = new ArrayList<>();
+			for (int count = 1 + random.nextInt(40); count > 0; count--) {
+				double start = random.nextInt(100);
+				sessions.add(session("10.0.0.1", start, start + random.nextInt(30)));
+			}
+			int most = 0;
+			for (Session at : sessions) {
+				int open = 0;
+				for (Session session : sessions) {
+					if (session.getSessionStartTime() <= at.getSessionStartTime() && session.getSessionEndTime() > at.getSessionStartTime()) {
+						open++;
+					}
+				}
+				most = Math.max(most, open);
+			}
+			assertEquals(most, SessionConcurrency.group(sessions).getPeak().getCount());
+		}
+	}
+
+	private static PacketAnalyzerResult result(Session... sessions) {
+		PacketAnalyzerResult result = new PacketAnalyzerResult();
+		result.setSessionlist(new ArrayList<>(Arrays.asList(sessions)));
+		return result;
+	}
+
+	@Test
+	public void getByRemoteIp_indexedOncePerTrace() throws UnknownHostException {
+		SessionConcurrency concurrency = new SessionConcurrency();
+		Session first = session("10.0.0.1", 0, 10);
+		Session second = session("10.0.0.2", 0, 10);
+		PacketAnalyzerResult firstResult = result(first);
+		PacketAnalyzerResult secondResult = result(second);
+
+		SessionConcurrency.Index firstIndex = concurrency.getByRemoteIp(firstResult);
+		assertSame(firstIndex, firstResult.getSessionsByRemoteIp());
+		assertEquals(Arrays.asList(first), firstIndex.getGroups().get("/10.0.0.1").getSessions());
+
+		SessionConcurrency.Index secondIndex = concurrency.getByRemoteIp(secondResult);
+		assertEquals(Arrays.asList(second), secondIndex.getGroups().get("/10.0.0.2").getSessions());
+		// switching traces does not index the first one again
+		assertSame(firstIndex, concurrency.getByRemoteIp(firstResult));
+	}
+
+	@Test
+	public void getByRemoteIp_noSessions() {
+		PacketAnalyzerResult result = new PacketAnalyzerResult();
+		SessionConcurrency.Index index = new SessionConcurrency().getByRemoteIp(result);
+		assertEquals(0, index.getGroups().size());
+		assertEquals(0, index.getAll().getPeak().getCount());
+	}
+}
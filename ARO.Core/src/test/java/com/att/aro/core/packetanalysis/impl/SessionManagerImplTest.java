@@ -4,9 +4,12 @@
 package com.att.aro.core.packetanalysis.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
@@ -25,7 +28,9 @@ import com.att.aro.core.packetanalysis.pojo.PacketInfo;
 import com.att.aro.core.packetanalysis.pojo.Session;
 import com.att.aro.core.packetanalysis.pojo.TcpInfo;
 import com.att.aro.core.packetreader.pojo.DomainNameSystem;
+import com.att.aro.core.packetreader.impl.PacketServiceImpl;
 import com.att.aro.core.packetreader.pojo.IPPacket;
+import com.att.aro.core.packetreader.pojo.Packet;
 import com.att.aro.core.packetreader.pojo.PacketDirection;
 import com.att.aro.core.packetreader.pojo.TCPPacket;
 import com.att.aro.core.packetreader.pojo.UDPPacket;
@@ -621,4 +626,101 @@ public class SessionManagerImplTest extends BaseTest{
 		SessionManagerImpl mgrImpl = (SessionManagerImpl)sessionMgr;
 		mgrImpl.parse(session, packetList, nPass);
 	}*/
+	/**
+	 * IPv4/TCP packet without link layer between 127.0.0.2:port and 127.0.0.1:80
+	 */
+	private static PacketInfo tcpPacketInfo(int localPort, boolean uplink, boolean syn, long sequence, int payload, double timestamp) {
+		ByteBuffer buffer = ByteBuffer.allocate(40 + payload);
+		buffer.put((byte) 0x45).put((byte) 0).putShort((short) (40 + payload));
+		buffer.putInt(0).put((byte) 64).put((byte) 6).putShort((short) 0);
+		byte[] local = new byte[] { 127, 0, 0, 2 };
+		byte[] remote = new byte[] { 127, 0, 0, 1 };
+		buffer.put(uplink ? local : remote).put(uplink ? remote : local);
+		buffer.putShort((short) (uplink ? localPort : 80)).putShort((short) (uplink ? 80 : localPort));
+		buffer.putInt((int) sequence).putInt(1);
+		buffer.put((byte) 0x50).put((byte) (syn ? 0x02 : 0x10)).putShort((short) 1024).putInt(0);
+		Packet packet = new PacketServiceImpl().createPacketFromPcap(12, 0, 0, 40 + payload, buffer.array(), null);
+		PacketInfo packetInfo = new PacketInfo(packet);
+		packetInfo.setDir(uplink ? PacketDirection.UPLINK : PacketDirection.DOWNLINK);
+		packetInfo.setTimestamp(timestamp);
+		return packetInfo;
+	}
+
+	private static List<PacketInfo> flowPackets() {
+		List<PacketInfo> packets = new ArrayList<>();
+		int flows = 300;
+		for (int index = 0; index < 45000; index++) {
+			int flow = index % flows;
+			int round = index / flows;
+			// every flow is reopened with a new SYN half way through the trace
+			boolean syn = round == 0 || round == 74;
+			packets.add(tcpPacketInfo(40000 + flow, round % 2 == 0, syn, syn ? round : 1000 + round * 10, syn ? 0 : 10, index * 0.001));
+		}
+		return packets;
+	}
+
+	@Test
+	public void parallelAssemblyKeepsSessionOrder() {
+		SessionManagerImpl sequential = (SessionManagerImpl) context.getBean(ISessionManager.class);
+		sequential.setSessionThreads(1);
+		List<Session> expected = sequential.processPacketsAndAssembleSessions(flowPackets());
+
+		SessionManagerImpl parallel = (SessionManagerImpl) context.getBean(ISessionManager.class);
+		parallel.setSessionThreads(4);
+		List<Session> sessions = parallel.processPacketsAndAssembleSessions(flowPackets());
+
+		assertEquals(600, expected.size());
+		assertEquals(expected.size(), sessions.size());
+		for (int index = 0; index < expected.size(); index++) {
+			assertEquals(expected.get(index).getSessionKey(), sessions.get(index).getSessionKey());
+			assertEquals(expected.get(index).getSessionStartTime(), sessions.get(index).getSessionStartTime(), 0);
+			assertEquals(expected.get(index).getTcpPackets().size(), sessions.get(index).getTcpPackets().size());
+			assertEquals(expected.get(index).getBytesTransferred(), sessions.get(index).getBytesTransferred());
+			assertEquals(expected.get(index).getRequestResponseInfo().size(), sessions.get(index).getRequestResponseInfo().size());
+		}
+	}
+
+	@Test
+	public void reanalysisReusesUnchangedFlows() {
+		SessionManagerImpl sessionManager = (SessionManagerImpl) context.getBean(ISessionManager.class);
+		sessionManager.setSessionThreads(1);
+		List<PacketInfo> packets = flowPackets();
+		List<Session> sessions = sessionManager.processPacketsAndAssembleSessions(packets);
+
+		// filter out the first flow
+		List<PacketInfo> filtered = new ArrayList<>();
+		for (PacketInfo packetInfo : packets) {
+			if (((TCPPacket) packetInfo.getPacket()).getSourcePort() != 40000 && ((TCPPacket) packetInfo.getPacket()).getDestinationPort() != 40000) {
+				filtered.add(packetInfo);
+			}
+		}
+		List<Session> filteredSessions = sessionManager.processPacketsAndAssembleSessions(filtered);
+		assertEquals(598, filteredSessions.size());
+		for (int index = 0; index < filteredSessions.size(); index++) {
+			assertSame(sessions.get(index < 299 ? index + 1 : index + 2), filteredSessions.get(index));
+		}
+
+		// a time range ending half way through changes every flow
+		List<Session> rangeSessions = sessionManager.processPacketsAndAssembleSessions(new ArrayList<>(packets.subList(0, 30000)));
+		assertEquals(600, rangeSessions.size());
+		for (int index = 0; index < rangeSessions.size(); index++) {
+			assertNotSame(sessions.get(index), rangeSessions.get(index));
+			assertEquals(sessions.get(index).getSessionKey(), rangeSessions.get(index).getSessionKey());
+		}
+		assertEquals(74, rangeSessions.get(0).getTcpPackets().size());
+		assertEquals(26, rangeSessions.get(599).getTcpPackets().size());
+	}
+
+	@Test
+	public void flowKey() throws UnknownHostException {
+		InetAddress local = InetAddress.getByAddress(new byte[] { 10, 0, 0, 1 });
+		InetAddress remote = InetAddress.getByAddress(new byte[] { 10, 0, 0, 2 });
+		FlowKey key = new FlowKey(local, 50000, remote, 443);
+		assertEquals(key, new FlowKey(local, 50000, remote, 443));
+		assertEquals(key.hashCode(), new FlowKey(local, 50000, remote, 443).hashCode());
+		assertEquals(false, key.equals(new FlowKey(remote, 443, local, 50000)));
+		assertEquals(false, key.equals(new FlowKey(local, 50001, remote, 443)));
+		assertEquals("10.0.0.1 50000 443 10.0.0.2", key.getSessionKey());
+		assertEquals(true, key.shard(3) >= 0 && key.shard(3) < 3);
+	}
 }
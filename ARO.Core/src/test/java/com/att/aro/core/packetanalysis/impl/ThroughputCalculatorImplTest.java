@@ -16,10 +16,13 @@
 package com.att.aro.core.packetanalysis.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -29,7 +32,9 @@ import org.mockito.Mockito;
 import com.att.aro.core.BaseTest;
 import com.att.aro.core.packetanalysis.IThroughputCalculator;
 import com.att.aro.core.packetanalysis.pojo.PacketInfo;
+import com.att.aro.core.packetanalysis.pojo.PacketTable;
 import com.att.aro.core.packetanalysis.pojo.Throughput;
+import com.att.aro.core.packetanalysis.pojo.ThroughputIndex;
 import com.att.aro.core.packetreader.pojo.PacketDirection;
 
 public class ThroughputCalculatorImplTest extends BaseTest{
@@ -134,4 +139,127 @@ public class ThroughputCalculatorImplTest extends BaseTest{
 
 	 
 
+	 @Test
+	 public void calculateThroughput_table(){
+		 List<PacketInfo> packets = new ArrayList<PacketInfo>();
+		 double[] stamps = { 0.2, 0.7, 1.1, 3.5, 5.0 };
+		 PacketDirection[] dirs = { PacketDirection.UPLINK, PacketDirection.DOWNLINK, PacketDirection.UNKNOWN,
+				 PacketDirection.DOWNLINK, PacketDirection.UPLINK };
+		 for (int i = 0; i < stamps.length; i++) {
+			 PacketInfo pktInfo = Mockito.mock(PacketInfo.class);
+			 Mockito.when(pktInfo.getDir()).thenReturn(dirs[i]);
+			 Mockito.when(pktInfo.getTimeStamp()).thenReturn(stamps[i]);
+			 Mockito.when(pktInfo.getLen()).thenReturn(100 * (i + 1));
+			 packets.add(pktInfo);
+		 }
+		 List<Throughput> testResult = throughputCalculator.calculateThroughput(0.0, 4.0, 1.0, PacketTable.of(packets));
+		 // the split open when the end time is reached is reported twice
+		 assertEquals(6, testResult.size());
+		 assertEquals(100 * 8 / 1000.0, testResult.get(0).getUploadKbps(), 0.0001);
+		 assertEquals(200 * 8 / 1000.0, testResult.get(0).getDownloadKbps(), 0.0001);
+		 assertEquals(0.0, testResult.get(1).getKbps(), 0.0001);
+		 assertEquals(400 * 8 / 1000.0, testResult.get(3).getDownloadKbps(), 0.0001);
+		 assertEquals(testResult.get(3).getKbps(), testResult.get(4).getKbps(), 0.0001);
+		 assertEquals(testResult.size(), throughputCalculator.calculateThroughput(0.0, 4.0, 1.0, packets).size());
+	 }
+
+	 private List<PacketInfo> randomPackets(int count) {
+		 Random random = new Random(14);
+		 PacketDirection[] dirs = { PacketDirection.UPLINK, PacketDirection.DOWNLINK, PacketDirection.UNKNOWN };
+		 List<PacketInfo> packets = new ArrayList<PacketInfo>();
+		 double stamp = 0;
+		 for (int i = 0; i < count; i++) {
+			 stamp += random.nextDouble() * 0.3;
+			 PacketInfo pktInfo = Mockito.mock(PacketInfo.class);
+			 Mockito.when(pktInfo.getDir()).thenReturn(dirs[random.nextInt(dirs.length)]);
+			 Mockito.when(pktInfo.getTimeStamp()).thenReturn(stamp);
+			 Mockito.when(pktInfo.getLen()).thenReturn(40 + random.nextInt(1460));
+			 packets.add(pktInfo);
+		 }
+		 return packets;
+	 }
+
+	 @Test
+	 public void calculateThroughput_windowsMatchPacketSums(){
+		 List<PacketInfo> packets = randomPackets(500);
+		 double endTime = 60.0;
+		 List<Throughput> testResult = throughputCalculator.calculateThroughput(2.5, endTime, 0.7, packets);
+		 // the last split is the one open at the end time, reported twice
+		 for (Throughput throughput : testResult.subList(0, testResult.size() - 2)) {
+			 long up = 0;
+			 long down = 0;
+			 for (PacketInfo packet : packets) {
+				 double stamp = packet.getTimeStamp();
+				 if (stamp >= throughput.getTime() - throughput.getSamplePeriod() && stamp < throughput.getTime() && stamp < endTime) {
+					 if (packet.getDir() == PacketDirection.UPLINK) {
+						 up += packet.getLen();
+					 } else if (packet.getDir() == PacketDirection.DOWNLINK) {
+						 down += packet.getLen();
+					 }
+				 }
+			 }
+			 assertEquals(up * 8 / 1000.0 / 0.7, throughput.getUploadKbps(), 0.0001);
+			 assertEquals(down * 8 / 1000.0 / 0.7, throughput.getDownloadKbps(), 0.0001);
+		 }
+	 }
+
+	 @Test
+	 public void calculateThroughput_direction(){
+		 List<PacketInfo> packets = randomPackets(300);
+		 for (PacketDirection direction : new PacketDirection[] { PacketDirection.UPLINK, PacketDirection.DOWNLINK }) {
+			 List<PacketInfo> filtered = new ArrayList<PacketInfo>();
+			 for (PacketInfo packet : packets) {
+				 if (packet.getDir() == direction) {
+					 filtered.add(packet);
+				 }
+			 }
+			 List<Throughput> expected = throughputCalculator.calculateThroughput(1.0, 30.0, 0.5, filtered);
+			 List<Throughput> testResult = throughputCalculator.calculateThroughput(1.0, 30.0, 0.5, packets, direction);
+			 assertEquals(expected.size(), testResult.size());
+			 for (int i = 0; i < expected.size(); i++) {
+				 assertEquals(expected.get(i).getTime(), testResult.get(i).getTime(), 0.0);
+				 assertEquals(expected.get(i).getKbps(), testResult.get(i).getKbps(), 0.0);
+			 }
+		 }
+		 assertEquals(throughputCalculator.calculateThroughput(1.0, 30.0, 0.5, packets).size(),
+				 throughputCalculator.calculateThroughput(1.0, 30.0, 0.5, packets, PacketDirection.BOTH).size());
+	 }
+
+	 @Test
+	 public void throughputIndex(){
+		 ThroughputIndex index = ThroughputIndex.of(PacketTable.of(randomPackets(200)));
+		 assertEquals(200, index.size());
+		 assertEquals(0, index.indexOf(-1.0));
+		 assertEquals(200, index.indexOf(1000.0));
+		 assertEquals(index.getUplinkBytes(0, 200), index.getUplinkBytes(0.0, 1000.0));
+		 assertEquals(0, index.getDownlinkBytes(5.0, 5.0));
+		 assertEquals(0, index.getDownlinkBytes(6.0, 5.0));
+		 int middle = index.indexOf(10.0);
+		 assertEquals(index.getUplinkBytes(0.0, 1000.0), index.getUplinkBytes(0.0, 10.0) + index.getUplinkBytes(middle, 200));
+	 }
+
+	 @Test
+	 public void calculateThroughput_tableKeepsIndex(){
+		 PacketTable table = PacketTable.of(randomPackets(200));
+		 throughputCalculator.calculateThroughput(1.0, 30.0, 0.5, table, PacketDirection.UPLINK);
+		 ThroughputIndex uplink = table.getThroughputIndex(PacketTable.DIRECTION_UPLINK);
+		 throughputCalculator.calculateThroughput(2.0, 20.0, 1.0, table, PacketDirection.UPLINK);
+		 assertSame(uplink, table.getThroughputIndex(PacketTable.DIRECTION_UPLINK));
+		 assertSame(table.getThroughputIndex(ThroughputIndex.ALL_DIRECTIONS), table.getThroughputIndex(ThroughputIndex.ALL_DIRECTIONS));
+	 }
+
+	 @Test
+	 public void calculateThroughput_listChangedInPlace(){
+		 List<PacketInfo> packets = randomPackets(100);
+		 double before = throughputCalculator.calculateThroughput(0.0, 40.0, 40.0, packets).get(0).getKbps();
+		 double stamp = packets.get(50).getTimeStamp();
+		 PacketInfo pktInfo = Mockito.mock(PacketInfo.class);
+		 Mockito.when(pktInfo.getDir()).thenReturn(PacketDirection.DOWNLINK);
+		 Mockito.when(pktInfo.getTimeStamp()).thenReturn(stamp);
+		 Mockito.when(pktInfo.getLen()).thenReturn(100000);
+		 packets.set(50, pktInfo);
+		 // same list and size, the bytes of the new packet are counted
+		 assertNotEquals(before, throughputCalculator.calculateThroughput(0.0, 40.0, 40.0, packets).get(0).getKbps(), 0.0001);
+	 }
+
 }
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.pojo;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.att.aro.core.packetreader.pojo.PacketDirection;
+
+public class PacketTableTest {
+
+	private static PacketInfo packet(double timestamp, int len, int payloadLen, PacketDirection dir) {
+		PacketInfo packetInfo = Mockito.mock(PacketInfo.class);
+		Mockito.when(packetInfo.getTimeStamp()).thenReturn(timestamp);
+		Mockito.when(packetInfo.getLen()).thenReturn(len);
+		Mockito.when(packetInfo.getPayloadLen()).thenReturn(payloadLen);
+		Mockito.when(packetInfo.getDir()).thenReturn(dir);
+		return packetInfo;
+	}
+
+	private static Session session(PacketInfo... packets) {
+		Session session = Mockito.mock(Session.class);
+		Mockito.when(session.getAllPackets()).thenReturn(new ArrayList<>(Arrays.asList(packets)));
+		return session;
+	}
+
+	@Test
+	public void columnsFollowPacketOrder() {
+		PacketInfo first = packet(1.5, 60, 0, PacketDirection.UPLINK);
+		PacketInfo second = packet(2.0, 1500, 1448, PacketDirection.DOWNLINK);
+		PacketInfo third = packet(2.5, 40, 0, null);
+		List<PacketInfo> packets = Arrays.asList(first, second, third);
+
+		PacketTable table = PacketTable.of(packets, Arrays.asList(session(second), session(first)));
+
+		assertEquals(3, table.size());
+		assertSame(second, table.getPacket(1));
+		assertArrayEquals(new double[] { 1.5, 2.0, 2.5 }, table.getTimestamps(), 0);
+		assertArrayEquals(new int[] { 60, 1500, 40 }, table.getLengths());
+		assertArrayEquals(new int[] { 0, 1448, 0 }, table.getPayloadLengths());
+		assertArrayEquals(new byte[] { PacketTable.DIRECTION_UPLINK, PacketTable.DIRECTION_DOWNLINK,
+				PacketTable.DIRECTION_UNKNOWN }, table.getDirections());
+		assertArrayEquals(new int[] { 1, 0, PacketTable.NO_SESSION }, table.getSessionIds());
+	}
+
+	@Test
+	public void emptyTable() {
+		PacketTable table = PacketTable.of(null);
+		assertEquals(0, table.size());
+		assertEquals(0, table.getTimestamps().length);
+	}
+}
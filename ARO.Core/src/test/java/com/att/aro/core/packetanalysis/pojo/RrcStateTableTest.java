@@ -0,0 +1,152 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetanalysis.pojo;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RrcStateTableTest {
+
+	private static final RRCState[] STATES = RRCState.values();
+
+	/**
+	 * Ranges in time order, now and then two at the same time or out of order
+	 * as the 3G state machine leaves them before sorting
+	 */
+	private static List<RrcStateRange> randomRanges(Random random) {
+		List<RrcStateRange> ranges = new ArrayList<RrcStateRange>();
+		double time = random.nextInt(3) == 0 ? 0 : random.nextDouble() * 5;
+		for (int index = random.nextInt(30); index >= 0; index--) {
+			double begin = random.nextInt(10) == 0 ? time - random.nextDouble() * 3 : time;
+			double end = random.nextInt(8) == 0 ? begin : begin + random.nextDouble() * 10;
+			RrcStateRange range = new RrcStateRange(begin, end, STATES[random.nextInt(STATES.length)]);
+			range.setEnergy(random.nextDouble());
+			ranges.add(range);
+			time = Math.max(time, end);
+		}
+		return ranges;
+	}
+
+	private static void assertSameRanges(String message, List<RrcStateRange> expected, RrcStateTable table) {
+		assertEquals(message, expected.size(), table.size());
+		for (int row = 0; row < table.size(); row++) {
+			assertEquals(message, expected.get(row).getBeginTime(), table.getBeginTime(row), 0.0);
+			assertEquals(message, expected.get(row).getEndTime(), table.getEndTime(row), 0.0);
+			assertEquals(message, expected.get(row).getState(), table.getState(row));
+		}
+	}
+
+	@Test
+	public void sort_sameAsCollectionsSort() {
+		Random random = new Random(5);
+		for (int round = 0; round < 2000; round++) {
+			List<RrcStateRange> ranges = randomRanges(random);
+			RrcStateTable table = RrcStateTable.of(ranges);
+			List<RrcStateRange> expected = new ArrayList<RrcStateRange>(ranges);
+			Collections.sort(expected);
+
+			table.sort();
+
+			assertSameRanges("round " + round, expected, table);
+			for (int row = 0; row < table.size(); row++) {
+				assertEquals("round " + round, expected.get(row).getEnergy(), table.getEnergy(row), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void clip_sameAsListClip() {
+		Random random = new Random(6);
+		for (int round = 0; round < 2000; round++) {
+			List<RrcStateRange> ranges = randomRanges(random);
+			Collections.sort(ranges);
+			RrcStateTable table = RrcStateTable.of(ranges);
+			double last = ranges.get(ranges.size() - 1).getEndTime();
+			double beginTime;
+			double endTime;
+			if (random.nextBoolean()) {
+				// on range boundaries
+				beginTime = ranges.get(random.nextInt(ranges.size())).getBeginTime();
+				endTime = ranges.get(random.nextInt(ranges.size())).getEndTime();
+			} else {
+				beginTime = random.nextDouble() * last;
+				endTime = beginTime + random.nextDouble() * last;
+			}
+
+			List<RrcStateRange> expected = getRRCStatesForTheTimeRange(ranges, beginTime, endTime);
+			RrcStateTable clipped = table.clip(beginTime, endTime);
+
+			assertSameRanges("round " + round, expected, clipped);
+			for (int row = 0; row < clipped.size(); row++) {
+				// ranges that were cut lose their energy
+				assertEquals("round " + round, expected.get(row).getEnergy(), clipped.getEnergy(row), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void toRanges_keepsEnergy() {
+		List<RrcStateRange> ranges = randomRanges(new Random(7));
+		List<RrcStateRange> copied = RrcStateTable.of(ranges).toRanges();
+		assertEquals(ranges.size(), copied.size());
+		for (int index = 0; index < ranges.size(); index++) {
+			assertEquals(ranges.get(index).getBeginTime(), copied.get(index).getBeginTime(), 0.0);
+			assertEquals(ranges.get(index).getEndTime(), copied.get(index).getEndTime(), 0.0);
+			assertEquals(ranges.get(index).getState(), copied.get(index).getState());
+			assertEquals(ranges.get(index).getEnergy(), copied.get(index).getEnergy(), 0.0);
+		}
+	}
+
+	/*
+	 * The clip RrcStateMachineFactoryImpl used before RrcStateTable
+	 */
+
+	private static List<RrcStateRange> getRRCStatesForTheTimeRange(List<RrcStateRange> rrcRanges , double beginTime , double endTime){
+		
+		List<RrcStateRange> filteredRRCStates = new ArrayList<RrcStateRange>();
+		boolean stateAdded = false;
+
+		for (RrcStateRange rrcRange : rrcRanges) {
+
+			if (rrcRange.getBeginTime() >= beginTime
+					&& rrcRange.getEndTime() <= endTime) {
+				filteredRRCStates.add(rrcRange);
+			} else if (rrcRange.getBeginTime() <= beginTime
+					&& rrcRange.getEndTime() <= endTime && rrcRange.getEndTime() > beginTime) {
+				filteredRRCStates.add(new RrcStateRange(beginTime, rrcRange
+						.getEndTime(), rrcRange.getState()));
+			} else if (rrcRange.getBeginTime() <= beginTime
+					&& rrcRange.getEndTime() >= endTime) {
+				filteredRRCStates.add(new RrcStateRange(beginTime, endTime,
+						rrcRange.getState()));
+			} else if (rrcRange.getBeginTime() >= beginTime && rrcRange.getBeginTime() < endTime
+					&& rrcRange.getEndTime() >= endTime && !stateAdded) {
+				filteredRRCStates.add(new RrcStateRange(rrcRange
+						.getBeginTime(), endTime, rrcRange
+						.getState()));
+				stateAdded = true;
+			}
+		}
+		return filteredRRCStates;
+		
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetreader.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.att.aro.core.packetreader.IPacketListener;
+import com.att.aro.core.packetreader.IPacketReader;
+import com.att.aro.core.packetreader.pojo.Packet;
+import com.att.aro.core.packetreader.pojo.TCPPacket;
+
+public class MappedPcapReaderImplTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private MappedPcapReaderImpl reader;
+	private IPacketReader fallback;
+
+	private static final byte[] PAYLOAD = "GET / HTTP/1.1\r\n".getBytes();
+
+	@Before
+	public void setUp() {
+		fallback = mock(IPacketReader.class);
+		reader = new MappedPcapReaderImpl();
+		reader.setPacketService(new PacketServiceImpl());
+		reader.setPacketReader(fallback);
+	}
+
+	/**
+	 * Ethernet frame carrying IPv4/TCP 10.0.0.1:50000 -> 10.0.0.2:80
+	 */
+	private static byte[] ethernetTcpFrame() {
+		ByteBuffer buffer = ByteBuffer.allocate(14 + 40 + PAYLOAD.length);
+		buffer.put(new byte[12]).putShort((short) 0x0800);
+		buffer.put((byte) 0x45).put((byte) 0).putShort((short) (40 + PAYLOAD.length));
+		buffer.putInt(0).put((byte) 64).put((byte) 6).putShort((short) 0);
+		buffer.put(new byte[] { 10, 0, 0, 1 }).put(new byte[] { 10, 0, 0, 2 });
+		buffer.putShort((short) 50000).putShort((short) 80).putInt(7).putInt(9);
+		buffer.put((byte) 0x50).put((byte) 0x18).putShort((short) 1024).putInt(0);
+		buffer.put(PAYLOAD);
+		return buffer.array();
+	}
+
+	private File writePcap(int magic, long fraction, byte[]... frames) throws IOException {
+		int length = 24;
+		for (byte[] frame : frames) {
+			length += 16 + frame.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(magic).putShort((short) 2).putShort((short) 4).putInt(0).putInt(0).putInt(65535).putInt(1);
+		for (byte[] frame : frames) {
+			buffer.putInt(1_600_000_000).putInt((int) fraction).putInt(frame.length).putInt(frame.length).put(frame);
+		}
+		File file = folder.newFile();
+		Files.write(file.toPath(), buffer.array());
+		return file;
+	}
+
+	private List<Packet> read(File file) throws IOException {
+		List<Packet> packets = new ArrayList<>();
+		reader.readPacket(file.getAbsolutePath(), (appName, packet) -> packets.add(packet));
+		return packets;
+	}
+
+	@Test
+	public void readMappedPackets() throws IOException {
+		List<Packet> packets = read(writePcap(0xa1b2c3d4, 123_456, ethernetTcpFrame(), ethernetTcpFrame()));
+
+		assertEquals(2, packets.size());
+		assertTrue(packets.get(0) instanceof TCPPacket);
+		TCPPacket tcpPacket = (TCPPacket) packets.get(0);
+		assertTrue(tcpPacket.isMapped());
+		assertEquals(80, tcpPacket.getDestinationPort());
+		assertEquals(7, tcpPacket.getSequenceNumber());
+		assertEquals("10.0.0.1", tcpPacket.getSourceIPAddress().getHostAddress());
+		assertEquals(PAYLOAD.length, tcpPacket.getPayloadLen());
+		assertEquals(1_600_000_000.123456, tcpPacket.getTimeStamp(), 1e-7);
+
+		assertEquals(ethernetTcpFrame().length, tcpPacket.getDataLength());
+		assertArrayEquals(ethernetTcpFrame(), tcpPacket.getData());
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		tcpPacket.writeData(payload, tcpPacket.getDataOffset(), tcpPacket.getPayloadLen());
+		assertArrayEquals(PAYLOAD, payload.toByteArray());
+		assertEquals(PAYLOAD[0], tcpPacket.getDataBuffer().get(tcpPacket.getDataOffset()));
+	}
+
+	@Test
+	public void nanosecondTimestamps() throws IOException {
+		List<Packet> packets = read(writePcap(0xa1b23c4d, 123_456_789, ethernetTcpFrame()));
+		assertEquals(123_456, packets.get(0).getMicroSeconds());
+	}
+
+	@Test
+	public void otherFormatsUsePacketReader() throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), Arrays.copyOf(new byte[] { 0x0a, 0x0d, 0x0d, 0x0a }, 28));
+		read(file);
+		verify(fallback).readPacket(anyString(), any(IPacketListener.class));
+	}
+}
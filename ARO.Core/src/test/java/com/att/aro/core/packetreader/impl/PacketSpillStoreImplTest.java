@@ -0,0 +1,172 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetreader.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.att.aro.core.packetreader.pojo.Packet;
+
+public class PacketSpillStoreImplTest {
+
+	@Test
+	public void writeAndRead() throws IOException {
+		try (PacketSpillStoreImpl store = new PacketSpillStoreImpl()) {
+			long first = store.write(new byte[] { 1, 2, 3 });
+			long second = store.write(new byte[] { 4, 5 });
+			assertEquals(0, first);
+			assertEquals(3, second);
+			assertEquals(5, store.size());
+			assertArrayEquals(new byte[] { 4, 5 }, store.read(second, 2));
+			assertArrayEquals(new byte[] { 1, 2, 3 }, store.read(first, 3));
+		}
+	}
+
+	@Test
+	public void spilledPacketReadsBack() throws IOException {
+		byte[] data = new byte[] { 10, 20, 30, 40 };
+		Packet packet = new Packet(1, 2, data.length, 0, data);
+		try (PacketSpillStoreImpl store = new PacketSpillStoreImpl()) {
+			packet.spill(store);
+			assertTrue(packet.isSpilled());
+			assertArrayEquals(data, packet.getData());
+
+			packet.setData(new byte[] { 7 });
+			assertFalse(packet.isSpilled());
+			assertArrayEquals(new byte[] { 7 }, packet.getData());
+		}
+	}
+
+	@Test
+	public void readAcrossWrites() throws IOException {
+		byte[] data = new byte[3 * 1024 * 1024 + 17];
+		new Random(1).nextBytes(data);
+		try (PacketSpillStoreImpl store = new PacketSpillStoreImpl()) {
+			long first = store.write(new byte[] { 1 });
+			assertArrayEquals(new byte[] { 1 }, store.read(first, 1));
+			long second = store.write(data);
+			assertArrayEquals(data, store.read(second, data.length));
+			assertArrayEquals(new byte[] { 1, data[0] }, store.read(first, 2));
+			long third = store.write(new byte[] { 2, 3 });
+			assertArrayEquals(new byte[] { data[data.length - 1], 2, 3 }, store.read(third - 1, 3));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void readBeyondEnd() throws IOException {
+		try (PacketSpillStoreImpl store = new PacketSpillStoreImpl()) {
+			store.write(new byte[] { 1, 2 });
+			store.read(1, 2);
+		}
+	}
+
+	/**
+	 * Analysis threads read packets while the ingest thread still writes
+	 */
+	@Test(timeout = 60000)
+	public void readConcurrently() throws Exception {
+		int packets = 20000;
+		List<byte[]> data = new ArrayList<>();
+		Random random = new Random(2);
+		for (int index = 0; index < packets; index++) {
+			byte[] bytes = new byte[40 + random.nextInt(1460)];
+			random.nextBytes(bytes);
+			data.add(bytes);
+		}
+		long[] offsets = new long[packets];
+		AtomicInteger written = new AtomicInteger();
+		int threads = 8;
+		ExecutorService readers = Executors.newFixedThreadPool(threads);
+		try (PacketSpillStoreImpl store = new PacketSpillStoreImpl()) {
+			List<Future<Integer>> reads = new ArrayList<>();
+			for (int thread = 0; thread < threads; thread++) {
+				int seed = thread;
+				reads.add(readers.submit(() -> {
+					Random pick = new Random(seed);
+					int count = 0;
+					while (written.get() < packets || count < packets) {
+						int available = written.get();
+						if (available == 0) {
+							continue;
+						}
+						int index = pick.nextInt(available);
+						assertArrayEquals(data.get(index), store.read(offsets[index], data.get(index).length));
+						count++;
+					}
+					return count;
+				}));
+			}
+			for (int index = 0; index < packets; index++) {
+				offsets[index] = store.write(data.get(index));
+				// publishes the offset to the readers
+				written.incrementAndGet();
+			}
+			for (Future<Integer> read : reads) {
+				assertTrue(read.get() >= packets);
+			}
+		} finally {
+			readers.shutdownNow();
+		}
+	}
+
+	@Test
+	public void anotherStoreLeavesTheFileOpen() throws IOException {
+		byte[] data = new byte[] { 10, 20, 30, 40 };
+		Packet packet = new Packet(1, 2, data.length, 0, data);
+		try (PacketSpillStoreImpl store = new PacketSpillStoreImpl()) {
+			packet.spill(store);
+			new PacketSpillStoreImpl().close();
+			assertArrayEquals(data, packet.getData());
+			assertTrue(store.getFile().exists());
+		}
+	}
+
+	@Test
+	public void close_deletesTheFile() throws IOException {
+		PacketSpillStoreImpl store = new PacketSpillStoreImpl();
+		File file = store.getFile();
+		store.write(new byte[] { 1 });
+		store.close();
+		assertFalse(file.exists());
+		// a second close does nothing
+		store.close();
+	}
+
+	@Test
+	public void collectedStoreFileIsDeleted() throws IOException {
+		PacketSpillStoreImpl store = new PacketSpillStoreImpl();
+		File file = store.getFile();
+		store.write(new byte[] { 1 });
+		// as the garbage collector does once the store is unreachable
+		assertTrue(store.getCollectedReference().enqueue());
+		PacketSpillStoreImpl.closeCollected();
+		assertFalse(file.exists());
+	}
+}
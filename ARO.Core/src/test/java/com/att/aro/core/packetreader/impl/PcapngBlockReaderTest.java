@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.packetreader.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.att.aro.core.packetreader.pojo.Packet;
+import com.att.aro.core.packetreader.pojo.TCPPacket;
+
+public class PcapngBlockReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static class Frame {
+		private final long seconds;
+		private final long microseconds;
+		private final int linkType;
+		private final byte[] data;
+
+		Frame(long seconds, long microseconds, int linkType, byte[] data) {
+			this.seconds = seconds;
+			this.microseconds = microseconds;
+			this.linkType = linkType;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * IPv4/TCP packet without link layer, 10.0.0.1:50000 -> 10.0.0.2:443
+	 */
+	private static byte[] rawTcpPacket() {
+		ByteBuffer buffer = ByteBuffer.allocate(44);
+		buffer.put((byte) 0x45).put((byte) 0).putShort((short) 44);
+		buffer.putInt(0).put((byte) 64).put((byte) 6).putShort((short) 0);
+		buffer.put(new byte[] { 10, 0, 0, 1 }).put(new byte[] { 10, 0, 0, 2 });
+		buffer.putShort((short) 50000).putShort((short) 443).putInt(1).putInt(0);
+		buffer.put((byte) 0x50).put((byte) 0x18).putShort((short) 1024).putInt(0);
+		buffer.put(new byte[] { 1, 2, 3, 4 });
+		return buffer.array();
+	}
+
+	private static ByteBuffer block(ByteOrder order, int type, byte[] body) {
+		int length = 12 + ((body.length + 3) & ~3);
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(order);
+		buffer.putInt(type).putInt(length).put(body);
+		buffer.position(length - 4);
+		buffer.putInt(length);
+		buffer.flip();
+		return buffer;
+	}
+
+	private static byte[] option(ByteOrder order, int code, byte[] value) {
+		ByteBuffer buffer = ByteBuffer.allocate(4 + ((value.length + 3) & ~3)).order(order);
+		buffer.putShort((short) code).putShort((short) value.length).put(value);
+		return buffer.array();
+	}
+
+	private static byte[] concat(byte[]... parts) {
+		int length = 0;
+		for (byte[] part : parts) {
+			length += part.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		for (byte[] part : parts) {
+			buffer.put(part);
+		}
+		return buffer.array();
+	}
+
+	private static byte[] sectionHeader(ByteOrder order, String os) {
+		ByteBuffer header = ByteBuffer.allocate(16).order(order);
+		header.putInt(PcapngBlockReader.BYTE_ORDER_MAGIC).putShort((short) 1).putShort((short) 0).putLong(-1);
+		return block(order, PcapngBlockReader.SECTION_HEADER_BLOCK,
+				concat(header.array(), option(order, 3, os.getBytes(StandardCharsets.UTF_8)), new byte[4])).array();
+	}
+
+	private static byte[] interfaceDescription(ByteOrder order, int linkType, byte resolution) {
+		ByteBuffer header = ByteBuffer.allocate(8).order(order);
+		header.putShort((short) linkType).putShort((short) 0).putInt(65535);
+		return block(order, PcapngBlockReader.INTERFACE_DESCRIPTION_BLOCK,
+				concat(header.array(), option(order, 9, new byte[] { resolution }), new byte[4])).array();
+	}
+
+	private static byte[] enhancedPacket(ByteOrder order, int interfaceId, long timestamp, byte[] data) {
+		ByteBuffer header = ByteBuffer.allocate(20).order(order);
+		header.putInt(interfaceId).putInt((int) (timestamp >>> 32)).putInt((int) timestamp).putInt(data.length)
+				.putInt(data.length);
+		return block(order, PcapngBlockReader.ENHANCED_PACKET_BLOCK, concat(header.array(), data)).array();
+	}
+
+	private static byte[] simplePacket(ByteOrder order, byte[] data) {
+		ByteBuffer header = ByteBuffer.allocate(4).order(order);
+		header.putInt(data.length);
+		return block(order, PcapngBlockReader.SIMPLE_PACKET_BLOCK, concat(header.array(), data)).array();
+	}
+
+	private File writeTrace(ByteOrder order) throws IOException {
+		byte[] data = rawTcpPacket();
+		File file = folder.newFile("traffic.pcapng");
+		Files.write(file.toPath(), concat(sectionHeader(order, "Linux 5.10"),
+				// interface 0 in microseconds, interface 1 in nanoseconds
+				interfaceDescription(order, 101, (byte) 6), interfaceDescription(order, 101, (byte) 9),
+				enhancedPacket(order, 0, 1_600_000_000_123_456L, data),
+				enhancedPacket(order, 1, 1_600_000_001_000_000_600L, data), block(order, 0x0BAD, new byte[8]).array(),
+				simplePacket(order, data)));
+		return file;
+	}
+
+	@Test
+	public void readBlocks() throws IOException {
+		for (ByteOrder order : new ByteOrder[] { ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN }) {
+			List<String> sections = new ArrayList<>();
+			List<Frame> frames = new ArrayList<>();
+			File file = writeTrace(order);
+			int count = PcapngBlockReader.read(file.getAbsolutePath(), new PcapngBlockReader.FrameListener() {
+				@Override
+				public void sectionStarted(String os) {
+					sections.add(os);
+				}
+
+				@Override
+				public void frameArrived(long seconds, long microseconds, int linkType, byte[] data) {
+					frames.add(new Frame(seconds, microseconds, linkType, data));
+				}
+			});
+			file.delete();
+
+			assertEquals(3, count);
+			assertEquals("Linux 5.10", sections.get(0));
+			assertEquals(1_600_000_000L, frames.get(0).seconds);
+			assertEquals(123_456L, frames.get(0).microseconds);
+			assertEquals(101, frames.get(0).linkType);
+			assertArrayEquals(rawTcpPacket(), frames.get(0).data);
+			// nanoseconds are rounded to microseconds
+			assertEquals(1_600_000_001L, frames.get(1).seconds);
+			assertEquals(1L, frames.get(1).microseconds);
+			// a simple packet has no timestamp of its own
+			assertEquals(1_600_000_001L, frames.get(2).seconds);
+			assertArrayEquals(rawTcpPacket(), frames.get(2).data);
+		}
+	}
+
+	@Test
+	public void readPacketLibrary() throws IOException {
+		File file = writeTrace(ByteOrder.LITTLE_ENDIAN);
+		List<Packet> packets = new ArrayList<>();
+		new PacketReaderLibraryImpl().readPacket(file.getAbsolutePath(), (id, packet) -> packets.add(packet));
+
+		assertEquals(3, packets.size());
+		assertTrue(packets.get(0) instanceof TCPPacket);
+		assertEquals(443, ((TCPPacket) packets.get(0)).getDestinationPort());
+		assertEquals(1_600_000_000.123456, packets.get(0).getTimeStamp(), 1e-7);
+	}
+}
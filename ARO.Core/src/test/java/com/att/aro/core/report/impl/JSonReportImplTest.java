@@ -15,12 +15,16 @@
 */
 package com.att.aro.core.report.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -35,9 +39,21 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.att.aro.core.BaseTest;
+import com.att.aro.core.bestpractice.pojo.AbstractBestPracticeResult;
+import com.att.aro.core.bestpractice.pojo.BPResultType;
+import com.att.aro.core.bestpractice.pojo.CacheControlResult;
+import com.att.aro.core.bestpractice.pojo.ConnectionOpeningResult;
 import com.att.aro.core.fileio.IFileManager;
+import com.att.aro.core.packetanalysis.pojo.ApplicationPacketSummary;
+import com.att.aro.core.packetanalysis.pojo.PacketAnalyzerResult;
+import com.att.aro.core.packetanalysis.pojo.Statistic;
+import com.att.aro.core.packetanalysis.pojo.TraceFileResult;
 import com.att.aro.core.pojo.AROTraceData;
 import com.att.aro.core.report.IReport;
+import com.att.aro.core.report.pojo.ReportOptions;
+import com.att.aro.core.report.pojo.ReportSection;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @SuppressWarnings("unchecked")
 public class JSonReportImplTest extends BaseTest {
@@ -112,4 +128,55 @@ public class JSonReportImplTest extends BaseTest {
 		boolean testResult = jsonreport.reportGenerator("abc.json", results);
 		assertFalse(testResult);
 	}
+
+	private AROTraceData traceData() {
+		Statistic statistic = new Statistic();
+		statistic.setTotalByte(2048);
+		statistic.setApplicationPacketSummary(Arrays.asList(new ApplicationPacketSummary("app", 3, 2048, 1024)));
+		TraceFileResult traceResult = new TraceFileResult();
+		traceResult.setTraceFile("traffic.cap");
+		PacketAnalyzerResult analyzerResult = new PacketAnalyzerResult();
+		analyzerResult.setTraceresult(traceResult);
+		analyzerResult.setStatistic(statistic);
+		CacheControlResult cacheControl = new CacheControlResult();
+		cacheControl.setResultType(BPResultType.PASS);
+		ConnectionOpeningResult connectionOpening = new ConnectionOpeningResult();
+		connectionOpening.setResultType(BPResultType.SELF_TEST);
+
+		AROTraceData results = new AROTraceData();
+		results.setSuccess(true);
+		results.setAnalyzerResult(analyzerResult);
+		results.setBestPracticeResults(Arrays.<AbstractBestPracticeResult> asList(cacheControl, connectionOpening));
+		return results;
+	}
+
+	@Test
+	public void reportGenerator_SameAsTraceData() throws IOException {
+		AROTraceData results = traceData();
+		File report = folder.newFile("abc.json");
+		when(filereader.createFile(any(String.class))).thenReturn(report);
+		assertTrue(jsonreport.reportGenerator("abc.json", results));
+
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.enableDefaultTyping();
+		assertEquals(mapper.readTree(mapper.writeValueAsString(results)), mapper.readTree(report));
+	}
+
+	@Test
+	public void reportGenerator_SectionsWithoutPacketArrays() throws IOException {
+		File report = folder.newFile("abc.json");
+		when(filereader.createFile(any(String.class))).thenReturn(report);
+		ReportOptions options = new ReportOptions();
+		options.setSections(EnumSet.of(ReportSection.STATISTICS, ReportSection.BEST_PRACTICES));
+		options.setPacketArrays(false);
+		assertTrue(jsonreport.reportGenerator("abc.json", traceData(), options));
+
+		JsonNode root = new ObjectMapper().readTree(report);
+		assertEquals(2, root.get("bestPracticeResults").get(1).size());
+		assertFalse(root.get("analyzerResult").has("traceresult"));
+		assertFalse(root.has("traceMetadata"));
+		JsonNode statistic = root.get("analyzerResult").get("statistic");
+		assertEquals(2048, statistic.get("totalByte").asLong());
+		assertFalse(statistic.has("applicationPacketSummary"));
+	}
 }
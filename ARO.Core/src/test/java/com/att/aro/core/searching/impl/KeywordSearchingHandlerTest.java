@@ -18,6 +18,9 @@ package com.att.aro.core.searching.impl;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -84,4 +87,33 @@ public class KeywordSearchingHandlerTest extends BaseTest {
 		assertNotNull(result);
 		assertEquals(0, result.getWords().size());
 	}
+
+	@Test
+	public void testOverlappingSearchingPattern() {
+		SearchingPatternBuilder patternBuilder = new SearchingPatternBuilder();
+		patternBuilder.add("he", PrivateDataType.regex_other.name())
+					  .add("she", PrivateDataType.regex_other.name())
+					  .add("his", PrivateDataType.regex_other.name())
+					  .add("hers", PrivateDataType.regex_other.name())
+					  .add("she", PrivateDataType.regex_date_birth.name());
+		
+		SearchingResult result = searchingHandler.search(patternBuilder.build(), new SearchingContent("ushers"));
+		
+		assertEquals(Arrays.asList("he", "she", "hers"), result.getWords());
+		assertEquals(PrivateDataType.regex_date_birth.name(), result.getTypes().get(1));
+	}
+
+	@Test
+	public void testPayloadBytes() {
+		SearchingPatternBuilder patternBuilder = new SearchingPatternBuilder();
+		patternBuilder.add("user=abc", PrivateDataType.regex_other.name())
+					  .add("id.42", PrivateDataType.regex_other.name())
+					  .add("caf\u00e9", PrivateDataType.regex_other.name());
+		
+		// control bytes read as '.', bytes above 0x7F never match
+		byte[] data = "GET /?user=abc&id\u000042 caf\u00e9".getBytes(StandardCharsets.ISO_8859_1);
+		SearchingResult result = searchingHandler.search(patternBuilder.build(), SearchingContent.fromPayload(data));
+		
+		assertEquals(Arrays.asList("user=abc", "id.42"), result.getWords());
+	}
 }
@@ -18,6 +18,8 @@ package com.att.aro.core.searching.impl;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -91,4 +93,23 @@ public class PatternSearchingHandlerTest extends BaseTest {
 		assertEquals(1, result.getWords().size());
 		assertEquals("443-237-7431", result.getWords().get(0));
 	}
+
+	@Test
+	public void testResultFoundInPayloadBytes() {
+		SearchingPatternBuilder pattenBuilder = new SearchingPatternBuilder();
+		pattenBuilder.add("\\d{3}[-\\.\\s]\\d{3}[-\\.\\s]\\d{4},-,3,8,-,7,4", PrivateDataType.regex_phone_number.name());
+		SearchingPattern pattern = pattenBuilder.build();
+		
+		byte[] data = "phone=443-237-7431\u0000\u00ff\r\nfax=212-555-0100&".getBytes(StandardCharsets.ISO_8859_1);
+		SearchingResult result = searchingHandler.search(pattern, SearchingContent.fromPayload(data));
+		
+		assertEquals(2, result.getWords().size());
+		assertEquals("443-237-7431", result.getWords().get(0));
+		assertEquals("212-555-0100", result.getWords().get(1));
+		
+		// the pattern is searched again in another session
+		result = searchingHandler.search(pattern, new SearchingContent("phone=832-288-7246&"));
+		assertEquals(1, result.getWords().size());
+		assertEquals("832-288-7246", result.getWords().get(0));
+	}
 }
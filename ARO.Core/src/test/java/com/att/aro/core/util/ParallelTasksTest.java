@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+public class ParallelTasksTest {
+
+	@Test
+	public void forEach_runsEveryTaskOnce() {
+		AtomicIntegerArray runs = new AtomicIntegerArray(1000);
+		Set<String> threadNames = ConcurrentHashMap.newKeySet();
+		ParallelTasks.forEach(runs.length(), 4, "ParallelTasksTest", "testing", index -> {
+			runs.incrementAndGet(index);
+			threadNames.add(Thread.currentThread().getName());
+		});
+		for (int index = 0; index < runs.length(); index++) {
+			assertEquals(1, runs.get(index));
+		}
+		for (String threadName : threadNames) {
+			assertTrue(threadName, threadName.startsWith("ParallelTasksTest-"));
+		}
+	}
+
+	@Test
+	public void forEach_singleThreadRunsOnCaller() {
+		Thread caller = Thread.currentThread();
+		ParallelTasks.forEach(10, 1, "ParallelTasksTest", "testing", index -> assertEquals(caller, Thread.currentThread()));
+		ParallelTasks.forEach(1, 8, "ParallelTasksTest", "testing", index -> assertEquals(caller, Thread.currentThread()));
+	}
+
+	@Test
+	public void forEach_rethrowsTaskException() {
+		try {
+			ParallelTasks.forEach(100, 4, "ParallelTasksTest", "testing", index -> {
+				if (index == 42) {
+					throw new IllegalStateException("task " + index);
+				}
+			});
+			fail("expected the exception of task 42");
+		} catch (IllegalStateException e) {
+			assertEquals("task 42", e.getMessage());
+		}
+	}
+
+	@Test
+	public void threadFactory_daemonThreads() {
+		Thread thread = ParallelTasks.threadFactory("Worker").newThread(() -> {
+		});
+		assertEquals("Worker-1", thread.getName());
+		assertTrue(thread.isDaemon());
+	}
+
+	@Test
+	public void getThreads_defaultsToProcessors() {
+		assertEquals(Runtime.getRuntime().availableProcessors(), ParallelTasks.getThreads("PARALLEL_TASKS_TEST_THREADS"));
+	}
+}
@@ -25,7 +25,13 @@ import static org.junit.Assert.assertTrue;
 import java.io.File;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Level;
 import org.junit.Before;
@@ -366,4 +372,38 @@ public class UtilTest {
 			assertEquals(Util.expandAddress("192.168.1.2"), "192.168.1.2"); // this line has no ":"'s in it, so no conversion
 			assertEquals(Util.expandAddress("This string walked into a bar"), "This string walked into a bar"); // this line has no ":"'s in it, so no conversion
 	}
+
+	@Test
+	public void testReadHttpDate() {
+		assertEquals(1418259399000L, Util.readHttpDate("Thu, 11 Dec 2014 00:56:39 GMT", false).getTime());
+		assertEquals(1362098490000L, Util.readHttpDate(" Fri, 01 Mar 2013 00:41:30 GMT ", false).getTime());
+		assertNull(Util.readHttpDate("-1", false));
+		assertEquals(0L, Util.readHttpDate("0", true).getTime());
+	}
+
+	@Test
+	public void testReadHttpDate_Concurrent() throws Exception {
+		String[] dates = { "Thu, 11 Dec 2014 00:56:39 GMT", "Tue, 25 Jun 2013 01:01:21 GMT", "Fri, 01 Mar 2013 00:41:30 GMT", "Mon, 11 Jun 2012 18:15:40 GMT" };
+		long[] times = { 1418259399000L, 1372122081000L, 1362098490000L, 1339438540000L };
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> parsers = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				int first = thread;
+				parsers.add(pool.submit(() -> {
+					for (int round = 0; round < 5000; round++) {
+						int index = (first + round) % dates.length;
+						Date date = Util.readHttpDate(dates[index], false);
+						assertNotNull(dates[index], date);
+						assertEquals(dates[index], times[index], date.getTime());
+					}
+				}));
+			}
+			for (Future<?> parser : parsers) {
+				parser.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
 }
@@ -0,0 +1,55 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class XxHash64Test {
+
+	private static long hash(String text) {
+		return XxHash64.hash(text.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void hash_knownValues() {
+		assertEquals(0xef46db3751d8e999L, hash(""));
+		assertEquals(0xd24ec4f1a98c6e5bL, hash("a"));
+		assertEquals(0x44bc2cf5ad770999L, hash("abc"));
+		assertEquals(0xfbcea83c8a378bf1L, hash("Nobody inspects the spammish repetition"));
+	}
+
+	@Test
+	public void update_sameAsHash() {
+		Random random = new Random(42);
+		for (int test = 0; test < 200; test++) {
+			byte[] data = new byte[random.nextInt(300)];
+			random.nextBytes(data);
+			XxHash64 xxHash = new XxHash64();
+			int offset = 0;
+			while (offset < data.length) {
+				int count = Math.min(data.length - offset, random.nextInt(40));
+				xxHash.update(data, offset, count);
+				offset += count;
+			}
+			assertEquals(XxHash64.hash(data), xxHash.getValue());
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.core.videoanalysis.videoframe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.junit.Test;
+import org.mp4parser.Box;
+import org.mp4parser.boxes.iso14496.part12.HandlerBox;
+import org.mp4parser.boxes.iso14496.part12.MediaBox;
+import org.mp4parser.boxes.iso14496.part12.MediaInformationBox;
+import org.mp4parser.boxes.iso14496.part12.MovieBox;
+import org.mp4parser.boxes.iso14496.part12.SampleDescriptionBox;
+import org.mp4parser.boxes.iso14496.part12.SampleTableBox;
+import org.mp4parser.boxes.iso14496.part12.TrackBox;
+import org.mp4parser.boxes.sampleentry.AudioSampleEntry;
+import org.mp4parser.boxes.sampleentry.SampleEntry;
+import org.mp4parser.boxes.sampleentry.VisualSampleEntry;
+
+public class SegmentProbeTest {
+
+	private static final int PMT_PID = 0x1000;
+	private static final int VIDEO_PID = 0x100;
+	private static final int AUDIO_PID = 0x101;
+
+	// baseline SPS, 80x45 macroblocks
+	private static final String SPS_720 = "6742c01eda014016e4";
+	// baseline SPS, 120x68 macroblocks cropped by 8 lines
+	private static final String SPS_1080 = "6742c01eda01e0089f95";
+
+	// AAC LC 44.1kHz stereo
+	private static final byte[] ADTS = { (byte) 0xFF, (byte) 0xF1, 0x50, (byte) 0x80, 0x02, 0x1F, (byte) 0xFC };
+
+	@Test
+	public void probe_transportStream() throws IOException {
+		SegmentMetadata metadata = SegmentProbe.probe(transportStream(SPS_720, 0x0F, ADTS));
+		assertTrue(metadata.isVideo());
+		assertEquals("h264", metadata.getVideoCodec());
+		assertEquals(1280, metadata.getWidth());
+		assertEquals(720, metadata.getHeight());
+		assertTrue(metadata.isAudio());
+		assertEquals("aac", metadata.getAudioCodec());
+		assertEquals(2, metadata.getChannels());
+	}
+
+	@Test
+	public void probe_transportStreamCropped() throws IOException {
+		SegmentMetadata metadata = SegmentProbe.probe(transportStream(SPS_1080, -1, null));
+		assertEquals(1920, metadata.getWidth());
+		assertEquals(1080, metadata.getHeight());
+		assertFalse(metadata.isAudio());
+	}
+
+	@Test
+	public void probe_mp4() throws IOException {
+		VisualSampleEntry avc1 = new VisualSampleEntry("avc1");
+		avc1.setWidth(640);
+		avc1.setHeight(360);
+		AudioSampleEntry mp4a = new AudioSampleEntry("mp4a");
+		mp4a.setChannelCount(1);
+		MovieBox moov = new MovieBox();
+		moov.addBox(track("vide", avc1));
+		moov.addBox(track("soun", mp4a));
+
+		ByteArrayOutputStream segment = new ByteArrayOutputStream();
+		segment.write(box("styp", new byte[8]));
+		moov.getBox(Channels.newChannel(segment));
+		segment.write(box("mdat", new byte[100]));
+
+		SegmentMetadata metadata = SegmentProbe.probe(segment.toByteArray());
+		assertTrue(metadata.isVideo());
+		assertEquals("h264", metadata.getVideoCodec());
+		assertEquals(360, metadata.getHeight());
+		assertTrue(metadata.isAudio());
+		assertEquals("aac", metadata.getAudioCodec());
+		assertEquals(1, metadata.getChannels());
+	}
+
+	@Test
+	public void probe_audioOnlyMp4() throws IOException {
+		AudioSampleEntry mp4a = new AudioSampleEntry("mp4a");
+		mp4a.setChannelCount(2);
+		MovieBox moov = new MovieBox();
+		moov.addBox(track("soun", mp4a));
+		ByteArrayOutputStream segment = new ByteArrayOutputStream();
+		moov.getBox(Channels.newChannel(segment));
+
+		SegmentMetadata metadata = SegmentProbe.probe(segment.toByteArray());
+		assertFalse(metadata.isVideo());
+		assertEquals(2, metadata.getChannels());
+	}
+
+	@Test
+	public void probe_unknownIsNull() throws IOException {
+		assertNull(SegmentProbe.probe(new byte[0]));
+		assertNull(SegmentProbe.probe("<html></html>".getBytes()));
+		// MP4 without moov does not describe its tracks
+		assertNull(SegmentProbe.probe(box("moof", new byte[16])));
+	}
+
+	private static TrackBox track(String handlerType, SampleEntry entry) {
+		HandlerBox hdlr = new HandlerBox();
+		hdlr.setHandlerType(handlerType);
+		SampleDescriptionBox stsd = new SampleDescriptionBox();
+		stsd.addBox(entry);
+		SampleTableBox stbl = new SampleTableBox();
+		stbl.addBox(stsd);
+		MediaInformationBox minf = new MediaInformationBox();
+		minf.addBox(stbl);
+		MediaBox mdia = new MediaBox();
+		mdia.addBox(hdlr);
+		mdia.addBox(minf);
+		TrackBox trak = new TrackBox();
+		trak.addBox(mdia);
+		return trak;
+	}
+
+	private static byte[] box(String type, byte[] content) {
+		byte[] box = new byte[8 + content.length];
+		box[3] = (byte) box.length;
+		System.arraycopy(type.getBytes(), 0, box, 4, 4);
+		System.arraycopy(content, 0, box, 8, content.length);
+		return box;
+	}
+
+	/**
+	 * PAT, PMT and the first PES of an H.264 stream and an audio stream
+	 */
+	private static byte[] transportStream(String sps, int audioType, byte[] audio) throws IOException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		stream.write(packet(0, section(0x00, new byte[] { 0x00, 0x01, (byte) (0xE0 | PMT_PID >> 8), (byte) PMT_PID })));
+		ByteArrayOutputStream pmt = new ByteArrayOutputStream();
+		pmt.write(new byte[] { (byte) 0xE1, 0x00, (byte) 0xF0, 0x00 }); // PCR PID, no program info
+		pmt.write(new byte[] { 0x1B, (byte) (0xE0 | VIDEO_PID >> 8), (byte) VIDEO_PID, (byte) 0xF0, 0x00 });
+		if (audio != null) {
+			pmt.write(new byte[] { (byte) audioType, (byte) (0xE0 | AUDIO_PID >> 8), (byte) AUDIO_PID, (byte) 0xF0, 0x00 });
+		}
+		stream.write(packet(PMT_PID, section(0x02, pmt.toByteArray())));
+
+		ByteArrayOutputStream video = new ByteArrayOutputStream();
+		video.write(new byte[] { 0, 0, 0, 1, 0x09, (byte) 0xF0 }); // access unit delimiter
+		video.write(new byte[] { 0, 0, 0, 1 });
+		video.write(DatatypeConverter.parseHexBinary(sps));
+		video.write(new byte[] { 0, 0, 0, 1, 0x68, (byte) 0xCE, 0x38, (byte) 0x80 });
+		stream.write(packet(VIDEO_PID, pes(0xE0, video.toByteArray())));
+		if (audio != null) {
+			stream.write(packet(AUDIO_PID, pes(0xC0, audio)));
+		}
+		return stream.toByteArray();
+	}
+
+	private static byte[] section(int tableId, byte[] body) {
+		byte[] section = new byte[9 + body.length + 4];
+		section[1] = (byte) tableId;
+		int length = 5 + body.length + 4;
+		section[2] = (byte) (0xB0 | length >> 8);
+		section[3] = (byte) length;
+		section[5] = 0x01;
+		section[6] = (byte) 0xC1;
+		System.arraycopy(body, 0, section, 9, body.length);
+		return section; // pointer field in front, CRC not checked
+	}
+
+	private static byte[] pes(int streamId, byte[] payload) {
+		byte[] pes = new byte[9 + payload.length];
+		pes[2] = 1;
+		pes[3] = (byte) streamId;
+		pes[6] = (byte) 0x80;
+		System.arraycopy(payload, 0, pes, 9, payload.length);
+		return pes;
+	}
+
+	/**
+	 * A unit start packet, the payload padded with adaptation field stuffing
+	 */
+	private static byte[] packet(int pid, byte[] payload) {
+		byte[] packet = new byte[188];
+		Arrays.fill(packet, (byte) 0xFF);
+		packet[0] = 0x47;
+		packet[1] = (byte) (0x40 | pid >> 8);
+		packet[2] = (byte) pid;
+		packet[3] = 0x30;
+		int stuffing = 184 - payload.length;
+		packet[4] = (byte) (stuffing - 1);
+		if (stuffing > 1) {
+			packet[5] = 0x00;
+		}
+		System.arraycopy(payload, 0, packet, 4 + stuffing, payload.length);
+		return packet;
+	}
+}
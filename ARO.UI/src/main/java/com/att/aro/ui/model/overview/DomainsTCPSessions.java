@@ -19,10 +19,9 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
+import com.att.aro.core.packetanalysis.impl.SessionConcurrency;
 import com.att.aro.core.packetanalysis.pojo.Session;
 
 /**
@@ -51,27 +50,9 @@ public class DomainsTCPSessions implements Comparable<DomainsTCPSessions>,Serial
 		if (sessions == null || sessions.size() <=0){
 			return Collections.emptyList();
 		}
-		Map<String, ArrayList<Session>> distinctMap = new HashMap<String, ArrayList<Session>>();
-		for(Session tcpSession : sessions){
-			if(tcpSession != null){
-				if(!tcpSession.isUdpOnly()){
-					String domainName = tcpSession.getDomainName();
-					
-					ArrayList<Session> tempList = distinctMap.get(domainName);
-					if(tempList == null){
-						tempList = new ArrayList<Session>();
-						distinctMap.put(domainName, tempList);
-					}
-					tempList.add(tcpSession);
-				}
-			}
-		}
-		
 		List<DomainsTCPSessions> result = new ArrayList<DomainsTCPSessions>();
-		for(Map.Entry<String, ArrayList<Session>> entry : distinctMap.entrySet()){
-			ArrayList<Session> tempList = entry.getValue();
-			tempList.trimToSize();
-			result.add(new DomainsTCPSessions(entry.getKey(), tempList));
+		for (SessionConcurrency.Group group : SessionConcurrency.index(sessions, Session::getDomainName).getGroups().values()) {
+			result.add(new DomainsTCPSessions(group.getKey(), group.getSessions()));
 		}
 		
 		return result;
@@ -100,6 +100,7 @@ import com.att.aro.ui.view.diagnostictab.plot.BurstPlot;
 import com.att.aro.ui.view.diagnostictab.plot.CameraPlot;
 import com.att.aro.ui.view.diagnostictab.plot.ConnectionsPlot;
 import com.att.aro.ui.view.diagnostictab.plot.CpuPlot;
+import com.att.aro.ui.view.diagnostictab.plot.IDownsampledPlot;
 import com.att.aro.ui.view.diagnostictab.plot.PacketPlot;
 import com.att.aro.ui.view.diagnostictab.plot.GpsPlot;
 import com.att.aro.ui.view.diagnostictab.plot.LatencyPlot;
@@ -727,6 +728,7 @@ public class GraphPanel extends JPanel implements ActionListener, ChartMouseList
 					break;
 				}
 			}
+			updateDrawWidth();
 		}
 		getZoomInButton().setEnabled(aroTraceData != null);
 		getZoomOutButton().setEnabled(aroTraceData != null);
@@ -1277,6 +1279,7 @@ public class GraphPanel extends JPanel implements ActionListener, ChartMouseList
 	private void zoomEventUIUpdate() {
 		// allow for better scrolling efficiency for new size
 		chartPanelScrollPane().getHorizontalScrollBar().setUnitIncrement(zoomCounter * 10);
+		updateDrawWidth();
 		// update the screen panels for repaint
 		getChartPanel().updateUI();
 		// updates the scroll bar after resize updates.
@@ -1297,6 +1300,19 @@ public class GraphPanel extends JPanel implements ActionListener, ChartMouseList
 		this.pointX = (int) scrollPoint;
 	}
 
+	/**
+	 * Gives the downsampled plots the width of the whole chart at the current
+	 * zoom, so they only hold the items that can be drawn
+	 */
+	private void updateDrawWidth() {
+		int drawWidth = (int) (Math.max(chartPanelScrollPane().getWidth(), initialPlotAreaWidth) * Math.pow(zoomFactor, zoomCounter));
+		for (IDownsampledPlot downsampledPlot : new IDownsampledPlot[] { throughput, throughputUL, throughputDL, burstPlot, rrcPlot, dlPlot, upPlot }) {
+			if (downsampledPlot != null) {
+				downsampledPlot.setDrawWidth(drawWidth);
+			}
+		}
+	}
+
 	private void positionHairLineHandle(double hairlinePt) {
 		if (zoomCounter == 0) {
 			getHandlePanel().setHandlePosition(getHandleCoordinate());
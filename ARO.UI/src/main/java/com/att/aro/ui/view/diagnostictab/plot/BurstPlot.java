@@ -36,20 +36,28 @@ import com.att.aro.core.packetanalysis.pojo.BurstCategory;
 import com.att.aro.core.pojo.AROTraceData;
 import com.att.aro.ui.utils.ResourceBundleHelper;
 
-public class BurstPlot implements IPlot{
+public class BurstPlot implements IDownsampledPlot{
 	XYIntervalSeriesCollection burstDataCollection = new XYIntervalSeriesCollection();
+	private XYPlot plot;
+	/**
+	 * bursts of each category in time order, with their pyramid
+	 */
+	private Map<BurstCategory, List<Burst>> burstsByCategory = new EnumMap<BurstCategory, List<Burst>>(BurstCategory.class);
+	private Map<BurstCategory, SeriesPyramid> pyramids = new EnumMap<BurstCategory, SeriesPyramid>(BurstCategory.class);
+	/**
+	 * bursts in the dataset, by category and item
+	 */
+	private final Map<BurstCategory, List<Burst>> burstMap = new HashMap<BurstCategory, List<Burst>>();
+	private int drawWidth = DEFAULT_DRAW_WIDTH;
+
 	public void populate(XYPlot plot, AROTraceData analysis){
 
 		if (analysis != null) {
-			burstDataCollection.removeAllSeries();
-			Map<BurstCategory, XYIntervalSeries> seriesMap = new EnumMap<BurstCategory, XYIntervalSeries>(
-					BurstCategory.class);
-			final Map<BurstCategory, List<Burst>> burstMap = new HashMap<BurstCategory, List<Burst>>();
+			this.plot = plot;
+			burstsByCategory.clear();
+			pyramids.clear();
 			for (BurstCategory eventType : BurstCategory.values()) {
-				XYIntervalSeries series = new XYIntervalSeries(eventType);
-				seriesMap.put(eventType, series);
-				burstDataCollection.addSeries(series);
-				burstMap.put(eventType, new ArrayList<Burst>());
+				burstsByCategory.put(eventType, new ArrayList<Burst>());
 			}
 			final List<Burst> burstStates = analysis.getAnalyzerResult().getBurstCollectionAnalysisData().getBurstCollection();
 			if (burstStates != null) {
@@ -59,13 +67,23 @@ public class BurstPlot implements IPlot{
 					if (currEvent != null) {
 						BurstCategory burstState = currEvent.getBurstCategory();
 						if (burstState != null) {
-							seriesMap.get(burstState).add(currEvent.getBeginTime(), currEvent.getBeginTime(),
-									currEvent.getEndTime(), 0.5, 0, 1);
-							burstMap.get(burstState).add(currEvent);
+							burstsByCategory.get(burstState).add(currEvent);
 						}
 					}
 				}
 			}
+			for (Map.Entry<BurstCategory, List<Burst>> entry : burstsByCategory.entrySet()) {
+				List<Burst> bursts = entry.getValue();
+				double[] beginTimes = new double[bursts.size()];
+				double[] durations = new double[bursts.size()];
+				for (int index = 0; index < beginTimes.length; index++) {
+					beginTimes[index] = bursts.get(index).getBeginTime();
+					durations[index] = bursts.get(index).getEndTime() - beginTimes[index];
+				}
+				pyramids.put(entry.getKey(), new SeriesPyramid(beginTimes, durations));
+			}
+			updateDataset();
+
 			Color myGreen = new Color(34, 177, 76);
 			Color lightGreen = new Color(134, 232, 162);
 
@@ -107,4 +125,35 @@ public class BurstPlot implements IPlot{
 //		return plot;
 		
 	}
+
+	@Override
+	public void setDrawWidth(int drawWidth) {
+		if (this.drawWidth != drawWidth) {
+			this.drawWidth = drawWidth;
+			if (plot != null) {
+				updateDataset();
+			}
+		}
+	}
+
+	/**
+	 * Sets the bursts needed at the draw width as the dataset, the longest
+	 * burst of every bucket is kept
+	 */
+	private void updateDataset() {
+		burstDataCollection.removeAllSeries();
+		burstMap.clear();
+		for (BurstCategory eventType : BurstCategory.values()) {
+			XYIntervalSeries series = new XYIntervalSeries(eventType);
+			List<Burst> bursts = burstsByCategory.get(eventType);
+			List<Burst> shown = new ArrayList<Burst>();
+			for (int item : pyramids.get(eventType).getItems(plot, drawWidth)) {
+				Burst currEvent = bursts.get(item);
+				series.add(currEvent.getBeginTime(), currEvent.getBeginTime(), currEvent.getEndTime(), 0.5, 0, 1);
+				shown.add(currEvent);
+			}
+			burstDataCollection.addSeries(series);
+			burstMap.put(eventType, shown);
+		}
+	}
 }
@@ -5,7 +5,7 @@
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
  *
- *      http://www.apache.org/licenses/LICENSE-2.0 
+ *      http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -13,15 +13,22 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
 */
-package com.att.aro.core.packetreader.model.pcapng;
+package com.att.aro.ui.view.diagnostictab.plot;
 
+/**
+ * A plot drawn from a {@link SeriesPyramid}, the items in its dataset depend on
+ * the width of the chart.
+ */
+public interface IDownsampledPlot extends IPlot {
 
-import com.google.gson.annotations.SerializedName;
-import lombok.Data;
+	/**
+	 * Width in pixels a plot is drawn at until told otherwise
+	 */
+	int DEFAULT_DRAW_WIDTH = 1000;
 
-
-@Data
-public class Frame {
-	@SerializedName("frame.time_epoch")
-	private Double epochTimewithMicrosecondPrecision;
+	/**
+	 * Sets the width in pixels of the whole chart, zoom included. A populated
+	 * plot updates its dataset.
+	 */
+	void setDrawWidth(int drawWidth);
 }
@@ -33,17 +33,23 @@ public class PacketDataItem extends YIntervalDataItem{
 	private static final String SESSION_TOOLTIP = ResourceBundleHelper.getMessageString("packet.tooltip.session");
 	private static final String TOOLTIP_SUFFIX = ResourceBundleHelper.getMessageString("packet.tooltip.suffix");
 
+	private final Session session;
+	private final PacketInfo packet;
 	private String tooltip;
 	public void setTooltip(String tooltip) {
 		this.tooltip = tooltip;
 	}
 
 	/**
-	 * Returns the tooltip text for the plot.
+	 * Returns the tooltip text for the plot, built the first time it is asked
+	 * for.
 	 * 
 	 * @return The tooltip text for the plot.
 	 */
 	public String getTooltip() {
+		if (tooltip == null) {
+			tooltip = buildTooltip();
+		}
 		return tooltip;
 	}
 
@@ -56,7 +62,11 @@ public class PacketDataItem extends YIntervalDataItem{
 	 */
 	public PacketDataItem(Session session,PacketInfo packet) {
 		super(packet.getTimeStamp(), 0, 0, 1);
+		this.session = session;
+		this.packet = packet;
+	}
 
+	private String buildTooltip() {
 		// Build tooltip message
 		StringBuffer displayInfo = new StringBuffer(1000);
 		displayInfo.append(TOOLTIP_PREFIX);
@@ -83,7 +93,7 @@ public class PacketDataItem extends YIntervalDataItem{
 		// Delete the httpinfo from the 4.1.1 code,verified redundancy.
 		
 		displayInfo.append(TOOLTIP_SUFFIX);
-		setTooltip(displayInfo.toString());
+		return displayInfo.toString();
 
 	}
 	private static String checkNull(String s) {
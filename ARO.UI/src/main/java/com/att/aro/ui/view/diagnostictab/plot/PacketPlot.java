@@ -16,7 +16,10 @@
 package com.att.aro.ui.view.diagnostictab.plot;
 
 import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 
 import org.jfree.chart.labels.XYToolTipGenerator;
 import org.jfree.chart.plot.XYPlot;
@@ -31,9 +34,13 @@ import com.att.aro.core.packetanalysis.pojo.Session;
 import com.att.aro.core.packetreader.pojo.PacketDirection;
 import com.att.aro.core.pojo.AROTraceData;
 
-public class PacketPlot implements IPlot{
+public class PacketPlot implements IDownsampledPlot{
 	
 	boolean isDownloadPacket = false;
+
+	private XYPlot plot;
+	private List<ColorPackets> colorPacketsList = new ArrayList<ColorPackets>();
+	private int drawWidth = DEFAULT_DRAW_WIDTH;
 	
 	public boolean isDownloadPacket() {
 		return isDownloadPacket;
@@ -50,8 +57,8 @@ public class PacketPlot implements IPlot{
 
 	@Override
 	public void populate(XYPlot plot, AROTraceData analysis) {
-
-		LinkedHashMap<Color, PacketSeries> dlDatasets = new LinkedHashMap<Color, PacketSeries>();
+		this.plot = plot;
+		LinkedHashMap<Color, ColorPackets> dlDatasets = new LinkedHashMap<Color, ColorPackets>();
 
 		AnalysisFilter filter = null;
 		if (analysis != null) {
@@ -60,21 +67,47 @@ public class PacketPlot implements IPlot{
  				addSeries(session,dlDatasets,filter );
 			}
 		}
+		for (ColorPackets colorPackets : dlDatasets.values()) {
+			colorPackets.sort();
+		}
+		colorPacketsList = new ArrayList<ColorPackets>(dlDatasets.values());
+
+		// Create tooltip generator
+		plot.getRenderer().setBaseToolTipGenerator(new PacketToolTipGenerator());
+
+		updateDataset();
+	}
+
+	@Override
+	public void setDrawWidth(int drawWidth) {
+		if (this.drawWidth != drawWidth) {
+			this.drawWidth = drawWidth;
+			if (plot != null) {
+				updateDataset();
+			}
+		}
+	}
+
+	/**
+	 * Sets the packets needed at the draw width as the dataset, the tooltip of
+	 * a packet is only built when it is hovered
+	 */
+	private void updateDataset() {
 		// Create the XY data set
 		YIntervalSeriesCollection coll = new YIntervalSeriesCollection();
 		XYItemRenderer renderer = plot.getRenderer();
-		for (PacketSeries series : dlDatasets.values()) {
+		for (ColorPackets colorPackets : colorPacketsList) {
+			PacketSeries series = new PacketSeries(colorPackets.color);
+			for (int item : colorPackets.pyramid.getItems(plot, drawWidth)) {
+				series.add(new PacketDataItem(colorPackets.sessions.get(item), colorPackets.packets.get(item)));
+			}
 			coll.addSeries(series);
 			renderer.setSeriesPaint(coll.indexOf(series.getKey()), series.getColor());
 		}
-
-		// Create tooltip generator
-		renderer.setBaseToolTipGenerator(new PacketToolTipGenerator());
-
 		plot.setDataset(coll);
 	}
 	
-	private void addSeries(Session session,LinkedHashMap<Color, PacketSeries> dlDatasets,AnalysisFilter filter ){
+	private void addSeries(Session session,LinkedHashMap<Color, ColorPackets> dlDatasets,AnalysisFilter filter ){
 		Session thisSession = session;
 		
 		for(PacketInfo packet : session.getAllPackets()){
@@ -85,27 +118,71 @@ public class PacketPlot implements IPlot{
 				// Add the packet to the proper series based on color
 				
 				Color color = filter.getPacketColor(packet);
-				PacketSeries series = dlDatasets.get(color);
+				ColorPackets series = dlDatasets.get(color);
 				if (series == null) {
-					series = new PacketSeries(color);
+					series = new ColorPackets(color);
 					dlDatasets.put(color, series);
 				}
-				series.add(new PacketDataItem(thisSession,packet));
+				series.add(thisSession,packet);
 			}else if(!isDownloadPacket()&&packet.getDir()==PacketDirection.UPLINK){
 				// Add the packet to the proper series based on color
 				
 				Color color = filter.getPacketColor(packet);
-				PacketSeries series = dlDatasets.get(color);
+				ColorPackets series = dlDatasets.get(color);
 				if (series == null) {
-					series = new PacketSeries(color);
+					series = new ColorPackets(color);
 					dlDatasets.put(color, series);
 				}
-				series.add(new PacketDataItem(thisSession,packet));
+				series.add(thisSession,packet);
 			}else{
 				continue;
 			}
 		}
 	}
+
+	/**
+	 * The packets of one color in timestamp order, with the session of each
+	 * packet
+	 */
+	private static class ColorPackets {
+		private final Color color;
+		private List<PacketInfo> packets = new ArrayList<PacketInfo>();
+		private List<Session> sessions = new ArrayList<Session>();
+		private SeriesPyramid pyramid;
+
+		ColorPackets(Color color) {
+			this.color = color;
+		}
+
+		void add(Session session, PacketInfo packet) {
+			sessions.add(session);
+			packets.add(packet);
+		}
+
+		/**
+		 * Puts the packets of all the sessions in timestamp order and builds
+		 * the pyramid
+		 */
+		void sort() {
+			Integer[] order = new Integer[packets.size()];
+			for (int index = 0; index < order.length; index++) {
+				order[index] = index;
+			}
+			Arrays.sort(order, (first, second) -> Double.compare(packets.get(first).getTimeStamp(), packets.get(second).getTimeStamp()));
+			List<PacketInfo> sortedPackets = new ArrayList<PacketInfo>(order.length);
+			List<Session> sortedSessions = new ArrayList<Session>(order.length);
+			double[] timestamps = new double[order.length];
+			for (int index = 0; index < order.length; index++) {
+				sortedPackets.add(packets.get(order[index]));
+				sortedSessions.add(sessions.get(order[index]));
+				timestamps[index] = sortedPackets.get(index).getTimeStamp();
+			}
+			packets = sortedPackets;
+			sessions = sortedSessions;
+			pyramid = new SeriesPyramid(timestamps, new double[order.length]);
+		}
+	}
+
  	/**
 	 * Used to represent a series of packets which is all packets related to a
 	 * single application.
@@ -128,7 +205,7 @@ public class PacketPlot implements IPlot{
 		}
 
 		public void add(PacketDataItem item) {
-			super.add(item, true);
+			super.add(item, false);
 		}
 
 		/**
@@ -22,6 +22,7 @@ import java.awt.TexturePaint;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.List;
@@ -41,34 +42,44 @@ import com.att.aro.core.packetanalysis.pojo.RrcStateRange;
 import com.att.aro.core.pojo.AROTraceData;
 import com.att.aro.ui.utils.ResourceBundleHelper;
 
-public class RrcPlot implements IPlot{
+public class RrcPlot implements IDownsampledPlot{
 	XYIntervalSeriesCollection rrcDataCollection = new XYIntervalSeriesCollection();
+	private XYPlot plot;
+	/**
+	 * state ranges of each state in time order, with their pyramid
+	 */
+	private Map<RRCState, List<RrcStateRange>> rangesByState = new EnumMap<RRCState, List<RrcStateRange>>(RRCState.class);
+	private Map<RRCState, SeriesPyramid> pyramids = new EnumMap<RRCState, SeriesPyramid>(RRCState.class);
+	private int drawWidth = DEFAULT_DRAW_WIDTH;
+
 	@Override
 	public void populate(XYPlot plot, AROTraceData analysis) {
 		if (analysis != null) {
-			rrcDataCollection.removeAllSeries();
-			Map<RRCState, XYIntervalSeries> seriesMap = new EnumMap<RRCState, XYIntervalSeries>(
-					RRCState.class);
+			this.plot = plot;
+			rangesByState.clear();
+			pyramids.clear();
 			for (RRCState eventType : RRCState.values()) {
-				XYIntervalSeries series = new XYIntervalSeries(eventType);
-				seriesMap.put(eventType, series);
-				rrcDataCollection.addSeries(series);
+				rangesByState.put(eventType, new ArrayList<RrcStateRange>());
 			}
 			List<RrcStateRange> rrcStates = analysis.getAnalyzerResult().getStatemachine().getStaterangelist();
 			
 			Iterator<RrcStateRange> iter = rrcStates.iterator();
 			while (iter.hasNext()) {
 				RrcStateRange currEvent = iter.next();
-				RRCState state = currEvent.getState();
-				if (state == RRCState.STATE_FACH || state == RRCState.TAIL_FACH) {
-					seriesMap.get(state).add(currEvent.getBeginTime(), currEvent.getBeginTime(),
-							currEvent.getEndTime(), 0.25, 0, 0.5);
-				} else {
-					seriesMap.get(state).add(currEvent.getBeginTime(), currEvent.getBeginTime(),
-							currEvent.getEndTime(), 0.5, 0, 1);
+				rangesByState.get(currEvent.getState()).add(currEvent);
+			}
+			for (Map.Entry<RRCState, List<RrcStateRange>> entry : rangesByState.entrySet()) {
+				List<RrcStateRange> ranges = entry.getValue();
+				double[] beginTimes = new double[ranges.size()];
+				double[] durations = new double[ranges.size()];
+				for (int index = 0; index < beginTimes.length; index++) {
+					beginTimes[index] = ranges.get(index).getBeginTime();
+					durations[index] = ranges.get(index).getEndTime() - beginTimes[index];
 				}
-
+				pyramids.put(entry.getKey(), new SeriesPyramid(beginTimes, durations));
 			}
+			updateDataset();
+
 			XYItemRenderer renderer = plot.getRenderer();
 			Color dchGreen = new Color(34, 177, 76);
 			Color fachOrange = new Color(255, 201, 14);
@@ -123,6 +134,40 @@ public class RrcPlot implements IPlot{
 		plot.setDataset(rrcDataCollection);
 //		return plot;
 	}
+
+	@Override
+	public void setDrawWidth(int drawWidth) {
+		if (this.drawWidth != drawWidth) {
+			this.drawWidth = drawWidth;
+			if (plot != null) {
+				updateDataset();
+			}
+		}
+	}
+
+	/**
+	 * Sets the state ranges needed at the draw width as the dataset, the
+	 * longest range of every bucket is kept
+	 */
+	private void updateDataset() {
+		rrcDataCollection.removeAllSeries();
+		for (RRCState eventType : RRCState.values()) {
+			XYIntervalSeries series = new XYIntervalSeries(eventType);
+			List<RrcStateRange> ranges = rangesByState.get(eventType);
+			for (int item : pyramids.get(eventType).getItems(plot, drawWidth)) {
+				RrcStateRange currEvent = ranges.get(item);
+				if (eventType == RRCState.STATE_FACH || eventType == RRCState.TAIL_FACH) {
+					series.add(currEvent.getBeginTime(), currEvent.getBeginTime(),
+							currEvent.getEndTime(), 0.25, 0, 0.5);
+				} else {
+					series.add(currEvent.getBeginTime(), currEvent.getBeginTime(),
+							currEvent.getEndTime(), 0.5, 0, 1);
+				}
+			}
+			rrcDataCollection.addSeries(series);
+		}
+	}
+
 	/**
 	 * Creating DchTail and FachTail Cross Hatch
 	 * 
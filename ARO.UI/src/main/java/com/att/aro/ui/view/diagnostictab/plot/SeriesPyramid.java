@@ -0,0 +1,193 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.aro.ui.view.diagnostictab.plot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.XYPlot;
+
+/**
+ * Multi-resolution view of a series, computed once so a plot only gets the
+ * items it can draw at the current chart width.
+ * <p>
+ * Each level splits the time line in twice as many buckets as the level
+ * before and keeps the first, last, lowest and highest item of every bucket,
+ * so peaks and gaps look the same as with all the items. Levels stop when
+ * they would keep about half of the items, a wider chart gets all of them.
+ * </p>
+ */
+public final class SeriesPyramid {
+
+	/**
+	 * buckets of the coarsest level
+	 */
+	private static final int MIN_BUCKETS = 256;
+
+	private final double[] x;
+	private final double[] y;
+	/**
+	 * items kept by each level, coarsest first
+	 */
+	private final List<int[]> levels = new ArrayList<>();
+	private final List<Integer> bucketCounts = new ArrayList<>();
+
+	/**
+	 * @param x
+	 *            item positions on the time line, ascending
+	 * @param y
+	 *            item values, the lowest and highest of each bucket are kept
+	 */
+	public SeriesPyramid(double[] x, double[] y) {
+		this.x = x;
+		this.y = y;
+		int size = x.length;
+		if (size == 0 || x[size - 1] <= x[0]) {
+			return;
+		}
+		for (int buckets = MIN_BUCKETS; buckets > 0; buckets *= 2) {
+			int[] level = buildLevel(buckets);
+			if (level.length > size / 2) {
+				break;
+			}
+			levels.add(level);
+			bucketCounts.add(buckets);
+		}
+	}
+
+	private int[] buildLevel(int buckets) {
+		double start = x[0];
+		double width = (x[x.length - 1] - start) / buckets;
+		int[] kept = new int[Math.min(x.length, buckets * 4)];
+		int count = 0;
+		int item = 0;
+		while (item < x.length) {
+			int bucket = bucketOf(x[item], start, width, buckets);
+			int first = item;
+			int lowest = item;
+			int highest = item;
+			for (item++; item < x.length && bucketOf(x[item], start, width, buckets) == bucket; item++) {
+				if (y[item] < y[lowest]) {
+					lowest = item;
+				} else if (y[item] > y[highest]) {
+					highest = item;
+				}
+			}
+			int last = item - 1;
+			int[] items = { first, Math.min(lowest, highest), Math.max(lowest, highest), last };
+			for (int index : items) {
+				if (count == 0 || kept[count - 1] != index) {
+					if (count == kept.length) {
+						kept = Arrays.copyOf(kept, kept.length * 2);
+					}
+					kept[count++] = index;
+				}
+			}
+		}
+		return Arrays.copyOf(kept, count);
+	}
+
+	private static int bucketOf(double position, double start, double width, int buckets) {
+		return Math.min(buckets - 1, (int) ((position - start) / width));
+	}
+
+	public int size() {
+		return x.length;
+	}
+
+	public double getX(int item) {
+		return x[item];
+	}
+
+	public double getY(int item) {
+		return y[item];
+	}
+
+	/**
+	 * Returns the items to draw the domain axis range of the plot, the whole
+	 * series if the plot has no axis yet
+	 *
+	 * @param plot
+	 * @param width
+	 *            chart width in pixels
+	 * @return indexes of the items, ascending
+	 */
+	public int[] getItems(XYPlot plot, int width) {
+		ValueAxis axis = plot != null ? plot.getDomainAxis() : null;
+		if (axis == null) {
+			return x.length == 0 ? new int[0] : getItems(x[0], x[x.length - 1], width);
+		}
+		return getItems(axis.getLowerBound(), axis.getUpperBound(), width);
+	}
+
+	/**
+	 * Returns the items to draw the part of the series from start to end on a
+	 * chart of the given width, with the item before and after the range so
+	 * lines reach the edges
+	 *
+	 * @param start
+	 *            time line start of the chart
+	 * @param end
+	 *            time line end of the chart
+	 * @param width
+	 *            chart width in pixels
+	 * @return indexes of the items, ascending
+	 */
+	public int[] getItems(double start, double end, int width) {
+		int[] items = null;
+		if (end > start && !levels.isEmpty()) {
+			double needed = width * (x[x.length - 1] - x[0]) / (end - start);
+			for (int level = 0; level < levels.size(); level++) {
+				if (bucketCounts.get(level) >= needed) {
+					items = levels.get(level);
+					break;
+				}
+			}
+		}
+		int from = lowerBound(items, start);
+		int to = lowerBound(items, Math.nextUp(end));
+		from = Math.max(0, from - 1);
+		to = Math.min(items != null ? items.length : x.length, to + 1);
+		if (items != null) {
+			return Arrays.copyOfRange(items, from, to);
+		}
+		int[] all = new int[to - from];
+		for (int index = 0; index < all.length; index++) {
+			all[index] = from + index;
+		}
+		return all;
+	}
+
+	/**
+	 * @return first entry of items, all the items when null, at or after the
+	 *         position
+	 */
+	private int lowerBound(int[] items, double position) {
+		int low = 0;
+		int high = items != null ? items.length : x.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (x[items != null ? items[middle] : middle] < position) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
@@ -16,7 +16,7 @@
 package com.att.aro.ui.view.diagnostictab.plot;
 
 import java.text.MessageFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.jfree.chart.labels.XYToolTipGenerator;
@@ -34,12 +34,13 @@ import com.att.aro.core.util.Util;
 import com.att.aro.ui.commonui.ContextAware;
 import com.att.aro.ui.utils.ResourceBundleHelper;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 @Getter
 @Setter
-public class ThroughputPlot implements IPlot {
+public class ThroughputPlot implements IDownsampledPlot {
 	private IThroughputCalculator throughputHelper = ContextAware.getAROConfigContext()
 			.getBean(IThroughputCalculator.class);
 	private static final String THROUGHPUT_TOOLTIP = ResourceBundleHelper.getMessageString("throughput.tooltip");
@@ -48,16 +49,23 @@ public class ThroughputPlot implements IPlot {
 	private double throughputTimeWindow = 1;
 	private boolean throughputDropdownClicked;
 
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private XYPlot plot;
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private SeriesPyramid pyramid;
+	private int drawWidth = DEFAULT_DRAW_WIDTH;
+
 	public void populate(XYPlot plot, AROTraceData analysis, PacketDirection packetDirection) {
-		XYSeries series = new XYSeries(0);
+		this.plot = plot;
+		pyramid = null;
 		if (analysis != null) {
 
 			// Get packet iterators
 			List<PacketInfo> packets = analysis.getAnalyzerResult().getTraceresult().getAllpackets();
 			final double maxTS = analysis.getAnalyzerResult().getTraceresult().getTraceDuration();
 
-			final List<String> tooltipList = new ArrayList<String>(1000);
-
 			Double zeroTime = null;
 			double lastTime = 0.0;
 			double startTime = analysis.getAnalyzerResult().getFilter().getTimeRange().getBeginTime();
@@ -69,53 +77,68 @@ public class ThroughputPlot implements IPlot {
 						: Double.parseDouble(timeFromConfig.substring(0, timeFromConfig.length() - 1)));
 			}
 
-			for (Throughput t : throughputHelper.calculateThroughput(startTime, maxTS, getThroughputTimeWindow(), getPackets(packets, packetDirection))) {
+			List<Throughput> throughputs = throughputHelper.calculateThroughput(startTime, maxTS, getThroughputTimeWindow(), packets, packetDirection);
+			// a throughput adds at most two points
+			double[] times = new double[throughputs.size() * 2];
+			double[] values = new double[throughputs.size() * 2];
+			int count = 0;
+			for (Throughput t : throughputs) {
 
 				double time = t.getTime();
 				double kbps = t.getKbps();
 				if (kbps != 0.0) {
 					if (zeroTime != null && zeroTime.doubleValue() != lastTime) {
-						series.add(lastTime, 0.0);
-						tooltipList.add(MessageFormat.format(THROUGHPUT_TOOLTIP, lastTime, 0.0));
+						times[count] = lastTime;
+						values[count++] = 0.0;
 					}
 					// Add slot to data set
-					series.add(time, kbps);
-					tooltipList.add(MessageFormat.format(THROUGHPUT_TOOLTIP, time, kbps));
+					times[count] = time;
+					values[count++] = kbps;
 					zeroTime = null;
 				} else {
 					if (zeroTime == null) {
 						// Add slot to data set
-						series.add(time, kbps);
-						tooltipList.add(MessageFormat.format(THROUGHPUT_TOOLTIP, time, kbps));
+						times[count] = time;
+						values[count++] = kbps;
 						zeroTime = Double.valueOf(time);
 					}
 				}
 
 				lastTime = time;
 			}
+			pyramid = new SeriesPyramid(Arrays.copyOf(times, count), Arrays.copyOf(values, count));
 			plot.getRenderer().setBaseToolTipGenerator(new XYToolTipGenerator() {
 				@Override
 				public String generateToolTip(XYDataset dataset, int series, int item) {
 					// Tooltip displays throughput value
-					return tooltipList.get(item);
+					return MessageFormat.format(THROUGHPUT_TOOLTIP, dataset.getXValue(series, item), dataset.getYValue(series, item));
 				}
 			});
 		}
-		plot.setDataset(new XYSeriesCollection(series));
+		updateDataset();
 	}
 
-	private List<PacketInfo> getPackets(List<PacketInfo> packets, PacketDirection packetDirection) {
-		if (packetDirection != PacketDirection.BOTH) {
-			List<PacketInfo> filteredPackets = new ArrayList<PacketInfo>();
-			for (PacketInfo packet : packets) {
-				if (packet.getDir() == packetDirection) {
-					filteredPackets.add(packet);
-				}
+	@Override
+	public void setDrawWidth(int drawWidth) {
+		if (this.drawWidth != drawWidth) {
+			this.drawWidth = drawWidth;
+			if (pyramid != null) {
+				updateDataset();
 			}
-			return filteredPackets;
 		}
-		return packets;
+	}
 
+	/**
+	 * Sets the points of the pyramid needed at the draw width as the dataset
+	 */
+	private void updateDataset() {
+		XYSeries series = new XYSeries(0);
+		if (pyramid != null) {
+			for (int item : pyramid.getItems(plot, drawWidth)) {
+				series.add(pyramid.getX(item), pyramid.getY(item), false);
+			}
+		}
+		plot.setDataset(new XYSeriesCollection(series));
 	}
 
 	@Override
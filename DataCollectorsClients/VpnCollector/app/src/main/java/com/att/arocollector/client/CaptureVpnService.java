@@ -50,7 +50,7 @@ import com.att.arocollector.attenuator.AttenuatorULBroadcastReceiver;
 import com.att.arocollector.attenuator.AttenuatorUtil;
 import com.att.arocollector.attenuator.ThrottleDLBroadcastReceiver;
 import com.att.arocollector.attenuator.ThrottleULBroadcastReceiver;
-import com.att.arocollector.packetRebuild.PCapFileWriter;
+import com.att.arocollector.packetRebuild.AsyncPCapFileWriter;
 import com.att.arocollector.privatedata.AROPrivateDataCollectorService;
 import com.att.arocollector.utils.BundleKeyUtil;
 import com.att.arotcpcollector.ClientPacketWriterImpl;
@@ -122,15 +122,13 @@ public class CaptureVpnService extends VpnService implements Handler.Callback, R
 
 	private SocketDataPublisher packetBackGroundWriter;
 
-	private Thread packetQueueThread;
-
 	private File traceDir; //Trace files
 
 	private File pcapFile; //pcap file
-	private PCapFileWriter pcapWriter;
+	private AsyncPCapFileWriter pcapWriter;
 
 	private File securePCAPFile; //pcap file
-	private PCapFileWriter securePCAPWriter;
+	private AsyncPCapFileWriter securePCAPWriter;
 
 
 	private File timeFile;//duration time File
@@ -563,6 +561,10 @@ public class CaptureVpnService extends VpnService implements Handler.Callback, R
 			pcapWriter = null;
 			Log.i(TAG, "closePcapTrace() closed");
 		}
+		if (securePCAPWriter != null) {
+			securePCAPWriter.close();
+			securePCAPWriter = null;
+		}
 	}
 
 	/**
@@ -585,9 +587,6 @@ public class CaptureVpnService extends VpnService implements Handler.Callback, R
 		if (dataServiceThread != null) {
 			dataServiceThread.interrupt();
 		}
-		if (packetQueueThread != null) {
-			packetQueueThread.interrupt();
-		}
 
 		if (writerServiceThread != null) {
 			writerServiceThread.interrupt();
@@ -694,12 +693,12 @@ public class CaptureVpnService extends VpnService implements Handler.Callback, R
 		// gen & open pcap file
 		String sFileName = "traffic.cap";
 		pcapFile = new File(traceDir, sFileName);
-		pcapWriter = new PCapFileWriter(pcapFile);
+		pcapWriter = new AsyncPCapFileWriter(pcapFile);
 
 		if (theIntent.getBooleanExtra("secure", false)) {
 			sFileName = "secure_traffic.cap";
 			securePCAPFile = new File(traceDir, sFileName);
-			securePCAPWriter = new PCapFileWriter(securePCAPFile);
+			securePCAPWriter = new AsyncPCapFileWriter(securePCAPFile);
 		}
 	}
 
@@ -849,12 +848,10 @@ public class CaptureVpnService extends VpnService implements Handler.Callback, R
 		dataServiceThread = new Thread(dataService, "dataServiceThread");
 		dataServiceThread.start();
 
-		//background task for writing packet data to pcap file
+		//packet data to the pcap files, written in the background by the writers
 		packetBackGroundWriter = new SocketDataPublisher();
 		packetBackGroundWriter.setPcapWriter(pcapWriter);
 		packetBackGroundWriter.setSecurePCAPWriter(securePCAPWriter);
-		packetQueueThread = new Thread(packetBackGroundWriter, "packetQueueThread");
-		packetQueueThread.start();
 
 		writerService = VPNInterfaceWriter.getInstance();
 		writerService.setClientWriter(clientPacketWriter);
@@ -0,0 +1,397 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.att.arocollector.packetRebuild;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Capture file writer in libcap format that does not write on the thread of
+ * the caller.<br>
+ * 
+ * A packet is encoded with its headers into a ring buffer. A background
+ * flusher writes the buffered packets to the file in large FileChannel
+ * writes, every flush interval or as soon as half of the ring is used. A
+ * caller only waits when the ring is full.<br>
+ * 
+ * With a rotation size, the capture goes on in a new file (traffic.cap,
+ * traffic_1.cap, ...) once a file reaches that size. A file can exceed it by
+ * the packets of one flush.<br>
+ * 
+ * The packets are written as PCapFileWriter writes them.
+ */
+public class AsyncPCapFileWriter implements CaptureFileWriter {
+
+	private static final String TAG = "AsyncPCapFileWriter";
+
+	private static final int MAX_PACKET_SIZE = 65535;
+
+	private static final int ETHERNET_HDR_LEN = 14;
+
+	public static final int DEFAULT_RING_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * ms
+	 */
+	public static final long DEFAULT_FLUSH_INTERVAL = 200;
+
+	private static final byte[] IPV4_ETHERNET_HEADER = StubbedEthernetHeader.getEthernetHeader((byte) 4);
+
+	private static final byte[] IPV6_ETHERNET_HEADER = StubbedEthernetHeader.getEthernetHeader((byte) 6);
+
+	private final File file;
+	private final long flushIntervalNanos;
+	private final long rotationSize;
+	private final long startTime;
+
+	private final byte[] ring;
+	private final int mask;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition flushNeeded = lock.newCondition();
+	private final Condition spaceFreed = lock.newCondition();
+
+	// guarded by lock: bytes put in and flushed from the ring since opened
+	private long head = 0;
+	private long tail = 0;
+	private boolean closed = false;
+	private long limit = PCapFileWriter.DEFAULT_LIMIT;
+	private long totalBytes = 0;
+
+	// flusher thread only
+	private FileChannel channel;
+	private long fileBytes = 0;
+	private int fileIndex = 0;
+
+	private volatile IOException failure;
+	private final Thread flusher;
+
+	/**
+	 * open new file, flushed every DEFAULT_FLUSH_INTERVAL, not rotated
+	 * @param file
+	 * @throws IOException - on file creation failure.
+	 */
+	public AsyncPCapFileWriter(File file) throws IOException {
+		this(file, DEFAULT_FLUSH_INTERVAL, 0);
+	}
+
+	/**
+	 * open new file
+	 * @param file
+	 * @param flushInterval - ms between flushes
+	 * @param rotationSize - bytes after which the capture goes on in a new file, 0 for none
+	 * @throws IOException - on file creation failure.
+	 */
+	public AsyncPCapFileWriter(File file, long flushInterval, long rotationSize) throws IOException {
+		this(file, flushInterval, rotationSize, DEFAULT_RING_SIZE);
+	}
+
+	/**
+	 * open new file
+	 * @param file
+	 * @param flushInterval - ms between flushes
+	 * @param rotationSize - bytes after which the capture goes on in a new file, 0 for none
+	 * @param ringSize - bytes buffered, rounded up to a power of two
+	 * @throws IOException - on file creation failure.
+	 */
+	public AsyncPCapFileWriter(File file, long flushInterval, long rotationSize, int ringSize) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("Got null file object");
+		}
+		this.file = file;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushInterval));
+		this.rotationSize = rotationSize;
+		int minimum = 2 * (PCapPacketHeader.HEADER_SIZE + ETHERNET_HDR_LEN + MAX_PACKET_SIZE);
+		int size = Integer.highestOneBit(Math.max(ringSize, minimum) - 1) << 1;
+		ring = new byte[size];
+		mask = size - 1;
+
+		open(file);
+		totalBytes = PCapFileHeader.HEADER_SIZE;
+		startTime = System.nanoTime();
+
+		flusher = new Thread(this::flush, "PCapFlusher-" + file.getName());
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * add packet, see PCapFileWriter.addPacket(byte[], long)
+	 * @param thepkt
+	 * @param time - time offset in micro sec
+	 * @return true if packet added and false otherwise
+	 * @throws IOException - if the capture could not be written
+	 */
+	@Override
+	public boolean addPacket(byte[] thepkt, long time) throws IOException {
+		if (thepkt == null) {
+			return false;
+		}
+		if (thepkt.length > MAX_PACKET_SIZE) {
+			throw new IOException("Got illeagl packet size : " + thepkt.length);
+		}
+		return append(time / 1000000L, time % 1000000, thepkt.length, null, thepkt, 0, thepkt.length);
+	}
+
+	/**
+	 * add packet with a stubbed ethernet header, see
+	 * PCapFileWriter.addPacket(byte[], int, int, long)
+	 * 
+	 * @param thepkt packet to store
+	 * @param offset
+	 * @param length length of packet
+	 * @param time timestamp in nano sec, 0 for now
+	 * @return true if packet added and false otherwise
+	 * @throws IOException - if the capture could not be written
+	 */
+	@Override
+	public boolean addPacket(byte[] thepkt, int offset, int length, long time) throws IOException {
+		if (thepkt == null) {
+			return false;
+		}
+		if (length > MAX_PACKET_SIZE) {
+			throw new IOException("Got illeagl packet size : " + thepkt.length);
+		}
+		if (time == 0) {
+			time = System.nanoTime() - startTime; // the gap since start in nano sec
+		}
+		byte ipVersion = (byte) ((thepkt[offset] & 0xf0) >> 4);
+		byte[] ethernetHeader = ipVersion == 4 ? IPV4_ETHERNET_HEADER : IPV6_ETHERNET_HEADER;
+		return append(time / 1000000000L, (time / 1000) % 1000000, length + ETHERNET_HDR_LEN, ethernetHeader, thepkt, offset, length);
+	}
+
+	/**
+	 * Puts a packet record in the ring, waiting for the flusher if the ring is
+	 * full
+	 */
+	private boolean append(long seconds, long micros, int packetLength, byte[] prefix, byte[] data, int offset, int length)
+			throws IOException {
+		int recordSize = PCapPacketHeader.HEADER_SIZE + (prefix == null ? 0 : prefix.length) + length;
+		lock.lock();
+		try {
+			while (!closed && ring.length - (head - tail) < recordSize) {
+				flushNeeded.signal();
+				spaceFreed.awaitUninterruptibly();
+			}
+			if (failure != null) {
+				throw new IOException("Capture file not written: " + failure.getMessage(), failure);
+			}
+			if (closed || totalBytes > limit) {
+				return false;
+			}
+			putInt(seconds);
+			putInt(micros);
+			putInt(packetLength);
+			putInt(packetLength);
+			if (prefix != null) {
+				put(prefix, 0, prefix.length);
+			}
+			put(data, offset, length);
+			totalBytes += recordSize;
+			if (head - tail >= ring.length / 2) {
+				flushNeeded.signal();
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * puts the low 32 bits in network order, as PCapPacketHeader does
+	 */
+	private void putInt(long value) {
+		ring[(int) head & mask] = (byte) (value >> 24);
+		ring[(int) (head + 1) & mask] = (byte) (value >> 16);
+		ring[(int) (head + 2) & mask] = (byte) (value >> 8);
+		ring[(int) (head + 3) & mask] = (byte) value;
+		head += 4;
+	}
+
+	private void put(byte[] data, int offset, int length) {
+		int position = (int) head & mask;
+		int first = Math.min(length, ring.length - position);
+		System.arraycopy(data, offset, ring, position, first);
+		System.arraycopy(data, offset + first, ring, 0, length - first);
+		head += length;
+	}
+
+	/**
+	 * Flusher loop, writes the ring to the file until closed
+	 */
+	private void flush() {
+		try {
+			boolean last = false;
+			while (!last) {
+				long start;
+				long end;
+				lock.lock();
+				try {
+					long deadline = System.nanoTime() + flushIntervalNanos;
+					while (!closed && head - tail < ring.length / 2) {
+						long remaining = deadline - System.nanoTime();
+						if (remaining <= 0) {
+							break;
+						}
+						try {
+							flushNeeded.awaitNanos(remaining);
+						} catch (InterruptedException e) {
+							// only close ends the flusher
+						}
+					}
+					start = tail;
+					end = head;
+					last = closed;
+				} finally {
+					lock.unlock();
+				}
+
+				if (end > start) {
+					write(start, end);
+					lock.lock();
+					try {
+						tail = end;
+						spaceFreed.signalAll();
+					} finally {
+						lock.unlock();
+					}
+				}
+				if (!last && rotationSize > 0 && fileBytes >= rotationSize) {
+					rotate();
+				}
+			}
+		} catch (IOException e) {
+			Log.e(TAG, "Failed to write " + file.getName() + ": " + e.getMessage());
+			failure = e;
+			lock.lock();
+			try {
+				closed = true;
+				tail = head;
+				spaceFreed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		} finally {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				Log.e(TAG, "Failed to close " + file.getName() + ": " + e.getMessage());
+			}
+		}
+	}
+
+	private void write(long start, long end) throws IOException {
+		int position = (int) start & mask;
+		int length = (int) (end - start);
+		int first = Math.min(length, ring.length - position);
+		ByteBuffer[] buffers = first == length
+				? new ByteBuffer[] { ByteBuffer.wrap(ring, position, first) }
+				: new ByteBuffer[] { ByteBuffer.wrap(ring, position, first), ByteBuffer.wrap(ring, 0, length - first) };
+		long written = 0;
+		while (written < length) {
+			written += channel.write(buffers);
+		}
+		fileBytes += length;
+	}
+
+	private void open(File target) throws IOException {
+		channel = new FileOutputStream(target).getChannel();
+		ByteBuffer header = ByteBuffer.wrap(new PCapFileHeader().getAsByteArray());
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+		fileBytes = PCapFileHeader.HEADER_SIZE;
+	}
+
+	private void rotate() throws IOException {
+		channel.close();
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		String rotated = dot > 0
+				? name.substring(0, dot) + "_" + ++fileIndex + name.substring(dot)
+				: name + "_" + ++fileIndex;
+		Log.i(TAG, file.getName() + " rotated to " + rotated);
+		open(new File(file.getParentFile(), rotated));
+	}
+
+	/**
+	 * flush the buffered packets and close the file. not reversible
+	 */
+	@Override
+	public void close() {
+		lock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			flushNeeded.signal();
+		} finally {
+			lock.unlock();
+		}
+		boolean interrupted = false;
+		while (flusher.isAlive()) {
+			try {
+				flusher.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		Log.i(TAG, file.getName() + " file closed");
+	}
+
+	/**
+	 * @return number of bytes added so far.
+	 */
+	public long getTotalBytes() {
+		lock.lock();
+		try {
+			return totalBytes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return true if cap limit reached.
+	 */
+	public boolean isLimitReached() {
+		return getTotalBytes() >= limit;
+	}
+
+	/**
+	 * set the cap max number of bytes.
+	 * @param theLimit
+	 */
+	public void setLimit(long theLimit) {
+		lock.lock();
+		try {
+			limit = theLimit;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -39,6 +39,17 @@ public interface CaptureFileWriter
 	 */
 	public boolean addPacket(byte[] thepkt,long time) throws IOException;
 	
+	/**
+	 * write packet to file, with a stubbed ethernet header.
+	 * @param thepkt - packet as byte array
+	 * @param offset - start of the packet in the array
+	 * @param length - packet length
+	 * @param time - time in nano seconds, 0 for now.
+	 * @return true for success.
+	 * @throws IOException
+	 */
+	public boolean addPacket(byte[] thepkt, int offset, int length, long time) throws IOException;
+	
 	
 	/**
 	 * close the file, make sure data flushed to disk.
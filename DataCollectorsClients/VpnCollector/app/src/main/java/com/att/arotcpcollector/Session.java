@@ -218,6 +218,19 @@ public class Session {
 		return success;
 	}
 
+	/**
+	 * append part of an array
+	 * 
+	 * @param data array holding the data
+	 * @param offset start of the data
+	 * @param length number of bytes
+	 */
+	public void addReceivedData(byte[] data, int offset, int length) {
+		synchronized (syncReceive) {
+			receivingStream.write(data, offset, length);
+		}
+	}
+
 	public void resetReceivingData() {
 		synchronized (syncReceive) {
 			receivingStream.reset();
@@ -19,7 +19,6 @@ package com.att.arotcpcollector;
 import android.util.Log;
 
 import com.att.arotcpcollector.ip.IPHeader;
-import com.att.arotcpcollector.socket.SocketNIODataService;
 import com.att.arotcpcollector.socket.SocketProtector;
 import com.att.arotcpcollector.tcp.TCPHeader;
 import com.att.arotcpcollector.udp.UDPHeader;
@@ -39,6 +38,11 @@ import java.util.Iterator;
 
 /**
  * Manage in-memory storage for VPN client session.
+ * <p>
+ * The session table is concurrent and needs no lock. Sessions are created and
+ * their channels registered with the selector by the thread of
+ * SocketNIODataService, the only thread that selects.
+ * </p>
  * @author Borey Sao Date: May 20, 2014
  */
 public class SessionManager {
@@ -48,7 +52,6 @@ public class SessionManager {
 	private static Object syncObj = new Object();
 	private static volatile SessionManager instance = null;
 	private SessionTable table = null;
-	public static Object syncTable = new Object();
 	private SocketProtector protector = null;
 	Selector selector;
 
@@ -88,9 +91,7 @@ public class SessionManager {
 			if (sessionKey == null) {
 				sessionKey = this.createKey(session.getDestAddress(), session.getDestPort(), session.getSourceIp(), session.getSourcePort());
 			}
-			synchronized (syncTable) {
-				table.put(sessionKey, session);
-			}
+			table.put(sessionKey, session);
 		}
 	}
 
@@ -158,25 +159,11 @@ public class SessionManager {
 	 */
 	public Session getSession(String ipAddress, int destPort, String srcIpAddress, int srcPort) {
 
-		String sessionKey = createKey(ipAddress, destPort, srcIpAddress, srcPort);
-		Session session = null;
-
-		synchronized (syncTable) {
-			if (table.containsKey(sessionKey)) {
-				session = table.get(sessionKey);
-			}
-		}
-		return session;
+		return table.get(createKey(ipAddress, destPort, srcIpAddress, srcPort));
 	}
 
 	public Session getSessionByKey(String sessionKey) {
-		Session session = null;
-		synchronized (syncTable) {
-			if (table.containsKey(sessionKey)) {
-				session = table.get(sessionKey);
-			}
-		}
-		return session;
+		return table.get(sessionKey);
 	}
 
 	public Session getSessionByDatagramChannel(DatagramChannel channel) {
@@ -184,43 +171,17 @@ public class SessionManager {
 	}
 
 	public Session getSessionByChannel(SocketChannel channel) {
-		Session session = null;
-		synchronized (syncTable) {
-			Iterator<Session> it = table.values().iterator();
-			while (it.hasNext()) {
-				Session sess = it.next();
-				if (sess.getSocketchannel() == channel) {
-					session = sess;
-					break;
-				}
-			}
-		}
-		return session;
+		return table.getSessionByChannel(channel);
 	}
 
 	public void removeSessionByChannel(SocketChannel channel) {
-		String key = null;
-		String tmp = null;
-		Session session = null;
-		synchronized (syncTable) {
-			Iterator<String> it = table.keySet().iterator();
-			while (it.hasNext()) {
-				tmp = it.next();
-				Session sess = table.get(tmp);
-				if (sess != null && sess.getSocketchannel() == channel) {
-					key = tmp;
-					session = sess;
-					break;
-				}
-
-			}
-		}
-		if (key != null) {
-			synchronized (syncTable) {
-				table.remove(key);
-			}
-		}
+		Session session = table.getSessionByChannel(channel);
 		if (session != null) {
+			String sessionKey = session.getSessionKey();
+			if (sessionKey == null) {
+				sessionKey = createKey(session.getDestAddress(), session.getDestPort(), session.getSourceIp(), session.getSourcePort());
+			}
+			table.remove(sessionKey);
 			Log.d(TAG,
 					"closed session -> " + session.getDestAddress() + ":" + session.getDestPort() + "-"
 							+ session.getSourceIp() + ":" + session.getSourcePort());
@@ -238,10 +199,7 @@ public class SessionManager {
 	 */
 	public void closeSession(String ip, int port, String srcIp, int srcPort) {
 		String keys = createKey(ip, port, srcIp, srcPort);
-		Session session = null; //getSession(ip, port, srcIp, srcPort);
-		synchronized (syncTable) {
-			session = table.remove(keys);
-		}
+		Session session = table.remove(keys);
 		if (session != null) {
 			try {
 				SocketChannel chan = session.getSocketchannel();
@@ -273,9 +231,7 @@ public class SessionManager {
 			sessionKey = this.createKey(session.getDestAddress(), session.getDestPort(), session.getSourceIp(), session.getSourcePort());
 		}
 		
-		synchronized (syncTable) {
-			table.remove(sessionKey);
-		}
+		table.remove(sessionKey);
 		if (session != null) {
 			try {
 				SocketChannel chan = session.getSocketchannel();
@@ -303,13 +259,10 @@ public class SessionManager {
 	 */
 	public Session createNewUDPSession(String ip, int port, String srcIp, int srcPort) {
 		String sessionKey = createKey(ip, port, srcIp, srcPort);
-		boolean found = false;
-		synchronized (syncTable) {
-			found = table.containsKey(sessionKey);
-		}
-		if (found) {
+		if (table.containsKey(sessionKey)) {
 			return null;
 		}
+		boolean found = false;
 		Session ses = new Session();
 		ses.setDestAddress(ip);
 		ses.setDestPort(port);
@@ -343,19 +296,14 @@ public class SessionManager {
 			channel.connect(addr);
 
 			Object isudp = new Object();
-			synchronized (SocketNIODataService.syncSelectorForUse) {
-				selector.wakeup();
-				synchronized (SocketNIODataService.syncSelectorForSelection) {
-					SelectionKey selectkey = null;
-					if (!channel.isConnected()) {
-						selectkey = channel.register(selector, SelectionKey.OP_CONNECT | SelectionKey.OP_READ | SelectionKey.OP_WRITE, isudp);
-					} else {
-						selectkey = channel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE, isudp);
-					}
-					ses.setSelectionkey(selectkey);
-					Log.d(TAG, "Registered udp selector successfully");
-				}
+			SelectionKey selectkey = null;
+			if (!channel.isConnected()) {
+				selectkey = channel.register(selector, SelectionKey.OP_CONNECT | SelectionKey.OP_READ | SelectionKey.OP_WRITE, isudp);
+			} else {
+				selectkey = channel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE, isudp);
 			}
+			ses.setSelectionkey(selectkey);
+			Log.d(TAG, "Registered udp selector successfully");
 		} catch (UnresolvedAddressException | UnsupportedAddressTypeException | SecurityException | IOException e) {
 			Log.e(TAG, "Channel cannot be connected for session " + sessionKey, e);
 		}
@@ -364,13 +312,7 @@ public class SessionManager {
 
 		ses.setUdpChannel(channel);
 
-		synchronized (syncTable) {
-			if (!table.containsKey(sessionKey)) {
-				table.put(sessionKey, ses);
-			} else {
-				found = true;
-			}
-		}
+		found = table.putIfAbsent(sessionKey, ses) != null;
 		if (found) {
 			try {
 				channel.close();
@@ -394,9 +336,7 @@ public class SessionManager {
 	 * @return
 	 */
 	public Session getSession(String sessionKey) {
-		synchronized (syncTable) {
-			return table.get(sessionKey);
-		}
+		return table.get(sessionKey);
 	}
 
 	/**
@@ -457,16 +397,11 @@ public class SessionManager {
 			try {
 				connected = channel.connect(addr);
 
-				Log.d(TAG, "Local: " + channel.getLocalAddress().toString() + ", Remote: " + channel.getRemoteAddress().toString());
+				Log.d(TAG, "Local: " + channel.getLocalAddress() + ", Remote: " + channel.getRemoteAddress());
 				// Register for non-blocking operation
-				synchronized (SocketNIODataService.syncSelectorForUse) {
-					selector.wakeup();
-					synchronized (SocketNIODataService.syncSelectorForSelection) {
-						SelectionKey selectkey = channel.register(selector, SelectionKey.OP_CONNECT | SelectionKey.OP_READ | SelectionKey.OP_WRITE);
-						session.setSelectionkey(selectkey);
-						Log.d(TAG, "Registered tcp selector successfully");
-					}
-				}
+				SelectionKey selectkey = channel.register(selector, SelectionKey.OP_CONNECT | SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				session.setSelectionkey(selectkey);
+				Log.d(TAG, "Registered tcp selector successfully");
 
 				if (channel.isConnected() || channel.isConnectionPending()) {
 					break;
@@ -488,13 +423,7 @@ public class SessionManager {
 
 		session.setSocketchannel(channel);
 
-		synchronized (syncTable) {
-			if (!table.containsKey(sessionKey)) {
-				table.put(sessionKey, session);
-			} else {
-				found = true;
-			}
-		}
+		found = table.putIfAbsent(sessionKey, session) != null;
 		if (found) {
 			try {
 				channel.close();
@@ -19,15 +19,17 @@ import androidx.annotation.NonNull;
 import android.util.Log;
 
 import java.nio.channels.Channel;
-import java.nio.channels.DatagramChannel;
 import java.util.Collection;
-import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by Bharath.
+ *
+ * Sessions by session key, with an index of the sessions by their TCP or UDP
+ * channel. Both maps are concurrent, the table is read and updated without a
+ * lock by the selector thread and the socket workers.
  */
 
 class SessionTable implements Map<String, Session>{
@@ -35,8 +37,8 @@ class SessionTable implements Map<String, Session>{
     private static final long IDLE_THRESHOLD = 10 * 1000; //ms
 
     private final int limit;
-    private final Hashtable<String, Session> sessionTable = new Hashtable<>();
-    private final Map<Channel, Session> channelBasedSessionTable = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Session> sessionTable = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Channel, Session> channelBasedSessionTable = new ConcurrentHashMap<>();
 
     public SessionTable(int limit) {
         this.limit = limit;
@@ -45,6 +47,7 @@ class SessionTable implements Map<String, Session>{
     @Override
     public void clear() {
         sessionTable.clear();
+        channelBasedSessionTable.clear();
     }
 
     @Override
@@ -80,18 +83,63 @@ class SessionTable implements Map<String, Session>{
     }
 
     @Override
-    public synchronized Session put(String key, Session value) {
+    public Session put(String key, Session value) {
         if(sessionTable.size() >= limit) {
             evictEntry();
         }
 
         Log.d(TAG + "-size", "Session Table size: " + sessionTable.size());
 
-	    DatagramChannel channel = value.getUdpChannel();
-        if (channel != null && channel.isConnected()){
-	        channelBasedSessionTable.put(channel,value);
+        Session previous = sessionTable.put(key, value);
+        if (previous != null && previous != value) {
+            unindex(previous);
+        }
+        index(key, value);
+        return previous;
+    }
+
+    /**
+     * Adds the session unless the key already has one
+     *
+     * @return the session already in the table, null if the session was added
+     */
+    @Override
+    public Session putIfAbsent(String key, Session value) {
+        if(sessionTable.size() >= limit) {
+            evictEntry();
+        }
+
+        Session existing = sessionTable.putIfAbsent(key, value);
+        if (existing == null) {
+            index(key, value);
+        }
+        return existing;
+    }
+
+    /**
+     * Indexes a session added under the key by its channel, the index entry is
+     * dropped again if the session was removed meanwhile
+     */
+    private void index(String key, Session session) {
+        Channel channel = session.getSocketchannel();
+        if (channel == null) {
+            channel = session.getUdpChannel();
+        }
+        if (channel != null) {
+            channelBasedSessionTable.put(channel, session);
+            if (sessionTable.get(key) != session) {
+                channelBasedSessionTable.remove(channel, session);
+            }
+        }
+    }
+
+    private void unindex(Session session) {
+        if (session.getSocketchannel() != null) {
+            channelBasedSessionTable.remove(session.getSocketchannel(), session);
+        }
+        if (session.getUdpChannel() != null) {
+            channelBasedSessionTable.remove(session.getUdpChannel(), session);
         }
-        return sessionTable.put(key, value);
     }
 
     private void evictEntry() {
@@ -121,10 +169,7 @@ class SessionTable implements Map<String, Session>{
     public Session remove(Object key) {
     	Session value = sessionTable.remove(key);
     	if (value != null) {
-            DatagramChannel channel = value.getUdpChannel();
-            if (channel != null) {
-                channelBasedSessionTable.remove(channel);
-            }
+            unindex(value);
         }
 
         return value;
@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.att.arotcpcollector.socket;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of the buffers the socket reader workers read remote data into. A
+ * worker takes a buffer for its reads and gives it back when done, so reading
+ * does not allocate.
+ */
+public final class ReceiveBufferPool {
+
+	private static final int MAX_POOLED_BUFFERS = 32;
+
+	private static final ReceiveBufferPool instance = new ReceiveBufferPool(DataConst.MAX_RECEIVE_BUFFER_SIZE, MAX_POOLED_BUFFERS);
+
+	/**
+	 * A direct buffer channels read into, and the array its bytes are moved to
+	 * for the session
+	 */
+	public static final class Buffer {
+		private final ByteBuffer buffer;
+		private final byte[] array;
+
+		private Buffer(int capacity) {
+			buffer = ByteBuffer.allocateDirect(capacity);
+			array = new byte[capacity];
+		}
+
+		public ByteBuffer getBuffer() {
+			return buffer;
+		}
+
+		public byte[] getArray() {
+			return array;
+		}
+
+		public int capacity() {
+			return buffer.capacity();
+		}
+
+		/**
+		 * Moves the bytes read into the buffer to the start of the array and
+		 * clears the buffer for the next read
+		 * 
+		 * @return number of bytes moved
+		 */
+		public int drain() {
+			buffer.flip();
+			int length = buffer.remaining();
+			buffer.get(array, 0, length);
+			buffer.clear();
+			return length;
+		}
+	}
+
+	private final int capacity;
+	private final int maxPooled;
+	private final ConcurrentLinkedQueue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooled = new AtomicInteger();
+
+	ReceiveBufferPool(int capacity, int maxPooled) {
+		this.capacity = capacity;
+		this.maxPooled = maxPooled;
+	}
+
+	public static ReceiveBufferPool getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @return an empty buffer, a new one if none is pooled
+	 */
+	public Buffer acquire() {
+		Buffer buffer = buffers.poll();
+		if (buffer == null) {
+			return new Buffer(capacity);
+		}
+		pooled.decrementAndGet();
+		buffer.getBuffer().clear();
+		return buffer;
+	}
+
+	/**
+	 * Gives a buffer back, it is dropped if the pool is full
+	 */
+	public void release(Buffer buffer) {
+		if (buffer == null) {
+			return;
+		}
+		if (pooled.incrementAndGet() <= maxPooled) {
+			buffers.offer(buffer);
+		} else {
+			pooled.decrementAndGet();
+		}
+	}
+}
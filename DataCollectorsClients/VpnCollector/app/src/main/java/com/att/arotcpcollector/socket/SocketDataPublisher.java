@@ -17,47 +17,41 @@ package com.att.arotcpcollector.socket;
 
 import android.util.Log;
 
-import com.att.arocollector.packetRebuild.PCapFileWriter;
-import com.att.arotcpcollector.Packet;
+import com.att.arocollector.packetRebuild.CaptureFileWriter;
 import com.att.arotcpcollector.PacketData;
-import com.att.arotcpcollector.SessionManager;
 
 import java.io.IOException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Publish packet data to subscribers that implement interface IPcapSubscriber
  * 
+ * The packets are handed to the capture writers on the thread publishing
+ * them, the writers buffer them and write the files in the background.
+ * 
  * @author Borey Sao Date: June 15, 2014
  */
-public class SocketDataPublisher implements Runnable, IPcapSubscriber {
+public class SocketDataPublisher implements IPcapSubscriber {
 	
 	public static final String TAG = "CaptureVpnService";
 	
 	SocketData socketData;
-	private PCapFileWriter pcapWriter;
+	private CaptureFileWriter pcapWriter;
 
-	public PCapFileWriter getSecurePCAPWriter() {
+	public CaptureFileWriter getSecurePCAPWriter() {
 		return securePCAPWriter;
 	}
 
-	public void setSecurePCAPWriter(PCapFileWriter securePCAPWriter) {
+	public void setSecurePCAPWriter(CaptureFileWriter securePCAPWriter) {
 		this.securePCAPWriter = securePCAPWriter;
 	}
 
-	private PCapFileWriter securePCAPWriter;
-	private BlockingQueue<PacketData> dataToBeWrittenToPcap;
-	private ConcurrentLinkedQueue<PacketData> dataToBeWrittenToSecurePcap;
+	private CaptureFileWriter securePCAPWriter;
 
-	private static Object syncPcapData = new Object();
-	
-	public PCapFileWriter getPcapWriter() {
+	public CaptureFileWriter getPcapWriter() {
 		return pcapWriter;
 	}
 
-	public void setPcapWriter(PCapFileWriter pcapWriter) {
+	public void setPcapWriter(CaptureFileWriter pcapWriter) {
 		this.pcapWriter = pcapWriter;
 	}
 	
@@ -66,67 +60,6 @@ public class SocketDataPublisher implements Runnable, IPcapSubscriber {
 	public SocketDataPublisher() {
 		socketData = SocketData.getInstance();
 		socketData.registerPcapSubscriber(this);
-		dataToBeWrittenToPcap = new LinkedBlockingQueue<>();
-		dataToBeWrittenToSecurePcap = new ConcurrentLinkedQueue<>();
-	}
-
-
-	/**
-	 * Send packets to be added to traffic.cap
-	 */
-	@Override
-	public void run() {
-		Log.d(TAG, "BackgroundWriter starting...");
-
-		PacketData packetdata = null;
-
-		PacketData securePacketdata = null;
-
-		while (!isShuttingDown) {
-			try {
-				packetdata = dataToBeWrittenToPcap.take();
-				securePacketdata = dataToBeWrittenToSecurePcap.poll();
-			} catch (InterruptedException ex){
-				Log.e(TAG, "Data Publish Interrupted");
-			}
-
-			if(securePacketdata != null) {
-				if (securePCAPWriter != null) {
-					try {
-						securePCAPWriter.addPacket(securePacketdata.getPacketData(), 0, securePacketdata.getPacketData().length, securePacketdata.getTimeStamp() * 1000000);
-					} catch (IOException e) {
-						Log.e(TAG, "securePCAPWriter.addPacket IOException :" + e.getMessage());
-						e.printStackTrace();
-					}
-				}else{
-					Log.e(TAG, "SecurePCAPWriter Writer is Null - Pay Attention");
-				}
-			}
-
-			if (packetdata != null) {
-				if (pcapWriter != null) {
-					try {
-						pcapWriter.addPacket(packetdata.getPacketData(), 0, packetdata.getPacketData().length, packetdata.getTimeStamp() * 1000000);
-					} catch (IOException e) {
-						Log.e(TAG, "pcapOutput.addPacket IOException :" + e.getMessage());
-						e.printStackTrace();
-					}
-				}else{
-					Log.e(TAG, "Pcap Writer is Null - Pay Attention");
-				}
-				//dispose after use
-				packetdata = null;
-			} else {
-				try {
-					// Earlier Packet too long/No packets to write - Sleep a while.
-					Thread.sleep(100);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			}
-
-		}
-		Log.d(SessionManager.TAG, "BackgroundWriter ended");
 	}
 
 	public boolean isShuttingdown() {
@@ -137,13 +70,24 @@ public class SocketDataPublisher implements Runnable, IPcapSubscriber {
 		this.isShuttingDown = isShuttingDown;
 	}
 
+	/**
+	 * Send packets to be added to traffic.cap, or secure_traffic.cap
+	 */
 	@Override
 	public void writePcap(PacketData packetData, boolean secure) {
-
-		if(secure) {
-			dataToBeWrittenToSecurePcap.offer(packetData);
-		} else {
-			dataToBeWrittenToPcap.offer(packetData);
+		if (isShuttingDown || packetData == null) {
+			return;
+		}
+		CaptureFileWriter writer = secure ? securePCAPWriter : pcapWriter;
+		if (writer == null) {
+			Log.e(TAG, (secure ? "SecurePCAPWriter" : "Pcap Writer") + " is Null - Pay Attention");
+			return;
+		}
+		byte[] data = packetData.getPacketData();
+		try {
+			writer.addPacket(data, 0, data.length, packetData.getTimeStamp() * 1000000);
+		} catch (IOException e) {
+			Log.e(TAG, (secure ? "securePCAPWriter" : "pcapOutput") + ".addPacket IOException :" + e.getMessage());
 		}
 	}
 
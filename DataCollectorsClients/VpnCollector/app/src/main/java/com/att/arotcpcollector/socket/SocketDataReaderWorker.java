@@ -28,12 +28,12 @@ import com.att.arotcpcollector.tcp.TCPPacketFactory;
 import com.att.arotcpcollector.udp.UDPPacketFactory;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.NotYetConnectedException;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
 
 /**
  * background task for reading data from remote server and write data to vpn
@@ -118,7 +118,7 @@ public class SocketDataReaderWorker implements Runnable {
 	void readTCP(Session session) {
 
 		SocketChannel channel = session.getSocketchannel();
-		ByteBuffer buffer = ByteBuffer.allocate(DataConst.MAX_RECEIVE_BUFFER_SIZE);
+		ReceiveBufferPool.Buffer buffer = ReceiveBufferPool.getInstance().acquire();
 		int len = 0;
 		try {
 
@@ -128,28 +128,11 @@ public class SocketDataReaderWorker implements Runnable {
 				}
 
 				if (!session.isClientWindowFull()) {
-					len = channel.read(buffer);
+					len = channel.read(buffer.getBuffer());
 					if (len > 0) { // -1 indicates end of stream
 						// send packet to client app
 						session.setLastAccessed(System.currentTimeMillis());
-						if (isSecureEnable()) {
-							byte[] packet = new byte[buffer.position()];
-							buffer.flip();
-							buffer.get(packet);
-
-							buffer.clear();
-							if (packet.length>DataConst.MAX_RECEIVE_BUFFER_SIZE){
-								buffer = ByteBuffer.allocate(packet.length);
-							}
-							buffer.put(packet);
-						}
-						//***************
-						sendToRequester(buffer, channel, len, session);
-						buffer.clear();
-
-						if (buffer.capacity() > DataConst.MAX_RECEIVE_BUFFER_SIZE){
-							buffer = ByteBuffer.allocate(DataConst.MAX_RECEIVE_BUFFER_SIZE);
-						}
+						sendToRequester(buffer, channel, session);
 					} else if (len == -1) {
 						sendFin(session);
 						session.setAbortingConnection(true);
@@ -174,19 +157,21 @@ public class SocketDataReaderWorker implements Runnable {
 			session.setAbortingConnection(true);
 		} catch (Exception ex) {
 			Log.e("Secure Collector", "We are catching an Exception: " + ex.getMessage());
+		} finally {
+			ReceiveBufferPool.getInstance().release(buffer);
 		}
 	}
 
 	/**
-	 * 
+	 * Hands the data read into the buffer to the session and clears the buffer
 	 * 
 	 * @param buffer
 	 * @param channel
-	 * @param datasize
 	 * @param sess
 	 */
-	void sendToRequester(ByteBuffer buffer, SocketChannel channel, int datasize, Session sess) {
+	void sendToRequester(ReceiveBufferPool.Buffer buffer, SocketChannel channel, Session sess) {
 
+		int datasize = buffer.drain();
 		if (sess == null) {
 			Log.e(TAG, "Session not found for dest. server: " + channel.socket().getInetAddress().getHostAddress());
 			return;
@@ -204,11 +189,7 @@ public class SocketDataReaderWorker implements Runnable {
 			sess.setHasReceivedLastSegment(true);
 		}
 
-		buffer.limit(datasize);
-		buffer.flip();
-		byte[] data = new byte[datasize];
-		System.arraycopy(buffer.array(), 0, data, 0, datasize);
-		sess.addReceivedData(data);
+		sess.addReceivedData(buffer.getArray(), 0, datasize);
 
 		//Log.d(TAG,"DataSerice added "+data.length+" to session. session.getReceivedDataSize(): "+session.getReceivedDataSize());
 		//pushing all data to vpn client
@@ -296,7 +277,7 @@ public class SocketDataReaderWorker implements Runnable {
 
 	private void readUDP(Session session) {
 		DatagramChannel channel = session.getUdpChannel();
-		ByteBuffer buffer = ByteBuffer.allocate(DataConst.MAX_RECEIVE_BUFFER_SIZE);
+		ReceiveBufferPool.Buffer buffer = ReceiveBufferPool.getInstance().acquire();
 		int len = 0;
 		try {
 			do {
@@ -304,14 +285,11 @@ public class SocketDataReaderWorker implements Runnable {
 				if (session.isAbortingConnection()) {
 					break;
 				}
-				len = channel.read(buffer);
+				len = channel.read(buffer.getBuffer());
 				if (len > 0) {
 
-					buffer.limit(len);
-					buffer.flip();
 					//create UDP packet
-					byte[] data = new byte[len];
-					System.arraycopy(buffer.array(), 0, data, 0, len);
+					byte[] data = Arrays.copyOf(buffer.getArray(), buffer.drain());
 					final byte[] packetdata = udpFactory.createResponsePacket(session.getLastIPheader(), session.getLastUDPheader(), data);
 					//write to client
 					if (AttenuatorManager.getInstance().getDelayDl() > 0) {
@@ -326,7 +304,6 @@ public class SocketDataReaderWorker implements Runnable {
 					}
 					pcapData.sendDataRecieved(packetdata); // send packet back to client
 					Log.d(TAG, "SDR: sent " + len + " bytes to UDP client, packetdata.length: " + packetdata.length + " Data: "+ new String(data));
-					buffer.clear();
 				}
 			} while (len > 0);
 		} catch (NotYetConnectedException ex) {
@@ -336,6 +313,8 @@ public class SocketDataReaderWorker implements Runnable {
 			e.printStackTrace();
 			Log.e(TAG, "Faild to read from UDP socket, aborting connection");
 			session.setAbortingConnection(true);
+		} finally {
+			ReceiveBufferPool.getInstance().release(buffer);
 		}
 	}
 
@@ -115,9 +115,7 @@ public class SocketDataWriterWorker implements Runnable {
 		String sessionKey = session.getDestAddress() + ":" + session.getDestPort() + "-" + session.getSourceIp() + ":"
 						+ session.getSourcePort();
 		byte[] data = session.getSendingData();
-		ByteBuffer buffer = ByteBuffer.allocate(data.length);
-		buffer.put(data);
-		buffer.flip();
+		ByteBuffer buffer = ByteBuffer.wrap(data);
 		try {
 			//          String str = new String(data);
 			//			Log.d(TAG, "****** data write to server ********");
@@ -145,11 +143,7 @@ public class SocketDataWriterWorker implements Runnable {
 		SocketChannel channel = session.getSocketchannel();
 
 		byte[] data = session.getSendingData();
-
-
-		ByteBuffer buffer = ByteBuffer.allocate(data.length);
-		buffer.put(data);
-		buffer.flip();
+		ByteBuffer buffer = ByteBuffer.wrap(data);
 		
 		try {
 			// Make sure that the buffer was fully drained
@@ -33,20 +33,27 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Selector loop of the VPN collector.
+ * <p>
+ * The thread running the service owns the selector: it is the only thread that
+ * selects, handles the packets from the VPN client and registers the channels
+ * of the sessions they open. Packets are handed to it through a lock-free
+ * queue and a selector wakeup, reads and writes of the sockets run on the
+ * worker pool.
+ * </p>
+ */
 public class SocketNIODataService implements Runnable, ISocketDataSubscriber{
 	public static final String TAG = "SocketNIODataService";
-	public static Object syncSelectorForSelection = new Object();
-	public static Object syncSelectorForUse = new Object();
 
-	private Queue<byte[]> dataToBeTransmitted;
-	private static final Object syncTransmittedData = new Object();
+	private final Queue<byte[]> dataToBeTransmitted;
 
 
 	SessionManager sessionmg;
@@ -57,7 +64,7 @@ public class SocketNIODataService implements Runnable, ISocketDataSubscriber{
 	private TCPPacketFactory tcpFactory;
 	private UDPPacketFactory udpFactory;
 	private volatile boolean shutdown = false;
-	private Selector selector = null;
+	private volatile Selector selector = null;
 	
 	//create thread pool for reading/writing data to socket
 	private BlockingQueue<Runnable> taskQueue;
@@ -74,7 +81,7 @@ public class SocketNIODataService implements Runnable, ISocketDataSubscriber{
 		udpFactory = new UDPPacketFactory();
 		socketData = SocketData.getInstance();
 		socketData.registerDataTransmitterSubscriber(this);
-		dataToBeTransmitted = new LinkedList<byte[]>();
+		dataToBeTransmitted = new ConcurrentLinkedQueue<byte[]>();
 		taskQueue = new LinkedBlockingQueue<Runnable>();
 		workerPool = new ThreadPoolExecutor(8, 100, 10, TimeUnit.SECONDS, taskQueue);//8, 100
 	}
@@ -110,28 +117,11 @@ public class SocketNIODataService implements Runnable, ISocketDataSubscriber{
  		while (!shutdown) {
 
  			try {
-				byte[] packetData;
-
-				synchronized (syncTransmittedData) {
-					packetData = dataToBeTransmitted.poll();
-				}
-
-				if (packetData != null) {
-					try {
-						sessionHandler.handlePacket(packetData);
-					} catch (PacketHeaderException e) {
-						Log.e(TAG, "Packet Header Exception Thrown: ", e);
-					}
-				}
+				handleTransmittedData();
 
 				try {
-					int selectedChannels;
-					synchronized (syncSelectorForSelection) {
-						selectedChannels = selector.select();
-					}
-					if (selectedChannels == 0) {
-						Thread.sleep(1000);
-					}
+					// returns at once if a packet was handed over since the last select
+					selector.select();
 				} catch (IOException e) {
 					Log.e(TAG, "Error in Selector.select(): " + e.getMessage());
 					try {
@@ -140,36 +130,32 @@ public class SocketNIODataService implements Runnable, ISocketDataSubscriber{
 						Log.d(TAG, "Selector Thread Sleep " + e.getMessage());
 					}
 					continue;
-				} catch (InterruptedException e) {
-					Log.e(TAG, "Selector Thread Interrupted: " + e.getMessage());
 				}
 				if (shutdown) {
 					Log.d(TAG, "Selector is in shutdown...");
 					break;
 				}
 
-				synchronized (syncSelectorForUse) {
-					Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
-					while (iter.hasNext()) {
-						SelectionKey key = iter.next();
-						if (key.isValid()) {// adding this check to avoid java.nio.channels.CancelledKeyException
-							if (key.attachment() == null) {
-								try {
-									processTCPSelectionKey(key);
-								} catch (IOException e) {
-									key.cancel();
-								}
-							} else {
-								processUDPSelectionKey(key);
-							}
-							iter.remove();
-							if (shutdown) {
-								Log.d(TAG, "syncSelectorForUse is in shutdown...");
-								break;
+				Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+				while (iter.hasNext()) {
+					SelectionKey key = iter.next();
+					if (key.isValid()) {// adding this check to avoid java.nio.channels.CancelledKeyException
+						if (key.attachment() == null) {
+							try {
+								processTCPSelectionKey(key);
+							} catch (IOException e) {
+								key.cancel();
 							}
 						} else {
-							Log.d(TAG, "Invalid Key...");
+							processUDPSelectionKey(key);
+						}
+						iter.remove();
+						if (shutdown) {
+							Log.d(TAG, "Selector is in shutdown...");
+							break;
 						}
+					} else {
+						Log.d(TAG, "Invalid Key...");
 					}
 				}
 			} catch (Exception e) {
@@ -179,6 +165,21 @@ public class SocketNIODataService implements Runnable, ISocketDataSubscriber{
 		}
 	}
 
+	/**
+	 * Handles the packets handed over by the VPN client since the last pass,
+	 * on the selector thread
+	 */
+	private void handleTransmittedData() {
+		byte[] packetData;
+		while ((packetData = dataToBeTransmitted.poll()) != null) {
+			try {
+				sessionHandler.handlePacket(packetData);
+			} catch (PacketHeaderException e) {
+				Log.e(TAG, "Packet Header Exception Thrown: ", e);
+			}
+		}
+	}
+
 	void processUDPSelectionKey(SelectionKey key) {
 		if (!key.isValid()) {
 			Log.d(TAG, "Invalid SelectionKey for UDP");
@@ -312,19 +313,10 @@ public class SocketNIODataService implements Runnable, ISocketDataSubscriber{
 
 	@Override
 	public void transmitData(byte[] packet) {
-		synchronized (syncTransmittedData) {
-			try {
-				dataToBeTransmitted.add(packet);
-				synchronized (syncSelectorForUse) {
-					selector.wakeup();
-				}
-			} catch (IllegalStateException ex) {
-				ex.printStackTrace();
-			} catch (NullPointerException ex1) {
-				ex1.printStackTrace();
-			} catch (Exception ex2) {
-				ex2.printStackTrace();
-			}
+		dataToBeTransmitted.offer(packet);
+		Selector current = selector;
+		if (current != null) {
+			current.wakeup();
 		}
 	}
 }
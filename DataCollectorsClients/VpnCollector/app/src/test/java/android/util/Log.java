@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package android.util;
+
+/**
+ * Stand-in for the Android logger in JVM unit tests, the android.jar one
+ * throws "Stub!". Prints to the standard streams.
+ */
+public final class Log {
+
+	private Log() {
+	}
+
+	public static int v(String tag, String msg) {
+		return println(tag, msg, null);
+	}
+
+	public static int v(String tag, String msg, Throwable tr) {
+		return println(tag, msg, tr);
+	}
+
+	public static int d(String tag, String msg) {
+		return println(tag, msg, null);
+	}
+
+	public static int d(String tag, String msg, Throwable tr) {
+		return println(tag, msg, tr);
+	}
+
+	public static int i(String tag, String msg) {
+		return println(tag, msg, null);
+	}
+
+	public static int i(String tag, String msg, Throwable tr) {
+		return println(tag, msg, tr);
+	}
+
+	public static int w(String tag, String msg) {
+		return println(tag, msg, null);
+	}
+
+	public static int w(String tag, String msg, Throwable tr) {
+		return println(tag, msg, tr);
+	}
+
+	public static int e(String tag, String msg) {
+		return println(tag, msg, null);
+	}
+
+	public static int e(String tag, String msg, Throwable tr) {
+		return println(tag, msg, tr);
+	}
+
+	private static int println(String tag, String msg, Throwable tr) {
+		System.out.println(tag + ": " + msg);
+		if (tr != null) {
+			tr.printStackTrace(System.out);
+		}
+		return 0;
+	}
+}
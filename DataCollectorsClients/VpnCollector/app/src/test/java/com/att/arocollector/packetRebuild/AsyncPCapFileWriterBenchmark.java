@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.arocollector.packetRebuild;
+
+import static com.att.arocollector.packetRebuild.AsyncPCapFileWriterTest.packets;
+import static org.junit.Assert.assertArrayEquals;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Time spent on the thread of the caller by AsyncPCapFileWriter against
+ * PCapFileWriter. Not part of the default test run; run with
+ * --tests '*AsyncPCapFileWriterBenchmark' -PwithBenchmarks.
+ */
+public class AsyncPCapFileWriterBenchmark {
+
+	private static final String TAG = "AsyncPCapFileWriterBenchmark";
+
+	private static final int ROUNDS = 5;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Writes 200k packets of 40-1500 bytes as the VPN capture does
+	 */
+	@Test
+	public void callerTime() throws IOException {
+		byte[][] packets = packets(200000, 1);
+		for (int round = 0; round < ROUNDS; round++) {
+			File expected = new File(folder.getRoot(), "expected_" + round + ".cap");
+			File actual = new File(folder.getRoot(), "traffic_" + round + ".cap");
+
+			PCapFileWriter writer = new PCapFileWriter(expected);
+			long syncNanos = addPackets(writer, packets);
+			writer.close();
+
+			AsyncPCapFileWriter asyncWriter = new AsyncPCapFileWriter(actual);
+			long asyncNanos = addPackets(asyncWriter, packets);
+			long start = System.nanoTime();
+			asyncWriter.close();
+			long closeNanos = System.nanoTime() - start;
+
+			assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+			Log.i(TAG, String.format("round %d, %d MB: PCapFileWriter %.2f us/packet, AsyncPCapFileWriter %.2f us/packet"
+					+ " and %.1f ms to close", round, expected.length() >> 20, syncNanos / 1e3 / packets.length,
+					asyncNanos / 1e3 / packets.length, closeNanos / 1e6));
+			expected.delete();
+			actual.delete();
+		}
+	}
+
+	private static long addPackets(CaptureFileWriter writer, byte[][] packets) throws IOException {
+		long start = System.nanoTime();
+		for (int index = 0; index < packets.length; index++) {
+			writer.addPacket(packets[index], 0, packets[index].length, 1000L * (index + 1));
+		}
+		return System.nanoTime() - start;
+	}
+}
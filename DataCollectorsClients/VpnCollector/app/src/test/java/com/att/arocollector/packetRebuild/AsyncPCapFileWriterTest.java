@@ -0,0 +1,177 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.arocollector.packetRebuild;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AsyncPCapFileWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * IPv4 and IPv6 packets of 40-1500 bytes
+	 */
+	static byte[][] packets(int count, long seed) {
+		Random random = new Random(seed);
+		byte[][] packets = new byte[count][];
+		for (int index = 0; index < count; index++) {
+			byte[] packet = new byte[40 + random.nextInt(1461)];
+			random.nextBytes(packet);
+			packet[0] = (byte) (index % 3 == 0 ? 0x60 : 0x45);
+			packets[index] = packet;
+		}
+		return packets;
+	}
+
+	/**
+	 * Writes the packets as SocketDataPublisher does, every tenth one with a
+	 * time in micro sec as the secure capture is written
+	 */
+	static void write(CaptureFileWriter writer, byte[][] packets) throws IOException {
+		for (int index = 0; index < packets.length; index++) {
+			byte[] packet = packets[index];
+			if (index % 10 == 9) {
+				assertTrue(writer.addPacket(packet, 1500000000000000L + index * 1000L));
+			} else {
+				assertTrue(writer.addPacket(packet, 0, packet.length, 3000000000L + index * 12345L));
+			}
+		}
+		writer.close();
+	}
+
+	@Test
+	public void addPacket_sameFileAsPCapFileWriter() throws IOException {
+		byte[][] packets = packets(5000, 1);
+		File expected = folder.newFile("expected.cap");
+		File actual = new File(folder.getRoot(), "traffic.cap");
+
+		write(new PCapFileWriter(expected), packets);
+		// smallest ring, so it wraps many times
+		write(new AsyncPCapFileWriter(actual, 1, 0, 0), packets);
+
+		assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+	}
+
+	@Test
+	public void addPacket_offset() throws IOException {
+		byte[] packet = packets(1, 2)[0];
+		byte[] padded = new byte[packet.length + 20];
+		System.arraycopy(packet, 0, padded, 7, packet.length);
+		File expected = folder.newFile("expected.cap");
+		File actual = folder.newFile("traffic.cap");
+
+		AsyncPCapFileWriter writer = new AsyncPCapFileWriter(expected);
+		writer.addPacket(packet, 0, packet.length, 1000);
+		writer.close();
+		writer = new AsyncPCapFileWriter(actual);
+		writer.addPacket(padded, 7, packet.length, 1000);
+		writer.close();
+
+		assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+	}
+
+	@Test
+	public void close_flushesBeforeInterval() throws IOException {
+		byte[][] packets = packets(10, 3);
+		File expected = folder.newFile("expected.cap");
+		File actual = folder.newFile("traffic.cap");
+
+		write(new PCapFileWriter(expected), packets);
+		write(new AsyncPCapFileWriter(actual, 60000, 0), packets);
+
+		assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+	}
+
+	@Test
+	public void rotation_continuesInNumberedFiles() throws IOException {
+		byte[][] packets = packets(5000, 4);
+		long rotationSize = 1000000;
+		File expected = folder.newFile("expected.cap");
+		write(new PCapFileWriter(expected), packets);
+		write(new AsyncPCapFileWriter(new File(folder.getRoot(), "traffic.cap"), 1, rotationSize, 0), packets);
+
+		byte[] header = Arrays.copyOf(Files.readAllBytes(expected.toPath()), PCapFileHeader.HEADER_SIZE);
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		int files = 0;
+		File file = new File(folder.getRoot(), "traffic.cap");
+		while (file.exists()) {
+			byte[] content = Files.readAllBytes(file.toPath());
+			assertArrayEquals(header, Arrays.copyOf(content, PCapFileHeader.HEADER_SIZE));
+			records.write(content, PCapFileHeader.HEADER_SIZE, content.length - PCapFileHeader.HEADER_SIZE);
+			files++;
+			File next = new File(folder.getRoot(), "traffic_" + files + ".cap");
+			if (next.exists()) {
+				assertTrue(file.getName(), content.length >= rotationSize);
+			}
+			file = next;
+		}
+
+		byte[] expectedBytes = Files.readAllBytes(expected.toPath());
+		assertTrue(String.valueOf(files), files >= expectedBytes.length / rotationSize);
+		assertArrayEquals(Arrays.copyOfRange(expectedBytes, PCapFileHeader.HEADER_SIZE, expectedBytes.length), records.toByteArray());
+	}
+
+	@Test
+	public void addPacket_limitReached() throws IOException {
+		byte[] packet = packets(1, 5)[0];
+		AsyncPCapFileWriter writer = new AsyncPCapFileWriter(folder.newFile("traffic.cap"));
+		writer.setLimit(PCapFileHeader.HEADER_SIZE);
+
+		assertTrue(writer.addPacket(packet, 0, packet.length, 1000));
+		assertTrue(writer.isLimitReached());
+		assertFalse(writer.addPacket(packet, 0, packet.length, 2000));
+		writer.close();
+		assertEquals(PCapFileHeader.HEADER_SIZE + PCapPacketHeader.HEADER_SIZE + 14 + packet.length, writer.getTotalBytes());
+	}
+
+	@Test
+	public void addPacket_afterClose() throws IOException {
+		byte[] packet = packets(1, 6)[0];
+		File file = folder.newFile("traffic.cap");
+		AsyncPCapFileWriter writer = new AsyncPCapFileWriter(file);
+		writer.close();
+
+		assertFalse(writer.addPacket(packet, 0, packet.length, 1000));
+		assertFalse(writer.addPacket(null, 1000));
+		writer.close();
+		assertEquals(PCapFileHeader.HEADER_SIZE, file.length());
+	}
+
+	@Test(expected = IOException.class)
+	public void addPacket_tooLarge() throws IOException {
+		AsyncPCapFileWriter writer = new AsyncPCapFileWriter(folder.newFile("traffic.cap"));
+		try {
+			writer.addPacket(new byte[65536], 1000);
+		} finally {
+			writer.close();
+		}
+	}
+}
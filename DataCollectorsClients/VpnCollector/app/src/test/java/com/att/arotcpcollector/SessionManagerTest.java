@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.arotcpcollector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.att.arotcpcollector.socket.IProtectSocket;
+import com.att.arotcpcollector.socket.SocketProtector;
+
+/**
+ * Sessions opened to loopback servers, as the VPN opens them to the remote
+ * servers
+ */
+public class SessionManagerTest {
+
+	private static final String LOOPBACK = "127.0.0.1";
+	private static final String CLIENT = "10.0.0.2";
+
+	private SessionManager sessionManager;
+	private ServerSocketChannel server;
+
+	@BeforeClass
+	public static void setProtector() {
+		SocketProtector.getInstance().setProtector(new IProtectSocket() {
+			@Override
+			public void protectSocket(Socket socket) {
+			}
+
+			@Override
+			public void protectSocket(int socket) {
+			}
+
+			@Override
+			public void protectSocket(DatagramSocket socket) {
+			}
+		});
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		sessionManager = SessionManager.getInstance();
+		server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(InetAddress.getByName(LOOPBACK), 0), 256);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		server.close();
+		assertFalse(sessionManager.getAllSession().hasNext());
+	}
+
+	private int serverPort() {
+		return server.socket().getLocalPort();
+	}
+
+	@Test
+	public void createNewSession_loopback() throws IOException {
+		Session session = sessionManager.createNewSession(LOOPBACK, serverPort(), CLIENT, 40000, 1, 1, false);
+		assertNotNull(session);
+		SocketChannel channel = session.getSocketchannel();
+
+		assertSame(session, sessionManager.getSession(LOOPBACK, serverPort(), CLIENT, 40000));
+		assertSame(session, sessionManager.getSessionByChannel(channel));
+		assertNull(sessionManager.createNewSession(LOOPBACK, serverPort(), CLIENT, 40000, 1, 1, false));
+
+		SelectionKey key = session.getSelectionkey();
+		assertSame(sessionManager.getSelector(), key.selector());
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!key.isConnectable() && System.currentTimeMillis() < deadline) {
+			sessionManager.getSelector().select(100);
+		}
+		assertTrue(key.isConnectable());
+		assertTrue(channel.finishConnect());
+		sessionManager.getSelector().selectedKeys().clear();
+
+		sessionManager.closeSession(session);
+
+		assertNull(sessionManager.getSessionByKey(session.getSessionKey()));
+		assertNull(sessionManager.getSessionByChannel(channel));
+		assertFalse(channel.isOpen());
+	}
+
+	@Test
+	public void createNewUDPSession_loopback() throws IOException {
+		try (DatagramChannel udpServer = DatagramChannel.open()) {
+			udpServer.bind(new InetSocketAddress(InetAddress.getByName(LOOPBACK), 0));
+			int port = udpServer.socket().getLocalPort();
+
+			Session session = sessionManager.createNewUDPSession(LOOPBACK, port, CLIENT, 40001);
+			assertNotNull(session);
+			DatagramChannel channel = session.getUdpChannel();
+
+			assertTrue(session.isConnected());
+			assertSame(session, sessionManager.getSessionByDatagramChannel(channel));
+			assertNull(sessionManager.createNewUDPSession(LOOPBACK, port, CLIENT, 40001));
+
+			sessionManager.closeSession(session);
+			channel.close();
+
+			assertNull(sessionManager.getSessionByKey(session.getSessionKey()));
+			assertNull(sessionManager.getSessionByDatagramChannel(channel));
+		}
+	}
+
+	@Test
+	public void keepSessionAlive_evictsIdleSession() throws IOException {
+		Session idle = new Session();
+		idle.setSessionKey("idle");
+		idle.setLastAccessed(System.currentTimeMillis() - 60000);
+		sessionManager.keepSessionAlive(idle);
+		List<Session> active = new ArrayList<>();
+		for (int index = 0; index < 50; index++) {
+			Session session = new Session();
+			session.setSessionKey("active" + index);
+			session.setLastAccessed(System.currentTimeMillis());
+			sessionManager.keepSessionAlive(session);
+			active.add(session);
+		}
+
+		assertNull(sessionManager.getSessionByKey("idle"));
+		for (Session session : active) {
+			assertSame(session, sessionManager.getSessionByKey(session.getSessionKey()));
+			sessionManager.closeSession(session);
+		}
+	}
+
+	/**
+	 * Threads open, look up and close loopback sessions at the same time
+	 */
+	@Test
+	public void createNewSession_concurrent() throws Exception {
+		int threads = 8;
+		int sessions = 25;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<SocketChannel>>> results = new ArrayList<>();
+		for (int thread = 0; thread < threads; thread++) {
+			int firstPort = 41000 + thread * sessions;
+			results.add(pool.submit(() -> {
+				start.await();
+				List<SocketChannel> channels = new ArrayList<>();
+				for (int port = firstPort; port < firstPort + sessions; port++) {
+					Session session = sessionManager.createNewSession(LOOPBACK, serverPort(), CLIENT, port, 1, 1, false);
+					assertNotNull(session);
+					channels.add(session.getSocketchannel());
+					assertSame(session, sessionManager.getSession(LOOPBACK, serverPort(), CLIENT, port));
+					assertSame(session, sessionManager.getSessionByChannel(session.getSocketchannel()));
+					sessionManager.closeSession(session);
+				}
+				return channels;
+			}));
+		}
+		start.countDown();
+		int closed = 0;
+		for (Future<List<SocketChannel>> result : results) {
+			for (SocketChannel channel : result.get()) {
+				assertNull(sessionManager.getSessionByChannel(channel));
+				assertFalse(channel.isOpen());
+				closed++;
+			}
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(threads * sessions, closed);
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.arotcpcollector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SessionTableTest {
+
+	private final List<Channel> channels = new ArrayList<>();
+
+	@After
+	public void closeChannels() throws IOException {
+		for (Channel channel : channels) {
+			channel.close();
+		}
+	}
+
+	private Session tcpSession(String key) throws IOException {
+		SocketChannel channel = SocketChannel.open();
+		channels.add(channel);
+		Session session = new Session();
+		session.setSessionKey(key);
+		session.setSocketchannel(channel);
+		session.setLastAccessed(System.currentTimeMillis());
+		return session;
+	}
+
+	private Session udpSession(String key) throws IOException {
+		DatagramChannel channel = DatagramChannel.open();
+		channels.add(channel);
+		Session session = new Session();
+		session.setSessionKey(key);
+		session.setUdpChannel(channel);
+		session.setLastAccessed(System.currentTimeMillis());
+		return session;
+	}
+
+	@Test
+	public void put_indexesByChannel() throws IOException {
+		SessionTable table = new SessionTable(10);
+		Session tcp = tcpSession("tcp");
+		Session udp = udpSession("udp");
+
+		assertNull(table.put("tcp", tcp));
+		assertNull(table.put("udp", udp));
+
+		assertSame(tcp, table.get("tcp"));
+		assertSame(tcp, table.getSessionByChannel(tcp.getSocketchannel()));
+		assertSame(udp, table.getSessionByChannel(udp.getUdpChannel()));
+		assertEquals(2, table.size());
+	}
+
+	@Test
+	public void put_replacedSessionIsUnindexed() throws IOException {
+		SessionTable table = new SessionTable(10);
+		Session first = tcpSession("key");
+		Session second = tcpSession("key");
+		table.put("key", first);
+
+		assertSame(first, table.put("key", second));
+
+		assertNull(table.getSessionByChannel(first.getSocketchannel()));
+		assertSame(second, table.getSessionByChannel(second.getSocketchannel()));
+	}
+
+	@Test
+	public void putIfAbsent_keepsExisting() throws IOException {
+		SessionTable table = new SessionTable(10);
+		Session first = tcpSession("key");
+		Session second = tcpSession("key");
+
+		assertNull(table.putIfAbsent("key", first));
+		assertSame(first, table.putIfAbsent("key", second));
+
+		assertSame(first, table.get("key"));
+		assertNull(table.getSessionByChannel(second.getSocketchannel()));
+	}
+
+	@Test
+	public void remove_unindexes() throws IOException {
+		SessionTable table = new SessionTable(10);
+		Session session = udpSession("key");
+		table.put("key", session);
+
+		assertSame(session, table.remove("key"));
+
+		assertNull(table.get("key"));
+		assertNull(table.getSessionByChannel(session.getUdpChannel()));
+		assertTrue(table.isEmpty());
+	}
+
+	/**
+	 * Threads race to add the same keys and remove them again, the channel
+	 * index must only ever hold the sessions of the table
+	 */
+	@Test
+	public void putIfAbsent_concurrent() throws Exception {
+		SessionTable table = new SessionTable(1000);
+		int threads = 8;
+		int keys = 100;
+		List<List<Session>> sessions = new ArrayList<>();
+		for (int thread = 0; thread < threads; thread++) {
+			List<Session> own = new ArrayList<>();
+			for (int key = 0; key < keys; key++) {
+				own.add(key % 2 == 0 ? tcpSession("key" + key) : udpSession("key" + key));
+			}
+			sessions.add(own);
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> added = new ArrayList<>();
+		for (List<Session> own : sessions) {
+			added.add(pool.submit(() -> {
+				start.await();
+				int count = 0;
+				for (Session session : own) {
+					if (table.putIfAbsent(session.getSessionKey(), session) == null) {
+						count++;
+					}
+				}
+				return count;
+			}));
+		}
+		start.countDown();
+		int total = 0;
+		for (Future<Integer> future : added) {
+			total += future.get();
+		}
+
+		assertEquals(keys, total);
+		assertEquals(keys, table.size());
+		for (List<Session> own : sessions) {
+			for (Session session : own) {
+				Channel channel = session.getSocketchannel() != null ? session.getSocketchannel() : session.getUdpChannel();
+				Session indexed = table.getSessionByChannel(channel);
+				if (table.get(session.getSessionKey()) == session) {
+					assertSame(session, indexed);
+				} else {
+					assertNull(indexed);
+				}
+			}
+		}
+
+		List<Future<?>> removed = new ArrayList<>();
+		for (int thread = 0; thread < threads; thread++) {
+			removed.add(pool.submit(() -> {
+				for (int key = 0; key < keys; key++) {
+					table.remove("key" + key);
+				}
+			}));
+		}
+		for (Future<?> future : removed) {
+			future.get();
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertTrue(table.isEmpty());
+		for (List<Session> own : sessions) {
+			for (Session session : own) {
+				assertNull(table.getSessionByChannel(session.getSocketchannel() != null ? session.getSocketchannel() : session.getUdpChannel()));
+			}
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ *  Copyright 2022 AT&T
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package com.att.arotcpcollector.socket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ReceiveBufferPoolTest {
+
+	@Test
+	public void acquire_reusesReleasedBuffer() {
+		ReceiveBufferPool pool = new ReceiveBufferPool(1024, 2);
+		ReceiveBufferPool.Buffer buffer = pool.acquire();
+		buffer.getBuffer().put(new byte[100]);
+
+		pool.release(buffer);
+		ReceiveBufferPool.Buffer reused = pool.acquire();
+
+		assertSame(buffer, reused);
+		assertEquals(0, reused.getBuffer().position());
+		assertEquals(1024, reused.getBuffer().remaining());
+		assertTrue(reused.getBuffer().isDirect());
+	}
+
+	@Test
+	public void release_dropsBeyondMaxPooled() {
+		ReceiveBufferPool pool = new ReceiveBufferPool(1024, 2);
+		List<ReceiveBufferPool.Buffer> released = Arrays.asList(pool.acquire(), pool.acquire(), pool.acquire());
+		for (ReceiveBufferPool.Buffer buffer : released) {
+			pool.release(buffer);
+		}
+		pool.release(null);
+
+		assertSame(released.get(0), pool.acquire());
+		assertSame(released.get(1), pool.acquire());
+		ReceiveBufferPool.Buffer created = pool.acquire();
+		for (ReceiveBufferPool.Buffer buffer : released) {
+			assertNotSame(buffer, created);
+		}
+	}
+
+	@Test
+	public void drain_movesReadBytes() {
+		ReceiveBufferPool.Buffer buffer = new ReceiveBufferPool(16, 1).acquire();
+		buffer.getBuffer().put(new byte[] { 1, 2, 3 });
+
+		assertEquals(3, buffer.drain());
+
+		assertArrayEquals(new byte[] { 1, 2, 3 }, Arrays.copyOf(buffer.getArray(), 3));
+		assertEquals(0, buffer.getBuffer().position());
+		assertEquals(16, buffer.getBuffer().limit());
+	}
+
+	/**
+	 * Reader threads share the pool and read loopback connections as
+	 * SocketDataReaderWorker does, taking a buffer for each read and moving
+	 * the bytes on from its array
+	 */
+	@Test
+	public void readThrough_loopback() throws Exception {
+		int threads = 8;
+		int size = 1 << 20;
+		ReceiveBufferPool pool = new ReceiveBufferPool(DataConst.MAX_RECEIVE_BUFFER_SIZE, 4);
+		ExecutorService readers = Executors.newFixedThreadPool(threads);
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			List<Future<byte[]>> received = new ArrayList<>();
+			List<byte[]> sent = new ArrayList<>();
+			for (int thread = 0; thread < threads; thread++) {
+				byte[] data = new byte[size];
+				new Random(thread).nextBytes(data);
+				sent.add(data);
+				SocketChannel client = SocketChannel.open(server.getLocalAddress());
+				SocketChannel accepted = server.accept();
+				new Thread(() -> {
+					try (SocketChannel writer = accepted) {
+						ByteBuffer out = ByteBuffer.wrap(data);
+						while (out.hasRemaining()) {
+							writer.write(out);
+						}
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+				}).start();
+				received.add(readers.submit(() -> {
+					ByteArrayOutputStream stream = new ByteArrayOutputStream();
+					try (SocketChannel channel = client) {
+						int len;
+						do {
+							ReceiveBufferPool.Buffer buffer = pool.acquire();
+							try {
+								len = channel.read(buffer.getBuffer());
+								if (len > 0) {
+									stream.write(buffer.getArray(), 0, buffer.drain());
+								}
+							} finally {
+								pool.release(buffer);
+							}
+						} while (len >= 0);
+					}
+					return stream.toByteArray();
+				}));
+			}
+			for (int thread = 0; thread < threads; thread++) {
+				assertArrayEquals(sent.get(thread), received.get(thread).get(30, TimeUnit.SECONDS));
+			}
+		} finally {
+			readers.shutdownNow();
+		}
+	}
+}